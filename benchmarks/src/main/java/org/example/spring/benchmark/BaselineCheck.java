@@ -0,0 +1,152 @@
+package org.example.spring.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * -10/18-23:44
+ * -比较两次JMH运行的CSV结果（-rf csv），主结果（耗时/吞吐量）或者内存结果（-prof gc的gc.alloc.rate.norm、子容器占用的堆内存）超过阈值时退出码为1
+ * -用法：BaselineCheck baseline.csv result.csv [耗时阈值，默认0.25] [内存阈值，默认0.10]
+ */
+public class BaselineCheck {
+
+    /**
+     * 按内存阈值比较的次要结果：每次操作分配的字节数、子容器占用的堆内存
+     */
+    private static final String[] MEMORY_RESULTS = {":gc.alloc.rate.norm", ":retainedBytesPerChild"};
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineCheck <baseline.csv> <result.csv> [timeThreshold] [memoryThreshold]");
+            System.exit(2);
+        }
+        double timeThreshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        double memoryThreshold = args.length > 3 ? Double.parseDouble(args[3]) : 0.10;
+        Map<String, Row> baseline = read(args[0]);
+        Map<String, Row> current = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Row> entry : current.entrySet()) {
+            String key = entry.getKey();
+            Row row = entry.getValue();
+            Row base = baseline.get(key);
+            if (base == null) {
+                System.out.printf("NEW   %s %.3f %s%n", key, row.score, row.unit);
+                continue;
+            }
+            boolean memory = isMemoryResult(key);
+            if (!memory && key.contains(":")) {
+                // 其他次要结果（gc.count、gc.time、自定义计数器）只作参考
+                continue;
+            }
+            double change = base.score == 0 ? (row.score == 0 ? 0 : Double.POSITIVE_INFINITY)
+                    : (row.score - base.score) / base.score;
+            // 吞吐量越大越好，其他模式（耗时、分配字节数）越小越好
+            double worse = "thrpt".equals(row.mode) && !memory ? -change : change;
+            boolean regressed = worse > (memory ? memoryThreshold : timeThreshold)
+                    // 内存只增加了几个字节时忽略抖动（逃逸分析的结果在不同运行之间可能不同）
+                    && !(memory && row.score - base.score < 16);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%s %s %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "WORSE" : "OK   ", key,
+                    base.score, row.score, row.unit, change * 100);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println("GONE  " + key);
+            }
+        }
+        System.out.println(regressions == 0 ? "没有超过阈值的回退" : regressions + "项超过阈值");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static boolean isMemoryResult(String key) {
+        for (String suffix : MEMORY_RESULTS) {
+            if (key.contains(suffix + " ") || key.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取JMH的CSV结果
+     * @return 基准测试名称（包括参数） -> 结果
+     */
+    private static Map<String, Row> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Row> rows = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return rows;
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) {
+                continue;
+            }
+            List<String> columns = split(lines.get(i));
+            StringBuilder key = new StringBuilder(columns.get(benchmark));
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).startsWith("Param: ") && !columns.get(j).isEmpty()) {
+                    key.append(' ').append(header.get(j).substring(7)).append('=').append(columns.get(j));
+                }
+            }
+            rows.put(key.toString(), new Row(columns.get(mode),
+                    Double.parseDouble(columns.get(score).replace(',', '.')), columns.get(unit)));
+        }
+        return rows;
+    }
+
+    /**
+     * 拆分一行CSV，字段可以用双引号包围
+     */
+    private static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private static class Row {
+
+        final String mode;
+
+        final double score;
+
+        final String unit;
+
+        Row(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
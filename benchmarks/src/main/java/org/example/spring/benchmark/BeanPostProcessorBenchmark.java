@@ -0,0 +1,75 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.BeanPostProcessor;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:30
+ * -不同长度的BeanPostProcessor链上创建原型bean（没有注入点），链按bean定义缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanPostProcessorBenchmark {
+
+    private static final String BEAN_NAME = "prototype0";
+
+    @Param({"0", "1", "4", "16"})
+    public int chainLength;
+
+    private ResourceModel resourceModel;
+
+    private BeanDefinition beanDefinition;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        resourceModel = new ResourceModel();
+        ScanBeanUtils.scan(FixtureConfig.class, resourceModel);
+        for (int i = 0; i < chainLength; i++) {
+            resourceModel.addBeanPostProcessor(new PassThroughPostProcessor());
+        }
+        beanDefinition = resourceModel.getBeanDefinition(BEAN_NAME);
+        CreateBeanUtils.createBean(BEAN_NAME, beanDefinition, resourceModel);
+    }
+
+    @Benchmark
+    public Object createBean() {
+        return CreateBeanUtils.createBean(BEAN_NAME, beanDefinition, resourceModel);
+    }
+
+    /**
+     * 处理所有bean，初始化前后都原样返回
+     */
+    public static class PassThroughPostProcessor implements BeanPostProcessor<Object> {
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+}
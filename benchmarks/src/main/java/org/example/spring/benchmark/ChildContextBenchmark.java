@@ -0,0 +1,125 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.AnnotationConfigApplicationContext;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.benchmark.tenant.TenantConfig;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:38
+ * -在同一个父容器下创建1000个子容器（每个子容器扫描tenant包，注入父容器的bean）
+ * -createChildren为创建全部子容器的耗时；retainedHeap统计子容器全部存活时平均每个占用的堆内存（retainedBytesPerChild）
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChildContextBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"1000"})
+    public int children;
+
+    private AnnotationConfigApplicationContext parent;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        parent = new AnnotationConfigApplicationContext(FixtureConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parent.close();
+    }
+
+    @Benchmark
+    public void createChildren(Children contexts) throws ClassNotFoundException {
+        for (int i = 0; i < children; i++) {
+            contexts.add(new AnnotationConfigApplicationContext(parent, TenantConfig.class));
+        }
+    }
+
+    /**
+     * 耗时包括前后的Full GC，只看retainedBytesPerChild；计数器按迭代累加，所以只测量一次
+     */
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 1)
+    public void retainedHeap(Children contexts, Memory memory) throws ClassNotFoundException {
+        long before = usedHeap();
+        createChildren(contexts);
+        memory.retainedBytesPerChild = (usedHeap() - before) / children;
+    }
+
+    /**
+     * 反复Full GC直到已用堆内存不再减少：关闭的容器引用了需要终结的线程池，要等终结之后再经过一次GC才能回收
+     */
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            System.runFinalization();
+            long current = MEMORY.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                return current;
+            }
+            used = current;
+        }
+        return used;
+    }
+
+    /**
+     * 一次调用创建的子容器，调用结束后关闭（单次调用模式下不计入耗时）
+     */
+    @State(Scope.Thread)
+    public static class Children {
+
+        private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+
+        void add(AnnotationConfigApplicationContext context) {
+            contexts.add(context);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            for (AnnotationConfigApplicationContext context : contexts) {
+                context.close();
+            }
+            contexts.clear();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+
+        public long retainedBytesPerChild;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytesPerChild = 0;
+        }
+    }
+}
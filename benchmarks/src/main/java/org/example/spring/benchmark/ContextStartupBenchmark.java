@@ -0,0 +1,50 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.AnnotationConfigApplicationContext;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:36
+ * -完整创建AnnotationConfigApplicationContext（扫描fixture包、预先创建单例、建立事件分发表）再关闭
+ * -serial在当前线程创建单例，parallel在ForkJoinPool上按依赖关系并行创建
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextStartupBenchmark {
+
+    @Param({"serial", "parallel"})
+    public String preInstantiation;
+
+    private Executor executor;
+
+    @Setup
+    public void setUp() {
+        executor = "parallel".equals(preInstantiation) ? ForkJoinPool.commonPool() : null;
+    }
+
+    @Benchmark
+    public AnnotationConfigApplicationContext refresh() throws ClassNotFoundException {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(FixtureConfig.class, executor);
+        context.close();
+        return context;
+    }
+}
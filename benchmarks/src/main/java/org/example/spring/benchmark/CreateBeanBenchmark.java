@@ -0,0 +1,65 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.instantiator.InstantiatorFactory;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:26
+ * -通过CreateBeanUtils.createBean创建原型bean：0、4、16个@Autowired字段，以及注入List<Handler>的集合注入点
+ * -注入的单例在第一次创建时生成，之后只衡量实例化、按缓存的注入点注入和初始化的开销
+ * -instantiator对比三种实例化器：reflective（Constructor.newInstance/Field.set）、methodHandle（默认）、generated（生成类）
+ * -每组参数在单独的fork中运行，注入元数据按类缓存，不会混用上一组参数的实例化器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateBeanBenchmark {
+
+    @Param({"prototype0", "prototype4", "prototype16", "handlerChain"})
+    public String beanName;
+
+    @Param({"reflective", "methodHandle", "generated"})
+    public String instantiator;
+
+    private ResourceModel resourceModel;
+
+    private BeanDefinition beanDefinition;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        if ("methodHandle".equals(instantiator)) {
+            System.clearProperty(InstantiatorFactory.MODE_PROPERTY);
+        } else {
+            System.setProperty(InstantiatorFactory.MODE_PROPERTY, instantiator);
+        }
+        resourceModel = new ResourceModel();
+        ScanBeanUtils.scan(FixtureConfig.class, resourceModel);
+        beanDefinition = resourceModel.getBeanDefinition(beanName);
+        CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel);
+    }
+
+    @Benchmark
+    public Object createBean() {
+        return CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel);
+    }
+}
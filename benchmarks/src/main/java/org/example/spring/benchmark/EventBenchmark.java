@@ -0,0 +1,57 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.AnnotationConfigApplicationContext;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.benchmark.fixture.OrderPlaced;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:34
+ * -发布事件：有一个同步监听器的事件类型，以及没有监听器的事件类型（只查分发表）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private final OrderPlaced event = new OrderPlaced(1);
+
+    private final Object unobserved = new Object();
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        context = new AnnotationConfigApplicationContext(FixtureConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void publishWithListener() {
+        context.publishEvent(event);
+    }
+
+    @Benchmark
+    public void publishWithoutListener() {
+        context.publishEvent(unobserved);
+    }
+}
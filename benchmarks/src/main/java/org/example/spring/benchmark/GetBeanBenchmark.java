@@ -0,0 +1,78 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.AnnotationConfigApplicationContext;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.benchmark.fixture.PrototypeWorker;
+import org.example.spring.benchmark.fixture.ProviderClient;
+import org.example.spring.benchmark.fixture.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:24
+ * -获取已经创建的单例：按名称、按类型、按名称和类型，以及通过ObjectProvider句柄获取（单例和原型）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBeanBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private ProviderClient providerClient;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        context = new AnnotationConfigApplicationContext(FixtureConfig.class);
+        providerClient = context.getBean(ProviderClient.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object byName() {
+        return context.getBean("repository");
+    }
+
+    @Benchmark
+    public Repository byType() {
+        return context.getBean(Repository.class);
+    }
+
+    @Benchmark
+    public Repository byNameAndType() {
+        return context.getBean("repository", Repository.class);
+    }
+
+    @Benchmark
+    public Repository provider() {
+        return providerClient.getRepository().getObject();
+    }
+
+    @Benchmark
+    public PrototypeWorker prototypeByType() {
+        return context.getBean(PrototypeWorker.class);
+    }
+
+    @Benchmark
+    public PrototypeWorker prototypeProvider() {
+        return providerClient.getWorker().getObject();
+    }
+}
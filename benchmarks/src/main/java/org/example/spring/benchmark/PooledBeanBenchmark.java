@@ -0,0 +1,60 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.AnnotationConfigApplicationContext;
+import org.example.spring.benchmark.fixture.FixtureConfig;
+import org.example.spring.benchmark.fixture.PooledWorker;
+import org.example.spring.benchmark.fixture.PrototypeWorker;
+import org.example.spring.pool.PooledObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:28
+ * -池化作用域与原型作用域：从对象池借出、使用、归还，对比每次创建一个依赖相同的原型bean
+ * -4个线程并发，对象池的maxTotal足够大，不会等待
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PooledBeanBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        context = new AnnotationConfigApplicationContext(FixtureConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int pooled() {
+        try (PooledObject<PooledWorker> worker = context.borrowBean(PooledWorker.class)) {
+            return worker.get().work();
+        }
+    }
+
+    @Benchmark
+    public int prototype() {
+        return context.getBean(PrototypeWorker.class).work();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.aop.AopProxy;
+import org.example.spring.aop.AopProxyPostProcessor;
+import org.example.spring.aop.MethodInvocation;
+import org.example.spring.aop.Pointcut;
+import org.example.spring.benchmark.fixture.Calculator;
+import org.example.spring.benchmark.fixture.DefaultCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:32
+ * -代理方法调用：直接调用目标对象、AopProxyPostProcessor生成的代理类、JDK动态代理（反射调用目标方法）
+ * -两种代理都只有一个直接调用proceed/目标方法的拦截器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyBenchmark {
+
+    private Calculator direct;
+
+    private Calculator generated;
+
+    private Calculator jdk;
+
+    private int a = 1;
+
+    private int b = 2;
+
+    @Setup
+    public void setUp() {
+        DefaultCalculator target = new DefaultCalculator();
+        direct = target;
+
+        AopProxyPostProcessor postProcessor = new AopProxyPostProcessor();
+        postProcessor.addAdvisor(Pointcut.forType(Calculator.class), MethodInvocation::proceed);
+        generated = (Calculator) postProcessor.postProcessAfterInitialization(new DefaultCalculator(), "calculator");
+        if (!(generated instanceof AopProxy)) {
+            throw new IllegalStateException("没有生成代理类: " + generated.getClass().getName());
+        }
+
+        jdk = (Calculator) Proxy.newProxyInstance(Calculator.class.getClassLoader(), new Class<?>[]{Calculator.class},
+                (proxy, method, args) -> method.invoke(target, args));
+    }
+
+    @Benchmark
+    public int direct() {
+        return direct.add(a, b);
+    }
+
+    @Benchmark
+    public int generatedProxy() {
+        return generated.add(a, b);
+    }
+
+    @Benchmark
+    public int jdkProxy() {
+        return jdk.add(a, b);
+    }
+}
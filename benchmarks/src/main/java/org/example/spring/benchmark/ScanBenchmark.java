@@ -0,0 +1,87 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.annotation.ComponentScan;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.snapshot.ClasspathFingerprint;
+import org.example.spring.utils.ScanBeanUtils;
+import org.example.spring.utils.SnapshotUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:40
+ * -扫描合成的包（100、1000、10000个类，约九成是组件）：scan遍历目录、解析class文件并注册bean定义，snapshot计算类路径指纹后按快照注册
+ * -类在预热时已经加载，衡量的是扫描和注册本身；类加载的个数和开销见ScanClassLoadingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int classes;
+
+    @Param({"scan", "snapshot"})
+    public String mode;
+
+    private URLClassLoader classLoader;
+
+    private Class<?> configClass;
+
+    private String[] basePackages;
+
+    private Path snapshotFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        Path dir = SyntheticPackage.compile(classes, 90);
+        classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, ScanBenchmark.class.getClassLoader());
+        configClass = classLoader.loadClass(SyntheticPackage.CONFIG_CLASS);
+        basePackages = configClass.getAnnotation(ComponentScan.class).value();
+
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.scan(configClass, resourceModel);
+        snapshotFile = dir.resolve("snapshot.bin");
+        byte[] fingerprint = ClasspathFingerprint.compute(configClass, basePackages, classLoader);
+        SnapshotUtils.saveSnapshot(snapshotFile, fingerprint, resourceModel);
+        if (!SnapshotUtils.loadSnapshot(snapshotFile, fingerprint, classLoader, new ResourceModel())) {
+            throw new IllegalStateException("快照无效: " + snapshotFile);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        classLoader.close();
+    }
+
+    @Benchmark
+    public ResourceModel scan() throws ClassNotFoundException {
+        ResourceModel resourceModel = new ResourceModel();
+        if ("snapshot".equals(mode)) {
+            byte[] fingerprint = ClasspathFingerprint.compute(configClass, basePackages, classLoader);
+            SnapshotUtils.loadSnapshot(snapshotFile, fingerprint, classLoader, resourceModel);
+        } else {
+            ScanBeanUtils.scan(configClass, resourceModel);
+        }
+        return resourceModel;
+    }
+}
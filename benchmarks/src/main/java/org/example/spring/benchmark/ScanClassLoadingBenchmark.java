@@ -0,0 +1,169 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Lazy;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * -10/18-23:46
+ * -冷启动扫描：每次调用使用新的类加载器，对比旧的扫描方式（加载包下所有类再用反射判断注解）与解析class文件字节的过滤
+ * -scan为包括类加载在内的扫描耗时；loadedClasses统计一次扫描中类加载器定义的类个数（合成包中的类）
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanClassLoadingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int classes;
+
+    /**
+     * 组件所占的百分比，实际项目的包中一般还有大量DTO、工具类等不是组件的类
+     */
+    @Param({"10", "90"})
+    public int componentPercent;
+
+    @Param({"loadAll", "bytecodeFilter"})
+    public String strategy;
+
+    private URL root;
+
+    @Setup
+    public void setUp() throws Exception {
+        root = SyntheticPackage.compile(classes, componentPercent).toUri().toURL();
+    }
+
+    @Benchmark
+    public ResourceModel scan(Loader loader) throws ClassNotFoundException {
+        Class<?> configClass = loader.classLoader.loadClass(SyntheticPackage.CONFIG_CLASS);
+        ResourceModel resourceModel = new ResourceModel();
+        if ("loadAll".equals(strategy)) {
+            scanByLoadingAll(loader.classLoader, resourceModel);
+        } else {
+            ScanBeanUtils.scan(configClass, resourceModel);
+        }
+        return resourceModel;
+    }
+
+    /**
+     * 计数器按迭代累加，所以只测量一次
+     */
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public ResourceModel loadedClasses(Loader loader, Counters counters) throws ClassNotFoundException {
+        ResourceModel resourceModel = scan(loader);
+        counters.loadedClasses = loader.classLoader.definedClasses;
+        return resourceModel;
+    }
+
+    /**
+     * 字节码过滤之前的扫描方式：遍历包目录，加载每个class文件对应的类，再通过反射读取注解
+     */
+    private static void scanByLoadingAll(ClassLoader classLoader, ResourceModel resourceModel) throws ClassNotFoundException {
+        File dir;
+        try {
+            dir = new File(classLoader.getResource(SyntheticPackage.PACKAGE.replace('.', '/')).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        String[] files = dir.list();
+        Arrays.sort(files);
+        for (String file : files) {
+            if (!file.endsWith(".class")) {
+                continue;
+            }
+            String className = SyntheticPackage.PACKAGE + "." + file.substring(0, file.length() - ".class".length());
+            Class<?> loadClass = classLoader.loadClass(className);
+            if (loadClass.isAnnotationPresent(Component.class)) {
+                String beanName = loadClass.getAnnotation(Component.class).value();
+                if ("".equals(beanName)) {
+                    beanName = GetBeanUtils.getBeanName(loadClass);
+                }
+                org.example.spring.annotation.Scope scope = loadClass.getAnnotation(org.example.spring.annotation.Scope.class);
+                String scopeName = scope != null ? scope.value() : "singleton";
+                boolean lazy = CreateBeanUtils.isSingleton(scopeName) && loadClass.isAnnotationPresent(Lazy.class);
+                ScanBeanUtils.registerComponent(beanName, loadClass, scopeName, lazy, resourceModel);
+            }
+        }
+    }
+
+    /**
+     * 每次调用一个新的类加载器，合成的类都需要重新加载
+     */
+    @State(Scope.Thread)
+    public static class Loader {
+
+        private CountingClassLoader classLoader;
+
+        @Setup(Level.Invocation)
+        public void create(ScanClassLoadingBenchmark benchmark) {
+            classLoader = new CountingClassLoader(benchmark.root);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() throws IOException {
+            classLoader.close();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long loadedClasses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            loadedClasses = 0;
+        }
+    }
+
+    /**
+     * 统计自己定义的类（父加载器加载的容器和JDK类不算）
+     */
+    static class CountingClassLoader extends URLClassLoader {
+
+        private int definedClasses;
+
+        CountingClassLoader(URL root) {
+            super(new URL[]{root}, ScanClassLoadingBenchmark.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Class<?> loadClass = super.findClass(name);
+            definedClasses++;
+            return loadClass;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.spring.benchmark;
+
+import org.example.spring.annotation.ComponentScan;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * -10/18-23:42
+ * -扫描基准测试使用的合成包：bench.synthetic下指定个数的类和扫描该包的SyntheticConfig
+ * -第一次使用时用javac编译到临时目录，之后复用；组件中每5个有1个原型、其余每4个有1个懒加载单例
+ */
+class SyntheticPackage {
+
+    static final String PACKAGE = "bench.synthetic";
+
+    static final String CONFIG_CLASS = PACKAGE + ".SyntheticConfig";
+
+    /**
+     * 生成并编译合成的类，已经编译过（存在完成标记）时直接返回目录
+     * @param count 类的个数
+     * @param componentPercent 组件所占的百分比（10的倍数），其余是没有注解的普通类
+     * @return 编译输出目录（类路径根）
+     */
+    static Path compile(int count, int componentPercent) throws IOException, URISyntaxException {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "my-spring-benchmark",
+                "synthetic-" + count + "-" + componentPercent);
+        Path done = dir.resolve("compiled");
+        if (Files.exists(done)) {
+            return dir;
+        }
+        Path sourceDir = dir.resolve("src").resolve(PACKAGE.replace('.', File.separatorChar));
+        Files.createDirectories(sourceDir);
+        List<String> sources = new ArrayList<>();
+        sources.add(write(sourceDir, "SyntheticConfig", "@org.example.spring.annotation.ComponentScan(\"" + PACKAGE + "\")\n"
+                + "public class SyntheticConfig {\n}\n"));
+        for (int i = 0; i < count; i++) {
+            String name = String.format("Synthetic%05d", i);
+            StringBuilder source = new StringBuilder();
+            if (i % 10 < componentPercent / 10) {
+                source.append("@org.example.spring.annotation.Component\n");
+                if (i % 5 == 0) {
+                    source.append("@org.example.spring.annotation.Scope(\"prototype\")\n");
+                } else if (i % 4 == 0) {
+                    source.append("@org.example.spring.annotation.Lazy\n");
+                }
+            }
+            source.append("public class ").append(name).append(" {\n}\n");
+            sources.add(write(sourceDir, name, source.toString()));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("需要在JDK上运行（编译合成的类）");
+        }
+        String classpath = new File(ComponentScan.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-proc:none");
+        arguments.add("-nowarn");
+        arguments.add("-classpath");
+        arguments.add(classpath);
+        arguments.add("-d");
+        arguments.add(dir.toString());
+        arguments.addAll(sources);
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("编译合成的类失败: " + dir);
+        }
+        Files.createFile(done);
+        return dir;
+    }
+
+    private static String write(Path sourceDir, String name, String body) throws IOException {
+        Path file = sourceDir.resolve(name + ".java");
+        Files.write(file, ("package " + PACKAGE + ";\n\n" + body).getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+}
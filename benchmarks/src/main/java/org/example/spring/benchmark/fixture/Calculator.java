@@ -0,0 +1,10 @@
+package org.example.spring.benchmark.fixture;
+
+/**
+ * -10/18-23:20
+ * -代理基准测试的接口，JDK动态代理只能代理接口
+ */
+public interface Calculator {
+
+    int add(int a, int b);
+}
@@ -0,0 +1,13 @@
+package org.example.spring.benchmark.fixture;
+
+/**
+ * -10/18-23:20
+ * -代理基准测试的目标类（不是组件，由基准测试直接创建和代理）
+ */
+public class DefaultCalculator implements Calculator {
+
+    @Override
+    public int add(int a, int b) {
+        return a + b;
+    }
+}
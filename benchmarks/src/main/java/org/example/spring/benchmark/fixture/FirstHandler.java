@@ -0,0 +1,18 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Order;
+
+/**
+ * -10/18-23:16
+ * -Handler实现，排在第1位
+ */
+@Component
+@Order(1)
+public class FirstHandler implements Handler {
+
+    @Override
+    public int handle(int value) {
+        return value + 1;
+    }
+}
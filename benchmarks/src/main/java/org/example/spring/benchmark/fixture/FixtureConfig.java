@@ -0,0 +1,94 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.ComponentScan;
+import org.example.spring.annotation.Configuration;
+
+/**
+ * -10/18-23:10
+ * -基准测试的配置类：扫描fixture包，另外用@Bean方法定义16个Leaf单例（leaf01 ~ leaf16），供按名称注入的字段使用
+ */
+@Configuration
+@ComponentScan("org.example.spring.benchmark.fixture")
+public class FixtureConfig {
+
+    @Bean
+    public Leaf leaf01() {
+        return new Leaf(1);
+    }
+
+    @Bean
+    public Leaf leaf02() {
+        return new Leaf(2);
+    }
+
+    @Bean
+    public Leaf leaf03() {
+        return new Leaf(3);
+    }
+
+    @Bean
+    public Leaf leaf04() {
+        return new Leaf(4);
+    }
+
+    @Bean
+    public Leaf leaf05() {
+        return new Leaf(5);
+    }
+
+    @Bean
+    public Leaf leaf06() {
+        return new Leaf(6);
+    }
+
+    @Bean
+    public Leaf leaf07() {
+        return new Leaf(7);
+    }
+
+    @Bean
+    public Leaf leaf08() {
+        return new Leaf(8);
+    }
+
+    @Bean
+    public Leaf leaf09() {
+        return new Leaf(9);
+    }
+
+    @Bean
+    public Leaf leaf10() {
+        return new Leaf(10);
+    }
+
+    @Bean
+    public Leaf leaf11() {
+        return new Leaf(11);
+    }
+
+    @Bean
+    public Leaf leaf12() {
+        return new Leaf(12);
+    }
+
+    @Bean
+    public Leaf leaf13() {
+        return new Leaf(13);
+    }
+
+    @Bean
+    public Leaf leaf14() {
+        return new Leaf(14);
+    }
+
+    @Bean
+    public Leaf leaf15() {
+        return new Leaf(15);
+    }
+
+    @Bean
+    public Leaf leaf16() {
+        return new Leaf(16);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.spring.benchmark.fixture;
+
+/**
+ * -10/18-23:16
+ * -集合注入的元素类型，实现类按@Order排列
+ */
+public interface Handler {
+
+    int handle(int value);
+}
@@ -0,0 +1,26 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Scope;
+
+import java.util.List;
+
+/**
+ * -10/18-23:17
+ * -注入所有Handler的原型bean，衡量集合注入点（缓存的候选bean）的创建开销
+ */
+@Component
+@Scope("prototype")
+public class HandlerChain {
+
+    @Autowired
+    private List<Handler> handlers;
+
+    public int handle(int value) {
+        for (Handler handler : handlers) {
+            value = handler.handle(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.spring.benchmark.fixture;
+
+/**
+ * -10/18-23:10
+ * -被注入的单例，由FixtureConfig的@Bean方法创建
+ */
+public class Leaf {
+
+    private final int id;
+
+    public Leaf(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
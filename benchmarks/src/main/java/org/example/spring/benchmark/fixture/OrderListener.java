@@ -0,0 +1,23 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.event.ApplicationListener;
+
+/**
+ * -10/18-23:19
+ * -同步监听OrderPlaced事件
+ */
+@Component
+public class OrderListener implements ApplicationListener<OrderPlaced> {
+
+    private long sum;
+
+    @Override
+    public void onApplicationEvent(OrderPlaced event) {
+        sum += event.getId();
+    }
+
+    public long getSum() {
+        return sum;
+    }
+}
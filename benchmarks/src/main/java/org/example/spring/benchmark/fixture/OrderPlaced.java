@@ -0,0 +1,18 @@
+package org.example.spring.benchmark.fixture;
+
+/**
+ * -10/18-23:19
+ * -基准测试发布的事件
+ */
+public class OrderPlaced {
+
+    private final long id;
+
+    public OrderPlaced(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Pooled;
+import org.example.spring.annotation.Scope;
+import org.example.spring.pool.BeanPool;
+
+/**
+ * -10/18-23:14
+ * -池化作用域的bean，与PrototypeWorker的依赖相同，对比借出/归还与每次创建的开销
+ */
+@Component
+@Scope(BeanPool.SCOPE)
+@Pooled(minIdle = 4, maxTotal = 64)
+public class PooledWorker {
+
+    @Autowired
+    private Leaf leaf01;
+
+    @Autowired
+    private Leaf leaf02;
+
+    @Autowired
+    private Repository repository;
+
+    public int work() {
+        return leaf01.getId() + leaf02.getId() + repository.count();
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Scope;
+
+/**
+ * -10/18-23:12
+ * -没有注入点的原型bean，衡量创建bean本身的开销
+ */
+@Component
+@Scope("prototype")
+public class Prototype0 {
+}
@@ -0,0 +1,66 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Scope;
+
+/**
+ * -10/18-23:12
+ * -16个@Autowired字段的原型bean，字段名即bean名称
+ */
+@Component
+@Scope("prototype")
+public class Prototype16 {
+
+    @Autowired
+    private Leaf leaf01;
+
+    @Autowired
+    private Leaf leaf02;
+
+    @Autowired
+    private Leaf leaf03;
+
+    @Autowired
+    private Leaf leaf04;
+
+    @Autowired
+    private Leaf leaf05;
+
+    @Autowired
+    private Leaf leaf06;
+
+    @Autowired
+    private Leaf leaf07;
+
+    @Autowired
+    private Leaf leaf08;
+
+    @Autowired
+    private Leaf leaf09;
+
+    @Autowired
+    private Leaf leaf10;
+
+    @Autowired
+    private Leaf leaf11;
+
+    @Autowired
+    private Leaf leaf12;
+
+    @Autowired
+    private Leaf leaf13;
+
+    @Autowired
+    private Leaf leaf14;
+
+    @Autowired
+    private Leaf leaf15;
+
+    @Autowired
+    private Leaf leaf16;
+
+    public Leaf getLeaf01() {
+        return leaf01;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Scope;
+
+/**
+ * -10/18-23:12
+ * -4个@Autowired字段的原型bean，字段名即bean名称
+ */
+@Component
+@Scope("prototype")
+public class Prototype4 {
+
+    @Autowired
+    private Leaf leaf01;
+
+    @Autowired
+    private Leaf leaf02;
+
+    @Autowired
+    private Leaf leaf03;
+
+    @Autowired
+    private Leaf leaf04;
+
+    public Leaf getLeaf01() {
+        return leaf01;
+    }
+}
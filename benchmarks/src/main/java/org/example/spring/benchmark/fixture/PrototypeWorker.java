@@ -0,0 +1,27 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Scope;
+
+/**
+ * -10/18-23:14
+ * -原型bean，与PooledWorker的依赖相同
+ */
+@Component
+@Scope("prototype")
+public class PrototypeWorker {
+
+    @Autowired
+    private Leaf leaf01;
+
+    @Autowired
+    private Leaf leaf02;
+
+    @Autowired
+    private Repository repository;
+
+    public int work() {
+        return leaf01.getId() + leaf02.getId() + repository.count();
+    }
+}
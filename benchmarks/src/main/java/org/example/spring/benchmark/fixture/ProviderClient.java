@@ -0,0 +1,27 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.ObjectProvider;
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+
+/**
+ * -10/18-23:18
+ * -通过ObjectProvider句柄延迟获取bean，对比直接调用getBean
+ */
+@Component
+public class ProviderClient {
+
+    @Autowired
+    private ObjectProvider<Repository> repository;
+
+    @Autowired
+    private ObjectProvider<PrototypeWorker> worker;
+
+    public ObjectProvider<Repository> getRepository() {
+        return repository;
+    }
+
+    public ObjectProvider<PrototypeWorker> getWorker() {
+        return worker;
+    }
+}
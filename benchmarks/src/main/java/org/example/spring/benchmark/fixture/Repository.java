@@ -0,0 +1,15 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Component;
+
+/**
+ * -10/18-23:14
+ * -容器中唯一的该类型单例，用于按类型获取bean
+ */
+@Component
+public class Repository {
+
+    public int count() {
+        return 0;
+    }
+}
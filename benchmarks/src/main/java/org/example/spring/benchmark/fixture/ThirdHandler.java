@@ -0,0 +1,18 @@
+package org.example.spring.benchmark.fixture;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Order;
+
+/**
+ * -10/18-23:16
+ * -Handler实现，排在第3位
+ */
+@Component
+@Order(3)
+public class ThirdHandler implements Handler {
+
+    @Override
+    public int handle(int value) {
+        return value - 3;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.spring.benchmark.tenant;
+
+import org.example.spring.annotation.ComponentScan;
+
+/**
+ * -10/18-23:21
+ * -子容器的配置类，只扫描tenant包，依赖的bean从父容器（FixtureConfig）获取
+ */
+@ComponentScan("org.example.spring.benchmark.tenant")
+public class TenantConfig {
+}
@@ -0,0 +1,24 @@
+package org.example.spring.benchmark.tenant;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Component;
+import org.example.spring.benchmark.fixture.Leaf;
+import org.example.spring.benchmark.fixture.Repository;
+
+/**
+ * -10/18-23:21
+ * -子容器中的单例，注入父容器的bean
+ */
+@Component
+public class TenantService {
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private Leaf leaf01;
+
+    public int count() {
+        return repository.count() + leaf01.getId();
+    }
+}
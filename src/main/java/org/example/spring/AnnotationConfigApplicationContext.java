@@ -1,11 +1,32 @@
 package org.example.spring;
 
+import org.example.spring.event.ApplicationEventMulticaster;
+import org.example.spring.event.ContextClosedEvent;
+import org.example.spring.event.ContextRefreshedEvent;
+import org.example.spring.metrics.BeanFactoryMetrics;
 import org.example.spring.model.ResourceModel;
+import org.example.spring.pool.BeanPool;
+import org.example.spring.pool.PooledObject;
+import org.example.spring.scope.BeanScope;
+import org.example.spring.scope.TaskContext;
+import org.example.spring.scope.TaskScope;
+import org.example.spring.scope.ThreadScope;
+import org.example.spring.shutdown.ShutdownReport;
+import org.example.spring.startup.StartupRecorder;
+import org.example.spring.startup.StartupStep;
+import org.example.spring.utils.AotUtils;
 import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.DestroyBeanUtils;
 import org.example.spring.utils.GetBeanUtils;
-import org.example.spring.utils.ScanBeanUtils;
+import org.example.spring.utils.PreInstantiateUtils;
+import org.example.spring.utils.SnapshotUtils;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * -03/28-23:30
@@ -13,27 +34,317 @@ import java.util.Map;
  */
 public class AnnotationConfigApplicationContext implements ApplicationContext{
 
+    /**
+     * 根容器启动完成时默认注册JVM关闭钩子，启动参数 -Dmy-spring.shutdown-hook=false 时不注册（需要自己调用close）
+     */
+    public static final String SHUTDOWN_HOOK_PROPERTY = "my-spring.shutdown-hook";
+
     private final ResourceModel resourceModel;
 
+    private final AnnotationConfigApplicationContext parent;
+
+    /**
+     * 每个bean销毁回调的超时时间
+     */
+    private volatile Duration destroyTimeout = Duration.ofSeconds(10);
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Thread shutdownHook;
+
+    private volatile ShutdownReport shutdownReport;
+
+    /**
+     * 非懒加载单例的创建耗时
+     */
+    private final Map<String, Duration> singletonCreationTimes;
+
     public <T> AnnotationConfigApplicationContext(Class<T> configClass) throws ClassNotFoundException {
-        resourceModel = new ResourceModel();
+        this(configClass, null);
+    }
+
+    /**
+     * @param configClass 配置类
+     * @param executor 并行创建非懒加载单例的线程池，为null时按注册顺序串行创建
+     */
+    public <T> AnnotationConfigApplicationContext(Class<T> configClass, Executor executor) throws ClassNotFoundException {
+        this(configClass, executor, StartupRecorder.NONE);
+    }
+
+    /**
+     * @param configClass 配置类
+     * @param executor 并行创建非懒加载单例的线程池，为null时按注册顺序串行创建
+     * @param startupRecorder 记录启动过程中各阶段和每个bean的耗时
+     */
+    public <T> AnnotationConfigApplicationContext(Class<T> configClass, Executor executor, StartupRecorder startupRecorder)
+            throws ClassNotFoundException {
+        this(null, configClass, executor, startupRecorder);
+    }
+
+    /**
+     * 创建子容器：只扫描和创建配置类中的bean，本容器中没有的bean（按名称或类型）从父容器中获取，不复制父容器的bean定义和单例
+     * @param parent 父容器，创建子容器时被冻结（不能再注册bean定义），可以被多个子容器共享
+     * @param configClass 子容器的配置类
+     */
+    public <T> AnnotationConfigApplicationContext(AnnotationConfigApplicationContext parent, Class<T> configClass)
+            throws ClassNotFoundException {
+        this(parent, configClass, null, StartupRecorder.NONE);
+    }
+
+    /**
+     * @param parent 父容器，为null时没有父容器
+     * @param configClass 配置类
+     * @param executor 并行创建非懒加载单例的线程池，为null时按注册顺序串行创建
+     * @param startupRecorder 记录启动过程中各阶段和每个bean的耗时
+     */
+    public <T> AnnotationConfigApplicationContext(AnnotationConfigApplicationContext parent, Class<T> configClass,
+                                                  Executor executor, StartupRecorder startupRecorder)
+            throws ClassNotFoundException {
+        this.parent = parent;
+        if (parent != null) {
+            parent.resourceModel.freeze();
+        }
+        resourceModel = new ResourceModel(parent != null ? parent.resourceModel : null);
         resourceModel.configClass = configClass;
-        // 扫描组件
-        ScanBeanUtils.scan(configClass, resourceModel);
-
-        // 把组件中非懒加载的单例bean保存到单例池
-        for (Map.Entry<String, BeanDefinition> entry : resourceModel.beanDefinitionMap.entrySet()) {
-            BeanDefinition beanDefinition = entry.getValue();
-            // 如果是单例并且不是懒加载就创建Bean实例，并加入单例对象池中
-            if(CreateBeanUtils.isSingleton(beanDefinition.getScope()) && !beanDefinition.isLazy()) {
-                Object bean = CreateBeanUtils.createBean(beanDefinition, resourceModel);
-                String beanName = entry.getKey();
-
-                resourceModel.singletonObjects.put(beanName, bean);
+        resourceModel.startupRecorder = startupRecorder;
+        resourceModel.scopes.put(ThreadScope.NAME, new ThreadScope());
+        resourceModel.scopes.put(TaskScope.NAME, new TaskScope());
+        resourceModel.eventMulticaster = new ApplicationEventMulticaster(resourceModel);
+        StartupStep refresh = startupRecorder.start("context.refresh").tag("configClass", configClass.getName());
+        try {
+            // 开启AOT模式时运行编译期生成的初始化器，否则扫描组件（配置了快照文件时优先从快照注册）
+            if (!AotUtils.initialize(configClass, resourceModel)) {
+                SnapshotUtils.scan(configClass, resourceModel);
+            }
+
+            // 把组件中非懒加载的单例bean保存到单例池
+            singletonCreationTimes = PreInstantiateUtils.preInstantiateSingletons(resourceModel, executor);
+
+            // 建立事件分发表，分发启动期间发布的事件
+            StartupStep step = startupRecorder.start("context.events.register");
+            resourceModel.eventMulticaster.refresh();
+            step.end();
+        } finally {
+            refresh.end();
+            // 启动之后创建的bean（原型、懒加载）不再记录
+            resourceModel.startupRecorder = StartupRecorder.NONE;
+        }
+        startupRecorder.refreshFinished();
+
+        if (Boolean.getBoolean(BeanFactoryMetrics.ENABLED_PROPERTY)) {
+            enableMetrics();
+        }
+        // 根容器默认注册JVM关闭钩子；子容器数量可能很多，由创建者关闭或者自己注册，钩子不会长期持有每个子容器
+        if (parent == null && !"false".equals(System.getProperty(SHUTDOWN_HOOK_PROPERTY))) {
+            registerShutdownHook();
+        }
+        publishEvent(new ContextRefreshedEvent(this));
+    }
+
+    /**
+     * 发布事件
+     * @param event 事件，任意对象
+     */
+    @Override
+    public void publishEvent(Object event) {
+        resourceModel.eventMulticaster.publishEvent(event);
+    }
+
+    /**
+     * 手动注册事件监听器
+     * @param listener ApplicationListener或者BatchApplicationListener
+     */
+    public void addApplicationListener(Object listener) {
+        resourceModel.eventMulticaster.addApplicationListener(listener);
+    }
+
+    /**
+     * 获取事件发布器（指定异步监听器使用的线程池、异常处理方式）
+     */
+    public ApplicationEventMulticaster getEventMulticaster() {
+        return resourceModel.eventMulticaster;
+    }
+
+    /**
+     * 关闭容器：发布ContextClosedEvent，分发批量监听器中剩余的事件，然后按依赖关系的逆序销毁单例
+     * （@PreDestroy、DisposableBean、AutoCloseable），互相没有依赖的单例并行销毁，每个bean最多等待destroyTimeout
+     * 只销毁本容器的bean，父容器需要单独关闭
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // JVM正在关闭
+                }
+            }
+            shutdownHook = null;
+        }
+        try {
+            publishEvent(new ContextClosedEvent(this));
+        } finally {
+            resourceModel.eventMulticaster.close();
+            shutdownReport = DestroyBeanUtils.destroyBeans(resourceModel, destroyTimeout.toMillis());
+            BeanFactoryMetrics metrics = resourceModel.metrics;
+            if (metrics != null) {
+                metrics.unregister();
+                resourceModel.metrics = null;
             }
         }
     }
 
+    /**
+     * 注册JVM关闭钩子，JVM退出时关闭容器（已经关闭时不做任何事），重复调用只注册一次
+     * 根容器启动完成时默认已经注册，子容器或者 -Dmy-spring.shutdown-hook=false 时需要手动调用
+     */
+    public synchronized void registerShutdownHook() {
+        if (shutdownHook == null && !closed.get()) {
+            shutdownHook = new Thread(this::close, "my-spring-shutdown-hook");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * 设置每个bean销毁回调的超时时间，超时后不再等待该bean、继续销毁其他bean，默认10秒
+     * @param destroyTimeout 超时时间，为0时不限制
+     */
+    public void setDestroyTimeout(Duration destroyTimeout) {
+        this.destroyTimeout = destroyTimeout;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 获取关闭报告（每个bean销毁回调的耗时和结果）
+     * @return 还没有关闭时返回null
+     */
+    public ShutdownReport getShutdownReport() {
+        return shutdownReport;
+    }
+
+    /**
+     * 获取父容器
+     * @return 没有父容器时返回null
+     */
+    public AnnotationConfigApplicationContext getParent() {
+        return parent;
+    }
+
+    /**
+     * 开启getBean调用统计并注册到JMX，重复调用返回同一个统计对象
+     * @return 统计对象
+     */
+    public synchronized BeanFactoryMetrics enableMetrics() {
+        BeanFactoryMetrics metrics = resourceModel.metrics;
+        if (metrics == null) {
+            metrics = new BeanFactoryMetrics();
+            metrics.register();
+            resourceModel.metrics = metrics;
+        }
+        return metrics;
+    }
+
+    /**
+     * 获取getBean调用统计
+     * @return 没有开启时为null
+     */
+    public BeanFactoryMetrics getMetrics() {
+        return resourceModel.metrics;
+    }
+
+    /**
+     * 获取启动时每个非懒加载单例的创建耗时
+     * @return bean名称 -> 耗时（按注册顺序）
+     */
+    public Map<String, Duration> getSingletonCreationTimes() {
+        return Collections.unmodifiableMap(singletonCreationTimes);
+    }
+
+    /**
+     * 获取每个BeanPostProcessor累计的处理耗时，只统计配置了StartupRecorder时的启动过程和开启getBean统计（enableMetrics）之后的调用
+     * @return 处理器类名 -> 耗时（按注册顺序）
+     */
+    public Map<String, Duration> getBeanPostProcessorTimes() {
+        Map<String, Duration> times = new LinkedHashMap<>();
+        for (BeanPostProcessorChain.Processor processor : resourceModel.getBeanPostProcessors()) {
+            times.merge(processor.getProcessor().getClass().getName(), Duration.ofNanos(processor.getNanos()), Duration::plus);
+        }
+        return times;
+    }
+
+    /**
+     * 注册自定义作用域，@Scope的值为name的bean从该作用域中获取
+     * @param name 作用域名称，不能是singleton和pooled
+     * @param scope 作用域
+     */
+    public void registerScope(String name, BeanScope scope) {
+        if (CreateBeanUtils.isSingleton(name) || BeanPool.SCOPE.equals(name)) {
+            throw new IllegalArgumentException("不能替换内置的作用域: " + name);
+        }
+        resourceModel.scopes.put(name, scope);
+    }
+
+    /**
+     * 获取注册的作用域
+     * @param name 作用域名称
+     * @return 没有注册时返回null
+     */
+    public BeanScope getScope(String name) {
+        return resourceModel.scopes.get(name);
+    }
+
+    /**
+     * 创建任务作用域（@Scope("task")）的工作单元，在其run/call中获取的任务作用域bean属于该工作单元
+     * @return 工作单元，使用完后需要close
+     */
+    public TaskContext openTask() {
+        return new TaskContext();
+    }
+
+    /**
+     * 从对象池借出池化作用域（@Scope("pooled")）的bean，配合try-with-resources使用，close时归还
+     * @param beanName bean名称
+     * @param type bean的类型
+     * @return 借出的bean
+     */
+    public <T> PooledObject<T> borrowBean(String beanName, Class<T> type) {
+        return GetBeanUtils.getBeanPool(beanName, resourceModel).borrowObject(type);
+    }
+
+    /**
+     * 按类型从对象池借出池化作用域的bean
+     * @param type bean的类型
+     * @return 借出的bean
+     */
+    public <T> PooledObject<T> borrowBean(Class<T> type) {
+        return borrowBean(GetBeanUtils.getBeanNameForType(type, resourceModel), type);
+    }
+
+    /**
+     * 归还通过getBean获取的池化作用域bean
+     * @param beanName bean名称
+     * @param bean 借出的bean对象
+     */
+    public void releaseBean(String beanName, Object bean) {
+        GetBeanUtils.getBeanPool(beanName, resourceModel).release(bean);
+    }
+
+    /**
+     * 获取池化作用域bean的对象池（查看空闲、借出个数或者手动回收空闲实例）
+     * @param beanName bean名称
+     * @return 对象池
+     */
+    public BeanPool getBeanPool(String beanName) {
+        return GetBeanUtils.getBeanPool(beanName, resourceModel);
+    }
+
     /**
      * 通过beanName查找
      * @param beanName bean名字
@@ -41,7 +352,16 @@ public class AnnotationConfigApplicationContext implements ApplicationContext{
      */
     @Override
     public Object getBean(String beanName) {
-        return GetBeanUtils.getBean(beanName,resourceModel);
+        BeanFactoryMetrics metrics = resourceModel.metrics;
+        if (metrics == null) {
+            return GetBeanUtils.getBean(beanName,resourceModel);
+        }
+        long start = metrics.startLookup();
+        try {
+            return GetBeanUtils.getBean(beanName, resourceModel);
+        } finally {
+            metrics.recordByName(beanName, start);
+        }
     }
 
     /**
@@ -51,7 +371,16 @@ public class AnnotationConfigApplicationContext implements ApplicationContext{
      */
     @Override
     public <T> T getBean(Class<T> type) {
-        return GetBeanUtils.getBean(type, resourceModel);
+        BeanFactoryMetrics metrics = resourceModel.metrics;
+        if (metrics == null) {
+            return GetBeanUtils.getBean(type, resourceModel);
+        }
+        long start = metrics.startLookup();
+        try {
+            return GetBeanUtils.getBean(type, resourceModel);
+        } finally {
+            metrics.recordByType(type, start);
+        }
     }
 
     /**
@@ -62,6 +391,15 @@ public class AnnotationConfigApplicationContext implements ApplicationContext{
      */
     @Override
     public <T> T getBean(String beanName, Class<T> type) {
-        return GetBeanUtils.getBean(beanName,type, resourceModel);
+        BeanFactoryMetrics metrics = resourceModel.metrics;
+        if (metrics == null) {
+            return GetBeanUtils.getBean(beanName,type, resourceModel);
+        }
+        long start = metrics.startLookup();
+        try {
+            return GetBeanUtils.getBean(beanName, type, resourceModel);
+        } finally {
+            metrics.recordByName(beanName, start);
+        }
     }
 }
@@ -1,15 +1,22 @@
 package org.example.spring;
 
+import org.example.spring.event.ApplicationEventPublisher;
 import org.example.spring.exception.NoSuchBeanException;
 
 /**
  * -03/28-23:29
- * -扩展自BeanFactory接口
+ * -扩展自BeanFactory接口，同时可以发布事件；使用完后需要关闭（销毁单例、释放资源）
  */
-public interface ApplicationContext extends BeanFactory {
+public interface ApplicationContext extends BeanFactory, ApplicationEventPublisher, AutoCloseable {
     Object getBean(String beanName);
 
     <T> T getBean(Class<T> type) throws NoSuchBeanException;
 
     <T> T getBean(String beanName, Class<T> type);
+
+    /**
+     * 关闭容器，重复调用时不做任何事
+     */
+    @Override
+    void close();
 }
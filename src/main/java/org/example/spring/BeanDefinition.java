@@ -1,5 +1,11 @@
 package org.example.spring;
 
+import org.example.spring.instantiator.FactoryMethodInvoker;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * -03/28-23:39
  * -Bean 定义
@@ -21,6 +27,47 @@ public class BeanDefinition {
      */
     private boolean lazy;
 
+    /**
+     * 注入元数据（第一次创建bean时获取）
+     */
+    private volatile InjectionMetadata injectionMetadata;
+
+    /**
+     * 定义该bean的@Bean方法所在配置类的bean名称，静态@Bean方法时为null
+     */
+    private String factoryBeanName;
+
+    /**
+     * 定义该bean的@Bean方法（AOT生成的初始化器注册时为null）
+     */
+    private Method factoryMethod;
+
+    /**
+     * @Bean方法参数的注入点，为null时通过构造方法创建
+     */
+    private InjectionMetadata.InjectionPoint[] factoryMethodParameters;
+
+    /**
+     * @Bean方法的调用器（第一次创建bean时生成）
+     */
+    private volatile FactoryMethodInvoker factoryMethodInvoker;
+
+    /**
+     * 需要调用的BeanPostProcessor（第一次创建bean时计算）
+     */
+    private volatile BeanPostProcessorChain postProcessorChain;
+
+    /**
+     * 构造方法/@Bean方法参数解析出的bean名称，避免每次创建原型bean都重新按类型解析
+     * bean名称和解析时的版本放在同一个不可变对象中整体替换，读取时不会看到不一致的组合
+     */
+    private volatile ResolvedArguments resolvedArguments;
+
+    /**
+     * 集合、数组、Map注入点 -> 候选bean（第一次注入时计算）
+     */
+    private final Map<InjectionMetadata.InjectionPoint, InjectionCandidates> injectionCandidates = new ConcurrentHashMap<>();
+
     public Class<?> getType() {
         return type;
     }
@@ -45,4 +92,145 @@ public class BeanDefinition {
         this.lazy = lazy;
     }
 
+    public InjectionMetadata getInjectionMetadata() {
+        return injectionMetadata;
+    }
+
+    public void setInjectionMetadata(InjectionMetadata injectionMetadata) {
+        this.injectionMetadata = injectionMetadata;
+    }
+
+    public String getFactoryBeanName() {
+        return factoryBeanName;
+    }
+
+    public Method getFactoryMethod() {
+        return factoryMethod;
+    }
+
+    /**
+     * 是否通过@Bean方法创建
+     */
+    public boolean isFactoryMethod() {
+        return factoryMethodParameters != null;
+    }
+
+    public InjectionMetadata.InjectionPoint[] getFactoryMethodParameters() {
+        return factoryMethodParameters;
+    }
+
+    /**
+     * 设置定义该bean的@Bean方法
+     * @param factoryBeanName 配置类的bean名称，静态方法时为null
+     * @param factoryMethod @Bean方法
+     */
+    public void setFactoryMethod(String factoryBeanName, Method factoryMethod) {
+        this.factoryBeanName = factoryBeanName;
+        this.factoryMethod = factoryMethod;
+        this.factoryMethodParameters = InjectionMetadata.getParameterInjectionPoints(factoryMethod);
+    }
+
+    /**
+     * 设置定义该bean的@Bean方法，参数的注入点已经解析好（从bean定义快照恢复）
+     * @param factoryBeanName 配置类的bean名称，静态方法时为null
+     * @param factoryMethod @Bean方法
+     * @param parameters @Bean方法参数的注入点
+     */
+    public void setFactoryMethod(String factoryBeanName, Method factoryMethod, InjectionMetadata.InjectionPoint[] parameters) {
+        this.factoryBeanName = factoryBeanName;
+        this.factoryMethod = factoryMethod;
+        this.factoryMethodParameters = parameters;
+    }
+
+    /**
+     * 设置定义该bean的@Bean方法（不通过反射，由AOT生成的初始化器调用）
+     * @param factoryBeanName 配置类的bean名称，静态方法时为null
+     * @param parameters @Bean方法参数的注入点
+     * @param invoker 直接调用@Bean方法的调用器
+     */
+    public void setFactoryMethod(String factoryBeanName, InjectionMetadata.InjectionPoint[] parameters,
+                                 FactoryMethodInvoker invoker) {
+        this.factoryBeanName = factoryBeanName;
+        this.factoryMethodParameters = parameters;
+        this.factoryMethodInvoker = invoker;
+    }
+
+    public FactoryMethodInvoker getFactoryMethodInvoker() {
+        return factoryMethodInvoker;
+    }
+
+    public void setFactoryMethodInvoker(FactoryMethodInvoker factoryMethodInvoker) {
+        this.factoryMethodInvoker = factoryMethodInvoker;
+    }
+
+    public BeanPostProcessorChain getPostProcessorChain() {
+        return postProcessorChain;
+    }
+
+    public void setPostProcessorChain(BeanPostProcessorChain postProcessorChain) {
+        this.postProcessorChain = postProcessorChain;
+    }
+
+    /**
+     * 获取缓存的构造方法/@Bean方法参数的解析结果
+     * @return 还没有解析时返回null
+     */
+    public ResolvedArguments getResolvedArguments() {
+        return resolvedArguments;
+    }
+
+    /**
+     * 缓存构造方法/@Bean方法参数的解析结果
+     * @param beanNames 与参数一一对应的bean名称
+     * @param version 容器中bean定义的版本
+     * @return 缓存的解析结果
+     */
+    public ResolvedArguments setResolvedArguments(String[] beanNames, int version) {
+        ResolvedArguments arguments = new ResolvedArguments(beanNames, version);
+        this.resolvedArguments = arguments;
+        return arguments;
+    }
+
+    public InjectionCandidates getInjectionCandidates(InjectionMetadata.InjectionPoint injectionPoint) {
+        return injectionCandidates.get(injectionPoint);
+    }
+
+    public void setInjectionCandidates(InjectionMetadata.InjectionPoint injectionPoint, InjectionCandidates candidates) {
+        injectionCandidates.put(injectionPoint, candidates);
+    }
+
+    /**
+     * 构造方法/@Bean方法参数解析出的bean名称（不可变）
+     */
+    public static final class ResolvedArguments {
+
+        /**
+         * 与参数一一对应的bean名称，ObjectProvider参数、有候选bean的集合参数为null
+         */
+        private final String[] beanNames;
+
+        /**
+         * 解析参数时容器中bean定义的版本
+         */
+        private final int version;
+
+        private ResolvedArguments(String[] beanNames, int version) {
+            this.beanNames = beanNames;
+            this.version = version;
+        }
+
+        /**
+         * 获取参数对应的bean名称
+         * @param index 参数下标
+         * @return ObjectProvider参数、有候选bean的集合参数返回null
+         */
+        public String getBeanName(int index) {
+            return beanNames[index];
+        }
+
+        public int getVersion() {
+            return version;
+        }
+    }
+
 }
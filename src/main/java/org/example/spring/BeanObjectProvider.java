@@ -0,0 +1,112 @@
+package org.example.spring;
+
+import org.example.spring.exception.NoSuchBeanException;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.GetBeanUtils;
+
+/**
+ * -10/18-21:45
+ * -注入到ObjectProvider&lt;T&gt;/Supplier&lt;T&gt;注入点的句柄
+ * -第一次get时按注入点解析出bean名称和BeanDefinition后保存（注册新的bean定义后重新解析），
+ * -单例创建完成后直接保存引用；其他作用域直接按保存的BeanDefinition获取，不再查找bean定义和类型索引
+ */
+public class BeanObjectProvider<T> implements ObjectProvider<T> {
+
+    /**
+     * 按泛型参数T解析的注入点
+     */
+    private final InjectionMetadata.InjectionPoint injectionPoint;
+
+    private final ResourceModel resourceModel;
+
+    private volatile Binding binding;
+
+    /**
+     * 创建完成的单例
+     */
+    private volatile Object singleton;
+
+    /**
+     * @param injectionPoint ObjectProvider&lt;T&gt;/Supplier&lt;T&gt;字段或参数的注入点
+     */
+    public BeanObjectProvider(InjectionMetadata.InjectionPoint injectionPoint, ResourceModel resourceModel) {
+        this.injectionPoint = new InjectionMetadata.InjectionPoint(injectionPoint.getName(), injectionPoint.isQualified(),
+                injectionPoint.getProvidedType(), injectionPoint.isRequired());
+        this.resourceModel = resourceModel;
+    }
+
+    @Override
+    public T getObject() {
+        T bean = getIfAvailable();
+        if (bean == null) {
+            throw new NoSuchBeanException("No such bean found: " + injectionPoint.getType().getName());
+        }
+        return bean;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getIfAvailable() {
+        Object bean = singleton;
+        if (bean != null) {
+            return (T) bean;
+        }
+        Binding binding = bind();
+        if (binding == null) {
+            return null;
+        }
+        bean = GetBeanUtils.getBean(binding.beanName, binding.beanDefinition, resourceModel);
+        // 不保存提前暴露的引用（单例还没有完成初始化）
+        if (binding.singleton && resourceModel.getSingletonObject(binding.beanName) == bean) {
+            singleton = bean;
+        }
+        return (T) bean;
+    }
+
+    /**
+     * 解析bean名称，容器中bean定义的版本不变时直接使用上次的结果
+     * @return 没有该类型的bean时返回null
+     */
+    private Binding bind() {
+        Binding binding = this.binding;
+        int version = resourceModel.getRegistryVersion();
+        if (binding != null && binding.version == version) {
+            return binding;
+        }
+        String beanName;
+        try {
+            beanName = GetBeanUtils.resolveBeanName(injectionPoint, resourceModel);
+        } catch (NoSuchBeanException e) {
+            return null;
+        }
+        BeanDefinition beanDefinition = resourceModel.getBeanDefinition(beanName);
+        binding = new Binding(beanName, beanDefinition, CreateBeanUtils.isSingleton(beanDefinition.getScope()), version);
+        this.binding = binding;
+        return binding;
+    }
+
+    @Override
+    public String toString() {
+        Binding binding = this.binding;
+        return "ObjectProvider<" + injectionPoint.getType().getName() + ">" + (binding != null ? "[" + binding.beanName + "]" : "");
+    }
+
+    private static class Binding {
+
+        private final String beanName;
+
+        private final BeanDefinition beanDefinition;
+
+        private final boolean singleton;
+
+        private final int version;
+
+        Binding(String beanName, BeanDefinition beanDefinition, boolean singleton, int version) {
+            this.beanName = beanName;
+            this.beanDefinition = beanDefinition;
+            this.singleton = singleton;
+            this.version = version;
+        }
+    }
+}
@@ -3,15 +3,17 @@ package org.example.spring;
 /**
  * -03/29-16:33
  * -定义两个方法会在每个bean的初始化前和初始化后被调用。
+ * -泛型参数T限定处理的bean类型（按bean定义的类型匹配），supports可以进一步按注解等条件过滤；
+ * -容器为每个bean定义预先计算需要调用的处理器，没有重写的方法不会被调用
  */
-public interface BeanPostProcessor {
+public interface BeanPostProcessor<T> {
     /**
      * bean初始化前
      * @param bean bean对象
      * @param beanName bean名称
      * @return bean对象
      */
-    default Object postProcessBeforeInitialization(Object bean, String beanName) {
+    default Object postProcessBeforeInitialization(T bean, String beanName) {
         return bean;
     }
 
@@ -21,7 +23,27 @@ public interface BeanPostProcessor {
      * @param beanName bean名称
      * @return bean对象
      */
-    default Object postProcessAfterInitialization(Object bean, String beanName) {
+    default Object postProcessAfterInitialization(T bean, String beanName) {
         return bean;
     }
+
+    /**
+     * 获取单例提前暴露的引用（字段注入的循环依赖中被其他bean注入时调用，最多调用一次）
+     * 需要替换bean（如生成代理）的处理器在这里提前替换，并且在postProcessAfterInitialization中对同一个bean不再替换
+     * @param bean 已经实例化、还没有完成注入的bean对象
+     * @param beanName bean名称
+     * @return 注入到其他bean中的引用
+     */
+    default Object getEarlyBeanReference(T bean, String beanName) {
+        return bean;
+    }
+
+    /**
+     * 是否处理该类型的bean，结果按bean定义缓存，不能依赖bean实例的状态
+     * @param beanType bean定义的类型（已经满足泛型参数T）
+     * @return 默认处理所有bean
+     */
+    default boolean supports(Class<?> beanType) {
+        return true;
+    }
 }
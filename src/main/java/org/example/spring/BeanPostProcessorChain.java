@@ -0,0 +1,231 @@
+package org.example.spring;
+
+import org.example.spring.utils.GenericTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * -10/18-16:50
+ * -一个bean定义需要调用的BeanPostProcessor（提前暴露引用、初始化前、初始化后各一条），按处理器的注册顺序排列
+ * -第一次创建bean时根据bean定义的类型计算，之后直接遍历数组，不再判断类型
+ */
+public class BeanPostProcessorChain {
+
+    private static final Processor[] NONE = new Processor[0];
+
+    private final Processor[] early;
+
+    private final Processor[] before;
+
+    private final Processor[] after;
+
+    /**
+     * 计算时容器中处理器列表的版本，注册新的处理器后重新计算
+     */
+    private final int version;
+
+    private BeanPostProcessorChain(Processor[] early, Processor[] before, Processor[] after, int version) {
+        this.early = early;
+        this.before = before;
+        this.after = after;
+        this.version = version;
+    }
+
+    /**
+     * 从注册的处理器中筛选出处理该类型的处理器
+     * @param processors 注册的处理器（按注册顺序）
+     * @param beanType bean定义的类型
+     * @param version 处理器列表的版本
+     * @return 处理链
+     */
+    public static BeanPostProcessorChain build(List<Processor> processors, Class<?> beanType, int version) {
+        List<Processor> early = new ArrayList<>();
+        List<Processor> before = new ArrayList<>();
+        List<Processor> after = new ArrayList<>();
+        for (Processor processor : processors) {
+            if (processor.supports(beanType)) {
+                if (processor.hasEarly) {
+                    early.add(processor);
+                }
+                if (processor.hasBefore) {
+                    before.add(processor);
+                }
+                if (processor.hasAfter) {
+                    after.add(processor);
+                }
+            }
+        }
+        return new BeanPostProcessorChain(early.toArray(NONE), before.toArray(NONE), after.toArray(NONE), version);
+    }
+
+    /**
+     * 按保存的下标恢复处理链（bean定义快照使用，不再判断处理器是否处理该类型）
+     * @param processors 注册的处理器（按注册顺序）
+     * @param indexes 提前暴露引用、初始化前、初始化后三条链中的处理器在processors中的下标
+     * @param version 处理器列表的版本
+     * @return 处理链
+     */
+    public static BeanPostProcessorChain of(List<Processor> processors, int[][] indexes, int version) {
+        return new BeanPostProcessorChain(select(processors, indexes[0]), select(processors, indexes[1]),
+                select(processors, indexes[2]), version);
+    }
+
+    private static Processor[] select(List<Processor> processors, int[] indexes) {
+        Processor[] selected = new Processor[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i] = processors.get(indexes[i]);
+        }
+        return selected;
+    }
+
+    /**
+     * 获取三条链中的处理器在注册列表中的下标（保存到bean定义快照）
+     * @param processors 注册的处理器（按注册顺序）
+     * @return 提前暴露引用、初始化前、初始化后三条链的下标
+     */
+    public int[][] indexesIn(List<Processor> processors) {
+        return new int[][]{indexesIn(processors, early), indexesIn(processors, before), indexesIn(processors, after)};
+    }
+
+    private static int[] indexesIn(List<Processor> processors, Processor[] chain) {
+        int[] indexes = new int[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            indexes[i] = processors.indexOf(chain[i]);
+        }
+        return indexes;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取单例提前暴露的引用（只在发生循环依赖时调用，不计时）
+     */
+    @SuppressWarnings("unchecked")
+    public Object applyEarlyBeanReference(Object bean, String beanName) {
+        for (Processor processor : early) {
+            bean = processor.processor.getEarlyBeanReference(bean, beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * 初始化前
+     * @param timed 是否累计每个处理器的耗时（开启统计或者记录启动过程时），不计时的时候不调用System.nanoTime()
+     */
+    @SuppressWarnings("unchecked")
+    public Object applyBeforeInitialization(Object bean, String beanName, boolean timed) {
+        if (!timed) {
+            for (Processor processor : before) {
+                bean = processor.processor.postProcessBeforeInitialization(bean, beanName);
+            }
+            return bean;
+        }
+        for (Processor processor : before) {
+            long start = System.nanoTime();
+            bean = processor.processor.postProcessBeforeInitialization(bean, beanName);
+            processor.record(System.nanoTime() - start);
+        }
+        return bean;
+    }
+
+    /**
+     * 初始化后
+     * @param timed 是否累计每个处理器的耗时（开启统计或者记录启动过程时），不计时的时候不调用System.nanoTime()
+     */
+    @SuppressWarnings("unchecked")
+    public Object applyAfterInitialization(Object bean, String beanName, boolean timed) {
+        if (!timed) {
+            for (Processor processor : after) {
+                bean = processor.processor.postProcessAfterInitialization(bean, beanName);
+            }
+            return bean;
+        }
+        for (Processor processor : after) {
+            long start = System.nanoTime();
+            bean = processor.processor.postProcessAfterInitialization(bean, beanName);
+            processor.record(System.nanoTime() - start);
+        }
+        return bean;
+    }
+
+    /**
+     * 注册的处理器：处理的bean类型、重写了哪些方法以及累计耗时（只在计时开启期间累计）
+     */
+    public static class Processor {
+
+        @SuppressWarnings("rawtypes")
+        private final BeanPostProcessor processor;
+
+        /**
+         * 泛型参数T，没有指定时为Object
+         */
+        private final Class<?> beanType;
+
+        private final boolean hasEarly;
+
+        private final boolean hasBefore;
+
+        private final boolean hasAfter;
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final LongAdder invocations = new LongAdder();
+
+        public Processor(BeanPostProcessor<?> processor) {
+            this.processor = processor;
+            Class<?> processorClass = processor.getClass();
+            this.beanType = GenericTypeUtils.resolveTypeArgument(processorClass, BeanPostProcessor.class);
+            this.hasEarly = overrides(processorClass, "getEarlyBeanReference");
+            this.hasBefore = overrides(processorClass, "postProcessBeforeInitialization");
+            this.hasAfter = overrides(processorClass, "postProcessAfterInitialization");
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean supports(Class<?> type) {
+            return beanType.isAssignableFrom(type) && processor.supports(type);
+        }
+
+        private void record(long elapsed) {
+            nanos.add(elapsed);
+            invocations.increment();
+        }
+
+        public BeanPostProcessor<?> getProcessor() {
+            return processor;
+        }
+
+        public Class<?> getBeanType() {
+            return beanType;
+        }
+
+        /**
+         * 累计耗时（纳秒），没有开启统计、也不在记录启动过程时不计时
+         */
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        /**
+         * 累计调用次数（初始化前、初始化后分别计数）
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * 是否重写了接口的默认方法（指定泛型参数时编译器生成的桥接方法也算重写）
+         */
+        private static boolean overrides(Class<?> processorClass, String methodName) {
+            try {
+                return processorClass.getMethod(methodName, Object.class, String.class).getDeclaringClass()
+                        != BeanPostProcessor.class;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.spring;
+
+/**
+ * -10/18-22:30
+ * -容器关闭时调用（钩子方法），依赖它的bean先销毁
+ * -判断该bean是否DisposableBean接口的实现类，如果是，调用其destroy()方法
+ */
+public interface DisposableBean {
+
+    void destroy();
+}
@@ -0,0 +1,122 @@
+package org.example.spring;
+
+import org.example.spring.annotation.Order;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * -10/18-23:00
+ * -集合、数组、Map注入点的候选bean：元素类型的所有bean（包括父容器中的，不包括bean自己），按@Order、注册顺序排列
+ * -第一次注入时计算并保存到BeanDefinition，之后创建原型bean、注入时直接按数组逐个获取bean，不再按类型查找和排序
+ */
+public class InjectionCandidates {
+
+    private static final String[] NONE = new String[0];
+
+    private final String[] beanNames;
+
+    private final BeanDefinition[] beanDefinitions;
+
+    /**
+     * 计算时容器中bean定义的版本，注册新的bean定义后重新计算
+     */
+    private final int version;
+
+    private InjectionCandidates(String[] beanNames, BeanDefinition[] beanDefinitions, int version) {
+        this.beanNames = beanNames;
+        this.beanDefinitions = beanDefinitions;
+        this.version = version;
+    }
+
+    /**
+     * 计算注入点的候选bean
+     * @param injectionPoint 集合、数组、Map注入点
+     * @param beanName 正在创建的bean（不注入自己），可以为null
+     * @param version 容器中bean定义的版本
+     * @return 候选bean
+     */
+    public static InjectionCandidates build(InjectionMetadata.InjectionPoint injectionPoint, String beanName,
+                                            ResourceModel resourceModel, int version) {
+        String[] beanNames = findCandidateNames(injectionPoint.getElementType(), beanName, resourceModel);
+        BeanDefinition[] beanDefinitions = new BeanDefinition[beanNames.length];
+        for (int i = 0; i < beanNames.length; i++) {
+            beanDefinitions[i] = resourceModel.getBeanDefinition(beanNames[i]);
+        }
+        return new InjectionCandidates(beanNames, beanDefinitions, version);
+    }
+
+    /**
+     * 查找元素类型的所有bean名称：本容器的在前，父容器中同名的bean被本容器覆盖；按@Order排序（稳定排序）
+     * @param elementType 元素类型
+     * @param excludedBeanName 排除的bean名称，可以为null
+     * @return bean名称
+     */
+    public static String[] findCandidateNames(Class<?> elementType, String excludedBeanName, ResourceModel resourceModel) {
+        List<String> names = new ArrayList<>();
+        for (ResourceModel model = resourceModel; model != null; model = model.parent) {
+            for (String name : model.getBeanNamesForType(elementType)) {
+                if (!name.equals(excludedBeanName) && !names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            return NONE;
+        }
+        names.sort((a, b) -> Integer.compare(getOrder(resourceModel.getBeanDefinition(a)),
+                getOrder(resourceModel.getBeanDefinition(b))));
+        return names.toArray(NONE);
+    }
+
+    private static int getOrder(BeanDefinition beanDefinition) {
+        Order order = beanDefinition.getType().getAnnotation(Order.class);
+        return order != null ? order.value() : Integer.MAX_VALUE;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return beanNames.length == 0;
+    }
+
+    /**
+     * 获取候选bean并按注入点的类型组装，返回的集合不能修改
+     * @param injectionPoint 集合、数组、Map注入点
+     * @return List、Set、Collection、数组或者Map（bean名称 -> bean）
+     */
+    public Object resolve(InjectionMetadata.InjectionPoint injectionPoint, ResourceModel resourceModel) {
+        Class<?> type = injectionPoint.getType();
+        int count = beanNames.length;
+        if (type == Map.class) {
+            Map<String, Object> beans = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                beans.put(beanNames[i], GetBeanUtils.getBean(beanNames[i], beanDefinitions[i], resourceModel));
+            }
+            return Collections.unmodifiableMap(beans);
+        }
+        Object[] beans = type.isArray() ? (Object[]) Array.newInstance(injectionPoint.getElementType(), count)
+                : new Object[count];
+        for (int i = 0; i < count; i++) {
+            beans[i] = GetBeanUtils.getBean(beanNames[i], beanDefinitions[i], resourceModel);
+        }
+        if (type.isArray()) {
+            return beans;
+        } else if (type == Set.class) {
+            Set<Object> set = new LinkedHashSet<>(Arrays.asList(beans));
+            return Collections.unmodifiableSet(set);
+        }
+        return Collections.unmodifiableList(Arrays.asList(beans));
+    }
+}
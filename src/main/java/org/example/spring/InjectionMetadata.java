@@ -0,0 +1,393 @@
+package org.example.spring;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.annotation.Qualifier;
+import org.example.spring.instantiator.BeanInstantiator;
+import org.example.spring.instantiator.ConfigurationClassEnhancer;
+import org.example.spring.instantiator.InstantiatorFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * -10/18-14:40
+ * -bean类的注入元数据：推断出的构造方法及其参数、@Autowired注入点和编译好的实例化器
+ * -通过ClassValue按类缓存，类被卸载时缓存随之释放；创建bean时不再做任何反射查找
+ */
+public class InjectionMetadata {
+
+    private static final ClassValue<InjectionMetadata> CACHE = new ClassValue<InjectionMetadata>() {
+        @Override
+        protected InjectionMetadata computeValue(Class<?> type) {
+            return new InjectionMetadata(type);
+        }
+    };
+
+    /**
+     * 推断出的构造方法（@Configuration配置类为增强子类中对应的构造方法），AOT生成时为null
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * 构造方法参数个数
+     */
+    private final int parameterCount;
+
+    /**
+     * 构造方法参数的注入点
+     */
+    private final InjectionPoint[] constructorParameters;
+
+    /**
+     * @Autowired注入点（按字段声明顺序）
+     */
+    private final InjectionPoint[] injectionPoints;
+
+    /**
+     * 与注入点一一对应的@Autowired字段，AOT生成时为null
+     */
+    private final Field[] fields;
+
+    private final BeanInstantiator instantiator;
+
+    private InjectionMetadata(Class<?> beanType) {
+        Constructor<?> declaredConstructor = determineConstructor(beanType);
+        this.constructor = beanType.isAnnotationPresent(Configuration.class)
+                ? enhancedConstructor(beanType, declaredConstructor) : declaredConstructor;
+        this.parameterCount = constructor.getParameterCount();
+        // 参数注解和参数名从配置类自己的构造方法上读取
+        this.constructorParameters = getParameterInjectionPoints(declaredConstructor);
+
+        // 获取bean的所有自定义属性
+        List<Field> fields = new ArrayList<>();
+        List<InjectionPoint> points = new ArrayList<>();
+        for (Field field : beanType.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Autowired.class)) {
+                fields.add(field);
+                Qualifier qualifier = field.getAnnotation(Qualifier.class);
+                points.add(new InjectionPoint(qualifier != null ? qualifier.value() : field.getName(), qualifier != null,
+                        field.getType(), field.getAnnotation(Autowired.class).required(),
+                        getProvidedType(field.getType(), field.getGenericType()),
+                        getElementType(field.getType(), field.getGenericType())));
+            }
+        }
+        this.injectionPoints = points.toArray(new InjectionPoint[0]);
+        this.fields = fields.toArray(new Field[0]);
+        this.instantiator = InstantiatorFactory.create(constructor, this.fields);
+    }
+
+    private InjectionMetadata(Constructor<?> constructor, InjectionPoint[] constructorParameters,
+                              InjectionPoint[] injectionPoints, Field[] fields, BeanInstantiator instantiator) {
+        this.constructor = constructor;
+        this.parameterCount = constructorParameters.length;
+        this.constructorParameters = constructorParameters;
+        this.injectionPoints = injectionPoints;
+        this.fields = fields;
+        this.instantiator = instantiator;
+    }
+
+    /**
+     * 编译期已经确定的注入元数据（AOT生成的初始化器使用，不做反射）
+     * @param constructorParameters 构造方法参数的注入点
+     * @param injectionPoints 注入点，与实例化器inject的参数一一对应
+     * @param instantiator 直接调用构造方法、setter的实例化器
+     * @return 注入元数据
+     */
+    public static InjectionMetadata of(InjectionPoint[] constructorParameters, InjectionPoint[] injectionPoints,
+                                       BeanInstantiator instantiator) {
+        return new InjectionMetadata(null, constructorParameters, injectionPoints, null, instantiator);
+    }
+
+    /**
+     * 已经解析好的注入元数据（从bean定义快照恢复，不再推断构造方法、读取注解和泛型参数）
+     * @param constructor 推断出的构造方法（配置类自己的构造方法）
+     * @param configuration 是否是@Configuration配置类，是时实例化为增强子类
+     * @param constructorParameters 构造方法参数的注入点
+     * @param injectionPoints 注入点
+     * @param fields 与注入点一一对应的@Autowired字段
+     * @return 注入元数据
+     */
+    public static InjectionMetadata of(Constructor<?> constructor, boolean configuration,
+                                       InjectionPoint[] constructorParameters, InjectionPoint[] injectionPoints,
+                                       Field[] fields) {
+        Constructor<?> instantiated = configuration
+                ? enhancedConstructor(constructor.getDeclaringClass(), constructor) : constructor;
+        return new InjectionMetadata(instantiated, constructorParameters, injectionPoints, fields,
+                InstantiatorFactory.create(instantiated, fields));
+    }
+
+    /**
+     * 获取类的注入元数据（第一次访问时解析）
+     * @param beanType bean的类型
+     * @return 注入元数据
+     */
+    public static InjectionMetadata forClass(Class<?> beanType) {
+        return CACHE.get(beanType);
+    }
+
+    /**
+     * 获取构造方法/@Bean方法参数的注入点
+     * 编译时没有使用 -parameters 参数时拿不到参数名，只能按类型或@Qualifier注入
+     * @param executable 构造方法或者@Bean方法
+     * @return 与参数一一对应的注入点
+     */
+    public static InjectionPoint[] getParameterInjectionPoints(Executable executable) {
+        Parameter[] parameters = executable.getParameters();
+        InjectionPoint[] injectionPoints = new InjectionPoint[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            Qualifier qualifier = parameter.getAnnotation(Qualifier.class);
+            String name = qualifier != null ? qualifier.value() : (parameter.isNamePresent() ? parameter.getName() : null);
+            injectionPoints[i] = new InjectionPoint(name, qualifier != null, parameter.getType(), true,
+                    getProvidedType(parameter.getType(), parameter.getParameterizedType()),
+                    getElementType(parameter.getType(), parameter.getParameterizedType()));
+        }
+        return injectionPoints;
+    }
+
+    /**
+     * ObjectProvider&lt;T&gt;、Supplier&lt;T&gt;类型的注入点注入延迟获取bean的句柄
+     * @param type 字段/参数类型
+     * @param genericType 带泛型参数的类型
+     * @return 泛型参数T，不是句柄类型时返回null，没有指定泛型参数时为Object
+     */
+    private static Class<?> getProvidedType(Class<?> type, Type genericType) {
+        if (type != ObjectProvider.class && type != Supplier.class) {
+            return null;
+        }
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            } else if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * List&lt;T&gt;、Set&lt;T&gt;、Collection&lt;T&gt;、T[]、Map&lt;String, T&gt;类型的注入点注入类型T的所有bean
+     * @param type 字段/参数类型
+     * @param genericType 带泛型参数的类型
+     * @return 元素类型T，不是这些类型或者没有指定泛型参数时返回null（按单个bean注入）
+     */
+    private static Class<?> getElementType(Class<?> type, Type genericType) {
+        if (type.isArray()) {
+            return type.getComponentType().isPrimitive() ? null : type.getComponentType();
+        }
+        int index;
+        if (type == List.class || type == Set.class || type == Collection.class) {
+            index = 0;
+        } else if (type == Map.class) {
+            index = 1;
+        } else {
+            return null;
+        }
+        if (!(genericType instanceof ParameterizedType)) {
+            return null;
+        }
+        Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        if (index == 1 && arguments[0] != String.class) {
+            return null;
+        }
+        Type argument = arguments[index];
+        if (argument instanceof Class) {
+            return (Class<?>) argument;
+        } else if (argument instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) argument).getRawType();
+        }
+        return null;
+    }
+
+    /**
+     * 配置类实例化为增强子类，@Bean方法之间的调用返回容器中的单例
+     * @return 增强子类中参数相同的构造方法，不能增强时返回配置类自己的构造方法
+     */
+    private static Constructor<?> enhancedConstructor(Class<?> configClass, Constructor<?> constructor) {
+        Class<?> enhanced = ConfigurationClassEnhancer.enhance(configClass);
+        if (enhanced == configClass) {
+            return constructor;
+        }
+        try {
+            return enhanced.getConstructor(constructor.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            // 私有构造方法没有被增强子类继承
+            return constructor;
+        }
+    }
+
+    /**
+     * 推断构造方法
+     * 1、使用了@Autowired的构造方法（只能有一个）
+     * 2、没有提供构造方法：调用默认的无参构造
+     * 3、提供了构造方法：
+     *   - 构造方法个数为1
+     *     - 构造方法参数个数为0：无参构造
+     *     - 构造方法参数个数不为0：从容器中按类型注入参数
+     *   - 构造方法个数 > 1：
+     *     - 提供了无参构造方法：调用无参构造方法实例化
+     *     - 没有提供无参构造方法：推断失败，抛出异常
+     * @param beanType bean的类型
+     * @return 构造方法
+     */
+    private static Constructor<?> determineConstructor(Class<?> beanType) {
+        Constructor<?> autowiredConstructor = null;
+        for (Constructor<?> constructor : beanType.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(Autowired.class)) {
+                if (autowiredConstructor != null) {
+                    throw new IllegalStateException("只能有一个构造方法使用@Autowired: " + beanType.getName());
+                }
+                autowiredConstructor = constructor;
+            }
+        }
+        if (autowiredConstructor != null) {
+            return autowiredConstructor;
+        }
+
+        // 获取所有构造方法
+        Constructor<?>[] constructors = beanType.getConstructors();
+        try {
+            if (constructors.length == 0) {
+                // 没有公共构造方法（如包可见的配置类的默认构造方法）：使用声明的无参构造方法
+                return beanType.getDeclaredConstructor();
+            } else if (constructors.length == 1) {
+                return constructors[0];
+            }
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("createBean-创建bean对象异常: ", e);
+        }
+        // 多个构造方法
+        for (Constructor<?> constructor : constructors) {
+            // 无参构造方法
+            if (constructor.getParameterCount() == 0) {
+                return constructor;
+            }
+        }
+        throw new IllegalStateException("No default constructor found.");
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    public InjectionPoint[] getConstructorParameters() {
+        return constructorParameters;
+    }
+
+    public InjectionPoint[] getInjectionPoints() {
+        return injectionPoints;
+    }
+
+    public Field[] getFields() {
+        return fields;
+    }
+
+    public BeanInstantiator getInstantiator() {
+        return instantiator;
+    }
+
+    /**
+     * 注入点（@Autowired字段或构造方法参数）
+     */
+    public static class InjectionPoint {
+
+        /**
+         * @Qualifier指定的名称，或者字段名/参数名（拿不到参数名时为null）
+         */
+        private final String name;
+
+        /**
+         * 名称是否来自@Qualifier（必须按该名称注入）
+         */
+        private final boolean qualified;
+
+        /**
+         * 字段/参数类型
+         */
+        private final Class<?> type;
+
+        private final boolean required;
+
+        /**
+         * ObjectProvider&lt;T&gt;、Supplier&lt;T&gt;注入点的泛型参数T，其他注入点为null
+         */
+        private final Class<?> providedType;
+
+        /**
+         * 集合、数组、Map注入点的元素类型，其他注入点为null
+         */
+        private final Class<?> elementType;
+
+        public InjectionPoint(String name, boolean qualified, Class<?> type, boolean required) {
+            this(name, qualified, type, required, null);
+        }
+
+        public InjectionPoint(String name, boolean qualified, Class<?> type, boolean required, Class<?> providedType) {
+            this(name, qualified, type, required, providedType, null);
+        }
+
+        public InjectionPoint(String name, boolean qualified, Class<?> type, boolean required, Class<?> providedType,
+                              Class<?> elementType) {
+            this.name = name;
+            this.qualified = qualified;
+            this.type = type;
+            this.required = required;
+            this.providedType = providedType;
+            this.elementType = elementType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isQualified() {
+            return qualified;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        /**
+         * 是否注入延迟获取bean的句柄（不在注入时创建bean，也不算作依赖）
+         */
+        public boolean isProvider() {
+            return providedType != null;
+        }
+
+        public Class<?> getProvidedType() {
+            return providedType;
+        }
+
+        /**
+         * 是否注入元素类型的所有bean（没有@Qualifier时）
+         */
+        public boolean isMultiple() {
+            return elementType != null && !qualified;
+        }
+
+        public Class<?> getElementType() {
+            return elementType;
+        }
+    }
+}
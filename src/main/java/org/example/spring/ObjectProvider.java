@@ -0,0 +1,29 @@
+package org.example.spring;
+
+import java.util.function.Supplier;
+
+/**
+ * -10/18-21:40
+ * -延迟获取bean的句柄：@Autowired ObjectProvider&lt;T&gt;（或Supplier&lt;T&gt;）字段/构造方法参数注入该句柄，
+ * -单例中使用原型、懒加载、作用域bean时不需要持有容器，每次调用get不再按名称/类型查找
+ */
+public interface ObjectProvider<T> extends Supplier<T> {
+
+    /**
+     * 获取bean（原型每次创建新对象）
+     * @return bean对象
+     * @throws org.example.spring.exception.NoSuchBeanException 没有该类型的bean
+     */
+    T getObject();
+
+    /**
+     * 获取bean
+     * @return 没有该类型的bean时返回null
+     */
+    T getIfAvailable();
+
+    @Override
+    default T get() {
+        return getObject();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.spring;
+
+/**
+ * -10/18-20:42
+ * -池化作用域的bean归还到对象池之前调用，清理上一次使用留下的状态
+ * -reset抛出异常时该实例不再放回对象池，并调用它的销毁回调
+ */
+public interface PooledBean {
+
+    void reset();
+}
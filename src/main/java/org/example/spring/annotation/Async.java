@@ -0,0 +1,15 @@
+package org.example.spring.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * -10/18-22:05
+ * -标注在ApplicationListener实现类上，事件在线程池中异步分发，发布事件的线程不等待监听器执行完
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+}
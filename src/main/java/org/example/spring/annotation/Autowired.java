@@ -7,9 +7,9 @@ import java.lang.annotation.Target;
 
 /**
  * -03/29-12:30
- * -属性注入注解
+ * -属性注入注解，标注在构造方法上时优先使用该构造方法
  */
-@Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD, ElementType.CONSTRUCTOR})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Autowired {
     boolean required() default true;
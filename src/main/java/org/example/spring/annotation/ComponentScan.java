@@ -7,10 +7,10 @@ import java.lang.annotation.Target;
 
 /**
  * -03/28-23:37
- * -扫描配置类注解
+ * -扫描配置类注解，可以指定多个包
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ComponentScan {
-    String value();
+    String[] value();
 }
@@ -0,0 +1,25 @@
+package org.example.spring.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * -10/18-22:05
+ * -BatchApplicationListener的批次配置，没有使用该注解时使用默认值
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EventBatch {
+
+    /**
+     * 一个批次最多包含的事件个数，攒够后立即分发
+     */
+    int maxSize() default 256;
+
+    /**
+     * 第一个事件进入队列后最多等待的时间（毫秒）
+     */
+    long maxDelay() default 100;
+}
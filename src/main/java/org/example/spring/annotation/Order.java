@@ -0,0 +1,17 @@
+package org.example.spring.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * -10/18-22:55
+ * -集合、数组、Map注入时bean的顺序，值小的在前；没有使用该注解的bean排在最后，相同的按注册顺序
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Order {
+
+    int value();
+}
@@ -0,0 +1,35 @@
+package org.example.spring.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * -10/18-20:40
+ * -池化作用域（@Scope("pooled")）的对象池配置，没有使用该注解时使用默认值
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Pooled {
+
+    /**
+     * 第一次获取时预先创建、空闲回收时至少保留的实例个数
+     */
+    int minIdle() default 0;
+
+    /**
+     * 最多同时存在的实例个数（借出的和空闲的）
+     */
+    int maxTotal() default 8;
+
+    /**
+     * 空闲超过该时间（毫秒）的实例被回收，小于等于0时不回收
+     */
+    long idleTimeout() default 60000;
+
+    /**
+     * 实例全部借出时最多等待的时间（毫秒），超时抛出BeanPoolExhaustedException
+     */
+    long maxWait() default 1000;
+}
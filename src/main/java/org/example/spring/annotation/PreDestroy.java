@@ -0,0 +1,15 @@
+package org.example.spring.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * -10/18-22:30
+ * -标注在无参方法上，容器关闭（或者作用域结束）销毁bean时调用，在DisposableBean.destroy()之前
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PreDestroy {
+}
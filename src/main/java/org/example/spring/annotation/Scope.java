@@ -7,7 +7,7 @@ import java.lang.annotation.Target;
 
 /**
  * -03/28-23:33
- * -Scope注解
+ * -Scope注解：singleton（默认）、pooled（对象池，配合@Pooled配置）、thread、task或者注册的自定义作用域，其他值每次获取都创建新对象
  */
 @Target(ElementType.TYPE) // 接口、类
 @Retention(RetentionPolicy.RUNTIME) // 运行时加载
@@ -0,0 +1,25 @@
+package org.example.spring.aop;
+
+/**
+ * -10/18-17:08
+ * -切点和拦截器的组合
+ */
+public class Advisor {
+
+    private final Pointcut pointcut;
+
+    private final MethodInterceptor interceptor;
+
+    public Advisor(Pointcut pointcut, MethodInterceptor interceptor) {
+        this.pointcut = pointcut;
+        this.interceptor = interceptor;
+    }
+
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    public MethodInterceptor getInterceptor() {
+        return interceptor;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.spring.aop;
+
+/**
+ * -10/18-17:10
+ * -生成的代理类实现的接口
+ */
+public interface AopProxy {
+
+    /**
+     * 获取被代理的目标对象
+     * @return 目标对象
+     */
+    Object getTargetObject();
+
+    /**
+     * 创建代理对象后由ProxyGenerator调用，设置目标对象和每个方法的拦截器链
+     * @param target 目标对象
+     * @param methods 需要拦截的方法（与生成代码中的下标对应）
+     */
+    void initializeProxy(Object target, ProxyMethod[] methods);
+}
@@ -0,0 +1,105 @@
+package org.example.spring.aop;
+
+import org.example.spring.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * -10/18-17:40
+ * -在bean初始化后为其生成代理，使用方式：继承该类并注册为组件，在构造方法中调用addAdvisor注册切面
+ * <pre>
+ * &#64;Component
+ * public class TimingAspect extends AopProxyPostProcessor {
+ *     public TimingAspect() {
+ *         addAdvisor(Pointcut.annotatedWith(Timed.class), invocation -> { ... return invocation.proceed(); });
+ *     }
+ * }
+ * </pre>
+ * -代理类按目标类缓存，只生成一次；没有方法被切点匹配的bean不会被代理（也不会进入该处理器的处理链）
+ */
+public class AopProxyPostProcessor implements BeanPostProcessor<Object> {
+
+    private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 目标类 -> 代理类，不需要代理的类为Optional.empty()
+     */
+    private final Map<Class<?>, Optional<ProxyGenerator.ProxyClass>> proxyClasses = new ConcurrentHashMap<>();
+
+    /**
+     * 已经提前生成代理的单例：bean名称 -> 目标对象
+     */
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>();
+
+    /**
+     * 注册切面，需要在bean创建之前注册（一般在构造方法中）
+     * @param pointcut 切点
+     * @param interceptor 拦截器，同一个方法上按注册顺序执行
+     */
+    public void addAdvisor(Pointcut pointcut, MethodInterceptor interceptor) {
+        advisors.add(new Advisor(pointcut, interceptor));
+        proxyClasses.clear();
+    }
+
+    public List<Advisor> getAdvisors() {
+        return advisors;
+    }
+
+    /**
+     * 至少有一个可以被代理的方法被切点匹配时才处理（子类代理包括protected和包访问权限的方法，接口代理只有公共方法）
+     */
+    @Override
+    public boolean supports(Class<?> beanType) {
+        if (BeanPostProcessor.class.isAssignableFrom(beanType) || AopProxy.class.isAssignableFrom(beanType)) {
+            return false;
+        }
+        Map<String, Method> overridable = ProxyGenerator.overridableMethods(beanType);
+        Collection<Method> methods = overridable != null && !Modifier.isFinal(beanType.getModifiers())
+                ? overridable.values() : Arrays.asList(beanType.getMethods());
+        for (Method method : methods) {
+            for (Advisor advisor : advisors) {
+                if (advisor.getPointcut().matches(method, beanType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 循环依赖中提前暴露的单例：提前生成代理，注入到其他bean中的是代理对象
+     */
+    @Override
+    public Object getEarlyBeanReference(Object bean, String beanName) {
+        earlyProxyReferences.put(beanName, bean);
+        return wrapIfNecessary(bean);
+    }
+
+    /**
+     * 已经提前生成代理的bean原样返回，由容器使用提前暴露的代理对象
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (beanName != null && earlyProxyReferences.remove(beanName) == bean) {
+            return bean;
+        }
+        return wrapIfNecessary(bean);
+    }
+
+    private Object wrapIfNecessary(Object bean) {
+        if (bean instanceof AopProxy) {
+            return bean;
+        }
+        Optional<ProxyGenerator.ProxyClass> proxyClass = proxyClasses.computeIfAbsent(bean.getClass(),
+                type -> Optional.ofNullable(ProxyGenerator.generate(type, advisors)));
+        return proxyClass.isPresent() ? proxyClass.get().newProxy(bean) : bean;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.spring.aop;
+
+/**
+ * -10/18-17:05
+ * -方法拦截器（环绕通知），调用invocation.proceed()执行下一个拦截器或者目标方法
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+
+    /**
+     * 拦截方法调用
+     * @param invocation 方法调用
+     * @return 方法返回值（基本类型为包装类，void方法返回null）
+     * @throws Throwable 目标方法或拦截器抛出的异常，原样抛给调用方
+     */
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
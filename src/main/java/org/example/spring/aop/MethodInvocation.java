@@ -0,0 +1,58 @@
+package org.example.spring.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * -10/18-17:12
+ * -一次被拦截的方法调用，按顺序执行拦截器，最后调用目标方法
+ */
+public class MethodInvocation {
+
+    private final ProxyMethod proxyMethod;
+
+    private final Object target;
+
+    private final Object[] arguments;
+
+    /**
+     * 下一个要执行的拦截器
+     */
+    private int index;
+
+    MethodInvocation(ProxyMethod proxyMethod, Object target, Object[] arguments) {
+        this.proxyMethod = proxyMethod;
+        this.target = target;
+        this.arguments = arguments;
+    }
+
+    /**
+     * 执行下一个拦截器，没有拦截器时调用目标方法
+     * @return 方法返回值
+     * @throws Throwable 目标方法或拦截器抛出的异常
+     */
+    public Object proceed() throws Throwable {
+        MethodInterceptor[] interceptors = proxyMethod.getInterceptors();
+        if (index < interceptors.length) {
+            return interceptors[index++].invoke(this);
+        }
+        return proxyMethod.invokeTarget(target, arguments);
+    }
+
+    public Method getMethod() {
+        return proxyMethod.getMethod();
+    }
+
+    /**
+     * 方法参数，拦截器可以在proceed()之前修改
+     */
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * 目标对象（不是代理对象）
+     */
+    public Object getThis() {
+        return target;
+    }
+}
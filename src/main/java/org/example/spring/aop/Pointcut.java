@@ -0,0 +1,38 @@
+package org.example.spring.aop;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * -10/18-17:06
+ * -切点：判断方法是否需要被拦截，只在生成代理类时调用一次
+ */
+@FunctionalInterface
+public interface Pointcut {
+
+    /**
+     * @param method 代理的方法
+     * @param targetClass 目标bean的类型
+     * @return 是否拦截该方法
+     */
+    boolean matches(Method method, Class<?> targetClass);
+
+    /**
+     * 方法或者目标类上使用了指定注解
+     * @param annotationType 注解类型（需要RUNTIME保留）
+     * @return 切点
+     */
+    static Pointcut annotatedWith(Class<? extends Annotation> annotationType) {
+        return (method, targetClass) -> method.isAnnotationPresent(annotationType)
+                || targetClass.isAnnotationPresent(annotationType);
+    }
+
+    /**
+     * 目标类是指定类型（包括子类和实现类）的所有方法
+     * @param type 类型
+     * @return 切点
+     */
+    static Pointcut forType(Class<?> type) {
+        return (method, targetClass) -> type.isAssignableFrom(targetClass);
+    }
+}
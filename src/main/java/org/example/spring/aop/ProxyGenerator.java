@@ -0,0 +1,428 @@
+package org.example.spring.aop;
+
+import org.example.spring.classfile.ClassDefiner;
+import org.example.spring.classfile.ClassFileWriter;
+import org.example.spring.classfile.Opcodes;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.spring.classfile.ClassFileWriter.*;
+
+/**
+ * -10/18-17:20
+ * -生成代理类：优先生成目标类的子类，目标类是final等情况下生成实现目标类所有接口的代理类
+ * -没有拦截器的方法直接调用目标对象（invokevirtual/invokeinterface），不装箱也不经过反射；
+ * -需要拦截的方法把参数装箱后交给预先计算好拦截器链的ProxyMethod
+ * -子类代理重写所有非private、非static的方法（包括protected和包访问权限的方法）并转发给目标对象；
+ * -目标类有final方法或者其他包中的包访问权限方法时不能完整转发，改为生成接口代理
+ * -代理类定义在目标类所在的包中（需要Java 9+），不支持时返回null
+ */
+public class ProxyGenerator {
+
+    private static final String TARGET_FIELD = "$$target";
+
+    private static final String METHODS_FIELD = "$$methods";
+
+    private static final String PROXY_METHOD = internalName(ProxyMethod.class);
+
+    private static final String PROXY_METHODS_DESCRIPTOR = "[L" + PROXY_METHOD + ";";
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * 不调用构造方法创建对象（与Java序列化相同的方式），不支持时为null
+     */
+    private static final Object REFLECTION_FACTORY;
+
+    private static final Method NEW_CONSTRUCTOR_FOR_SERIALIZATION;
+
+    static {
+        Object reflectionFactory = null;
+        Method newConstructor = null;
+        try {
+            Class<?> factoryType = Class.forName("sun.reflect.ReflectionFactory");
+            reflectionFactory = factoryType.getMethod("getReflectionFactory").invoke(null);
+            newConstructor = factoryType.getMethod("newConstructorForSerialization", Class.class, Constructor.class);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            reflectionFactory = null;
+        }
+        REFLECTION_FACTORY = reflectionFactory;
+        NEW_CONSTRUCTOR_FOR_SERIALIZATION = newConstructor;
+    }
+
+    /**
+     * 生成代理类
+     * @param targetClass 目标对象的类型
+     * @param advisors 切面
+     * @return 代理类，没有方法需要拦截或者不能生成代理时返回null
+     */
+    public static ProxyClass generate(Class<?> targetClass, List<Advisor> advisors) {
+        if (!ClassDefiner.isSupported() || targetClass.isInterface() || targetClass.isArray() || targetClass.isPrimitive()) {
+            return null;
+        }
+        ProxyClass proxyClass = null;
+        if (!Modifier.isFinal(targetClass.getModifiers())) {
+            proxyClass = generateSubclass(targetClass, advisors);
+        }
+        if (proxyClass == null) {
+            proxyClass = generateInterfaceProxy(targetClass, advisors);
+        }
+        return proxyClass;
+    }
+
+    private static ProxyClass generateSubclass(Class<?> targetClass, List<Advisor> advisors) {
+        Map<String, Method> methods = overridableMethods(targetClass);
+        if (methods == null) {
+            return null;
+        }
+        Map<String, Method[]> candidates = new LinkedHashMap<>();
+        for (Map.Entry<String, Method> entry : methods.entrySet()) {
+            candidates.put(entry.getKey(), new Method[]{entry.getValue(), entry.getValue()});
+        }
+        Constructor<?> superConstructor = null;
+        try {
+            superConstructor = targetClass.getDeclaredConstructor();
+            if (Modifier.isPrivate(superConstructor.getModifiers())) {
+                superConstructor = null;
+            }
+        } catch (NoSuchMethodException e) {
+            // 没有无参构造方法，只能不调用构造方法创建
+        }
+        if (superConstructor == null && REFLECTION_FACTORY == null) {
+            return null;
+        }
+        return define(targetClass, true, candidates.values(), advisors, superConstructor != null);
+    }
+
+    /**
+     * 子类代理需要重写的方法：公共方法，以及类层次中声明的protected和包访问权限的实例方法
+     * 子类代理对象没有执行目标类的构造方法，所有能被调用的方法都必须转发给目标对象
+     * @param targetClass 目标类
+     * @return 方法签名 -> 最具体的声明，存在不能重写的方法（final方法、其他包中的包访问权限方法）时返回null
+     */
+    static Map<String, Method> overridableMethods(Class<?> targetClass) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers)) {
+                continue;
+            }
+            if (Modifier.isFinal(modifiers)) {
+                // Object的final方法（getClass、wait、notify）与对象状态无关
+                if (method.getDeclaringClass() != Object.class) {
+                    return null;
+                }
+                continue;
+            }
+            methods.putIfAbsent(signature(method), method);
+        }
+        for (Class<?> type = targetClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || Modifier.isPublic(modifiers)) {
+                    continue;
+                }
+                String key = signature(method);
+                // 子类中已经重写；finalize不转发，避免目标对象被执行两次
+                if (methods.containsKey(key) || "finalize()V".equals(key)) {
+                    continue;
+                }
+                if (Modifier.isFinal(modifiers)) {
+                    return null;
+                }
+                if (!samePackage(type, targetClass)) {
+                    if (!Modifier.isProtected(modifiers)) {
+                        return null;
+                    }
+                    // 其他包中的protected方法不能从代理类直接调用，通过反射调用
+                    try {
+                        method.setAccessible(true);
+                    } catch (RuntimeException e) {
+                        return null;
+                    }
+                }
+                methods.put(key, method);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * 代理类是否不能直接调用目标对象的该方法（其他包中声明的protected方法）
+     */
+    private static boolean requiresReflection(Method method, Class<?> targetClass) {
+        return Modifier.isProtected(method.getModifiers()) && !samePackage(method.getDeclaringClass(), targetClass);
+    }
+
+    private static boolean samePackage(Class<?> a, Class<?> b) {
+        String nameA = a.getName();
+        String nameB = b.getName();
+        int indexA = nameA.lastIndexOf('.');
+        int indexB = nameB.lastIndexOf('.');
+        return a.getClassLoader() == b.getClassLoader() && indexA == indexB
+                && nameA.regionMatches(0, nameB, 0, Math.max(indexA, 0));
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + methodDescriptor(method.getReturnType(), method.getParameterTypes());
+    }
+
+    private static ProxyClass generateInterfaceProxy(Class<?> targetClass, List<Advisor> advisors) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> type = targetClass; type != null; type = type.getSuperclass()) {
+            for (Class<?> anInterface : type.getInterfaces()) {
+                interfaces.add(anInterface);
+            }
+        }
+        if (interfaces.isEmpty()) {
+            return null;
+        }
+        Map<String, Method[]> candidates = new LinkedHashMap<>();
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> anInterface : interfaces) {
+            for (Method method : anInterface.getMethods()) {
+                methods.add(method);
+            }
+        }
+        for (String name : new String[]{"equals", "hashCode", "toString"}) {
+            for (Method method : Object.class.getMethods()) {
+                if (method.getName().equals(name)) {
+                    methods.add(method);
+                }
+            }
+        }
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String key = signature(method);
+            if (!candidates.containsKey(key)) {
+                // 切点匹配和调用目标方法都使用目标类上的实现方法（可以读取实现方法上的注解）
+                Method specific;
+                try {
+                    specific = targetClass.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    specific = method;
+                }
+                candidates.put(key, new Method[]{method, specific});
+            }
+        }
+        String[] interfaceNames = new String[interfaces.size()];
+        int i = 0;
+        for (Class<?> anInterface : interfaces) {
+            interfaceNames[i++] = internalName(anInterface);
+        }
+        return define(targetClass, false, candidates.values(), advisors, false, interfaceNames);
+    }
+
+    /**
+     * @param candidates 每个元素为 {声明方法, 目标类上的实现方法}
+     * @param superConstructor 子类代理是否可以调用父类的无参构造方法
+     */
+    private static ProxyClass define(Class<?> targetClass, boolean subclass, Iterable<Method[]> candidates,
+                                     List<Advisor> advisors, boolean superConstructor, String... interfaceNames) {
+        List<Method> signatures = new ArrayList<>();
+        List<ProxyMethod> proxyMethods = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        boolean intercepted = false;
+        for (Method[] candidate : candidates) {
+            List<MethodInterceptor> interceptors = new ArrayList<>();
+            for (Advisor advisor : advisors) {
+                if (advisor.getPointcut().matches(candidate[1], targetClass)) {
+                    interceptors.add(advisor.getInterceptor());
+                }
+            }
+            signatures.add(candidate[0]);
+            intercepted |= !interceptors.isEmpty();
+            if (interceptors.isEmpty() && !(subclass && requiresReflection(candidate[1], targetClass))) {
+                indexes.add(-1);
+            } else {
+                // 没有拦截器但不能直接调用的方法也通过ProxyMethod转发（拦截器链为空）
+                indexes.add(proxyMethods.size());
+                proxyMethods.add(new ProxyMethod(candidate[1], interceptors.toArray(new MethodInterceptor[0])));
+            }
+        }
+        if (!intercepted) {
+            return null;
+        }
+
+        String name = internalName(targetClass) + (subclass ? "$$ProxyByMySpring$$" : "$$InterfaceProxyByMySpring$$")
+                + COUNTER.incrementAndGet();
+        String[] allInterfaces = new String[interfaceNames.length + 1];
+        System.arraycopy(interfaceNames, 0, allInterfaces, 0, interfaceNames.length);
+        allInterfaces[interfaceNames.length] = internalName(AopProxy.class);
+        byte[] bytes = generateClass(name, targetClass, subclass, superConstructor, allInterfaces, signatures, indexes);
+        Class<?> proxyType = ClassDefiner.defineClass(targetClass, bytes);
+        if (proxyType == null) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor;
+            if (subclass && REFLECTION_FACTORY != null) {
+                // 不调用目标类的构造方法，避免构造方法的副作用
+                constructor = (Constructor<?>) NEW_CONSTRUCTOR_FOR_SERIALIZATION.invoke(REFLECTION_FACTORY, proxyType,
+                        Object.class.getDeclaredConstructor());
+            } else {
+                constructor = proxyType.getDeclaredConstructor();
+            }
+            constructor.setAccessible(true);
+            return new ProxyClass(proxyType, constructor, proxyMethods.toArray(new ProxyMethod[0]));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] generateClass(String name, Class<?> targetClass, boolean subclass, boolean superConstructor,
+                                        String[] interfaceNames, List<Method> methods, List<Integer> indexes) {
+        String superName = subclass ? internalName(targetClass) : "java/lang/Object";
+        String targetDescriptor = subclass ? descriptor(targetClass) : "Ljava/lang/Object;";
+        ClassFileWriter writer = new ClassFileWriter(ACC_PUBLIC | ACC_FINAL, name, superName, interfaceNames);
+        writer.addField(ACC_PRIVATE, TARGET_FIELD, targetDescriptor);
+        writer.addField(ACC_PRIVATE, METHODS_FIELD, PROXY_METHODS_DESCRIPTOR);
+        int targetField = writer.fieldRef(name, TARGET_FIELD, targetDescriptor);
+        int methodsField = writer.fieldRef(name, METHODS_FIELD, PROXY_METHODS_DESCRIPTOR);
+
+        if (!subclass || superConstructor) {
+            writer.addMethod(ACC_PUBLIC, "<init>", "()V")
+                    .local(Opcodes.ALOAD, 0)
+                    .op(Opcodes.INVOKESPECIAL, writer.methodRef(superName, "<init>", "()V"))
+                    .op(Opcodes.RETURN)
+                    .maxs(1, 1);
+        }
+
+        // Object getTargetObject() { return this.$$target; }
+        writer.addMethod(ACC_PUBLIC, "getTargetObject", "()Ljava/lang/Object;")
+                .local(Opcodes.ALOAD, 0)
+                .op(Opcodes.GETFIELD, targetField)
+                .op(Opcodes.ARETURN)
+                .maxs(1, 1);
+
+        // void initializeProxy(Object target, ProxyMethod[] methods) { this.$$target = (T) target; this.$$methods = methods; }
+        ClassFileWriter.MethodWriter initialize = writer.addMethod(ACC_PUBLIC, "initializeProxy",
+                "(Ljava/lang/Object;" + PROXY_METHODS_DESCRIPTOR + ")V");
+        initialize.local(Opcodes.ALOAD, 0).local(Opcodes.ALOAD, 1);
+        if (subclass) {
+            initialize.op(Opcodes.CHECKCAST, writer.classRef(internalName(targetClass)));
+        }
+        initialize.op(Opcodes.PUTFIELD, targetField)
+                .local(Opcodes.ALOAD, 0)
+                .local(Opcodes.ALOAD, 2)
+                .op(Opcodes.PUTFIELD, methodsField)
+                .op(Opcodes.RETURN)
+                .maxs(2, 3);
+
+        int invoke = writer.methodRef(PROXY_METHOD, "invoke", "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;");
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            Class<?> returnType = method.getReturnType();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            String descriptor = methodDescriptor(returnType, parameterTypes);
+            int parameterSlots = 0;
+            for (Class<?> parameterType : parameterTypes) {
+                parameterSlots += slots(parameterType);
+            }
+            ClassFileWriter.MethodWriter code = writer.addMethod(ACC_PUBLIC, method.getName(), descriptor);
+            int index = indexes.get(i);
+            if (index < 0) {
+                // 直接调用：return this.$$target.method(args);
+                code.local(Opcodes.ALOAD, 0).op(Opcodes.GETFIELD, targetField);
+                Class<?> owner = method.getDeclaringClass();
+                boolean viaInterface = !subclass && owner.isInterface();
+                if (viaInterface) {
+                    code.op(Opcodes.CHECKCAST, writer.classRef(internalName(owner)));
+                }
+                int slot = 1;
+                for (Class<?> parameterType : parameterTypes) {
+                    code.load(parameterType, slot);
+                    slot += slots(parameterType);
+                }
+                if ("equals".equals(method.getName()) && "(Ljava/lang/Object;)Z".equals(descriptor)) {
+                    // 与另一个代理对象比较时比较目标对象
+                    code.op(Opcodes.INVOKESTATIC, writer.methodRef(internalName(ProxyGenerator.class), "unwrap",
+                            "(Ljava/lang/Object;)Ljava/lang/Object;"));
+                }
+                if (viaInterface) {
+                    code.invokeInterface(writer.interfaceMethodRef(internalName(owner), method.getName(), descriptor), parameterSlots);
+                } else {
+                    String ownerName = subclass ? internalName(targetClass) : "java/lang/Object";
+                    code.op(Opcodes.INVOKEVIRTUAL, writer.methodRef(ownerName, method.getName(), descriptor));
+                }
+                code.returnValue(returnType)
+                        .maxs(Math.max(parameterSlots + 1, slots(returnType)), parameterSlots + 1);
+            } else {
+                // 拦截：return (R) this.$$methods[index].invoke(this.$$target, new Object[]{args});
+                code.local(Opcodes.ALOAD, 0).op(Opcodes.GETFIELD, methodsField).pushInt(index).op(Opcodes.AALOAD)
+                        .local(Opcodes.ALOAD, 0).op(Opcodes.GETFIELD, targetField)
+                        .pushInt(parameterTypes.length).op(Opcodes.ANEWARRAY, writer.classRef("java/lang/Object"));
+                int slot = 1;
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    code.op(Opcodes.DUP).pushInt(j).load(parameterTypes[j], slot).box(parameterTypes[j]).op(Opcodes.AASTORE);
+                    slot += slots(parameterTypes[j]);
+                }
+                code.op(Opcodes.INVOKEVIRTUAL, invoke);
+                if (returnType == void.class) {
+                    code.op(Opcodes.POP);
+                } else {
+                    code.unbox(returnType);
+                }
+                code.returnValue(returnType).maxs(7, parameterSlots + 1);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 获取代理对象的目标对象，生成的equals方法调用
+     * @param object 任意对象
+     * @return 代理对象返回目标对象，其他对象原样返回
+     */
+    public static Object unwrap(Object object) {
+        return object instanceof AopProxy ? ((AopProxy) object).getTargetObject() : object;
+    }
+
+    /**
+     * 生成的代理类和它需要拦截的方法
+     */
+    public static class ProxyClass {
+
+        private final Class<?> proxyType;
+
+        private final Constructor<?> constructor;
+
+        private final ProxyMethod[] methods;
+
+        ProxyClass(Class<?> proxyType, Constructor<?> constructor, ProxyMethod[] methods) {
+            this.proxyType = proxyType;
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+
+        /**
+         * 创建代理对象
+         * @param target 目标对象
+         * @return 代理对象
+         */
+        public Object newProxy(Object target) {
+            try {
+                AopProxy proxy = (AopProxy) constructor.newInstance();
+                proxy.initializeProxy(target, methods);
+                return proxy;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("创建代理对象失败: " + proxyType.getName(), e);
+            }
+        }
+
+        public Class<?> getProxyType() {
+            return proxyType;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.spring.aop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * -10/18-17:15
+ * -代理类中需要拦截的方法：预先计算好的拦截器链和调用目标方法的MethodHandle
+ */
+public class ProxyMethod {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+
+    private final MethodInterceptor[] interceptors;
+
+    /**
+     * (Object target, Object[] args)Object
+     */
+    private final MethodHandle targetHandle;
+
+    ProxyMethod(Method method, MethodInterceptor[] interceptors) {
+        this.method = method;
+        this.interceptors = interceptors;
+        try {
+            method.setAccessible(true);
+            this.targetHandle = MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("创建代理方法失败: " + method, e);
+        }
+    }
+
+    /**
+     * 生成的代理方法调用该方法
+     * @param target 目标对象
+     * @param arguments 装箱后的参数
+     * @return 返回值（基本类型为包装类，void方法返回null）
+     * @throws Throwable 异常原样抛给调用方（字节码不检查受检异常）
+     */
+    public Object invoke(Object target, Object[] arguments) throws Throwable {
+        return new MethodInvocation(this, target, arguments).proceed();
+    }
+
+    Object invokeTarget(Object target, Object[] arguments) throws Throwable {
+        return (Object) targetHandle.invokeExact(target, arguments);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    MethodInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+}
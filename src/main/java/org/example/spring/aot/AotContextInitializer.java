@@ -0,0 +1,28 @@
+package org.example.spring.aot;
+
+import org.example.spring.model.ResourceModel;
+
+/**
+ * -10/18-19:45
+ * -编译期生成的容器初始化器：直接注册bean定义，bean通过构造方法、setter和@Bean方法直接创建，不扫描类路径也不做反射
+ * -由 {@link ContextInitializerProcessor} 为@ComponentScan配置类生成，类名为 配置类名__ContextInitializer
+ */
+public interface AotContextInitializer {
+
+    /**
+     * 运行时开启AOT模式的系统属性（-Dmy-spring.aot=true）
+     */
+    String ENABLED_PROPERTY = "my-spring.aot";
+
+    /**
+     * 生成的初始化器类名后缀
+     */
+    String CLASS_SUFFIX = "__ContextInitializer";
+
+    /**
+     * 按扫描时的顺序注册bean定义
+     * @param resourceModel 容器
+     * @throws ClassNotFoundException 不能直接创建的组件退回反射注册时类找不到
+     */
+    void initialize(ResourceModel resourceModel) throws ClassNotFoundException;
+}
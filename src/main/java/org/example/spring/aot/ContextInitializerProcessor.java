@@ -0,0 +1,875 @@
+package org.example.spring.aot;
+
+import org.example.spring.ObjectProvider;
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.ComponentScan;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.annotation.Lazy;
+import org.example.spring.annotation.Qualifier;
+import org.example.spring.index.ComponentIndex;
+import org.example.spring.index.ComponentIndexProcessor;
+import org.example.spring.instantiator.ConfigurationClassEnhancer;
+import org.example.spring.utils.AotUtils;
+import org.example.spring.utils.GetBeanUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * -10/18-20:00
+ * -注解处理器：为@ComponentScan配置类生成 {@link AotContextInitializer}，按扫描时的顺序注册本次编译的组件，
+ * -每个组件在所在的包中生成一个注册类：bean通过构造方法、字段赋值/setter直接创建，
+ * -@Configuration配置类生成源码形式的增强子类，@Bean方法直接调用
+ * -通过编译参数 -Amyspring.aot=true 开启（注解处理器参数名不能包含-），运行时加 -Dmy-spring.aot=true 使用；
+ * -私有的构造方法/@Bean方法、没有setter的私有@Autowired字段等无法直接访问的组件会给出警告，运行时退回反射创建
+ */
+@SupportedAnnotationTypes({
+        "org.example.spring.annotation.ComponentScan",
+        "org.example.spring.annotation.Component",
+        "org.example.spring.annotation.Configuration"
+})
+@SupportedOptions(ContextInitializerProcessor.AOT_OPTION)
+public class ContextInitializerProcessor extends AbstractProcessor {
+
+    /**
+     * 开启生成的注解处理器参数
+     */
+    public static final String AOT_OPTION = "myspring.aot";
+
+    private static final String ENHANCED_SUFFIX = "__Enhanced";
+
+    private static final String REGISTRATION_SUFFIX = "__BeanRegistration";
+
+    /**
+     * 本次编译发现的组件，按类名排序
+     */
+    private final Map<String, TypeElement> components = new TreeMap<>();
+
+    /**
+     * 已经生成的注册类，多个@ComponentScan配置类扫描到同一个组件时只生成一次
+     */
+    private final Set<String> registrations = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(AOT_OPTION))) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            addComponent(element);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Configuration.class)) {
+            addComponent(element);
+        }
+        // 生成的源码在下一轮编译，最后一轮不能再生成
+        if (!roundEnv.processingOver()) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(ComponentScan.class)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    writeInitializer((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addComponent(Element element) {
+        if (element.getKind() == ElementKind.CLASS) {
+            TypeElement typeElement = (TypeElement) element;
+            components.put(binaryName(typeElement), typeElement);
+        }
+    }
+
+    /**
+     * 生成初始化器，组件的顺序与ScanBeanUtils一致：按包的声明顺序、类名顺序
+     * @param scanClass @ComponentScan配置类
+     */
+    private void writeInitializer(TypeElement scanClass) {
+        Map<String, TypeElement> candidates = new LinkedHashMap<>();
+        for (String basePackage : scanClass.getAnnotation(ComponentScan.class).value()) {
+            if ("".equals(basePackage)) {
+                continue;
+            }
+            String prefix = basePackage + ".";
+            for (Map.Entry<String, TypeElement> entry : components.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    candidates.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(scanClass);
+        String initializerName = AotUtils.getInitializerClassName(binaryName(scanClass));
+        String simpleName = initializerName.substring(initializerName.lastIndexOf('.') + 1);
+
+        SourceWriter source = new SourceWriter();
+        writeHeader(source, packageElement, scanClass)
+                .open("public final class " + simpleName + " implements AotContextInitializer")
+                .line()
+                .line("@Override")
+                .open("public void initialize(ResourceModel resourceModel) throws ClassNotFoundException")
+                .line("ClassLoader classLoader = " + simpleName + ".class.getClassLoader();");
+        for (TypeElement candidate : candidates.values()) {
+            source.line(writeRegistration(candidate) + ".register(resourceModel, classLoader);");
+        }
+        source.close().close();
+        writeSource(initializerName, source, scanClass);
+    }
+
+    /**
+     * 为组件生成注册类，放在组件所在的包中，可以访问包可见的构造方法、字段和@Bean方法
+     * @param type 组件
+     * @return 注册类的全限定名
+     */
+    private String writeRegistration(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String className = qualify(packageElement, flatName(type) + REGISTRATION_SUFFIX);
+        if (!registrations.add(className)) {
+            return className;
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        SourceWriter source = new SourceWriter();
+        writeHeader(source, packageElement, type)
+                .open("public final class " + simpleName)
+                .line()
+                .open("private " + simpleName + "()")
+                .close()
+                .line()
+                .open("public static void register(ResourceModel resourceModel, ClassLoader classLoader) throws ClassNotFoundException");
+        ComponentIndex.Entry entry = ComponentIndexProcessor.toEntry(binaryName(type), type);
+        if (entry.isConfiguration()) {
+            writeConfiguration(source, type, packageElement);
+        } else {
+            writeComponent(source, type, entry, packageElement);
+        }
+        source.close().close();
+        writeSource(className, source, type);
+        return className;
+    }
+
+    private static SourceWriter writeHeader(SourceWriter source, PackageElement packageElement, TypeElement origin) {
+        if (!packageElement.isUnnamed()) {
+            source.line("package " + packageElement.getQualifiedName() + ";").line();
+        }
+        return source.line("import org.example.spring.BeanDefinition;")
+                .line("import org.example.spring.InjectionMetadata;")
+                .line("import org.example.spring.aot.AotContextInitializer;")
+                .line("import org.example.spring.instantiator.BeanInstantiator;")
+                .line("import org.example.spring.instantiator.FactoryMethodInvoker;")
+                .line("import org.example.spring.model.ResourceModel;")
+                .line("import org.example.spring.utils.ScanBeanUtils;")
+                .line()
+                .line("/**")
+                .line(" * 由 " + ContextInitializerProcessor.class.getSimpleName() + " 根据 " + origin.getQualifiedName() + " 生成，不要修改")
+                .line(" */")
+                .line("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+    }
+
+    /**
+     * 注册@Component组件
+     */
+    private void writeComponent(SourceWriter out, TypeElement type, ComponentIndex.Entry entry, PackageElement target) {
+        String beanName = "".equals(entry.getBeanName()) ? GetBeanUtils.getBeanName(type.getSimpleName().toString()) : entry.getBeanName();
+        String reason = checkInstantiable(type, target);
+        ExecutableElement constructor = reason == null ? determineConstructor(type) : null;
+        if (reason == null && constructor == null) {
+            reason = "无法推断构造方法";
+        }
+        if (reason == null) {
+            reason = checkConstructor(constructor, target);
+        }
+        List<String> injectors = new ArrayList<>();
+        if (reason == null) {
+            reason = collectInjectors(type, target, injectors);
+        }
+        if (reason != null) {
+            warn(type, reason);
+            out.line("ScanBeanUtils.registerComponent(" + literal(beanName) + ", " + loadClass(type) + ", "
+                    + literal(entry.getScope()) + ", " + entry.isLazy() + ", resourceModel);");
+            return;
+        }
+        String typeName = type.getQualifiedName().toString();
+        out.line("BeanDefinition beanDefinition = new BeanDefinition();")
+                .line("beanDefinition.setType(" + typeName + ".class);")
+                .line("beanDefinition.setScope(" + literal(entry.getScope()) + ");")
+                .line("beanDefinition.setLazy(" + entry.isLazy() + ");");
+        writeInjectionMetadata(out, "beanDefinition", type, typeName, constructor, injectors);
+        out.line("ScanBeanUtils.registerComponent(" + literal(beanName) + ", beanDefinition, resourceModel);");
+    }
+
+    /**
+     * 注册@Configuration配置类和其中的@Bean方法
+     */
+    private void writeConfiguration(SourceWriter out, TypeElement type, PackageElement target) {
+        String reason = checkInstantiable(type, target);
+        if (reason == null && (type.getModifiers().contains(Modifier.FINAL) || !type.getTypeParameters().isEmpty())) {
+            reason = "final或者带泛型参数的配置类不能生成增强子类";
+        }
+        ExecutableElement constructor = reason == null ? determineConstructor(type) : null;
+        if (reason == null && constructor == null) {
+            reason = "无法推断构造方法";
+        }
+        if (reason == null) {
+            reason = checkConstructor(constructor, target);
+        }
+        List<String> injectors = new ArrayList<>();
+        if (reason == null) {
+            reason = collectInjectors(type, target, injectors);
+        }
+        List<ExecutableElement> beanMethods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getAnnotation(Bean.class) != null) {
+                beanMethods.add(method);
+                if (reason == null) {
+                    reason = checkBeanMethod(method, target);
+                }
+            }
+        }
+        // 与ScanBeanUtils.registerBeanMethods的注册顺序一致：按方法名、参数个数
+        beanMethods.sort(Comparator.comparing((ExecutableElement method) -> method.getSimpleName().toString())
+                .thenComparingInt(method -> method.getParameters().size()));
+        if (reason != null) {
+            warn(type, reason);
+            out.line("ScanBeanUtils.registerBeanMethods(" + loadClass(type) + ", resourceModel);");
+            return;
+        }
+
+        PackageElement configPackage = processingEnv.getElementUtils().getPackageOf(type);
+        String enhancedName = qualify(configPackage, flatName(type) + ENHANCED_SUFFIX);
+        writeEnhancedClass(type, enhancedName, constructor, beanMethods);
+
+        String typeName = type.getQualifiedName().toString();
+        String configBeanName = GetBeanUtils.getBeanName(type.getSimpleName().toString());
+        out.line("BeanDefinition configDefinition = new BeanDefinition();")
+                .line("configDefinition.setType(" + typeName + ".class);")
+                .line("configDefinition.setScope(\"singleton\");")
+                .line("configDefinition.setLazy(false);");
+        // 配置类实例化为增强子类，注入点仍然按配置类的字段
+        writeInjectionMetadata(out, "configDefinition", type, enhancedName, constructor, injectors);
+        out.line("resourceModel.registerBeanDefinition(" + literal(configBeanName) + ", configDefinition);");
+
+        for (ExecutableElement method : beanMethods) {
+            Bean bean = method.getAnnotation(Bean.class);
+            String beanName = "".equals(bean.value()) ? method.getSimpleName().toString() : bean.value();
+            boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+            List<? extends VariableElement> parameters = method.getParameters();
+            out.open("")
+                    .line("BeanDefinition beanDefinition = new BeanDefinition();")
+                    .line("beanDefinition.setType(" + erasure(method.getReturnType()) + ".class);")
+                    .line("beanDefinition.setScope(\"singleton\");")
+                    .line("beanDefinition.setLazy(" + (method.getAnnotation(Lazy.class) != null) + ");")
+                    .line("beanDefinition.setFactoryMethod(" + (isStatic ? "null" : literal(configBeanName)) + ", "
+                            + injectionPoints(parameters) + ",")
+                    .indent(2)
+                    .line("new FactoryMethodInvoker() {")
+                    .indent(1)
+                    .line("@Override")
+                    .open("public Object invoke(Object factoryBean, Object[] args)");
+            String invocation;
+            String name = method.getSimpleName().toString();
+            if (isStatic) {
+                invocation = typeName + "." + name;
+            } else if (method.getModifiers().contains(Modifier.FINAL)) {
+                invocation = "((" + typeName + ") factoryBean)." + name;
+            } else {
+                // 调用原方法体，重写后的方法会回到容器中获取bean
+                invocation = "((" + enhancedName + ") factoryBean)." + name + ConfigurationClassEnhancer.SUPER_METHOD_SUFFIX;
+            }
+            writeInvocation(out, "return " + invocation + "(" + arguments(parameters, "args") + ");", !method.getThrownTypes().isEmpty());
+            out.close()
+                    .indent(-1)
+                    .line("});")
+                    .indent(-2)
+                    .line("resourceModel.registerBeanDefinition(" + literal(beanName) + ", beanDefinition);")
+                    .close();
+        }
+    }
+
+    /**
+     * 生成配置类的增强子类源码：@Bean方法改为从容器中获取bean，原方法体通过 方法名$$super 调用
+     */
+    private void writeEnhancedClass(TypeElement type, String enhancedName, ExecutableElement constructor,
+                                    List<ExecutableElement> beanMethods) {
+        PackageElement configPackage = processingEnv.getElementUtils().getPackageOf(type);
+        String simpleName = enhancedName.substring(enhancedName.lastIndexOf('.') + 1);
+        SourceWriter source = new SourceWriter();
+        if (!configPackage.isUnnamed()) {
+            source.line("package " + configPackage.getQualifiedName() + ";").line();
+        }
+        source.line("import org.example.spring.instantiator.ConfigurationClassEnhancer;")
+                .line("import org.example.spring.instantiator.EnhancedConfiguration;")
+                .line("import org.example.spring.model.ResourceModel;")
+                .line()
+                .line("/**")
+                .line(" * 由 " + ContextInitializerProcessor.class.getSimpleName() + " 根据 " + type.getQualifiedName() + " 生成，不要修改")
+                .line(" */")
+                .line("@SuppressWarnings({\"unchecked\", \"rawtypes\"})")
+                .open("public class " + simpleName + " extends " + type.getQualifiedName() + " implements EnhancedConfiguration")
+                .line()
+                .line("private ResourceModel $$resourceModel;")
+                .line()
+                .open("public " + simpleName + "(" + parameterDeclarations(constructor.getParameters()) + ")"
+                        + throwsClause(constructor.getThrownTypes()))
+                .line("super(" + parameterNames(constructor.getParameters()) + ");")
+                .close()
+                .line()
+                .line("@Override")
+                .open("public void setResourceModel(ResourceModel resourceModel)")
+                .line("this.$$resourceModel = resourceModel;")
+                .close();
+        for (ExecutableElement method : beanMethods) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                continue;
+            }
+            Bean bean = method.getAnnotation(Bean.class);
+            String name = method.getSimpleName().toString();
+            String beanName = "".equals(bean.value()) ? name : bean.value();
+            String returnType = method.getReturnType().toString();
+            String access = modifiers.contains(Modifier.PUBLIC) ? "public " : modifiers.contains(Modifier.PROTECTED) ? "protected " : "";
+            String parameters = parameterDeclarations(method.getParameters());
+            String throwsClause = throwsClause(method.getThrownTypes());
+            source.line()
+                    .line("@Override")
+                    .open(access + returnType + " " + name + "(" + parameters + ")" + throwsClause)
+                    .line("return (" + returnType + ") ConfigurationClassEnhancer.resolveBean(this.$$resourceModel, " + literal(beanName) + ");")
+                    .close()
+                    .line()
+                    .open("public " + returnType + " " + name + ConfigurationClassEnhancer.SUPER_METHOD_SUFFIX + "(" + parameters + ")" + throwsClause)
+                    .line("return super." + name + "(" + parameterNames(method.getParameters()) + ");")
+                    .close();
+        }
+        source.close();
+        writeSource(enhancedName, source, type);
+    }
+
+    /**
+     * 生成 definition.setInjectionMetadata(...)：构造方法参数、注入点和直接调用构造方法/setter的实例化器
+     * @param instanceType 实例化的类（配置类为增强子类）
+     */
+    private void writeInjectionMetadata(SourceWriter out, String definition, TypeElement type, String instanceType,
+                                        ExecutableElement constructor, List<String> injectors) {
+        List<VariableElement> fields = autowiredFields(type);
+        String typeName = type.getQualifiedName().toString();
+        out.line(definition + ".setInjectionMetadata(InjectionMetadata.of(" + injectionPoints(constructor.getParameters()) + ",")
+                .indent(2)
+                .line(fieldInjectionPoints(fields) + ",")
+                .line("new BeanInstantiator() {")
+                .indent(1)
+                .line("@Override")
+                .open("public Object newInstance(Object[] args)");
+        writeInvocation(out, "return new " + instanceType + "(" + arguments(constructor.getParameters(), "args") + ");",
+                !constructor.getThrownTypes().isEmpty());
+        out.close()
+                .line()
+                .line("@Override")
+                .open("public void inject(Object bean, Object[] values)");
+        if (!injectors.isEmpty()) {
+            out.line(typeName + " target = (" + typeName + ") bean;");
+            boolean throwsChecked = false;
+            StringBuilder statements = new StringBuilder();
+            for (String injector : injectors) {
+                throwsChecked |= injector.startsWith("!");
+                statements.append(statements.length() == 0 ? "" : "\n").append(injector.startsWith("!") ? injector.substring(1) : injector);
+            }
+            writeInvocation(out, statements.toString(), throwsChecked);
+        }
+        out.close()
+                .indent(-1)
+                .line("}));")
+                .indent(-2);
+    }
+
+    /**
+     * 写入调用语句，会抛出受检异常时包装为RuntimeException
+     */
+    private static void writeInvocation(SourceWriter out, String statements, boolean throwsChecked) {
+        if (!throwsChecked) {
+            for (String statement : statements.split("\n")) {
+                out.line(statement);
+            }
+            return;
+        }
+        out.open("try");
+        for (String statement : statements.split("\n")) {
+            out.line(statement);
+        }
+        out.indent(-1)
+                .line("} catch (RuntimeException e) {")
+                .indent(1)
+                .line("throw e;")
+                .indent(-1)
+                .line("} catch (Exception e) {")
+                .indent(1)
+                .line("throw new RuntimeException(\"createBean-创建bean对象异常: \", e);")
+                .close();
+    }
+
+    /**
+     * 为每个@Autowired字段生成赋值语句：能直接访问时给字段赋值，否则调用setter（会抛出受检异常的语句以!开头）
+     * @return 不能直接注入时返回原因
+     */
+    private String collectInjectors(TypeElement type, PackageElement target, List<String> injectors) {
+        List<VariableElement> fields = autowiredFields(type);
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            String value = "(" + erasure(field.asType()) + ") values[" + i + "]";
+            if (!isTypeAccessible(field.asType(), target)) {
+                return "字段类型不能访问: " + field.getSimpleName();
+            }
+            if (!field.getModifiers().contains(Modifier.FINAL) && isMemberAccessible(field, type, target)) {
+                injectors.add("target." + field.getSimpleName() + " = " + value + ";");
+                continue;
+            }
+            ExecutableElement setter = findSetter(type, field, target);
+            if (setter == null) {
+                return "@Autowired字段 " + field.getSimpleName() + " 不能直接访问，也没有可访问的setter";
+            }
+            injectors.add((setter.getThrownTypes().isEmpty() ? "" : "!")
+                    + "target." + setter.getSimpleName() + "(" + value + ");");
+        }
+        return null;
+    }
+
+    private ExecutableElement findSetter(TypeElement type, VariableElement field, PackageElement target) {
+        String name = field.getSimpleName().toString();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        TypeMirror fieldType = processingEnv.getTypeUtils().erasure(field.asType());
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(fieldType,
+                    processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()))
+                    && isMemberAccessible(method, (TypeElement) method.getEnclosingElement(), target)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与InjectionMetadata一致：只处理类自己声明的@Autowired字段，按声明顺序
+     */
+    private static List<VariableElement> autowiredFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getAnnotation(Autowired.class) != null) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 与InjectionMetadata.determineConstructor的规则一致
+     * @return 推断失败时返回null
+     */
+    private static ExecutableElement determineConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        ExecutableElement autowired = null;
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getAnnotation(Autowired.class) != null) {
+                if (autowired != null) {
+                    return null;
+                }
+                autowired = constructor;
+            }
+        }
+        if (autowired != null) {
+            return autowired;
+        }
+        List<ExecutableElement> publicConstructors = new ArrayList<>();
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                publicConstructors.add(constructor);
+            }
+        }
+        if (publicConstructors.isEmpty()) {
+            for (ExecutableElement constructor : constructors) {
+                if (constructor.getParameters().isEmpty()) {
+                    return constructor;
+                }
+            }
+            return null;
+        } else if (publicConstructors.size() == 1) {
+            return publicConstructors.get(0);
+        }
+        for (ExecutableElement constructor : publicConstructors) {
+            if (constructor.getParameters().isEmpty()) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 类不能在生成的初始化器中直接实例化时返回原因
+     */
+    private String checkInstantiable(TypeElement type, PackageElement target) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "抽象类";
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+            return "非静态内部类";
+        }
+        if (!isTypeAccessible(type, target)) {
+            return "私有的内部类";
+        }
+        return null;
+    }
+
+    private String checkConstructor(ExecutableElement constructor, PackageElement target) {
+        if (!constructor.getTypeParameters().isEmpty()) {
+            return "构造方法带泛型参数";
+        }
+        if (!isMemberAccessible(constructor, (TypeElement) constructor.getEnclosingElement(), target)) {
+            return "构造方法不能访问";
+        }
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (!isTypeAccessible(parameter.asType(), target)) {
+                return "构造方法参数类型不能访问: " + parameter.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    private String checkBeanMethod(ExecutableElement method, PackageElement target) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return "私有的@Bean方法: " + method.getSimpleName();
+        }
+        if (!method.getTypeParameters().isEmpty()) {
+            return "带泛型参数的@Bean方法: " + method.getSimpleName();
+        }
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            return "@Bean方法没有返回值: " + method.getSimpleName();
+        }
+        // 静态、final方法由初始化器直接调用
+        if ((modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL))
+                && !isMemberAccessible(method, (TypeElement) method.getEnclosingElement(), target)) {
+            return "@Bean方法不能访问: " + method.getSimpleName();
+        }
+        if (!isTypeAccessible(method.getReturnType(), target)) {
+            return "@Bean方法返回值类型不能访问: " + method.getSimpleName();
+        }
+        for (VariableElement parameter : method.getParameters()) {
+            if (!isTypeAccessible(parameter.asType(), target)) {
+                return "@Bean方法参数类型不能访问: " + method.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 类型能否在目标包中引用（基本类型、数组元素、类及其外部类、泛型参数）
+     */
+    private boolean isTypeAccessible(TypeMirror type, PackageElement target) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return isTypeAccessible(((ArrayType) type).getComponentType(), target);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            // 句柄、集合注入点的泛型参数也会在生成的代码中引用
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                if (argument.getKind() == TypeKind.DECLARED && !isTypeAccessible(argument, target)) {
+                    return false;
+                }
+            }
+            return isTypeAccessible((TypeElement) ((DeclaredType) type).asElement(), target);
+        } else if (type.getKind() == TypeKind.TYPEVAR) {
+            return isTypeAccessible(processingEnv.getTypeUtils().erasure(type), target);
+        }
+        return false;
+    }
+
+    private boolean isTypeAccessible(TypeElement type, PackageElement target) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (!isAccessible(element.getModifiers(), element, target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isMemberAccessible(Element member, TypeElement owner, PackageElement target) {
+        return isTypeAccessible(owner, target) && isAccessible(member.getModifiers(), member, target);
+    }
+
+    /**
+     * protected成员在生成的类中只有同一个包时才能访问
+     */
+    private boolean isAccessible(Set<Modifier> modifiers, Element element, PackageElement target) {
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return processingEnv.getElementUtils().getPackageOf(element).equals(target);
+    }
+
+    /**
+     * 构造方法、@Bean方法参数的注入点，参数名来自源码（与编译时使用 -parameters 相同）
+     */
+    private String injectionPoints(List<? extends VariableElement> parameters) {
+        if (parameters.isEmpty()) {
+            return "new InjectionMetadata.InjectionPoint[0]";
+        }
+        StringBuilder builder = new StringBuilder("new InjectionMetadata.InjectionPoint[]{");
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            Qualifier qualifier = parameter.getAnnotation(Qualifier.class);
+            String name = qualifier != null ? qualifier.value() : parameter.getSimpleName().toString();
+            builder.append(i == 0 ? "" : ", ").append(injectionPoint(name, qualifier != null, parameter.asType(), true));
+        }
+        return builder.append("}").toString();
+    }
+
+    private String fieldInjectionPoints(List<VariableElement> fields) {
+        if (fields.isEmpty()) {
+            return "new InjectionMetadata.InjectionPoint[0]";
+        }
+        StringBuilder builder = new StringBuilder("new InjectionMetadata.InjectionPoint[]{");
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            Qualifier qualifier = field.getAnnotation(Qualifier.class);
+            String name = qualifier != null ? qualifier.value() : field.getSimpleName().toString();
+            builder.append(i == 0 ? "" : ", ").append(injectionPoint(name, qualifier != null, field.asType(),
+                    field.getAnnotation(Autowired.class).required()));
+        }
+        return builder.append("}").toString();
+    }
+
+    private String injectionPoint(String name, boolean qualified, TypeMirror type, boolean required) {
+        String providedType = providedType(type);
+        String elementType = elementType(type);
+        return "new InjectionMetadata.InjectionPoint(" + literal(name) + ", " + qualified + ", " + erasure(type) + ".class, "
+                + required + (providedType != null ? ", " + providedType + ".class" : "")
+                + (elementType != null ? ", null, " + elementType + ".class" : "") + ")";
+    }
+
+    /**
+     * 与InjectionMetadata一致：List&lt;T&gt;、Set&lt;T&gt;、Collection&lt;T&gt;、T[]、Map&lt;String, T&gt;注入点的元素类型T
+     * @return 不是这些类型时返回null
+     */
+    private String elementType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            return component.getKind().isPrimitive() ? null : erasure(component);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        String rawType = erasure(type);
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        TypeMirror argument;
+        if (List.class.getName().equals(rawType) || Set.class.getName().equals(rawType)
+                || Collection.class.getName().equals(rawType)) {
+            argument = arguments.isEmpty() ? null : arguments.get(0);
+        } else if (Map.class.getName().equals(rawType) && arguments.size() == 2
+                && String.class.getName().equals(erasure(arguments.get(0)))) {
+            argument = arguments.get(1);
+        } else {
+            return null;
+        }
+        return argument == null || argument.getKind() != TypeKind.DECLARED ? null : erasure(argument);
+    }
+
+    /**
+     * 与InjectionMetadata一致：ObjectProvider&lt;T&gt;、Supplier&lt;T&gt;注入点的泛型参数T
+     * @return 不是句柄类型时返回null
+     */
+    private String providedType(TypeMirror type) {
+        String rawType = erasure(type);
+        if (!ObjectProvider.class.getName().equals(rawType) && !Supplier.class.getName().equals(rawType)) {
+            return null;
+        }
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty() || arguments.get(0).getKind() != TypeKind.DECLARED) {
+            return Object.class.getName();
+        }
+        return erasure(arguments.get(0));
+    }
+
+    /**
+     * args[0], args[1] ... 转换为参数类型
+     */
+    private String arguments(List<? extends VariableElement> parameters, String array) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append("(").append(erasure(parameters.get(i).asType())).append(") ")
+                    .append(array).append("[").append(i).append("]");
+        }
+        return builder.toString();
+    }
+
+    private static String parameterDeclarations(List<? extends VariableElement> parameters) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            builder.append(i == 0 ? "" : ", ").append(parameter.asType()).append(" ").append(parameter.getSimpleName());
+        }
+        return builder.toString();
+    }
+
+    private static String parameterNames(List<? extends VariableElement> parameters) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(parameters.get(i).getSimpleName());
+        }
+        return builder.toString();
+    }
+
+    private static String throwsClause(List<? extends TypeMirror> thrownTypes) {
+        if (thrownTypes.isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(" throws ");
+        for (int i = 0; i < thrownTypes.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(thrownTypes.get(i));
+        }
+        return builder.toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String loadClass(TypeElement type) {
+        return "Class.forName(" + literal(binaryName(type)) + ", false, classLoader)";
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    /**
+     * 去掉包名的二进制类名，内部类的$替换为_
+     */
+    private String flatName(TypeElement type) {
+        String name = binaryName(type);
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '_');
+    }
+
+    private static String qualify(PackageElement packageElement, String simpleName) {
+        return packageElement.isUnnamed() ? simpleName : packageElement.getQualifiedName() + "." + simpleName;
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private void warn(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "AOT: " + type.getQualifiedName() + " 不能直接创建，运行时使用反射（" + reason + "）", type);
+    }
+
+    private void writeSource(String className, SourceWriter source, TypeElement originatingElement) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, originatingElement);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("写入AOT生成的源码失败: " + className, e);
+        }
+    }
+
+    /**
+     * 按缩进拼接源码
+     */
+    private static class SourceWriter {
+
+        private final StringBuilder builder = new StringBuilder();
+
+        private int indent;
+
+        SourceWriter line() {
+            builder.append('\n');
+            return this;
+        }
+
+        SourceWriter line(String line) {
+            for (int i = 0; i < indent; i++) {
+                builder.append("    ");
+            }
+            builder.append(line).append('\n');
+            return this;
+        }
+
+        /**
+         * 开始一个代码块，header为空时是单独的 { }
+         */
+        SourceWriter open(String header) {
+            line("".equals(header) ? "{" : header + " {");
+            indent++;
+            return this;
+        }
+
+        SourceWriter close() {
+            indent--;
+            return line("}");
+        }
+
+        SourceWriter indent(int delta) {
+            indent += delta;
+            return this;
+        }
+
+        SourceWriter append(SourceWriter other) {
+            builder.append(other.builder);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.spring.classfile;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * -10/18-16:10
+ * -在指定类所在的包中定义生成的类（同一个类加载器、同一个运行时包），生成的类可以访问包内可见的成员
+ * -依赖Java 9+的 MethodHandles.privateLookupIn 和 Lookup.defineClass，通过反射调用以兼容Java 8编译
+ */
+public class ClassDefiner {
+
+    /**
+     * Java 9以下为null
+     */
+    private static final Method PRIVATE_LOOKUP_IN;
+
+    private static final Method DEFINE_CLASS;
+
+    static {
+        Method privateLookupIn = null;
+        Method defineClass = null;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+        } catch (NoSuchMethodException e) {
+            // 运行环境不支持
+            privateLookupIn = null;
+        }
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+        DEFINE_CLASS = defineClass;
+    }
+
+    /**
+     * 运行环境是否支持定义类
+     */
+    public static boolean isSupported() {
+        return PRIVATE_LOOKUP_IN != null;
+    }
+
+    /**
+     * 在neighbor所在的包中定义类
+     * @param neighbor 同一个包中的类
+     * @param bytes class文件内容，类名必须在neighbor所在的包中
+     * @return 定义好的类，不支持或定义失败（模块未开放等）时返回null
+     */
+    public static Class<?> defineClass(Class<?> neighbor, byte[] bytes) {
+        if (PRIVATE_LOOKUP_IN == null) {
+            return null;
+        }
+        try {
+            Object lookup = PRIVATE_LOOKUP_IN.invoke(null, neighbor, MethodHandles.lookup());
+            return (Class<?>) DEFINE_CLASS.invoke(lookup, (Object) bytes);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.example.spring.classfile;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * -10/18-13:32
+ * -轻量级class文件解析器：只解析常量池和类上的RuntimeVisibleAnnotations属性
+ * -扫描时先用它判断候选组件，只有真正的bean才会被类加载器加载
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final byte[] bytes;
+
+    /**
+     * 每个常量池项在bytes中的起始位置（指向tag之后的第一个字节）
+     */
+    private final int[] cpOffsets;
+
+    /**
+     * 已解码的Utf8常量
+     */
+    private final String[] utf8Cache;
+
+    /**
+     * 常量池之后（access_flags）的位置
+     */
+    private final int header;
+
+    private ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+        if (readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("不是合法的class文件");
+        }
+        int count = readUnsignedShort(8);
+        cpOffsets = new int[count];
+        utf8Cache = new String[count];
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            int tag = bytes[offset] & 0xFF;
+            cpOffsets[i] = offset + 1;
+            switch (tag) {
+                case 1: // Utf8
+                    offset += 3 + readUnsignedShort(offset + 1);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    offset += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    offset += 9;
+                    i++; // 占两个位置
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    offset += 3;
+                    break;
+                case 15: // MethodHandle
+                    offset += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的常量池类型: " + tag);
+            }
+        }
+        header = offset;
+    }
+
+    /**
+     * 解析class文件
+     * @param bytes class文件内容
+     * @return 类信息
+     */
+    public static ClassMetadata read(byte[] bytes) {
+        return new ClassFileReader(bytes).readMetadata();
+    }
+
+    private ClassMetadata readMetadata() {
+        int offset = header;
+        int accessFlags = readUnsignedShort(offset);
+        String className = readClass(readUnsignedShort(offset + 2)).replace('/', '.');
+        offset += 6;
+        // interfaces
+        offset += 2 + readUnsignedShort(offset) * 2;
+        // fields 和 methods
+        offset = skipMembers(offset);
+        offset = skipMembers(offset);
+
+        Map<String, Map<String, Object>> annotations = Collections.emptyMap();
+        int attributesCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributesCount; i++) {
+            String name = readUtf8(readUnsignedShort(offset));
+            int length = readInt(offset + 2);
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                annotations = readAnnotations(offset + 6);
+            }
+            offset += 6 + length;
+        }
+        return new ClassMetadata(className, accessFlags, annotations);
+    }
+
+    private int skipMembers(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            // access_flags, name_index, descriptor_index
+            offset += 6;
+            int attributesCount = readUnsignedShort(offset);
+            offset += 2;
+            for (int j = 0; j < attributesCount; j++) {
+                offset += 6 + readInt(offset + 2);
+            }
+        }
+        return offset;
+    }
+
+    private Map<String, Map<String, Object>> readAnnotations(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        Map<String, Map<String, Object>> annotations = new HashMap<>(count * 2);
+        int[] cursor = {offset};
+        for (int i = 0; i < count; i++) {
+            String type = descriptorToClassName(readUtf8(readUnsignedShort(cursor[0])));
+            annotations.put(type, readAnnotationValues(cursor));
+        }
+        return annotations;
+    }
+
+    /**
+     * 读取一个annotation结构的属性，cursor[0]指向type_index，读取后指向下一个结构
+     */
+    private Map<String, Object> readAnnotationValues(int[] cursor) {
+        int offset = cursor[0];
+        int pairs = readUnsignedShort(offset + 2);
+        cursor[0] = offset + 4;
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < pairs; i++) {
+            String name = readUtf8(readUnsignedShort(cursor[0]));
+            cursor[0] += 2;
+            values.put(name, readElementValue(cursor));
+        }
+        return values;
+    }
+
+    private Object readElementValue(int[] cursor) {
+        int offset = cursor[0];
+        char tag = (char) (bytes[offset] & 0xFF);
+        switch (tag) {
+            case 's':
+                cursor[0] = offset + 3;
+                return readUtf8(readUnsignedShort(offset + 1));
+            case 'B':
+            case 'C':
+            case 'I':
+            case 'S':
+            case 'Z':
+                cursor[0] = offset + 3;
+                int value = readInt(cpOffsets[readUnsignedShort(offset + 1)]);
+                if (tag == 'Z') {
+                    return value != 0;
+                }
+                if (tag == 'C') {
+                    return (char) value;
+                }
+                return value;
+            case 'J':
+                cursor[0] = offset + 3;
+                return readLong(cpOffsets[readUnsignedShort(offset + 1)]);
+            case 'F':
+                cursor[0] = offset + 3;
+                return Float.intBitsToFloat(readInt(cpOffsets[readUnsignedShort(offset + 1)]));
+            case 'D':
+                cursor[0] = offset + 3;
+                return Double.longBitsToDouble(readLong(cpOffsets[readUnsignedShort(offset + 1)]));
+            case 'e':
+                // 枚举只保留常量名
+                cursor[0] = offset + 5;
+                return readUtf8(readUnsignedShort(offset + 3));
+            case 'c':
+                cursor[0] = offset + 3;
+                return readUtf8(readUnsignedShort(offset + 1));
+            case '@':
+                cursor[0] = offset + 1;
+                return readAnnotationValues(cursor);
+            case '[':
+                int length = readUnsignedShort(offset + 1);
+                cursor[0] = offset + 3;
+                Object[] array = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    array[i] = readElementValue(cursor);
+                }
+                return array;
+            default:
+                throw new IllegalArgumentException("未知的注解属性类型: " + tag);
+        }
+    }
+
+    private String readClass(int index) {
+        return readUtf8(readUnsignedShort(cpOffsets[index]));
+    }
+
+    /**
+     * 解码常量池中的Utf8（modified UTF-8）
+     */
+    private String readUtf8(int index) {
+        String value = utf8Cache[index];
+        if (value != null) {
+            return value;
+        }
+        int offset = cpOffsets[index];
+        int length = readUnsignedShort(offset);
+        offset += 2;
+        int end = offset + length;
+        char[] chars = new char[length];
+        int count = 0;
+        while (offset < end) {
+            int c = bytes[offset++] & 0xFF;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((c & 0x1F) << 6) | (bytes[offset++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((c & 0x0F) << 12) | ((bytes[offset++] & 0x3F) << 6) | (bytes[offset++] & 0x3F));
+            }
+        }
+        value = new String(chars, 0, count);
+        utf8Cache[index] = value;
+        return value;
+    }
+
+    private static String descriptorToClassName(String descriptor) {
+        // Lorg/example/Foo; -> org.example.Foo
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private long readLong(int offset) {
+        return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,483 @@
+package org.example.spring.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * -10/18-14:05
+ * -极简class文件生成器：只支持生成不含分支的方法（不需要StackMapTable），用于运行时生成bean工厂等辅助类
+ */
+public class ClassFileWriter {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_PROTECTED = 0x0004;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    /**
+     * Java 8
+     */
+    private static final int VERSION = 52;
+
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+
+    private final DataOutputStream pool = new DataOutputStream(constantPool);
+
+    private final Map<String, Integer> constants = new HashMap<>();
+
+    private int constantCount = 1;
+
+    private final int access;
+
+    private final int thisClass;
+
+    private final int superClass;
+
+    private final int[] interfaces;
+
+    private final List<byte[]> fields = new ArrayList<>();
+
+    private final List<MethodWriter> methods = new ArrayList<>();
+
+    /**
+     * @param access 访问标志
+     * @param name 类的内部名称（org/example/Foo）
+     * @param superName 父类的内部名称
+     * @param interfaceNames 实现的接口的内部名称
+     */
+    public ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access | ACC_SUPER;
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    /**
+     * 添加字段
+     * @param access 访问标志
+     * @param name 字段名
+     * @param descriptor 字段描述符
+     */
+    public void addField(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * 添加方法，调用方负责写入指令并设置maxStack/maxLocals
+     * @param access 访问标志
+     * @param name 方法名
+     * @param descriptor 方法描述符
+     * @return 方法体
+     */
+    public MethodWriter addMethod(int access, String name, String descriptor) {
+        MethodWriter method = new MethodWriter(this, access, utf8(name), utf8(descriptor));
+        methods.add(method);
+        return method;
+    }
+
+    public byte[] toByteArray() {
+        int code = utf8("Code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int anInterface : interfaces) {
+                out.writeShort(anInterface);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (MethodWriter method : methods) {
+                method.writeTo(out, code);
+            }
+            // 类属性
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /* ---------------- 描述符 ---------------- */
+
+    /**
+     * 类的内部名称：org.example.Foo -> org/example/Foo
+     */
+    public static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * 类型描述符：int -> I，org.example.Foo -> Lorg/example/Foo;，数组 -> [Lorg/example/Foo;
+     */
+    public static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == void.class) {
+                return "V";
+            } else if (type == boolean.class) {
+                return "Z";
+            } else if (type == long.class) {
+                return "J";
+            }
+            // int -> I, byte -> B, char -> C, short -> S, float -> F, double -> D
+            return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+        }
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    /**
+     * 方法描述符
+     */
+    public static String methodDescriptor(Class<?> returnType, Class<?>... parameterTypes) {
+        StringBuilder builder = new StringBuilder("(");
+        for (Class<?> parameterType : parameterTypes) {
+            builder.append(descriptor(parameterType));
+        }
+        return builder.append(')').append(descriptor(returnType)).toString();
+    }
+
+    /**
+     * long和double占两个局部变量/操作数栈位置
+     */
+    public static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : (type == void.class ? 0 : 1);
+    }
+
+    /**
+     * 基本类型对应的包装类
+     */
+    public static Class<?> wrapper(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == short.class) {
+            return Short.class;
+        }
+        return type;
+    }
+
+    /* ---------------- 常量池 ---------------- */
+
+    public int utf8(String value) {
+        Integer index = constants.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("U" + value, 1);
+    }
+
+    public int classRef(String internalName) {
+        Integer index = constants.get("C" + internalName);
+        if (index != null) {
+            return index;
+        }
+        int name = utf8(internalName);
+        writeEntry(7, name);
+        return register("C" + internalName, 1);
+    }
+
+    public int integer(int value) {
+        Integer index = constants.get("I" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(3);
+            pool.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("I" + value, 1);
+    }
+
+    public int string(String value) {
+        Integer index = constants.get("S" + value);
+        if (index != null) {
+            return index;
+        }
+        int utf8 = utf8(value);
+        writeEntry(8, utf8);
+        return register("S" + value, 1);
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    public int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        writeEntry(tag, ownerIndex, nameAndType);
+        return register(key, 1);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "N" + name + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        writeEntry(12, nameIndex, descriptorIndex);
+        return register(key, 1);
+    }
+
+    private void writeEntry(int tag, int... shorts) {
+        try {
+            pool.writeByte(tag);
+            for (int value : shorts) {
+                pool.writeShort(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int register(String key, int size) {
+        int index = constantCount;
+        constantCount += size;
+        constants.put(key, index);
+        return index;
+    }
+
+    /**
+     * 方法体（只包含Code属性）
+     */
+    public static class MethodWriter {
+
+        private final ClassFileWriter owner;
+
+        private final int access;
+
+        private final int name;
+
+        private final int descriptor;
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private int maxStack;
+
+        private int maxLocals;
+
+        MethodWriter(ClassFileWriter owner, int access, int name, int descriptor) {
+            this.owner = owner;
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * 写入无操作数的指令
+         */
+        public MethodWriter op(int opcode) {
+            code.write(opcode);
+            return this;
+        }
+
+        /**
+         * 写入带两个字节操作数的指令（常量池索引）
+         */
+        public MethodWriter op(int opcode, int index) {
+            code.write(opcode);
+            code.write(index >> 8);
+            code.write(index);
+            return this;
+        }
+
+        /**
+         * 写入带一个字节操作数的局部变量指令（aload/astore/iload等）
+         */
+        public MethodWriter local(int opcode, int slot) {
+            code.write(opcode);
+            code.write(slot);
+            return this;
+        }
+
+        /**
+         * 按类型加载局部变量（iload/lload/fload/dload/aload）
+         */
+        public MethodWriter load(Class<?> type, int slot) {
+            if (!type.isPrimitive()) {
+                return local(Opcodes.ALOAD, slot);
+            } else if (type == long.class) {
+                return local(Opcodes.LLOAD, slot);
+            } else if (type == float.class) {
+                return local(Opcodes.FLOAD, slot);
+            } else if (type == double.class) {
+                return local(Opcodes.DLOAD, slot);
+            }
+            return local(Opcodes.ILOAD, slot);
+        }
+
+        /**
+         * 按类型返回栈顶的值（ireturn/lreturn/freturn/dreturn/areturn/return）
+         */
+        public MethodWriter returnValue(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return op(Opcodes.ARETURN);
+            } else if (type == void.class) {
+                return op(Opcodes.RETURN);
+            } else if (type == long.class) {
+                return op(Opcodes.LRETURN);
+            } else if (type == float.class) {
+                return op(Opcodes.FRETURN);
+            } else if (type == double.class) {
+                return op(Opcodes.DRETURN);
+            }
+            return op(Opcodes.IRETURN);
+        }
+
+        /**
+         * 把常量池中的常量（字符串等）压入操作数栈
+         */
+        public MethodWriter ldc(int index) {
+            if (index > 0xFF) {
+                return op(Opcodes.LDC_W, index);
+            }
+            code.write(Opcodes.LDC);
+            code.write(index);
+            return this;
+        }
+
+        /**
+         * 把int常量压入操作数栈
+         */
+        public MethodWriter pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                code.write(Opcodes.ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(Opcodes.BIPUSH);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(Opcodes.SIPUSH);
+                code.write(value >> 8);
+                code.write(value);
+            } else {
+                ldc(owner.integer(value));
+            }
+            return this;
+        }
+
+        /**
+         * invokeinterface需要额外的参数个数操作数
+         */
+        public MethodWriter invokeInterface(int index, int argumentSlots) {
+            code.write(Opcodes.INVOKEINTERFACE);
+            code.write(index >> 8);
+            code.write(index);
+            code.write(argumentSlots + 1);
+            code.write(0);
+            return this;
+        }
+
+        /**
+         * 栈顶的Object转换为指定类型（引用类型checkcast，基本类型拆箱）
+         */
+        public MethodWriter unbox(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return type == Object.class ? this : op(Opcodes.CHECKCAST, owner.classRef(internalName(type)));
+            }
+            String wrapper = internalName(wrapper(type));
+            op(Opcodes.CHECKCAST, owner.classRef(wrapper));
+            return op(Opcodes.INVOKEVIRTUAL, owner.methodRef(wrapper, type.getName() + "Value", "()" + descriptor(type)));
+        }
+
+        /**
+         * 栈顶的基本类型装箱
+         */
+        public MethodWriter box(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return this;
+            }
+            Class<?> wrapper = wrapper(type);
+            return op(Opcodes.INVOKESTATIC, owner.methodRef(internalName(wrapper), "valueOf",
+                    methodDescriptor(wrapper, type)));
+        }
+
+        public void maxs(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        void writeTo(DataOutputStream out, int codeAttribute) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            // exception_table 和 attributes
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.spring.classfile;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * -10/18-13:30
+ * -直接从class文件字节中读取的类信息（不加载类）
+ */
+public class ClassMetadata {
+
+    /**
+     * 类的全限定名（二进制名称，内部类使用$）
+     */
+    private final String className;
+
+    private final int accessFlags;
+
+    /**
+     * 类上的运行时可见注解：注解类名 -> (属性名 -> 属性值)
+     * 属性值：字符串/基本类型包装类/枚举常量名/类名/数组(Object[])/嵌套注解(Map)
+     */
+    private final Map<String, Map<String, Object>> annotations;
+
+    public ClassMetadata(String className, int accessFlags, Map<String, Map<String, Object>> annotations) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.annotations = annotations;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * 类上是否直接使用了指定注解（与Class.isAnnotationPresent一致，不处理元注解）
+     * @param annotationType 注解类
+     * @return boolean
+     */
+    public boolean hasAnnotation(Class<?> annotationType) {
+        return annotations.containsKey(annotationType.getName());
+    }
+
+    /**
+     * 获取注解的属性（只包含class文件中显式写出的属性，不包含默认值）
+     * @param annotationType 注解类
+     * @return 属性，类上没有该注解时返回空Map
+     */
+    public Map<String, Object> getAnnotationAttributes(Class<?> annotationType) {
+        Map<String, Object> attributes = annotations.get(annotationType.getName());
+        return attributes == null ? Collections.emptyMap() : attributes;
+    }
+
+    /**
+     * 获取注解的字符串属性
+     * @param annotationType 注解类
+     * @param name 属性名
+     * @param defaultValue 没有显式配置时的默认值
+     * @return 属性值
+     */
+    public String getStringAttribute(Class<?> annotationType, String name, String defaultValue) {
+        Object value = getAnnotationAttributes(annotationType).get(name);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.spring.classfile;
+
+/**
+ * -10/18-14:06
+ * -ClassFileWriter用到的JVM指令
+ */
+public final class Opcodes {
+
+    public static final int ACONST_NULL = 0x01;
+    public static final int ICONST_0 = 0x03;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC = 0x12;
+    public static final int LDC_W = 0x13;
+    public static final int ILOAD = 0x15;
+    public static final int LLOAD = 0x16;
+    public static final int FLOAD = 0x17;
+    public static final int DLOAD = 0x18;
+    public static final int ALOAD = 0x19;
+    public static final int ASTORE = 0x3A;
+    public static final int AALOAD = 0x32;
+    public static final int AASTORE = 0x53;
+    public static final int POP = 0x57;
+    public static final int DUP = 0x59;
+    public static final int IRETURN = 0xAC;
+    public static final int LRETURN = 0xAD;
+    public static final int FRETURN = 0xAE;
+    public static final int DRETURN = 0xAF;
+    public static final int ARETURN = 0xB0;
+    public static final int RETURN = 0xB1;
+    public static final int GETSTATIC = 0xB2;
+    public static final int PUTSTATIC = 0xB3;
+    public static final int GETFIELD = 0xB4;
+    public static final int PUTFIELD = 0xB5;
+    public static final int INVOKEVIRTUAL = 0xB6;
+    public static final int INVOKESPECIAL = 0xB7;
+    public static final int INVOKESTATIC = 0xB8;
+    public static final int INVOKEINTERFACE = 0xB9;
+    public static final int NEW = 0xBB;
+    public static final int ANEWARRAY = 0xBD;
+    public static final int CHECKCAST = 0xC0;
+
+    private Opcodes() {
+    }
+}
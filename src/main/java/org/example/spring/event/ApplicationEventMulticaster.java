@@ -0,0 +1,444 @@
+package org.example.spring.event;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.annotation.Async;
+import org.example.spring.annotation.EventBatch;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.CreateBeanUtils;
+import org.example.spring.utils.GenericTypeUtils;
+import org.example.spring.utils.GetBeanUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * -10/18-22:10
+ * -容器的事件发布器：容器启动完成后从类型索引中取出所有监听器组件，按监听的事件类型建立分发表
+ * -事件类型 -> 监听器数组 第一次发布该类型时计算（监听器声明的类型在启动时预先计算），之后发布只查一次表
+ * -启动完成之前发布的事件先缓存，启动完成后按发布顺序分发；子容器的事件分发后再发布到父容器
+ */
+public class ApplicationEventMulticaster implements ApplicationEventPublisher {
+
+    /**
+     * 默认线程池（没有虚拟线程时）的队列容量，队列满时由发布事件的线程执行（背压）
+     */
+    private static final int QUEUE_CAPACITY = 10000;
+
+    private static final ListenerEntry[] NONE = new ListenerEntry[0];
+
+    private final ResourceModel resourceModel;
+
+    /**
+     * 注册的监听器（按注册顺序），数组不会被修改，注册新的监听器时整体替换
+     */
+    private volatile ListenerEntry[] listeners = NONE;
+
+    /**
+     * 分发表：事件类型 -> 监听器，注册新的监听器后清空
+     */
+    private final Map<Class<?>, ListenerEntry[]> dispatchTable = new ConcurrentHashMap<>();
+
+    /**
+     * 启动完成之前发布的事件，启动完成后为null
+     */
+    private List<Object> earlyEvents = new ArrayList<>();
+
+    private volatile boolean refreshed;
+
+    private volatile Executor taskExecutor;
+
+    /**
+     * 自己创建的线程池，关闭时一起关闭
+     */
+    private ExecutorService ownedExecutor;
+
+    private ScheduledExecutorService batchTimer;
+
+    private volatile Consumer<Throwable> errorHandler = Throwable::printStackTrace;
+
+    public ApplicationEventMulticaster(ResourceModel resourceModel) {
+        this.resourceModel = resourceModel;
+    }
+
+    /**
+     * 从类型索引中取出监听器组件建立分发表，然后分发启动期间缓存的事件
+     * 单例监听器在这里创建（包括懒加载的），其他作用域的监听器每次分发时获取
+     */
+    public void refresh() {
+        List<ListenerEntry> entries = new ArrayList<>();
+        for (String beanName : resourceModel.getBeanNamesForType(ApplicationListener.class)) {
+            entries.add(createEntry(beanName, false));
+        }
+        for (String beanName : resourceModel.getBeanNamesForType(BatchApplicationListener.class)) {
+            entries.add(createEntry(beanName, true));
+        }
+        List<Object> events;
+        synchronized (this) {
+            // 启动之前手动注册的监听器在前
+            entries.addAll(0, Arrays.asList(listeners));
+            listeners = entries.toArray(NONE);
+            dispatchTable.clear();
+            for (ListenerEntry entry : listeners) {
+                getListeners(entry.eventType);
+            }
+            events = earlyEvents;
+            earlyEvents = null;
+            refreshed = true;
+        }
+        if (events != null) {
+            for (Object event : events) {
+                publishEvent(event);
+            }
+        }
+    }
+
+    /**
+     * 手动注册监听器（不是组件的监听器）
+     * @param listener ApplicationListener或者BatchApplicationListener
+     */
+    public synchronized void addApplicationListener(Object listener) {
+        ListenerEntry entry;
+        if (listener instanceof BatchApplicationListener) {
+            entry = new BatchEntry(listener.getClass(), () -> listener);
+        } else if (listener instanceof ApplicationListener) {
+            entry = createEntry(listener.getClass(), () -> listener);
+        } else {
+            throw new IllegalArgumentException("不是事件监听器: " + listener.getClass().getName());
+        }
+        ListenerEntry[] current = listeners;
+        ListenerEntry[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = entry;
+        listeners = updated;
+        dispatchTable.clear();
+    }
+
+    @Override
+    public void publishEvent(Object event) {
+        Objects.requireNonNull(event, "事件不能为null");
+        if (!refreshed) {
+            synchronized (this) {
+                if (earlyEvents != null) {
+                    earlyEvents.add(event);
+                    return;
+                }
+            }
+        }
+        for (ListenerEntry entry : getListeners(event.getClass())) {
+            entry.deliver(event);
+        }
+        // 子容器的事件同时发布到父容器
+        ResourceModel parent = resourceModel.parent;
+        if (parent != null && parent.eventMulticaster != null) {
+            parent.eventMulticaster.publishEvent(event);
+        }
+    }
+
+    /**
+     * 指定异步、批量监听器使用的线程池，需要在第一次异步分发之前调用
+     */
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 指定异步、批量监听器抛出异常时的处理方式，默认输出异常栈
+     */
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler);
+    }
+
+    /**
+     * 分发批量监听器队列中剩余的事件（在当前线程），然后关闭自己创建的线程池
+     */
+    public void close() {
+        for (ListenerEntry entry : listeners) {
+            if (entry instanceof BatchEntry) {
+                ((BatchEntry) entry).flush();
+            }
+        }
+        synchronized (this) {
+            if (batchTimer != null) {
+                batchTimer.shutdownNow();
+                batchTimer = null;
+            }
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+                ownedExecutor = null;
+                taskExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * 获取监听该事件类型的监听器
+     */
+    private ListenerEntry[] getListeners(Class<?> eventType) {
+        ListenerEntry[] matched = dispatchTable.get(eventType);
+        if (matched == null) {
+            ListenerEntry[] current = listeners;
+            List<ListenerEntry> result = new ArrayList<>();
+            for (ListenerEntry entry : current) {
+                if (entry.eventType.isAssignableFrom(eventType)) {
+                    result.add(entry);
+                }
+            }
+            matched = result.toArray(NONE);
+            dispatchTable.put(eventType, matched);
+            // 计算期间注册了新的监听器时撤销缓存
+            if (current != listeners) {
+                dispatchTable.remove(eventType, matched);
+            }
+        }
+        return matched;
+    }
+
+    private ListenerEntry createEntry(String beanName, boolean batch) {
+        BeanDefinition beanDefinition = resourceModel.beanDefinitionMap.get(beanName);
+        ListenerSource source;
+        if (CreateBeanUtils.isSingleton(beanDefinition.getScope())) {
+            Object singleton = GetBeanUtils.getBean(beanName, beanDefinition, resourceModel);
+            source = () -> singleton;
+        } else {
+            source = () -> GetBeanUtils.getBean(beanName, beanDefinition, resourceModel);
+        }
+        Class<?> listenerType = beanDefinition.getType();
+        return batch ? new BatchEntry(listenerType, source) : createEntry(listenerType, source);
+    }
+
+    private ListenerEntry createEntry(Class<?> listenerType, ListenerSource source) {
+        return listenerType.isAnnotationPresent(Async.class)
+                ? new AsyncEntry(listenerType, source) : new SyncEntry(listenerType, source);
+    }
+
+    private Executor getTaskExecutor() {
+        Executor executor = taskExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = taskExecutor;
+                if (executor == null) {
+                    ownedExecutor = createDefaultExecutor();
+                    executor = taskExecutor = ownedExecutor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private synchronized ScheduledExecutorService getBatchTimer() {
+        if (batchTimer == null) {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("my-spring-event-batch-"));
+            timer.setRemoveOnCancelPolicy(true);
+            batchTimer = timer;
+        }
+        return batchTimer;
+    }
+
+    /**
+     * 有虚拟线程（Java 21+）时每个事件一个虚拟线程，否则使用有界线程池
+     * 通过反射调用以兼容Java 8编译
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY), daemonThreadFactory("my-spring-event-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 获取监听器对象
+     */
+    private interface ListenerSource {
+
+        Object get();
+    }
+
+    private abstract static class ListenerEntry {
+
+        /**
+         * 监听的事件类型
+         */
+        final Class<?> eventType;
+
+        final ListenerSource source;
+
+        ListenerEntry(Class<?> eventType, ListenerSource source) {
+            this.eventType = eventType;
+            this.source = source;
+        }
+
+        abstract void deliver(Object event);
+    }
+
+    private static class SyncEntry extends ListenerEntry {
+
+        SyncEntry(Class<?> listenerType, ListenerSource source) {
+            super(GenericTypeUtils.resolveTypeArgument(listenerType, ApplicationListener.class), source);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void deliver(Object event) {
+            ((ApplicationListener<Object>) source.get()).onApplicationEvent(event);
+        }
+    }
+
+    private class AsyncEntry extends SyncEntry {
+
+        AsyncEntry(Class<?> listenerType, ListenerSource source) {
+            super(listenerType, source);
+        }
+
+        @Override
+        void deliver(Object event) {
+            getTaskExecutor().execute(() -> {
+                try {
+                    super.deliver(event);
+                } catch (Throwable e) {
+                    errorHandler.accept(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 批量监听器：事件放入无锁队列，攒够maxSize个时立即分发，否则第一个事件入队后maxDelay毫秒分发
+     * running保证同一个监听器同时只有一个批次在处理
+     */
+    private class BatchEntry extends ListenerEntry {
+
+        private final int maxSize;
+
+        private final long maxDelayMillis;
+
+        private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        BatchEntry(Class<?> listenerType, ListenerSource source) {
+            super(GenericTypeUtils.resolveTypeArgument(listenerType, BatchApplicationListener.class), source);
+            EventBatch config = listenerType.getAnnotation(EventBatch.class);
+            this.maxSize = Math.max(1, config != null ? config.maxSize() : 256);
+            this.maxDelayMillis = Math.max(0, config != null ? config.maxDelay() : 100);
+        }
+
+        @Override
+        void deliver(Object event) {
+            queue.offer(event);
+            if (size.incrementAndGet() >= maxSize) {
+                trigger();
+            } else if (scheduled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            getBatchTimer().schedule(this::trigger, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void trigger() {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    getTaskExecutor().execute(this::drain);
+                } catch (RuntimeException e) {
+                    running.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void drain() {
+            scheduled.set(false);
+            try {
+                List<Object> batch;
+                while (!(batch = poll()).isEmpty()) {
+                    dispatch(batch);
+                    if (size.get() < maxSize) {
+                        break;
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+            // 处理期间进入队列的事件：攒够了立即分发，否则重新计时（定时器可能在处理期间触发过）
+            int remaining = size.get();
+            if (remaining >= maxSize) {
+                trigger();
+            } else if (remaining > 0) {
+                scheduled.set(true);
+                schedule();
+            }
+        }
+
+        /**
+         * 在当前线程分发队列中的全部事件（关闭时）
+         */
+        void flush() {
+            while (!running.compareAndSet(false, true)) {
+                Thread.yield();
+            }
+            try {
+                List<Object> batch;
+                while (!(batch = poll()).isEmpty()) {
+                    dispatch(batch);
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+
+        private List<Object> poll() {
+            List<Object> batch = new ArrayList<>(Math.min(size.get(), maxSize));
+            Object event;
+            while (batch.size() < maxSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            size.addAndGet(-batch.size());
+            return batch;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(List<Object> batch) {
+            try {
+                ((BatchApplicationListener<Object>) source.get()).onApplicationEvents(batch);
+            } catch (Throwable e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.spring.event;
+
+/**
+ * -10/18-22:05
+ * -发布事件，任意对象都可以作为事件
+ */
+public interface ApplicationEventPublisher {
+
+    /**
+     * 把事件分发给监听该类型的监听器：同步监听器在当前线程依次调用，异常直接抛出；
+     * 异步、批量监听器交给线程池，异常交给错误处理器
+     * @param event 事件
+     */
+    void publishEvent(Object event);
+}
@@ -0,0 +1,10 @@
+package org.example.spring.event;
+
+/**
+ * -10/18-22:05
+ * -需要发布事件的bean实现该接口，属性注入之后、BeanPostProcessor之前调用（钩子方法）
+ */
+public interface ApplicationEventPublisherAware {
+
+    void setApplicationEventPublisher(ApplicationEventPublisher publisher);
+}
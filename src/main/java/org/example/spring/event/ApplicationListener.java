@@ -0,0 +1,11 @@
+package org.example.spring.event;
+
+/**
+ * -10/18-22:05
+ * -事件监听器，实现该接口的组件在容器启动时自动注册
+ * -泛型参数E指定监听的事件类型（包括子类），没有指定时监听所有事件；类上标注@Async时在线程池中异步调用
+ */
+public interface ApplicationListener<E> {
+
+    void onApplicationEvent(E event);
+}
@@ -0,0 +1,13 @@
+package org.example.spring.event;
+
+import java.util.List;
+
+/**
+ * -10/18-22:05
+ * -批量事件监听器：高频事件先放入队列，攒够@EventBatch.maxSize个或者等待maxDelay毫秒后一次性交给监听器
+ * -总是在线程池中异步调用，同一个监听器同时只有一个批次在处理，批次内保持发布顺序
+ */
+public interface BatchApplicationListener<E> {
+
+    void onApplicationEvents(List<E> events);
+}
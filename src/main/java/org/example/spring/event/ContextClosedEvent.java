@@ -0,0 +1,20 @@
+package org.example.spring.event;
+
+import org.example.spring.ApplicationContext;
+
+/**
+ * -10/18-22:30
+ * -容器关闭时、销毁bean之前发布
+ */
+public class ContextClosedEvent {
+
+    private final ApplicationContext applicationContext;
+
+    public ContextClosedEvent(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    public ApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.spring.event;
+
+import org.example.spring.ApplicationContext;
+
+/**
+ * -10/18-22:05
+ * -容器启动完成（非懒加载单例创建完成）后发布
+ */
+public class ContextRefreshedEvent {
+
+    private final ApplicationContext applicationContext;
+
+    public ContextRefreshedEvent(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    public ApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+}
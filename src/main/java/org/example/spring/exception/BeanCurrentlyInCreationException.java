@@ -0,0 +1,17 @@
+package org.example.spring.exception;
+
+/**
+ * -10/18-15:05
+ * -bean正在创建中又被请求（无法解决的循环依赖）
+ */
+public class BeanCurrentlyInCreationException extends RuntimeException {
+
+    public BeanCurrentlyInCreationException() {
+        this("Bean is currently in creation.");
+    }
+
+    public BeanCurrentlyInCreationException(String message) {
+        super(message);
+    }
+
+}
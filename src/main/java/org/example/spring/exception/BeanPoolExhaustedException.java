@@ -0,0 +1,17 @@
+package org.example.spring.exception;
+
+/**
+ * -10/18-20:45
+ * -池化作用域的bean全部借出，等待超时
+ */
+public class BeanPoolExhaustedException extends RuntimeException {
+
+    public BeanPoolExhaustedException() {
+        this("Bean pool exhausted.");
+    }
+
+    public BeanPoolExhaustedException(String message) {
+        super(message);
+    }
+
+}
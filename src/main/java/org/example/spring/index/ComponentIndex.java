@@ -0,0 +1,154 @@
+package org.example.spring.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * -10/18-13:10
+ * -编译期生成的组件索引（META-INF/my-spring.components），由 {@link ComponentIndexProcessor} 生成
+ * -文件格式：类的全限定名=类型,bean名称,作用域,是否懒加载
+ */
+public class ComponentIndex {
+
+    /**
+     * 索引文件位置
+     */
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/my-spring.components";
+
+    /**
+     * 设置为true时忽略索引，始终扫描目录
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "my-spring.index.ignore";
+
+    public static final String COMPONENT = "component";
+
+    public static final String CONFIGURATION = "configuration";
+
+    /**
+     * 按类名排序的索引条目，保证注册顺序稳定
+     */
+    private final Map<String, Entry> entries;
+
+    private ComponentIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 读取类路径上的所有索引文件
+     * @param classLoader 类加载器
+     * @return 组件索引，没有索引文件时返回null
+     */
+    public static ComponentIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        try {
+            Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            Map<String, Entry> entries = new TreeMap<>();
+            while (urls.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = urls.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    entries.put(className, Entry.parse(className, properties.getProperty(className)));
+                }
+            }
+            return new ComponentIndex(entries);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取组件索引失败: " + COMPONENTS_RESOURCE_LOCATION, e);
+        }
+    }
+
+    /**
+     * 获取指定包（包括子包）下的组件
+     * @param basePackage 包名
+     * @return 按类名排序的索引条目
+     */
+    public List<Entry> getCandidates(String basePackage) {
+        String prefix = basePackage + ".";
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.getClassName().startsWith(prefix)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 索引条目
+     */
+    public static class Entry {
+
+        private final String className;
+
+        /**
+         * component 或 configuration
+         */
+        private final String stereotype;
+
+        /**
+         * 注解上配置的bean名称，未配置时为空字符串
+         */
+        private final String beanName;
+
+        private final String scope;
+
+        private final boolean lazy;
+
+        public Entry(String className, String stereotype, String beanName, String scope, boolean lazy) {
+            this.className = className;
+            this.stereotype = stereotype;
+            this.beanName = beanName;
+            this.scope = scope;
+            this.lazy = lazy;
+        }
+
+        static Entry parse(String className, String value) {
+            String[] parts = value.split(",", -1);
+            if (parts.length != 4) {
+                throw new IllegalStateException("组件索引格式错误: " + className + "=" + value);
+            }
+            return new Entry(className, parts[0], parts[1], parts[2], Boolean.parseBoolean(parts[3]));
+        }
+
+        String format() {
+            return stereotype + "," + beanName + "," + scope + "," + lazy;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getStereotype() {
+            return stereotype;
+        }
+
+        public boolean isConfiguration() {
+            return CONFIGURATION.equals(stereotype);
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+    }
+}
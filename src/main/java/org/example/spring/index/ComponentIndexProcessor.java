@@ -0,0 +1,135 @@
+package org.example.spring.index;
+
+import org.example.spring.annotation.Component;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.annotation.Lazy;
+import org.example.spring.annotation.Scope;
+import org.example.spring.utils.CreateBeanUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * -10/18-13:12
+ * -注解处理器：编译时把@Component/@Configuration类写入组件索引，启动时不再遍历类路径目录
+ * -应用依赖本jar后由javac自动发现（META-INF/services/javax.annotation.processing.Processor）
+ */
+@SupportedAnnotationTypes({
+        "org.example.spring.annotation.Component",
+        "org.example.spring.annotation.Configuration"
+})
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 本次编译发现的组件，按类名排序
+     */
+    private final Map<String, ComponentIndex.Entry> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            addEntry(element);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Configuration.class)) {
+            addEntry(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void addEntry(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return;
+        }
+        TypeElement typeElement = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        entries.put(className, toEntry(className, typeElement));
+    }
+
+    /**
+     * 与ScanBeanUtils中解析注解的规则保持一致
+     */
+    public static ComponentIndex.Entry toEntry(String className, TypeElement typeElement) {
+        Component component = typeElement.getAnnotation(Component.class);
+        if (component == null) {
+            return new ComponentIndex.Entry(className, ComponentIndex.CONFIGURATION, "", "singleton", false);
+        }
+        String scope = "singleton";
+        boolean lazy = false;
+        Scope scopeAnnotation = typeElement.getAnnotation(Scope.class);
+        if (scopeAnnotation == null || CreateBeanUtils.isSingleton(scopeAnnotation.value())) {
+            lazy = typeElement.getAnnotation(Lazy.class) != null;
+        } else {
+            scope = scopeAnnotation.value();
+        }
+        return new ComponentIndex.Entry(className, ComponentIndex.COMPONENT, component.value(), scope, lazy);
+    }
+
+    private void writeIndex() {
+        mergeExistingIndex();
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    ComponentIndex.COMPONENTS_RESOURCE_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (ComponentIndex.Entry entry : entries.values()) {
+                    writer.write(entry.getClassName() + "=" + entry.format() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("写入组件索引失败: " + ComponentIndex.COMPONENTS_RESOURCE_LOCATION, e);
+        }
+    }
+
+    /**
+     * 增量编译时只会处理改动过的类，保留上次索引中仍然是组件的条目
+     */
+    private void mergeExistingIndex() {
+        Properties existing = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    ComponentIndex.COMPONENTS_RESOURCE_LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                existing.load(in);
+            }
+        } catch (IOException e) {
+            // 没有旧的索引
+            return;
+        }
+        for (String className : existing.stringPropertyNames()) {
+            if (entries.containsKey(className)) {
+                continue;
+            }
+            TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+            if (typeElement != null && (typeElement.getAnnotation(Component.class) != null
+                    || typeElement.getAnnotation(Configuration.class) != null)) {
+                entries.put(className, ComponentIndex.Entry.parse(className, existing.getProperty(className)));
+            }
+        }
+    }
+}
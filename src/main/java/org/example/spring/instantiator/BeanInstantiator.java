@@ -0,0 +1,22 @@
+package org.example.spring.instantiator;
+
+/**
+ * -10/18-14:10
+ * -bean实例化器：每个bean类型只编译一次，之后创建bean时不再使用反射
+ */
+public interface BeanInstantiator {
+
+    /**
+     * 调用推断出的构造方法创建实例
+     * @param args 构造方法参数
+     * @return bean对象
+     */
+    Object newInstance(Object[] args);
+
+    /**
+     * 按注入点顺序给@Autowired字段赋值
+     * @param bean bean对象
+     * @param values 与注入点一一对应的值
+     */
+    void inject(Object bean, Object[] values);
+}
@@ -0,0 +1,188 @@
+package org.example.spring.instantiator;
+
+import org.example.spring.annotation.Bean;
+import org.example.spring.classfile.ClassDefiner;
+import org.example.spring.classfile.ClassFileWriter;
+import org.example.spring.classfile.Opcodes;
+import org.example.spring.exception.NoSuchBeanException;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.spring.classfile.ClassFileWriter.*;
+
+/**
+ * -10/18-16:20
+ * -为@Configuration配置类生成子类：重写@Bean方法，改为从容器中获取bean，
+ * -保证配置类中@Bean方法之间的调用拿到的是容器中的单例而不是重新创建的对象
+ * -原方法体通过生成的 方法名$$super 方法调用，容器创建bean时使用它
+ * -子类定义在配置类所在的包中（需要Java 9+），不支持、配置类是final或者没有可继承的构造方法时不增强
+ */
+public class ConfigurationClassEnhancer {
+
+    /**
+     * 原方法体的桥接方法后缀
+     */
+    public static final String SUPER_METHOD_SUFFIX = "$$super";
+
+    private static final String CLASS_SUFFIX = "$$EnhancerByMySpring";
+
+    private static final String RESOURCE_MODEL_FIELD = "$$resourceModel";
+
+    private static final String RESOURCE_MODEL = internalName(ResourceModel.class);
+
+    private static final ClassValue<Class<?>> CACHE = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> configClass) {
+            Class<?> enhanced = doEnhance(configClass);
+            return enhanced == null ? configClass : enhanced;
+        }
+    };
+
+    /**
+     * 获取配置类的增强子类（每个配置类只生成一次）
+     * @param configClass 配置类
+     * @return 增强子类，不能增强时返回配置类本身
+     */
+    public static Class<?> enhance(Class<?> configClass) {
+        return CACHE.get(configClass);
+    }
+
+    /**
+     * 生成的子类重写的@Bean方法调用该方法从容器中获取bean
+     * @param resourceModel 配置类所在的容器
+     * @param beanName @Bean方法定义的bean名称
+     * @return bean对象
+     */
+    public static Object resolveBean(ResourceModel resourceModel, String beanName) {
+        if (resourceModel == null) {
+            throw new IllegalStateException("配置类还没有完成实例化，不能调用@Bean方法: " + beanName);
+        }
+        Object bean = GetBeanUtils.getBean(beanName, resourceModel);
+        if (bean == null) {
+            throw new NoSuchBeanException("No such bean found: " + beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * 获取@Bean方法的原方法体
+     * @param instanceType 配置类实例的实际类型
+     * @param factoryMethod @Bean方法
+     * @return 增强子类中的 方法名$$super 方法，没有被增强时返回null
+     */
+    public static Method getSuperMethod(Class<?> instanceType, Method factoryMethod) {
+        if (instanceType == factoryMethod.getDeclaringClass() || !EnhancedConfiguration.class.isAssignableFrom(instanceType)) {
+            return null;
+        }
+        try {
+            return instanceType.getDeclaredMethod(factoryMethod.getName() + SUPER_METHOD_SUFFIX, factoryMethod.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Class<?> doEnhance(Class<?> configClass) {
+        int modifiers = configClass.getModifiers();
+        if (!ClassDefiner.isSupported() || Modifier.isFinal(modifiers) || Modifier.isAbstract(modifiers)
+                || configClass.isInterface()) {
+            return null;
+        }
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : configClass.getDeclaredConstructors()) {
+            if (!Modifier.isPrivate(constructor.getModifiers())) {
+                constructors.add(constructor);
+            }
+        }
+        List<Method> methods = new ArrayList<>();
+        for (Method method : configClass.getDeclaredMethods()) {
+            int methodModifiers = method.getModifiers();
+            if (method.isAnnotationPresent(Bean.class) && !method.isBridge() && !Modifier.isStatic(methodModifiers)
+                    && !Modifier.isPrivate(methodModifiers) && !Modifier.isFinal(methodModifiers)) {
+                methods.add(method);
+            }
+        }
+        if (constructors.isEmpty() || methods.isEmpty()) {
+            return null;
+        }
+        return ClassDefiner.defineClass(configClass, generateClass(configClass, constructors, methods));
+    }
+
+    private static byte[] generateClass(Class<?> configClass, List<Constructor<?>> constructors, List<Method> methods) {
+        String superName = internalName(configClass);
+        String name = superName + CLASS_SUFFIX;
+        ClassFileWriter writer = new ClassFileWriter(ACC_PUBLIC, name, superName, internalName(EnhancedConfiguration.class));
+        writer.addField(ACC_PRIVATE, RESOURCE_MODEL_FIELD, "L" + RESOURCE_MODEL + ";");
+        int resourceModelField = writer.fieldRef(name, RESOURCE_MODEL_FIELD, "L" + RESOURCE_MODEL + ";");
+
+        // 构造方法原样转发给父类
+        for (Constructor<?> constructor : constructors) {
+            String descriptor = methodDescriptor(void.class, constructor.getParameterTypes());
+            ClassFileWriter.MethodWriter init = writer.addMethod(ACC_PUBLIC, "<init>", descriptor);
+            init.local(Opcodes.ALOAD, 0);
+            int slots = loadParameters(init, constructor.getParameterTypes());
+            init.op(Opcodes.INVOKESPECIAL, writer.methodRef(superName, "<init>", descriptor))
+                    .op(Opcodes.RETURN)
+                    .maxs(slots + 1, slots + 1);
+        }
+
+        // void setResourceModel(ResourceModel resourceModel) { this.$$resourceModel = resourceModel; }
+        writer.addMethod(ACC_PUBLIC, "setResourceModel", "(L" + RESOURCE_MODEL + ";)V")
+                .local(Opcodes.ALOAD, 0)
+                .local(Opcodes.ALOAD, 1)
+                .op(Opcodes.PUTFIELD, resourceModelField)
+                .op(Opcodes.RETURN)
+                .maxs(2, 2);
+
+        int resolveBean = writer.methodRef(internalName(ConfigurationClassEnhancer.class), "resolveBean",
+                methodDescriptor(Object.class, ResourceModel.class, String.class));
+        for (Method method : methods) {
+            Class<?> returnType = method.getReturnType();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            String descriptor = methodDescriptor(returnType, parameterTypes);
+            int parameterSlots = 0;
+            for (Class<?> parameterType : parameterTypes) {
+                parameterSlots += slots(parameterType);
+            }
+
+            // R bean(...) { return (R) resolveBean(this.$$resourceModel, "beanName"); }
+            int access = method.getModifiers() & (ACC_PUBLIC | ACC_PROTECTED);
+            writer.addMethod(access, method.getName(), descriptor)
+                    .local(Opcodes.ALOAD, 0)
+                    .op(Opcodes.GETFIELD, resourceModelField)
+                    .ldc(writer.string(GetBeanUtils.getBeanName(method)))
+                    .op(Opcodes.INVOKESTATIC, resolveBean)
+                    .unbox(returnType)
+                    .returnValue(returnType)
+                    .maxs(2, parameterSlots + 1);
+
+            // R bean$$super(...) { return super.bean(...); }
+            ClassFileWriter.MethodWriter superMethod = writer.addMethod(ACC_PUBLIC,
+                    method.getName() + SUPER_METHOD_SUFFIX, descriptor);
+            superMethod.local(Opcodes.ALOAD, 0);
+            loadParameters(superMethod, parameterTypes);
+            superMethod.op(Opcodes.INVOKESPECIAL, writer.methodRef(superName, method.getName(), descriptor))
+                    .returnValue(returnType)
+                    .maxs(Math.max(parameterSlots + 1, slots(returnType)), parameterSlots + 1);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 按顺序加载方法参数（从局部变量1开始）
+     * @return 参数占用的局部变量个数
+     */
+    private static int loadParameters(ClassFileWriter.MethodWriter method, Class<?>[] parameterTypes) {
+        int slot = 1;
+        for (Class<?> parameterType : parameterTypes) {
+            method.load(parameterType, slot);
+            slot += slots(parameterType);
+        }
+        return slot - 1;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.spring.instantiator;
+
+import org.example.spring.model.ResourceModel;
+
+/**
+ * -10/18-16:15
+ * -增强后的@Configuration配置类实现的接口，容器实例化配置类后通过它传入所在的容器
+ */
+public interface EnhancedConfiguration {
+
+    /**
+     * 设置配置类所在的容器，@Bean方法之间的调用从该容器中获取bean
+     * @param resourceModel 容器
+     */
+    void setResourceModel(ResourceModel resourceModel);
+}
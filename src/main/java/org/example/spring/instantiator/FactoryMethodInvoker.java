@@ -0,0 +1,16 @@
+package org.example.spring.instantiator;
+
+/**
+ * -10/18-19:40
+ * -@Bean方法调用器：扫描注册的bean使用 {@link MethodHandleFactoryMethodInvoker}，AOT生成的初始化器直接调用方法
+ */
+public interface FactoryMethodInvoker {
+
+    /**
+     * 调用@Bean方法
+     * @param factoryBean 配置类实例，静态方法时为null
+     * @param args 方法参数
+     * @return 方法返回的bean
+     */
+    Object invoke(Object factoryBean, Object[] args);
+}
@@ -0,0 +1,39 @@
+package org.example.spring.instantiator;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * -10/18-14:25
+ * -创建实例化器，默认使用MethodHandle实现
+ * -启动参数 -Dmy-spring.instantiator=generated 时使用生成类实现（不支持时自动退回），
+ * -=reflective 时使用反射实现（Constructor.newInstance/Field.set）
+ */
+public class InstantiatorFactory {
+
+    public static final String MODE_PROPERTY = "my-spring.instantiator";
+
+    public static final String GENERATED = "generated";
+
+    public static final String REFLECTIVE = "reflective";
+
+    /**
+     * 创建实例化器
+     * @param constructor 推断出的构造方法
+     * @param fields @Autowired注入字段
+     * @return 实例化器
+     */
+    public static BeanInstantiator create(Constructor<?> constructor, Field[] fields) {
+        String mode = System.getProperty(MODE_PROPERTY);
+        if (REFLECTIVE.equals(mode)) {
+            return new ReflectiveInstantiator(constructor, fields);
+        }
+        if (GENERATED.equals(mode)) {
+            BeanInstantiator instantiator = InstantiatorGenerator.generate(constructor, fields);
+            if (instantiator != null) {
+                return instantiator;
+            }
+        }
+        return new MethodHandleInstantiator(constructor, fields);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.spring.instantiator;
+
+import org.example.spring.classfile.ClassFileWriter;
+import org.example.spring.classfile.Opcodes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static org.example.spring.classfile.ClassFileWriter.*;
+
+/**
+ * -10/18-14:20
+ * -生成实例化器类：直接使用 new 和 putfield，与手写代码的开销相同
+ * -生成的类作为bean类的隐藏嵌套类定义（需要Java 15+），可以访问私有构造方法和私有字段；
+ * -运行环境不支持、模块未开放、存在static/final注入字段或者注入字段不在该类中声明时返回null，由调用方退回到MethodHandle实现
+ * -生成的类本身有问题（VerifyError、ClassFormatError等）时直接抛出
+ */
+public class InstantiatorGenerator {
+
+    private static final String INSTANTIATOR = internalName(BeanInstantiator.class);
+
+    /**
+     * 定义隐藏类的方法，Java 15以下为null
+     */
+    private static final Method PRIVATE_LOOKUP_IN;
+
+    private static final Method DEFINE_HIDDEN_CLASS;
+
+    private static final Object NESTMATE_OPTIONS;
+
+    static {
+        Method privateLookupIn = null;
+        Method defineHiddenClass = null;
+        Object options = null;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            Class<?> optionType = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            options = Array.newInstance(optionType, 1);
+            Array.set(options, 0, optionType.getField("NESTMATE").get(null));
+            defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+                    byte[].class, boolean.class, options.getClass());
+        } catch (ReflectiveOperationException e) {
+            // 运行环境不支持隐藏类
+            privateLookupIn = null;
+        }
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        NESTMATE_OPTIONS = options;
+    }
+
+    /**
+     * 生成实例化器
+     * @param constructor 构造方法
+     * @param fields 注入字段
+     * @return 实例化器，不支持时返回null
+     * @throws LinkageError 生成的类校验失败
+     */
+    public static BeanInstantiator generate(Constructor<?> constructor, Field[] fields) {
+        if (PRIVATE_LOOKUP_IN == null) {
+            return null;
+        }
+        Class<?> beanType = constructor.getDeclaringClass();
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                return null;
+            }
+            // 父类（如被增强的配置类）的私有字段不能通过嵌套类访问
+            if (field.getDeclaringClass() != beanType) {
+                return null;
+            }
+        }
+        MethodHandles.Lookup hidden;
+        try {
+            MethodHandles.Lookup lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, beanType, MethodHandles.lookup());
+            byte[] bytes = generateClass(beanType, constructor, fields);
+            hidden = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(lookup, bytes, true, NESTMATE_OPTIONS);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            // 模块未开放、不允许定义类：退回到MethodHandle实现
+            if (cause instanceof IllegalAccessException || cause instanceof UnsupportedOperationException
+                    || cause instanceof SecurityException) {
+                return null;
+            }
+            // 生成的类有问题（VerifyError、ClassFormatError等）直接抛出，不能静默退回
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("生成实例化器失败: " + beanType.getName(), cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("生成实例化器失败: " + beanType.getName(), e);
+        }
+        try {
+            return (BeanInstantiator) hidden.findConstructor(hidden.lookupClass(),
+                    MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建实例化器失败: " + beanType.getName(), e);
+        }
+    }
+
+    private static byte[] generateClass(Class<?> beanType, Constructor<?> constructor, Field[] fields) {
+        String owner = internalName(beanType);
+        ClassFileWriter writer = new ClassFileWriter(ACC_PUBLIC | ACC_FINAL, owner + "$$Instantiator",
+                "java/lang/Object", INSTANTIATOR);
+
+        // 无参构造方法
+        ClassFileWriter.MethodWriter init = writer.addMethod(ACC_PUBLIC, "<init>", "()V");
+        init.local(Opcodes.ALOAD, 0)
+                .op(Opcodes.INVOKESPECIAL, writer.methodRef("java/lang/Object", "<init>", "()V"))
+                .op(Opcodes.RETURN)
+                .maxs(1, 1);
+
+        // Object newInstance(Object[] args) { return new Bean((P0) args[0], ...); }
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        ClassFileWriter.MethodWriter newInstance = writer.addMethod(ACC_PUBLIC, "newInstance",
+                "([Ljava/lang/Object;)Ljava/lang/Object;");
+        newInstance.op(Opcodes.NEW, writer.classRef(owner)).op(Opcodes.DUP);
+        int parameterSlots = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            newInstance.local(Opcodes.ALOAD, 1).pushInt(i).op(Opcodes.AALOAD).unbox(parameterTypes[i]);
+            parameterSlots += slots(parameterTypes[i]);
+        }
+        newInstance.op(Opcodes.INVOKESPECIAL, writer.methodRef(owner, "<init>", methodDescriptor(void.class, parameterTypes)))
+                .op(Opcodes.ARETURN)
+                .maxs(parameterSlots + 4, 2);
+
+        // void inject(Object bean, Object[] values) { ((Bean) bean).f0 = (F0) values[0]; ... }
+        ClassFileWriter.MethodWriter inject = writer.addMethod(ACC_PUBLIC, "inject",
+                "(Ljava/lang/Object;[Ljava/lang/Object;)V");
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            inject.local(Opcodes.ALOAD, 1).op(Opcodes.CHECKCAST, writer.classRef(owner))
+                    .local(Opcodes.ALOAD, 2).pushInt(i).op(Opcodes.AALOAD).unbox(field.getType())
+                    .op(Opcodes.PUTFIELD, writer.fieldRef(owner, field.getName(), descriptor(field.getType())));
+        }
+        inject.op(Opcodes.RETURN).maxs(4, 3);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.spring.instantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * -10/18-16:30
+ * -通过MethodHandle调用@Bean方法，第一次调用时创建后缓存在BeanDefinition中
+ * -配置类被增强时调用 方法名$$super（原方法体），避免被重写的方法又回到容器中获取bean
+ */
+public class MethodHandleFactoryMethodInvoker implements FactoryMethodInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method factoryMethod;
+
+    /**
+     * (Object factoryBean, Object[] args)Object
+     */
+    private final MethodHandle handle;
+
+    /**
+     * @param factoryMethod @Bean方法
+     * @param instanceType 配置类实例的实际类型（可能是增强子类），静态方法时为声明方法的类
+     */
+    public MethodHandleFactoryMethodInvoker(Method factoryMethod, Class<?> instanceType) {
+        this.factoryMethod = factoryMethod;
+        Method target = ConfigurationClassEnhancer.getSuperMethod(instanceType, factoryMethod);
+        if (target == null) {
+            target = factoryMethod;
+        }
+        try {
+            target.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(target);
+            if (Modifier.isStatic(target.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            this.handle = handle.asSpreader(Object[].class, target.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("创建@Bean方法调用器失败: " + factoryMethod, e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object factoryBean, Object[] args) {
+        try {
+            return (Object) handle.invokeExact(factoryBean, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("createBean-调用@Bean方法异常: " + factoryMethod, e);
+        }
+    }
+}
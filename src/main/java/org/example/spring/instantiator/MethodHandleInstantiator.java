@@ -0,0 +1,118 @@
+package org.example.spring.instantiator;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * -10/18-14:12
+ * -基于LambdaMetafactory/MethodHandle的实例化器
+ * -公共的无参构造方法通过LambdaMetafactory生成Supplier，其余情况使用MethodHandle
+ */
+public class MethodHandleInstantiator implements BeanInstantiator {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 无参构造方法（可能为null）
+     */
+    private final Supplier<Object> supplier;
+
+    /**
+     * (Object[])Object
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * (Object, Object)void
+     */
+    private final MethodHandle[] setters;
+
+    public MethodHandleInstantiator(Constructor<?> constructor, Field[] fields) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            this.supplier = createSupplier(lookup, constructor);
+            constructor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(CONSTRUCTOR_TYPE);
+            this.setters = new MethodHandle[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                field.setAccessible(true);
+                MethodHandle setter = lookup.unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    setter = MethodHandles.dropArguments(setter, 0, Object.class);
+                }
+                setters[i] = setter.asType(SETTER_TYPE);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("创建实例化器失败: " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> createSupplier(MethodHandles.Lookup lookup, Constructor<?> constructor) {
+        Class<?> type = constructor.getDeclaringClass();
+        if (constructor.getParameterCount() != 0 || !Modifier.isPublic(type.getModifiers())
+                || !Modifier.isPublic(constructor.getModifiers()) || !isVisible(type)) {
+            return null;
+        }
+        try {
+            MethodHandle target = lookup.unreflectConstructor(constructor);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), target, MethodType.methodType(type));
+            return (Supplier<Object>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // 类加载器不可见等情况，退回到MethodHandle
+            return null;
+        }
+    }
+
+    /**
+     * 生成的Lambda类定义在本类的类加载器中，bean的类型对其不可见时（如子类加载器加载的jar、增强类），
+     * 调用Supplier时才会抛出NoClassDefFoundError，所以需要提前判断
+     */
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, MethodHandleInstantiator.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Object newInstance(Object[] args) {
+        if (supplier != null) {
+            return supplier.get();
+        }
+        try {
+            return (Object) constructor.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("createBean-创建bean对象异常: ", e);
+        }
+    }
+
+    @Override
+    public void inject(Object bean, Object[] values) {
+        try {
+            for (int i = 0; i < setters.length; i++) {
+                setters[i].invokeExact(bean, values[i]);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("createBean-注入属性异常: ", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.spring.instantiator;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * -10/19-00:04
+ * -基于反射的实例化器：Constructor.newInstance 和 Field.set，与引入实例化器之前创建bean的方式相同
+ * -启动参数 -Dmy-spring.instantiator=reflective 时使用，主要用于基准测试对比
+ */
+public class ReflectiveInstantiator implements BeanInstantiator {
+
+    private final Constructor<?> constructor;
+
+    private final Field[] fields;
+
+    public ReflectiveInstantiator(Constructor<?> constructor, Field[] fields) {
+        constructor.setAccessible(true);
+        for (Field field : fields) {
+            field.setAccessible(true);
+        }
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    @Override
+    public Object newInstance(Object[] args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("createBean-创建bean对象异常: ", cause);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("createBean-创建bean对象异常: ", e);
+        }
+    }
+
+    @Override
+    public void inject(Object bean, Object[] values) {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].set(bean, values[i]);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("createBean-注入属性异常: ", e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.spring.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * -10/18-18:55
+ * -getBean调用统计：计数使用LongAdder（按线程分段，不会在热点路径上竞争），延迟按采样率抽样记录到直方图
+ * -默认不开启，开启后通过JMX发布
+ */
+public class BeanFactoryMetrics implements BeanFactoryMetricsMXBean {
+
+    /**
+     * 启动参数 -Dmy-spring.metrics=true 时创建容器后自动开启
+     */
+    public static final String ENABLED_PROPERTY = "my-spring.metrics";
+
+    /**
+     * 采样率，默认每64次查找采样一次延迟
+     */
+    public static final String SAMPLE_RATE_PROPERTY = "my-spring.metrics.sample-rate";
+
+    private static final AtomicInteger CONTEXT_IDS = new AtomicInteger();
+
+    private final int sampleRate;
+
+    private final LongAdder byNameLookups = new LongAdder();
+
+    private final LongAdder byTypeLookups = new LongAdder();
+
+    private final LongAdder singletonCacheHits = new LongAdder();
+
+    private final LongAdder singletonCacheMisses = new LongAdder();
+
+    private final Map<String, LongAdder> prototypeCreations = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> lookupsByName = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> lookupsByType = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram byNameLatency = new LatencyHistogram();
+
+    private final LatencyHistogram byTypeLatency = new LatencyHistogram();
+
+    private ObjectName objectName;
+
+    public BeanFactoryMetrics() {
+        this(Integer.getInteger(SAMPLE_RATE_PROPERTY, 64));
+    }
+
+    /**
+     * @param sampleRate 每多少次查找采样一次延迟，1表示每次都记录
+     */
+    public BeanFactoryMetrics(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * 查找开始时调用
+     * @return 采样时为当前纳秒时间，不采样时为-1
+     */
+    public long startLookup() {
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return System.nanoTime();
+        }
+        return -1;
+    }
+
+    /**
+     * 按名称查找结束
+     * @param beanName bean名称
+     * @param start startLookup的返回值
+     */
+    public void recordByName(String beanName, long start) {
+        if (start >= 0) {
+            byNameLatency.record(System.nanoTime() - start);
+        }
+        byNameLookups.increment();
+        increment(lookupsByName, String.valueOf(beanName));
+    }
+
+    /**
+     * 按类型查找结束
+     * @param type bean类型
+     * @param start startLookup的返回值
+     */
+    public void recordByType(Class<?> type, long start) {
+        if (start >= 0) {
+            byTypeLatency.record(System.nanoTime() - start);
+        }
+        byTypeLookups.increment();
+        increment(lookupsByType, type == null ? "null" : type.getName());
+    }
+
+    public void recordSingletonHit() {
+        singletonCacheHits.increment();
+    }
+
+    public void recordSingletonMiss() {
+        singletonCacheMisses.increment();
+    }
+
+    public void recordPrototypeCreation(String beanName) {
+        increment(prototypeCreations, String.valueOf(beanName));
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String key) {
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 注册到平台MBeanServer
+     */
+    public synchronized void register() {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName("org.example.spring:type=BeanFactoryMetrics,context=" + CONTEXT_IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("注册BeanFactoryMetrics失败", e);
+        }
+    }
+
+    /**
+     * 从平台MBeanServer注销
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            // 已经被注销
+        }
+        objectName = null;
+    }
+
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public long getByNameLookups() {
+        return byNameLookups.sum();
+    }
+
+    @Override
+    public long getByTypeLookups() {
+        return byTypeLookups.sum();
+    }
+
+    @Override
+    public long getSingletonCacheHits() {
+        return singletonCacheHits.sum();
+    }
+
+    @Override
+    public long getSingletonCacheMisses() {
+        return singletonCacheMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPrototypeCreations() {
+        return snapshot(prototypeCreations);
+    }
+
+    @Override
+    public Map<String, Long> getLookupsByName() {
+        return snapshot(lookupsByName);
+    }
+
+    @Override
+    public Map<String, Long> getLookupsByType() {
+        return snapshot(lookupsByType);
+    }
+
+    @Override
+    public Map<String, Long> getByNameLatencyNanos() {
+        return summary(byNameLatency);
+    }
+
+    @Override
+    public Map<String, Long> getByTypeLatencyNanos() {
+        return summary(byTypeLatency);
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void reset() {
+        byNameLookups.reset();
+        byTypeLookups.reset();
+        singletonCacheHits.reset();
+        singletonCacheMisses.reset();
+        prototypeCreations.clear();
+        lookupsByName.clear();
+        lookupsByType.clear();
+        byNameLatency.reset();
+        byTypeLatency.reset();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    private static Map<String, Long> summary(LatencyHistogram histogram) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("count", histogram.getCount());
+        result.put("mean", histogram.getMeanNanos());
+        result.put("p50", histogram.getPercentileNanos(50));
+        result.put("p90", histogram.getPercentileNanos(90));
+        result.put("p99", histogram.getPercentileNanos(99));
+        result.put("max", histogram.getMaxNanos());
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.spring.metrics;
+
+import java.util.Map;
+
+/**
+ * -10/18-18:50
+ * -getBean调用统计的JMX接口（org.example.spring:type=BeanFactoryMetrics,context=...）
+ */
+public interface BeanFactoryMetricsMXBean {
+
+    /**
+     * 按名称查找（getBean(String)、getBean(String, Class)）的次数
+     */
+    long getByNameLookups();
+
+    /**
+     * 按类型查找（getBean(Class)）的次数
+     */
+    long getByTypeLookups();
+
+    /**
+     * 单例已经在singletonObjects中的次数（包括容器内部注入时的获取）
+     */
+    long getSingletonCacheHits();
+
+    /**
+     * 单例不在singletonObjects中（需要创建或者等待创建）的次数
+     */
+    long getSingletonCacheMisses();
+
+    /**
+     * 每个原型bean创建的实例个数
+     */
+    Map<String, Long> getPrototypeCreations();
+
+    /**
+     * 按名称查找：bean名称 -> 次数，次数多的bean应该改为注入一次而不是每次请求都查找
+     */
+    Map<String, Long> getLookupsByName();
+
+    /**
+     * 按类型查找：类名 -> 次数
+     */
+    Map<String, Long> getLookupsByType();
+
+    /**
+     * 按名称查找的采样延迟：count、mean、p50、p90、p99、max（纳秒）
+     */
+    Map<String, Long> getByNameLatencyNanos();
+
+    /**
+     * 按类型查找的采样延迟：count、mean、p50、p90、p99、max（纳秒）
+     */
+    Map<String, Long> getByTypeLatencyNanos();
+
+    /**
+     * 每多少次查找采样一次延迟
+     */
+    int getSampleRate();
+
+    /**
+     * 清空统计
+     */
+    void reset();
+}
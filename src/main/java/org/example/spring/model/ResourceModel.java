@@ -2,26 +2,118 @@ package org.example.spring.model;
 
 import org.example.spring.BeanDefinition;
 import org.example.spring.BeanPostProcessor;
+import org.example.spring.BeanPostProcessorChain;
+import org.example.spring.event.ApplicationEventMulticaster;
+import org.example.spring.exception.BeanCurrentlyInCreationException;
+import org.example.spring.metrics.BeanFactoryMetrics;
+import org.example.spring.pool.BeanPool;
+import org.example.spring.scope.BeanScope;
+import org.example.spring.startup.StartupRecorder;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * -03/31-17:20
  * -
  */
 public class ResourceModel {
+
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * 父容器（冻结后共享给多个子容器），本容器中没有的bean到父容器中查找，为null时没有父容器
+     */
+    public final ResourceModel parent;
+
+    /**
+     * 冻结后不能再注册bean定义和BeanPostProcessor，可以安全地被多个子容器共享
+     */
+    private volatile boolean frozen;
+
+    /**
+     * bean对象池（按注册顺序）
+     */
+    public final Map<String, BeanDefinition> beanDefinitionMap = new LinkedHashMap<>();
+
+    /**
+     * 类型索引：bean类型及其父类、接口 -> bean名称（按注册顺序）
+     * 数组不会被修改，注册新bean时整体替换
+     */
+    private final Map<Class<?>, String[]> typeIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 每注册一个bean定义加1，按类型解析的结果缓存依赖这个版本号
+     */
+    private volatile int registryVersion;
+
+    /**
+     * 一级缓存：单例对象池，创建完成后的读取不加锁
+     */
+    public final Map<String, Object> singletonObjects = new ConcurrentHashMap<>();
+
+    /**
+     * 二级缓存：提前暴露的单例（还没有完成属性注入和初始化），用于解决字段注入的循环依赖
+     */
+    public final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>();
+
+    /**
+     * 三级缓存：实例化之后登记的提前暴露引用的工厂，第一次被循环引用时才调用
+     */
+    public final Map<String, Supplier<Object>> singletonFactories = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在创建的bean（按调用顺序），用于输出循环依赖的路径
+     */
+    private final ThreadLocal<List<String>> creationPath = ThreadLocal.withInitial(ArrayList::new);
+
     /**
-     * bean对象池
+     * 每个单例一把锁，不同的懒加载单例可以同时创建，单例创建完成后移除
      */
-    public final Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+    private final Map<String, ReentrantLock> singletonLocks = new ConcurrentHashMap<>();
 
     /**
-     * 单例对象池
+     * 正在创建的单例 -> 创建它的线程
      */
-    public final Map<String, Object> singletonObjects = new HashMap<>();
+    private final Map<String, Thread> singletonsInCreation = new ConcurrentHashMap<>();
+
+    /**
+     * 线程 -> 正在等待的单例，用于检测线程间的死锁
+     */
+    private final Map<Thread, String> singletonWaits = new ConcurrentHashMap<>();
+
+    /**
+     * 启动过程记录器，启动完成后恢复为StartupRecorder.NONE
+     */
+    public volatile StartupRecorder startupRecorder = StartupRecorder.NONE;
+
+    /**
+     * getBean调用统计，为null时不统计
+     */
+    public volatile BeanFactoryMetrics metrics;
+
+    /**
+     * 池化作用域bean的对象池：bean名称 -> 对象池（第一次获取时创建）
+     */
+    public final Map<String, BeanPool> beanPools = new ConcurrentHashMap<>();
+
+    /**
+     * 注册的自定义作用域：@Scope的值 -> 作用域
+     */
+    public final Map<String, BeanScope> scopes = new ConcurrentHashMap<>();
+
+    /**
+     * 事件发布器，ApplicationEventPublisherAware的bean注入该对象
+     */
+    public volatile ApplicationEventMulticaster eventMulticaster;
 
     /**
      * 创建Spring容器时指定的配置类
@@ -29,7 +121,315 @@ public class ResourceModel {
     public Class<?> configClass;
 
     /**
-     * List<BeanPostProcessor> listList<BeanPostProcessor> list
+     * 注册的BeanPostProcessor及其处理类型、耗时（按注册顺序）
+     */
+    private final List<BeanPostProcessorChain.Processor> processors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 每注册一个BeanPostProcessor加1，bean定义上缓存的处理链依赖这个版本号
+     */
+    private volatile int processorVersion;
+
+    public ResourceModel() {
+        this(null);
+    }
+
+    /**
+     * @param parent 父容器，必须已经冻结
+     */
+    public ResourceModel(ResourceModel parent) {
+        if (parent != null && !parent.frozen) {
+            throw new IllegalStateException("父容器还没有冻结");
+        }
+        this.parent = parent;
+    }
+
+    /**
+     * 冻结bean定义（作为父容器之前调用），之后的注册会抛出异常
      */
-    public final List<BeanPostProcessor> list = new ArrayList<>();
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("容器已经冻结，不能再注册bean定义或BeanPostProcessor");
+        }
+    }
+
+    /**
+     * 按名称查找bean定义，本容器没有时到父容器中查找
+     * @param beanName bean名称
+     * @return 没有时返回null
+     */
+    public BeanDefinition getBeanDefinition(String beanName) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+        return beanDefinition != null || parent == null ? beanDefinition : parent.getBeanDefinition(beanName);
+    }
+
+    /**
+     * 获取bean定义所在的容器：本容器有该名称的bean定义时是本容器，否则沿父容器查找
+     * @param beanName bean名称
+     * @return 没有该bean定义时返回本容器
+     */
+    public ResourceModel getOwner(String beanName) {
+        ResourceModel model = this;
+        while (model.parent != null && !model.beanDefinitionMap.containsKey(beanName)) {
+            model = model.parent;
+        }
+        return model.beanDefinitionMap.containsKey(beanName) ? model : this;
+    }
+
+    /**
+     * 读取已经创建完成的单例（在bean定义所在的容器中）
+     * @param beanName bean名称
+     * @return 还没有创建时返回null
+     */
+    public Object getSingletonObject(String beanName) {
+        return getOwner(beanName).singletonObjects.get(beanName);
+    }
+
+    /**
+     * 注册BeanPostProcessor
+     * @param beanPostProcessor 处理器
+     */
+    public void addBeanPostProcessor(BeanPostProcessor<?> beanPostProcessor) {
+        checkNotFrozen();
+        processors.add(new BeanPostProcessorChain.Processor(beanPostProcessor));
+        processorVersion++;
+    }
+
+    /**
+     * 获取bean定义需要调用的BeanPostProcessor，第一次获取后保存到BeanDefinition
+     * @param beanDefinition bean的定义
+     * @return 处理链
+     */
+    public BeanPostProcessorChain getBeanPostProcessorChain(BeanDefinition beanDefinition) {
+        int version = processorVersion;
+        BeanPostProcessorChain chain = beanDefinition.getPostProcessorChain();
+        if (chain == null || chain.getVersion() != version) {
+            chain = BeanPostProcessorChain.build(processors, beanDefinition.getType(), version);
+            beanDefinition.setPostProcessorChain(chain);
+        }
+        return chain;
+    }
+
+    /**
+     * 按保存的下标恢复bean定义的处理链（bean定义快照使用）
+     * @param beanDefinition bean的定义
+     * @param indexes 提前暴露引用、初始化前、初始化后三条链中的处理器的注册下标
+     */
+    public void restoreBeanPostProcessorChain(BeanDefinition beanDefinition, int[][] indexes) {
+        beanDefinition.setPostProcessorChain(BeanPostProcessorChain.of(processors, indexes, processorVersion));
+    }
+
+    /**
+     * 是否累计每个BeanPostProcessor的耗时：开启了getBean统计或者正在记录启动过程
+     */
+    public boolean isPostProcessorTimingEnabled() {
+        return metrics != null || startupRecorder != StartupRecorder.NONE;
+    }
+
+    /**
+     * 获取注册的BeanPostProcessor（按注册顺序）
+     */
+    public List<BeanPostProcessorChain.Processor> getBeanPostProcessors() {
+        return Collections.unmodifiableList(processors);
+    }
+
+    /**
+     * 注册bean定义并更新类型索引
+     * @param beanName bean名称
+     * @param beanDefinition bean的定义
+     */
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        checkNotFrozen();
+        BeanDefinition existing = beanDefinitionMap.put(beanName, beanDefinition);
+        if (existing != null) {
+            for (Class<?> type : getTypeClosure(existing.getType())) {
+                typeIndex.computeIfPresent(type, (key, names) -> remove(names, beanName));
+            }
+        }
+        for (Class<?> type : getTypeClosure(beanDefinition.getType())) {
+            typeIndex.merge(type, new String[]{beanName}, ResourceModel::append);
+        }
+        registryVersion++;
+    }
+
+    public int getRegistryVersion() {
+        return registryVersion;
+    }
+
+    /**
+     * 获取单例，不存在时创建，保证每个bean名称只创建一次
+     * @param beanName bean名称
+     * @param singletonFactory 创建单例
+     * @return 单例对象
+     */
+    public Object getSingleton(String beanName, Supplier<Object> singletonFactory) {
+        Object singleton = singletonObjects.get(beanName);
+        if (singleton != null) {
+            return singleton;
+        }
+        ReentrantLock lock = singletonLocks.computeIfAbsent(beanName, key -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            // 先登记等待关系再检查，两个互相等待的线程至少有一个能发现死锁
+            Thread current = Thread.currentThread();
+            singletonWaits.put(current, beanName);
+            try {
+                checkDeadlock(beanName, current);
+                lock.lock();
+            } finally {
+                singletonWaits.remove(current);
+            }
+        }
+        try {
+            singleton = singletonObjects.get(beanName);
+            if (singleton == null) {
+                singletonsInCreation.put(beanName, Thread.currentThread());
+                try {
+                    singleton = singletonFactory.get();
+                } finally {
+                    singletonsInCreation.remove(beanName);
+                    earlySingletonObjects.remove(beanName);
+                    singletonFactories.remove(beanName);
+                }
+                singletonObjects.put(beanName, singleton);
+                singletonLocks.remove(beanName);
+            }
+            return singleton;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前线程正在创建的单例提前暴露的引用（循环依赖）
+     * @param beanName bean名称
+     * @return 提前暴露的引用，不是当前线程正在创建的单例或者还没有实例化时返回null
+     */
+    public Object getEarlySingleton(String beanName) {
+        if (singletonsInCreation.get(beanName) != Thread.currentThread()) {
+            return null;
+        }
+        Object early = earlySingletonObjects.get(beanName);
+        if (early == null) {
+            Supplier<Object> singletonFactory = singletonFactories.remove(beanName);
+            if (singletonFactory != null) {
+                early = singletonFactory.get();
+                earlySingletonObjects.put(beanName, early);
+            }
+        }
+        return early;
+    }
+
+    /**
+     * 单例实例化之后、属性注入之前登记提前暴露引用的工厂
+     * @param beanName bean名称
+     * @param singletonFactory 提前暴露引用的工厂
+     */
+    public void addSingletonFactory(String beanName, Supplier<Object> singletonFactory) {
+        singletonFactories.put(beanName, singletonFactory);
+    }
+
+    /**
+     * 开始创建bean，同一线程上重复创建同一个bean说明存在无法解决的循环依赖
+     * @param beanName bean名称
+     */
+    public void beforeCreation(String beanName) {
+        List<String> path = creationPath.get();
+        if (path.contains(beanName)) {
+            StringBuilder cycle = new StringBuilder();
+            for (String name : path.subList(path.indexOf(beanName), path.size())) {
+                cycle.append(name).append(" -> ");
+            }
+            cycle.append(beanName);
+            throw new BeanCurrentlyInCreationException("检测到无法解决的循环依赖（原型bean或构造方法注入）: " + cycle);
+        }
+        path.add(beanName);
+    }
+
+    /**
+     * bean创建结束（成功或失败）
+     * @param beanName bean名称
+     */
+    public void afterCreation(String beanName) {
+        List<String> path = creationPath.get();
+        path.remove(path.size() - 1);
+        if (path.isEmpty()) {
+            creationPath.remove();
+        }
+    }
+
+    /**
+     * 沿着 单例 -> 创建线程 -> 等待的单例 查找，回到当前线程说明多个线程在互相等待对方创建的单例
+     */
+    private void checkDeadlock(String beanName, Thread current) {
+        String waiting = beanName;
+        for (int i = 0; i <= singletonWaits.size(); i++) {
+            Thread owner = singletonsInCreation.get(waiting);
+            if (owner == null) {
+                return;
+            }
+            if (owner == current) {
+                throw new IllegalStateException("多个线程同时创建存在循环依赖的单例: " + beanName);
+            }
+            waiting = singletonWaits.get(owner);
+            if (waiting == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按类型查找本容器中的bean名称（包括子类和实现类），不包括父容器
+     * @param type bean类型
+     * @return bean名称，不能修改返回的数组
+     */
+    public String[] getBeanNamesForType(Class<?> type) {
+        String[] names = typeIndex.get(type);
+        return names == null ? EMPTY : names;
+    }
+
+    /**
+     * 类本身、所有父类（不包括Object）和所有接口
+     */
+    private static List<Class<?>> getTypeClosure(Class<?> type) {
+        List<Class<?>> types = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            types.add(current);
+            addInterfaces(current, types);
+        }
+        return types;
+    }
+
+    private static void addInterfaces(Class<?> type, List<Class<?>> types) {
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (!types.contains(anInterface)) {
+                types.add(anInterface);
+                addInterfaces(anInterface, types);
+            }
+        }
+    }
+
+    private static String[] append(String[] names, String[] added) {
+        for (String name : names) {
+            if (name.equals(added[0])) {
+                return names;
+            }
+        }
+        String[] result = Arrays.copyOf(names, names.length + 1);
+        result[names.length] = added[0];
+        return result;
+    }
+
+    private static String[] remove(String[] names, String removed) {
+        List<String> result = new ArrayList<>(Arrays.asList(names));
+        result.remove(removed);
+        return result.isEmpty() ? null : result.toArray(EMPTY);
+    }
 }
@@ -0,0 +1,341 @@
+package org.example.spring.pool;
+
+import org.example.spring.PooledBean;
+import org.example.spring.annotation.Pooled;
+import org.example.spring.exception.BeanPoolExhaustedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * -10/18-20:55
+ * -池化作用域（@Scope("pooled")）的对象池，每个bean定义一个
+ * -空闲实例放在无锁双端队列中：归还到队头、借出时从队头取（最近使用的实例更可能还在CPU缓存中），
+ * -回收时从队尾检查最久没有使用的实例；借出的个数由信号量限制，不使用后台线程，回收在归还时顺带进行
+ * -借出的实例按对象标识登记，只接受借出后还没有归还的实例；被丢弃的实例（回收、空闲已满、reset失败）调用销毁回调
+ */
+public class BeanPool {
+
+    /**
+     * 作用域名称
+     */
+    public static final String SCOPE = "pooled";
+
+    private final String beanName;
+
+    private final Supplier<Object> factory;
+
+    /**
+     * 丢弃实例时调用（@PreDestroy、DisposableBean、AutoCloseable）
+     */
+    private final Consumer<Object> destroyer;
+
+    private final int minIdle;
+
+    private final int maxTotal;
+
+    private final long idleTimeoutNanos;
+
+    private final long maxWaitNanos;
+
+    /**
+     * 空闲实例，队头是最近归还的
+     */
+    private final ConcurrentLinkedDeque<IdleEntry> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 空闲实例个数（ConcurrentLinkedDeque.size()需要遍历）
+     */
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * 借出还没有归还的实例
+     */
+    private final Map<Loan, Boolean> loans = new ConcurrentHashMap<>();
+
+    /**
+     * 还可以借出的个数
+     */
+    private final Semaphore permits;
+
+    private volatile boolean prefilled;
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder borrowed = new LongAdder();
+
+    private final LongAdder evicted = new LongAdder();
+
+    private final LongAdder destroyFailures = new LongAdder();
+
+    /**
+     * @param beanName bean名称
+     * @param config 对象池配置，为null时使用默认值
+     * @param factory 创建bean（完整的createBean流程）
+     * @param destroyer 销毁被丢弃的实例
+     */
+    public BeanPool(String beanName, Pooled config, Supplier<Object> factory, Consumer<Object> destroyer) {
+        this(beanName, config != null ? config.minIdle() : 0, config != null ? config.maxTotal() : 8,
+                config != null ? config.idleTimeout() : 60000, config != null ? config.maxWait() : 1000, factory, destroyer);
+    }
+
+    /**
+     * @param minIdle 至少保留的空闲实例个数
+     * @param maxTotal 最多借出的实例个数
+     * @param idleTimeoutMillis 空闲超时（毫秒），小于等于0时不回收
+     * @param maxWaitMillis 全部借出时的最长等待时间（毫秒）
+     */
+    public BeanPool(String beanName, int minIdle, int maxTotal, long idleTimeoutMillis, long maxWaitMillis,
+                    Supplier<Object> factory, Consumer<Object> destroyer) {
+        if (maxTotal <= 0 || minIdle < 0 || minIdle > maxTotal) {
+            throw new IllegalArgumentException("对象池配置错误: " + beanName + " minIdle=" + minIdle + ", maxTotal=" + maxTotal);
+        }
+        this.beanName = beanName;
+        this.factory = factory;
+        this.destroyer = destroyer;
+        this.minIdle = minIdle;
+        this.maxTotal = maxTotal;
+        this.idleTimeoutNanos = idleTimeoutMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis) : Long.MAX_VALUE;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.permits = new Semaphore(maxTotal);
+    }
+
+    /**
+     * 借出一个实例，没有空闲实例时创建，用完后必须调用release归还
+     * @return bean对象
+     * @throws BeanPoolExhaustedException 全部借出且等待超时
+     */
+    public Object borrow() {
+        if (!prefilled) {
+            prefill();
+        }
+        if (!permits.tryAcquire()) {
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    throw new BeanPoolExhaustedException("对象池已经全部借出: " + beanName + " (maxTotal=" + maxTotal + ")");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeanPoolExhaustedException("等待对象池时被中断: " + beanName);
+            }
+        }
+        borrowed.increment();
+        Object bean;
+        IdleEntry entry = idle.pollFirst();
+        if (entry != null) {
+            idleCount.decrementAndGet();
+            bean = entry.bean;
+        } else {
+            try {
+                bean = create();
+            } catch (RuntimeException | Error e) {
+                permits.release();
+                throw e;
+            }
+        }
+        loans.put(new Loan(bean), Boolean.TRUE);
+        return bean;
+    }
+
+    /**
+     * 归还借出的实例：先调用PooledBean.reset，空闲实例已满或者reset失败时销毁后丢弃
+     * @param bean 借出的bean对象
+     * @throws IllegalArgumentException 不是从该对象池借出的实例或者已经归还
+     */
+    public void release(Object bean) {
+        if (bean == null || loans.remove(new Loan(bean)) == null) {
+            throw new IllegalArgumentException("不是从对象池借出的bean或者已经归还: " + beanName);
+        }
+        try {
+            if (bean instanceof PooledBean) {
+                try {
+                    ((PooledBean) bean).reset();
+                } catch (RuntimeException e) {
+                    destroy(bean);
+                    return;
+                }
+            }
+            long now = System.nanoTime();
+            if (idleCount.incrementAndGet() > maxTotal) {
+                idleCount.decrementAndGet();
+                destroy(bean);
+            } else {
+                idle.offerFirst(new IdleEntry(bean, now));
+            }
+            evictIdle(now);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 包装为try-with-resources使用的句柄
+     */
+    public <T> PooledObject<T> borrowObject(Class<T> type) {
+        return new PooledObject<>(this, type.cast(borrow()));
+    }
+
+    /**
+     * 回收空闲超时的实例（调用销毁回调），至少保留minIdle个
+     */
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    private void evictIdle(long now) {
+        while (idleCount.get() > minIdle) {
+            IdleEntry oldest = idle.peekLast();
+            if (oldest == null || now - oldest.releasedAt < idleTimeoutNanos) {
+                return;
+            }
+            if (idle.removeLastOccurrence(oldest)) {
+                idleCount.decrementAndGet();
+                evicted.increment();
+                destroy(oldest.bean);
+            }
+        }
+    }
+
+    /**
+     * 清空空闲实例（容器关闭时调用，由调用方销毁）
+     * @return 被移除的空闲实例
+     */
+    public List<Object> clear() {
+        List<Object> beans = new ArrayList<>();
+        IdleEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            beans.add(entry.bean);
+        }
+        return beans;
+    }
+
+    /**
+     * 第一次借出时预先创建minIdle个实例
+     */
+    private synchronized void prefill() {
+        if (prefilled) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < minIdle; i++) {
+            idle.offerLast(new IdleEntry(create(), now));
+            idleCount.incrementAndGet();
+        }
+        prefilled = true;
+    }
+
+    /**
+     * 销毁被丢弃的实例，销毁失败时只计数（丢弃发生在归还、回收其他实例时，不能影响调用方）
+     */
+    private void destroy(Object bean) {
+        try {
+            destroyer.accept(bean);
+        } catch (RuntimeException e) {
+            destroyFailures.increment();
+        }
+    }
+
+    private Object create() {
+        Object bean = factory.get();
+        created.increment();
+        return bean;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * 空闲实例个数
+     */
+    public int getNumIdle() {
+        return idleCount.get();
+    }
+
+    /**
+     * 借出还没有归还的实例个数
+     */
+    public int getNumActive() {
+        return maxTotal - permits.availablePermits();
+    }
+
+    /**
+     * 累计创建的实例个数
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * 累计借出次数
+     */
+    public long getBorrowedCount() {
+        return borrowed.sum();
+    }
+
+    /**
+     * 累计因空闲超时回收的实例个数
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * 累计销毁失败的实例个数
+     */
+    public long getDestroyFailedCount() {
+        return destroyFailures.sum();
+    }
+
+    /**
+     * 借出的实例，按对象标识比较（bean可能重写了equals）
+     */
+    private static final class Loan {
+
+        private final Object bean;
+
+        Loan(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Loan && ((Loan) other).bean == bean;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(bean);
+        }
+    }
+
+    private static class IdleEntry {
+
+        private final Object bean;
+
+        private final long releasedAt;
+
+        IdleEntry(Object bean, long releasedAt) {
+            this.bean = bean;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.spring.pool;
+
+/**
+ * -10/18-20:50
+ * -从对象池借出的bean，配合try-with-resources使用，close时归还
+ * <pre>
+ * try (PooledObject&lt;Parser&gt; parser = context.borrowBean(Parser.class)) {
+ *     parser.get().parse(input);
+ * }
+ * </pre>
+ * -只能在借出它的线程中使用，多次close只归还一次
+ */
+public class PooledObject<T> implements AutoCloseable {
+
+    private final BeanPool pool;
+
+    private final T bean;
+
+    private boolean released;
+
+    public PooledObject(BeanPool pool, T bean) {
+        this.pool = pool;
+        this.bean = bean;
+    }
+
+    public T get() {
+        if (released) {
+            throw new IllegalStateException("bean已经归还到对象池: " + pool.getBeanName());
+        }
+        return bean;
+    }
+
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(bean);
+        }
+    }
+}
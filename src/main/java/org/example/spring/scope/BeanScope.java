@@ -0,0 +1,33 @@
+package org.example.spring.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * -10/18-21:10
+ * -自定义作用域：通过 AnnotationConfigApplicationContext.registerScope 注册，
+ * -@Scope的值与注册的名称相同的bean从该作用域中获取，内置thread（每个线程一个）和task（每个TaskContext一个）
+ */
+public interface BeanScope {
+
+    /**
+     * 获取作用域中的bean，不存在时创建并保存
+     * @param beanName bean名称
+     * @param objectFactory 创建bean（完整的createBean流程）
+     * @return bean对象
+     */
+    Object get(String beanName, Supplier<Object> objectFactory);
+
+    /**
+     * 从作用域中移除bean（不调用销毁回调）
+     * @param beanName bean名称
+     * @return 被移除的bean，不存在时为null
+     */
+    Object remove(String beanName);
+
+    /**
+     * 注册作用域结束时调用的回调（在创建bean的线程中、get返回之前调用）
+     * @param beanName bean名称
+     * @param callback 销毁回调
+     */
+    void registerDestructionCallback(String beanName, Runnable callback);
+}
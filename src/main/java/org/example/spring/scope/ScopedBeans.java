@@ -0,0 +1,86 @@
+package org.example.spring.scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * -10/18-21:12
+ * -一个作用域实例（一个线程或者一个TaskContext）中的bean及其销毁回调
+ */
+class ScopedBeans {
+
+    private final Map<String, Object> beans = new ConcurrentHashMap<>();
+
+    /**
+     * 销毁回调，按注册顺序
+     */
+    private final List<Runnable> callbacks = new ArrayList<>();
+
+    private boolean closed;
+
+    Object get(String beanName, Supplier<Object> objectFactory) {
+        Object bean = beans.get(beanName);
+        if (bean != null) {
+            return bean;
+        }
+        // 不在computeIfAbsent中创建，bean的依赖可能也是同一作用域的bean
+        synchronized (this) {
+            checkOpen();
+            bean = beans.get(beanName);
+            if (bean == null) {
+                bean = objectFactory.get();
+                beans.put(beanName, bean);
+            }
+            return bean;
+        }
+    }
+
+    Object remove(String beanName) {
+        return beans.remove(beanName);
+    }
+
+    synchronized void registerDestructionCallback(Runnable callback) {
+        checkOpen();
+        callbacks.add(callback);
+    }
+
+    /**
+     * 按创建的相反顺序调用销毁回调，回调抛出的异常在全部调用之后抛出
+     */
+    void close() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toRun = new ArrayList<>(callbacks);
+            callbacks.clear();
+            beans.clear();
+        }
+        RuntimeException failure = null;
+        for (int i = toRun.size() - 1; i >= 0; i--) {
+            try {
+                toRun.get(i).run();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("作用域已经结束");
+        }
+    }
+}
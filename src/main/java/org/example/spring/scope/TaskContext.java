@@ -0,0 +1,58 @@
+package org.example.spring.scope;
+
+import java.util.concurrent.Callable;
+
+/**
+ * -10/18-21:20
+ * -任务作用域（@Scope("task")）的一个工作单元，bean保存在该对象中而不是线程上
+ * <pre>
+ * try (TaskContext task = context.openTask()) {
+ *     task.run(() -&gt; handle(request));
+ * }
+ * </pre>
+ * -run/call执行期间该对象是当前线程的活动上下文（结束后恢复原来的，不会残留在线程上）；
+ * -同一个对象可以在多个线程（例如一个请求派生的多个虚拟线程）中run，共享同一组bean；close时按创建的相反顺序调用销毁回调
+ */
+public class TaskContext implements AutoCloseable {
+
+    private final ScopedBeans beans = new ScopedBeans();
+
+    /**
+     * 在该上下文中执行
+     * @param task 任务
+     */
+    public void run(Runnable task) {
+        TaskContext previous = TaskScope.bind(this);
+        try {
+            task.run();
+        } finally {
+            TaskScope.restore(previous);
+        }
+    }
+
+    /**
+     * 在该上下文中执行
+     * @param task 任务
+     * @return 任务的返回值
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        TaskContext previous = TaskScope.bind(this);
+        try {
+            return task.call();
+        } finally {
+            TaskScope.restore(previous);
+        }
+    }
+
+    ScopedBeans getBeans() {
+        return beans;
+    }
+
+    /**
+     * 结束工作单元，调用销毁回调
+     */
+    @Override
+    public void close() {
+        beans.close();
+    }
+}
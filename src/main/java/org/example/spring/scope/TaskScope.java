@@ -0,0 +1,61 @@
+package org.example.spring.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * -10/18-21:25
+ * -任务作用域（@Scope("task")）：每个 {@link TaskContext} 一个实例
+ * -线程上只在TaskContext.run/call期间保存一个指向上下文的引用，bean和销毁回调保存在上下文中，随上下文一起释放
+ */
+public class TaskScope implements BeanScope {
+
+    public static final String NAME = "task";
+
+    private static final ThreadLocal<TaskContext> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public Object get(String beanName, Supplier<Object> objectFactory) {
+        return current().getBeans().get(beanName, objectFactory);
+    }
+
+    @Override
+    public Object remove(String beanName) {
+        TaskContext context = CURRENT.get();
+        return context == null ? null : context.getBeans().remove(beanName);
+    }
+
+    @Override
+    public void registerDestructionCallback(String beanName, Runnable callback) {
+        current().getBeans().registerDestructionCallback(callback);
+    }
+
+    /**
+     * 当前线程的活动上下文
+     * @return 不在TaskContext.run/call中时返回null
+     */
+    public static TaskContext getCurrentContext() {
+        return CURRENT.get();
+    }
+
+    private static TaskContext current() {
+        TaskContext context = CURRENT.get();
+        if (context == null) {
+            throw new IllegalStateException("当前线程没有活动的TaskContext，任务作用域的bean需要在TaskContext.run/call中获取");
+        }
+        return context;
+    }
+
+    static TaskContext bind(TaskContext context) {
+        TaskContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static void restore(TaskContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
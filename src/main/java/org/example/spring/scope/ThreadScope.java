@@ -0,0 +1,51 @@
+package org.example.spring.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * -10/18-21:15
+ * -线程作用域（@Scope("thread")）：每个线程一个实例，保存在ThreadLocal中
+ * -线程结束使用时需要调用 {@link #clear()}（例如线程池任务的finally中），否则实例一直被线程持有；
+ * -大量虚拟线程、一个请求一个实例的场景使用 {@link TaskScope}
+ */
+public class ThreadScope implements BeanScope {
+
+    public static final String NAME = "thread";
+
+    private final ThreadLocal<ScopedBeans> beans = new ThreadLocal<>();
+
+    @Override
+    public Object get(String beanName, Supplier<Object> objectFactory) {
+        ScopedBeans scopedBeans = beans.get();
+        if (scopedBeans == null) {
+            scopedBeans = new ScopedBeans();
+            beans.set(scopedBeans);
+        }
+        return scopedBeans.get(beanName, objectFactory);
+    }
+
+    @Override
+    public Object remove(String beanName) {
+        ScopedBeans scopedBeans = beans.get();
+        return scopedBeans == null ? null : scopedBeans.remove(beanName);
+    }
+
+    @Override
+    public void registerDestructionCallback(String beanName, Runnable callback) {
+        ScopedBeans scopedBeans = beans.get();
+        if (scopedBeans != null) {
+            scopedBeans.registerDestructionCallback(callback);
+        }
+    }
+
+    /**
+     * 结束当前线程的作用域：调用销毁回调并移除ThreadLocal
+     */
+    public void clear() {
+        ScopedBeans scopedBeans = beans.get();
+        if (scopedBeans != null) {
+            beans.remove();
+            scopedBeans.close();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.spring.shutdown;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * -10/18-22:40
+ * -关闭报告：每个bean销毁回调的耗时和结果，按耗时从大到小排列，用于找出关闭时最慢的bean
+ */
+public class ShutdownReport {
+
+    private final List<BeanDestruction> beans;
+
+    private final long totalNanos;
+
+    public ShutdownReport(List<BeanDestruction> beans, long totalNanos) {
+        List<BeanDestruction> sorted = new ArrayList<>(beans);
+        sorted.sort((a, b) -> Long.compare(b.durationNanos, a.durationNanos));
+        this.beans = Collections.unmodifiableList(sorted);
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * 所有调用了销毁回调的bean，按耗时从大到小排列
+     */
+    public List<BeanDestruction> getBeans() {
+        return beans;
+    }
+
+    /**
+     * 超时或者抛出异常的bean
+     */
+    public List<BeanDestruction> getFailures() {
+        List<BeanDestruction> failures = new ArrayList<>();
+        for (BeanDestruction bean : beans) {
+            if (bean.status != Status.DESTROYED) {
+                failures.add(bean);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 关闭总耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public String toText(int slowest) {
+        StringBuilder builder = new StringBuilder(String.format(Locale.ROOT, "销毁bean总耗时: %.3f ms（%d个bean）%n",
+                millis(totalNanos), beans.size()));
+        builder.append(String.format(Locale.ROOT, "最慢的%d个bean:%n", Math.min(slowest, beans.size())));
+        for (int i = 0; i < slowest && i < beans.size(); i++) {
+            BeanDestruction bean = beans.get(i);
+            builder.append(String.format(Locale.ROOT, "  %-30s %10.3f ms  %-9s %s%n", bean.beanName,
+                    millis(bean.durationNanos), bean.status, bean.error != null ? bean.error : ""));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toText(10);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public enum Status {
+
+        DESTROYED,
+
+        /**
+         * 超过超时时间没有完成，不再等待（销毁回调仍在后台线程中执行）
+         */
+        TIMED_OUT,
+
+        FAILED
+    }
+
+    /**
+     * 一个bean的销毁结果
+     */
+    public static class BeanDestruction {
+
+        private final String beanName;
+
+        private final Status status;
+
+        private final long durationNanos;
+
+        private final Throwable error;
+
+        public BeanDestruction(String beanName, Status status, long durationNanos, Throwable error) {
+            this.beanName = beanName;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.error = error;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * 销毁回调的耗时，超时时为等待的时间
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * 销毁回调抛出的异常，没有时为null
+         */
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package org.example.spring.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * -10/18-19:15
+ * -bean定义快照的二进制格式：按注册顺序保存bean名称、类型、作用域、是否懒加载以及@Bean方法
+ * -同时保存解析好的注入点（构造方法、@Autowired字段、@Bean方法参数）和每个bean定义的BeanPostProcessor处理链（处理器的注册下标）
+ * -文件头包含格式版本、类路径指纹和注册的BeanPostProcessor类型，指纹不一致时视为无效
+ */
+public class BeanDefinitionSnapshot {
+
+    private static final int MAGIC = 0x4D595350;
+
+    private static final int VERSION = 2;
+
+    private static final int FLAG_LAZY = 1;
+
+    private static final int FLAG_FACTORY_METHOD = 1 << 1;
+
+    private static final int FLAG_FACTORY_BEAN = 1 << 2;
+
+    private static final int FLAG_INJECTION = 1 << 3;
+
+    private static final int FLAG_CONFIGURATION = 1 << 4;
+
+    private static final int FLAG_CHAIN = 1 << 5;
+
+    private static final int POINT_NAME = 1;
+
+    private static final int POINT_QUALIFIED = 1 << 1;
+
+    private static final int POINT_REQUIRED = 1 << 2;
+
+    private static final int POINT_PROVIDED_TYPE = 1 << 3;
+
+    private static final int POINT_ELEMENT_TYPE = 1 << 4;
+
+    private final byte[] fingerprint;
+
+    /**
+     * 保存时注册的BeanPostProcessor的类型（按注册顺序），处理链中的下标指向这个列表
+     */
+    private final List<String> processorTypes;
+
+    private final List<Entry> entries;
+
+    public BeanDefinitionSnapshot(byte[] fingerprint, List<String> processorTypes, List<Entry> entries) {
+        this.fingerprint = fingerprint;
+        this.processorTypes = processorTypes;
+        this.entries = entries;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public List<String> getProcessorTypes() {
+        return Collections.unmodifiableList(processorTypes);
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 读取快照
+     * @param file 快照文件
+     * @param fingerprint 当前的类路径指纹
+     * @return 快照，文件不存在、格式不对或者指纹不一致时返回null
+     */
+    public static BeanDefinitionSnapshot read(Path file, byte[] fingerprint) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readUnsignedShort()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, fingerprint)) {
+                return null;
+            }
+            List<String> processorTypes = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                processorTypes.add(in.readUTF());
+            }
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String beanName = in.readUTF();
+                String typeName = in.readUTF();
+                String scope = in.readUTF();
+                int flags = in.readUnsignedByte();
+                Entry entry = new Entry(beanName, typeName, scope, (flags & FLAG_LAZY) != 0);
+                if ((flags & FLAG_FACTORY_METHOD) != 0) {
+                    String factoryBeanName = (flags & FLAG_FACTORY_BEAN) != 0 ? in.readUTF() : null;
+                    String declaringClass = in.readUTF();
+                    String methodName = in.readUTF();
+                    String[] parameterTypes = new String[in.readUnsignedShort()];
+                    for (int j = 0; j < parameterTypes.length; j++) {
+                        parameterTypes[j] = in.readUTF();
+                    }
+                    entry.setFactoryMethod(factoryBeanName, declaringClass, methodName, parameterTypes);
+                    if ((flags & FLAG_INJECTION) != 0) {
+                        entry.setFactoryMethodParameters(readPoints(in));
+                    }
+                } else if ((flags & FLAG_INJECTION) != 0) {
+                    String[] constructorParameterTypes = readNames(in);
+                    InjectionPoint[] constructorParameters = readPoints(in);
+                    String[] fieldNames = readNames(in);
+                    entry.setInjection((flags & FLAG_CONFIGURATION) != 0, constructorParameterTypes,
+                            constructorParameters, fieldNames, readPoints(in));
+                }
+                if ((flags & FLAG_CHAIN) != 0) {
+                    entry.setPostProcessorChain(new int[][]{readIndexes(in), readIndexes(in), readIndexes(in)});
+                }
+                entries.add(entry);
+            }
+            return new BeanDefinitionSnapshot(fingerprint, processorTypes, entries);
+        }
+    }
+
+    /**
+     * 写入快照（先写临时文件再替换，避免其他进程读到写了一半的文件）
+     * @param file 快照文件
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            copyPermissions(file, temp);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(fingerprint.length);
+                out.write(fingerprint);
+                out.writeShort(processorTypes.size());
+                for (String processorType : processorTypes) {
+                    out.writeUTF(processorType);
+                }
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    out.writeUTF(entry.beanName);
+                    out.writeUTF(entry.typeName);
+                    out.writeUTF(entry.scope);
+                    int flags = (entry.lazy ? FLAG_LAZY : 0)
+                            | (entry.methodName != null ? FLAG_FACTORY_METHOD : 0)
+                            | (entry.factoryBeanName != null ? FLAG_FACTORY_BEAN : 0)
+                            | (entry.hasInjection() ? FLAG_INJECTION : 0)
+                            | (entry.configuration ? FLAG_CONFIGURATION : 0)
+                            | (entry.postProcessorChain != null ? FLAG_CHAIN : 0);
+                    out.writeByte(flags);
+                    if (entry.methodName != null) {
+                        if (entry.factoryBeanName != null) {
+                            out.writeUTF(entry.factoryBeanName);
+                        }
+                        out.writeUTF(entry.declaringClass);
+                        out.writeUTF(entry.methodName);
+                        out.writeShort(entry.parameterTypes.length);
+                        for (String parameterType : entry.parameterTypes) {
+                            out.writeUTF(parameterType);
+                        }
+                        if (entry.factoryMethodParameters != null) {
+                            writePoints(out, entry.factoryMethodParameters);
+                        }
+                    } else if (entry.constructorParameterTypes != null) {
+                        writeNames(out, entry.constructorParameterTypes);
+                        writePoints(out, entry.constructorParameters);
+                        writeNames(out, entry.fieldNames);
+                        writePoints(out, entry.fields);
+                    }
+                    if (entry.postProcessorChain != null) {
+                        for (int[] indexes : entry.postProcessorChain) {
+                            writeIndexes(out, indexes);
+                        }
+                    }
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readUnsignedShort()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    private static void writeNames(DataOutputStream out, String[] names) throws IOException {
+        out.writeShort(names.length);
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+    }
+
+    private static InjectionPoint[] readPoints(DataInputStream in) throws IOException {
+        InjectionPoint[] points = new InjectionPoint[in.readUnsignedShort()];
+        for (int i = 0; i < points.length; i++) {
+            int flags = in.readUnsignedByte();
+            String name = (flags & POINT_NAME) != 0 ? in.readUTF() : null;
+            String typeName = in.readUTF();
+            String providedTypeName = (flags & POINT_PROVIDED_TYPE) != 0 ? in.readUTF() : null;
+            String elementTypeName = (flags & POINT_ELEMENT_TYPE) != 0 ? in.readUTF() : null;
+            points[i] = new InjectionPoint(name, (flags & POINT_QUALIFIED) != 0, typeName,
+                    (flags & POINT_REQUIRED) != 0, providedTypeName, elementTypeName);
+        }
+        return points;
+    }
+
+    private static void writePoints(DataOutputStream out, InjectionPoint[] points) throws IOException {
+        out.writeShort(points.length);
+        for (InjectionPoint point : points) {
+            int flags = (point.name != null ? POINT_NAME : 0)
+                    | (point.qualified ? POINT_QUALIFIED : 0)
+                    | (point.required ? POINT_REQUIRED : 0)
+                    | (point.providedTypeName != null ? POINT_PROVIDED_TYPE : 0)
+                    | (point.elementTypeName != null ? POINT_ELEMENT_TYPE : 0);
+            out.writeByte(flags);
+            if (point.name != null) {
+                out.writeUTF(point.name);
+            }
+            out.writeUTF(point.typeName);
+            if (point.providedTypeName != null) {
+                out.writeUTF(point.providedTypeName);
+            }
+            if (point.elementTypeName != null) {
+                out.writeUTF(point.elementTypeName);
+            }
+        }
+    }
+
+    private static int[] readIndexes(DataInputStream in) throws IOException {
+        int[] indexes = new int[in.readUnsignedShort()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = in.readUnsignedShort();
+        }
+        return indexes;
+    }
+
+    private static void writeIndexes(DataOutputStream out, int[] indexes) throws IOException {
+        out.writeShort(indexes.length);
+        for (int index : indexes) {
+            out.writeShort(index);
+        }
+    }
+
+    /**
+     * 临时文件只有所有者可以读写，替换后保留原文件的权限；原文件不存在时使用普通新建文件的权限（rw-r--r--）
+     */
+    private static void copyPermissions(Path file, Path temp) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+        if (view == null) {
+            return;
+        }
+        Set<PosixFilePermission> permissions;
+        try {
+            permissions = Files.getPosixFilePermissions(file);
+        } catch (NoSuchFileException e) {
+            permissions = PosixFilePermissions.fromString("rw-r--r--");
+        }
+        view.setPermissions(permissions);
+    }
+
+    /**
+     * 一个bean定义
+     */
+    public static class Entry {
+
+        private final String beanName;
+
+        private final String typeName;
+
+        private final String scope;
+
+        private final boolean lazy;
+
+        private String factoryBeanName;
+
+        private String declaringClass;
+
+        private String methodName;
+
+        private String[] parameterTypes;
+
+        /**
+         * @Bean方法参数的注入点
+         */
+        private InjectionPoint[] factoryMethodParameters;
+
+        /**
+         * 是否是@Configuration配置类
+         */
+        private boolean configuration;
+
+        /**
+         * 推断出的构造方法的参数类型，没有保存注入点时为null
+         */
+        private String[] constructorParameterTypes;
+
+        private InjectionPoint[] constructorParameters;
+
+        /**
+         * @Autowired字段名，与fields一一对应
+         */
+        private String[] fieldNames;
+
+        private InjectionPoint[] fields;
+
+        /**
+         * 提前暴露引用、初始化前、初始化后三条处理链中的处理器下标
+         */
+        private int[][] postProcessorChain;
+
+        public Entry(String beanName, String typeName, String scope, boolean lazy) {
+            this.beanName = beanName;
+            this.typeName = typeName;
+            this.scope = scope;
+            this.lazy = lazy;
+        }
+
+        /**
+         * @param factoryBeanName 配置类的bean名称，静态方法时为null
+         * @param declaringClass 声明@Bean方法的类
+         * @param methodName 方法名
+         * @param parameterTypes 参数类型（Class.getName()）
+         */
+        public void setFactoryMethod(String factoryBeanName, String declaringClass, String methodName, String[] parameterTypes) {
+            this.factoryBeanName = factoryBeanName;
+            this.declaringClass = declaringClass;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        /**
+         * @param parameters @Bean方法参数的注入点
+         */
+        public void setFactoryMethodParameters(InjectionPoint[] parameters) {
+            this.factoryMethodParameters = parameters;
+        }
+
+        /**
+         * @param configuration 是否是@Configuration配置类
+         * @param constructorParameterTypes 推断出的构造方法的参数类型（Class.getName()）
+         * @param constructorParameters 构造方法参数的注入点
+         * @param fieldNames @Autowired字段名
+         * @param fields 与字段一一对应的注入点
+         */
+        public void setInjection(boolean configuration, String[] constructorParameterTypes,
+                                 InjectionPoint[] constructorParameters, String[] fieldNames, InjectionPoint[] fields) {
+            this.configuration = configuration;
+            this.constructorParameterTypes = constructorParameterTypes;
+            this.constructorParameters = constructorParameters;
+            this.fieldNames = fieldNames;
+            this.fields = fields;
+        }
+
+        /**
+         * @param postProcessorChain 提前暴露引用、初始化前、初始化后三条处理链中的处理器下标
+         */
+        public void setPostProcessorChain(int[][] postProcessorChain) {
+            this.postProcessorChain = postProcessorChain;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+
+        public boolean isFactoryMethod() {
+            return methodName != null;
+        }
+
+        public String getFactoryBeanName() {
+            return factoryBeanName;
+        }
+
+        public String getDeclaringClass() {
+            return declaringClass;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String[] getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * 是否保存了注入点（构造方法和@Autowired字段，或者@Bean方法参数）
+         */
+        public boolean hasInjection() {
+            return isFactoryMethod() ? factoryMethodParameters != null : constructorParameterTypes != null;
+        }
+
+        public InjectionPoint[] getFactoryMethodParameters() {
+            return factoryMethodParameters;
+        }
+
+        public boolean isConfiguration() {
+            return configuration;
+        }
+
+        public String[] getConstructorParameterTypes() {
+            return constructorParameterTypes;
+        }
+
+        public InjectionPoint[] getConstructorParameters() {
+            return constructorParameters;
+        }
+
+        public String[] getFieldNames() {
+            return fieldNames;
+        }
+
+        public InjectionPoint[] getFields() {
+            return fields;
+        }
+
+        public int[][] getPostProcessorChain() {
+            return postProcessorChain;
+        }
+    }
+
+    /**
+     * 一个注入点，类型保存为Class.getName()
+     */
+    public static class InjectionPoint {
+
+        private final String name;
+
+        private final boolean qualified;
+
+        private final String typeName;
+
+        private final boolean required;
+
+        private final String providedTypeName;
+
+        private final String elementTypeName;
+
+        /**
+         * @param name 注入的bean名称（@Qualifier指定的名称，或者字段名/参数名），拿不到参数名时为null
+         * @param qualified 名称是否来自@Qualifier
+         * @param typeName 字段/参数类型
+         * @param required 是否必须
+         * @param providedTypeName ObjectProvider、Supplier注入点的泛型参数，其他注入点为null
+         * @param elementTypeName 集合、数组、Map注入点的元素类型，其他注入点为null
+         */
+        public InjectionPoint(String name, boolean qualified, String typeName, boolean required,
+                              String providedTypeName, String elementTypeName) {
+            this.name = name;
+            this.qualified = qualified;
+            this.typeName = typeName;
+            this.required = required;
+            this.providedTypeName = providedTypeName;
+            this.elementTypeName = elementTypeName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isQualified() {
+            return qualified;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        public String getProvidedTypeName() {
+            return providedTypeName;
+        }
+
+        public String getElementTypeName() {
+            return elementTypeName;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.spring.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * -10/18-19:10
+ * -类路径指纹：扫描的包所在的每个类路径根下class文件的路径、大小和修改时间（jar只看jar文件本身）的SHA-256
+ * -只读取文件属性，不读取也不解析class文件
+ */
+public class ClasspathFingerprint {
+
+    /**
+     * 计算指纹
+     * @param configClass 配置类
+     * @param basePackages 扫描的包
+     * @param classLoader 类加载器
+     * @return SHA-256
+     */
+    public static byte[] compute(Class<?> configClass, String[] basePackages, ClassLoader classLoader) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, configClass.getName());
+        for (String basePackage : basePackages) {
+            update(digest, "package:" + basePackage);
+            if ("".equals(basePackage)) {
+                continue;
+            }
+            String path = basePackage.replace(".", "/");
+            try {
+                Enumeration<URL> resources = classLoader.getResources(path);
+                while (resources.hasMoreElements()) {
+                    URL resource = resources.nextElement();
+                    if ("jar".equals(resource.getProtocol())) {
+                        File jarFile = new File(((JarURLConnection) resource.openConnection()).getJarFileURL().toURI());
+                        update(digest, "jar:" + jarFile.getAbsolutePath() + ":" + jarFile.length() + ":" + jarFile.lastModified());
+                    } else {
+                        updateDirectory(digest, new File(resource.toURI()).toPath());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("计算类路径指纹失败: " + basePackage, e);
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("计算类路径指纹失败: " + basePackage, e);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void updateDirectory(MessageDigest digest, Path root) throws IOException {
+        update(digest, "dir:" + root.toAbsolutePath());
+        List<String> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.forEach(file -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile() && file.toString().endsWith(".class")) {
+                        files.add(root.relativize(file) + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        // 遍历顺序与文件系统有关
+        Collections.sort(files);
+        for (String file : files) {
+            update(digest, file);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.spring.startup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * -10/18-18:15
+ * -在内存中记录所有结束的步骤，启动完成后可以输出最慢的N个bean（文本或JSON）
+ */
+public class BufferingStartupRecorder implements StartupRecorder {
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Queue<RecordedStep> steps = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 当前线程上还没有结束的最近一个步骤
+     */
+    private final ThreadLocal<RecordedStep> current = new ThreadLocal<>();
+
+    private final int slowest;
+
+    private final PrintStream out;
+
+    private final boolean json;
+
+    /**
+     * 只记录，不输出
+     */
+    public BufferingStartupRecorder() {
+        this(0, null, false);
+    }
+
+    /**
+     * @param slowest 启动完成后输出最慢的bean的个数
+     * @param out 输出位置，为null时不输出
+     * @param json 是否输出JSON，否则输出文本
+     */
+    public BufferingStartupRecorder(int slowest, PrintStream out, boolean json) {
+        this.slowest = slowest;
+        this.out = out;
+        this.json = json;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        return start(name, current.get());
+    }
+
+    @Override
+    public StartupStep start(String name, StartupStep parent) {
+        RecordedStep step = new RecordedStep(this, ids.incrementAndGet(), parent == null ? 0 : parent.getId(), name,
+                current.get());
+        current.set(step);
+        stepStarted(step);
+        return step;
+    }
+
+    void ended(RecordedStep step) {
+        current.set(step.previous);
+        steps.add(step);
+        stepEnded(step);
+    }
+
+    /**
+     * 步骤开始后调用（在开始步骤的线程中）
+     */
+    protected void stepStarted(RecordedStep step) {
+    }
+
+    /**
+     * 步骤结束后调用（在开始步骤的线程中）
+     */
+    protected void stepEnded(RecordedStep step) {
+    }
+
+    /**
+     * 获取已经结束的步骤
+     * @return 按开始顺序排列
+     */
+    public List<RecordedStep> getSteps() {
+        List<RecordedStep> result = new ArrayList<>(steps);
+        result.sort(Comparator.comparingLong(RecordedStep::getId));
+        return result;
+    }
+
+    public StartupReport getReport() {
+        return new StartupReport(getSteps());
+    }
+
+    @Override
+    public void refreshFinished() {
+        if (out != null) {
+            StartupReport report = getReport();
+            out.println(json ? report.toJson(slowest) : report.toText(slowest));
+        }
+    }
+}
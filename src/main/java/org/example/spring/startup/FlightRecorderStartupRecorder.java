@@ -0,0 +1,172 @@
+package org.example.spring.startup;
+
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * -10/18-18:25
+ * -每个步骤同时作为JFR事件（org.example.spring.StartupStep）提交，可以用 -XX:StartFlightRecording 录制后在JMC中查看
+ * -需要运行环境支持JFR（JDK 11+ 或 8u262+），不支持时只记录步骤不提交事件
+ * -事件类型通过反射使用jdk.jfr.EventFactory动态定义，编译时不依赖jdk.jfr模块（可以按Java 8编译）
+ */
+public class FlightRecorderStartupRecorder extends BufferingStartupRecorder {
+
+    /**
+     * 运行环境不支持JFR时为null
+     */
+    private static final StartupStepEventType EVENT_TYPE = StartupStepEventType.create();
+
+    public FlightRecorderStartupRecorder() {
+        super();
+    }
+
+    /**
+     * @param slowest 启动完成后输出最慢的bean的个数
+     * @param out 输出位置，为null时不输出
+     * @param json 是否输出JSON，否则输出文本
+     */
+    public FlightRecorderStartupRecorder(int slowest, PrintStream out, boolean json) {
+        super(slowest, out, json);
+    }
+
+    /**
+     * 运行环境是否支持JFR
+     */
+    public static boolean isSupported() {
+        return EVENT_TYPE != null;
+    }
+
+    @Override
+    protected void stepStarted(RecordedStep step) {
+        if (EVENT_TYPE == null) {
+            return;
+        }
+        Object event = EVENT_TYPE.newEvent();
+        if ((Boolean) EVENT_TYPE.invoke(EVENT_TYPE.isEnabled, event)) {
+            EVENT_TYPE.invoke(EVENT_TYPE.begin, event);
+            step.attachment = event;
+        }
+    }
+
+    @Override
+    protected void stepEnded(RecordedStep step) {
+        if (EVENT_TYPE == null || !EVENT_TYPE.eventClass.isInstance(step.attachment)) {
+            return;
+        }
+        Object event = step.attachment;
+        step.attachment = null;
+        EVENT_TYPE.invoke(EVENT_TYPE.end, event);
+        if ((Boolean) EVENT_TYPE.invoke(EVENT_TYPE.shouldCommit, event)) {
+            // 字段下标与StartupStepEventType.create中定义的顺序一致
+            EVENT_TYPE.invoke(EVENT_TYPE.set, event, 0, step.getId());
+            EVENT_TYPE.invoke(EVENT_TYPE.set, event, 1, step.getParentId());
+            EVENT_TYPE.invoke(EVENT_TYPE.set, event, 2, step.getName());
+            EVENT_TYPE.invoke(EVENT_TYPE.set, event, 3, step.getTags().toString());
+            EVENT_TYPE.invoke(EVENT_TYPE.set, event, 4, step.getAllocatedBytes());
+            EVENT_TYPE.invoke(EVENT_TYPE.commit, event);
+        }
+    }
+
+    /**
+     * 动态定义的JFR事件类型和jdk.jfr.Event上需要调用的方法
+     */
+    private static final class StartupStepEventType {
+
+        /**
+         * jdk.jfr.EventFactory，需要一直持有，被回收后事件类型会被注销
+         */
+        private final Object factory;
+
+        private final Method newEvent;
+
+        private final Class<?> eventClass;
+
+        private final Method isEnabled;
+
+        private final Method begin;
+
+        private final Method end;
+
+        private final Method shouldCommit;
+
+        private final Method set;
+
+        private final Method commit;
+
+        private StartupStepEventType(Object factory, Class<?> eventClass) throws NoSuchMethodException {
+            this.factory = factory;
+            this.newEvent = factory.getClass().getMethod("newEvent");
+            this.eventClass = eventClass;
+            this.isEnabled = eventClass.getMethod("isEnabled");
+            this.begin = eventClass.getMethod("begin");
+            this.end = eventClass.getMethod("end");
+            this.shouldCommit = eventClass.getMethod("shouldCommit");
+            this.set = eventClass.getMethod("set", int.class, Object.class);
+            this.commit = eventClass.getMethod("commit");
+        }
+
+        /**
+         * 定义事件类型 org.example.spring.StartupStep
+         * @return 运行环境不支持JFR时返回null
+         */
+        static StartupStepEventType create() {
+            try {
+                Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+                Constructor<?> newField = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+                Class<?> label = Class.forName("jdk.jfr.Label");
+
+                List<Object> annotations = Arrays.asList(
+                        newAnnotation.newInstance(Class.forName("jdk.jfr.Name"), "org.example.spring.StartupStep"),
+                        newAnnotation.newInstance(label, "Startup Step"),
+                        newAnnotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"my-spring"}),
+                        newAnnotation.newInstance(Class.forName("jdk.jfr.Description"), "容器启动步骤"));
+                List<Object> fields = new ArrayList<>();
+                fields.add(newField.newInstance(long.class, "id",
+                        Collections.singletonList(newAnnotation.newInstance(label, "Id"))));
+                fields.add(newField.newInstance(long.class, "parentId",
+                        Collections.singletonList(newAnnotation.newInstance(label, "Parent Id"))));
+                fields.add(newField.newInstance(String.class, "name",
+                        Collections.singletonList(newAnnotation.newInstance(label, "Name"))));
+                fields.add(newField.newInstance(String.class, "tags",
+                        Collections.singletonList(newAnnotation.newInstance(label, "Tags"))));
+                fields.add(newField.newInstance(long.class, "allocatedBytes",
+                        Collections.singletonList(newAnnotation.newInstance(label, "Allocated Bytes"))));
+
+                Object factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+                return new StartupStepEventType(factory, eventClass);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                return null;
+            }
+        }
+
+        Object newEvent() {
+            return invoke(newEvent, factory);
+        }
+
+        Object invoke(Method method, Object target, Object... arguments) {
+            try {
+                return method.invoke(target, arguments);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("调用JFR事件方法失败: " + method, e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("调用JFR事件方法失败: " + method, cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.spring.startup;
+
+/**
+ * -10/18-18:07
+ * -不记录任何信息的记录器，步骤也是它自己
+ */
+final class NoOpStartupRecorder implements StartupRecorder, StartupStep {
+
+    static final NoOpStartupRecorder INSTANCE = new NoOpStartupRecorder();
+
+    private NoOpStartupRecorder() {
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        return this;
+    }
+
+    @Override
+    public StartupStep start(String name, StartupStep parent) {
+        return this;
+    }
+
+    @Override
+    public long getId() {
+        return 0;
+    }
+
+    @Override
+    public long getParentId() {
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return "";
+    }
+
+    @Override
+    public StartupStep tag(String key, Object value) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.spring.startup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * -10/18-18:10
+ * -BufferingStartupRecorder记录的步骤：耗时、分配的内存以及标签
+ */
+public class RecordedStep implements StartupStep {
+
+    /**
+     * 支持按线程统计分配内存的ThreadMXBean（HotSpot），不支持时为null
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = allocationMXBean();
+
+    private final BufferingStartupRecorder recorder;
+
+    private final long id;
+
+    private final long parentId;
+
+    private final String name;
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+
+    private final String threadName;
+
+    private final long startNanos;
+
+    private final long startAllocatedBytes;
+
+    private long durationNanos = -1;
+
+    private long allocatedBytes = -1;
+
+    /**
+     * 开始该步骤之前当前线程上的步骤，结束后恢复
+     */
+    final RecordedStep previous;
+
+    /**
+     * 记录器附加的数据（如JFR事件）
+     */
+    Object attachment;
+
+    RecordedStep(BufferingStartupRecorder recorder, long id, long parentId, String name, RecordedStep previous) {
+        this.recorder = recorder;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.previous = previous;
+        this.threadName = Thread.currentThread().getName();
+        this.startAllocatedBytes = currentThreadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public long getParentId() {
+        return parentId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public StartupStep tag(String key, Object value) {
+        tags.put(key, String.valueOf(value));
+        return this;
+    }
+
+    @Override
+    public void end() {
+        if (durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        if (startAllocatedBytes >= 0) {
+            allocatedBytes = currentThreadAllocatedBytes() - startAllocatedBytes;
+        }
+        recorder.ended(this);
+    }
+
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    public String getTag(String key) {
+        return tags.get(key);
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * 耗时（包括子步骤），还没有结束时为-1
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 该步骤期间当前线程分配的字节数（包括子步骤），JVM不支持时为-1
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN == null ? -1 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (LinkageError | RuntimeException e) {
+            // 非HotSpot虚拟机
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.spring.startup;
+
+/**
+ * -10/18-18:06
+ * -记录容器启动过程中的步骤，默认使用不做任何事的NONE
+ * -步骤名称：context.refresh、context.scan.candidates、context.scan.register、context.preinstantiate、
+ * -context.preinstantiate.task（并行创建时的一个任务）、bean.create以及它的子步骤
+ * -bean.instantiate、bean.inject、bean.postprocess.before、bean.init、bean.postprocess.after
+ */
+public interface StartupRecorder {
+
+    /**
+     * 不记录任何信息
+     */
+    StartupRecorder NONE = NoOpStartupRecorder.INSTANCE;
+
+    /**
+     * 开始一个步骤，父步骤为当前线程上还没有结束的最近一个步骤
+     * @param name 步骤名称
+     * @return 步骤
+     */
+    StartupStep start(String name);
+
+    /**
+     * 开始一个步骤并指定父步骤（在其他线程中执行的子步骤）
+     * @param name 步骤名称
+     * @param parent 父步骤
+     * @return 步骤
+     */
+    StartupStep start(String name, StartupStep parent);
+
+    /**
+     * 容器启动完成后调用，之后容器不再向该记录器记录步骤
+     */
+    default void refreshFinished() {
+    }
+}
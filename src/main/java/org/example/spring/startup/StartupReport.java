@@ -0,0 +1,181 @@
+package org.example.spring.startup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * -10/18-18:20
+ * -启动报告：各阶段耗时以及最慢的N个bean
+ * -bean的耗时分为总耗时（包括创建依赖的bean）和自身耗时（减去其中创建其他bean的耗时），按自身耗时排序
+ */
+public class StartupReport {
+
+    public static final String BEAN_CREATE = "bean.create";
+
+    public static final String BEAN_NAME_TAG = "beanName";
+
+    public static final String BEAN_TYPE_TAG = "beanType";
+
+    private final List<RecordedStep> phases = new ArrayList<>();
+
+    private final List<BeanTiming> beans = new ArrayList<>();
+
+    public StartupReport(List<RecordedStep> steps) {
+        Map<Long, RecordedStep> byId = new HashMap<>();
+        for (RecordedStep step : steps) {
+            byId.put(step.getId(), step);
+        }
+        Map<Long, BeanTiming> timings = new HashMap<>();
+        for (RecordedStep step : steps) {
+            if (step.getName().startsWith("context.")) {
+                phases.add(step);
+            } else if (BEAN_CREATE.equals(step.getName())) {
+                BeanTiming timing = new BeanTiming(step);
+                timings.put(step.getId(), timing);
+                beans.add(timing);
+            }
+        }
+        // 从自身耗时中减去直接创建的其他bean（最近的bean.create祖先）
+        for (BeanTiming timing : beans) {
+            RecordedStep ancestor = byId.get(timing.step.getParentId());
+            while (ancestor != null && !BEAN_CREATE.equals(ancestor.getName())) {
+                ancestor = byId.get(ancestor.getParentId());
+            }
+            if (ancestor != null) {
+                BeanTiming owner = timings.get(ancestor.getId());
+                owner.selfNanos -= timing.step.getDurationNanos();
+                if (owner.selfAllocatedBytes >= 0 && timing.step.getAllocatedBytes() >= 0) {
+                    owner.selfAllocatedBytes -= timing.step.getAllocatedBytes();
+                }
+            }
+        }
+        beans.sort((a, b) -> Long.compare(b.selfNanos, a.selfNanos));
+    }
+
+    /**
+     * 阶段（context.*步骤），按开始顺序排列
+     */
+    public List<RecordedStep> getPhases() {
+        return phases;
+    }
+
+    /**
+     * 所有bean，按自身耗时从大到小排列
+     */
+    public List<BeanTiming> getBeans() {
+        return beans;
+    }
+
+    public String toText(int slowest) {
+        StringBuilder builder = new StringBuilder("启动阶段耗时:\n");
+        for (RecordedStep phase : phases) {
+            builder.append(String.format(Locale.ROOT, "  %-30s %10.3f ms%n", phase.getName(), millis(phase.getDurationNanos())));
+        }
+        builder.append(String.format(Locale.ROOT, "最慢的%d个bean（总耗时/自身耗时/自身分配内存）:%n", Math.min(slowest, beans.size())));
+        for (int i = 0; i < slowest && i < beans.size(); i++) {
+            BeanTiming bean = beans.get(i);
+            builder.append(String.format(Locale.ROOT, "  %-30s %10.3f ms %10.3f ms %12d B%n", bean.getBeanName(),
+                    millis(bean.getTotalNanos()), millis(bean.getSelfNanos()), bean.getSelfAllocatedBytes()));
+        }
+        return builder.toString();
+    }
+
+    public String toJson(int slowest) {
+        StringBuilder builder = new StringBuilder("{\"phases\":[");
+        for (int i = 0; i < phases.size(); i++) {
+            RecordedStep phase = phases.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"name\":");
+            appendString(builder, phase.getName());
+            builder.append(",\"durationNanos\":").append(phase.getDurationNanos())
+                    .append(",\"allocatedBytes\":").append(phase.getAllocatedBytes()).append('}');
+        }
+        builder.append("],\"slowestBeans\":[");
+        for (int i = 0; i < slowest && i < beans.size(); i++) {
+            BeanTiming bean = beans.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"beanName\":");
+            appendString(builder, bean.getBeanName());
+            builder.append(",\"beanType\":");
+            appendString(builder, bean.getBeanType());
+            builder.append(",\"totalNanos\":").append(bean.getTotalNanos())
+                    .append(",\"selfNanos\":").append(bean.getSelfNanos())
+                    .append(",\"selfAllocatedBytes\":").append(bean.getSelfAllocatedBytes())
+                    .append(",\"thread\":");
+            appendString(builder, bean.step.getThreadName());
+            builder.append('}');
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+    /**
+     * 一个bean的创建耗时
+     */
+    public static class BeanTiming {
+
+        private final RecordedStep step;
+
+        private long selfNanos;
+
+        private long selfAllocatedBytes;
+
+        BeanTiming(RecordedStep step) {
+            this.step = step;
+            this.selfNanos = step.getDurationNanos();
+            this.selfAllocatedBytes = step.getAllocatedBytes();
+        }
+
+        public String getBeanName() {
+            return step.getTag(BEAN_NAME_TAG);
+        }
+
+        public String getBeanType() {
+            return step.getTag(BEAN_TYPE_TAG);
+        }
+
+        public long getTotalNanos() {
+            return step.getDurationNanos();
+        }
+
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        /**
+         * 自身分配的字节数，JVM不支持时为-1
+         */
+        public long getSelfAllocatedBytes() {
+            return selfAllocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.spring.startup;
+
+/**
+ * -10/18-18:05
+ * -启动过程中的一个步骤（阶段或者单个bean的创建），start后必须调用end
+ */
+public interface StartupStep {
+
+    /**
+     * 步骤id，从1开始
+     */
+    long getId();
+
+    /**
+     * 父步骤id，没有父步骤时为0
+     */
+    long getParentId();
+
+    String getName();
+
+    /**
+     * 添加标签（bean名称、类名等）
+     * @param key 标签名
+     * @param value 标签值
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, Object value);
+
+    /**
+     * 结束步骤
+     */
+    void end();
+}
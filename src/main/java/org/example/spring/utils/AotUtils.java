@@ -0,0 +1,52 @@
+package org.example.spring.utils;
+
+import org.example.spring.aot.AotContextInitializer;
+import org.example.spring.aot.ContextInitializerProcessor;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.startup.StartupStep;
+
+/**
+ * -10/18-19:50
+ * -AOT模式：运行编译期生成的初始化器代替扫描组件
+ */
+public class AotUtils {
+
+    /**
+     * 获取配置类对应的初始化器类名（编译期和运行时使用同一规则）
+     * @param configClassName 配置类的全限定名（内部类为 外部类$内部类）
+     * @return 初始化器的全限定名
+     */
+    public static String getInitializerClassName(String configClassName) {
+        return configClassName.replace('$', '_') + AotContextInitializer.CLASS_SUFFIX;
+    }
+
+    /**
+     * 开启了AOT模式时运行生成的初始化器
+     * @param configClass 配置类
+     * @return 没有开启AOT模式时返回false，需要扫描组件
+     */
+    public static boolean initialize(Class<?> configClass, ResourceModel resourceModel) throws ClassNotFoundException {
+        if (!Boolean.getBoolean(AotContextInitializer.ENABLED_PROPERTY)) {
+            return false;
+        }
+        String className = getInitializerClassName(configClass.getName());
+        AotContextInitializer initializer;
+        try {
+            initializer = Class.forName(className, true, configClass.getClassLoader())
+                    .asSubclass(AotContextInitializer.class).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("没有找到AOT生成的初始化器: " + className
+                    + "，编译时需要开启注解处理器参数 -A" + ContextInitializerProcessor.AOT_OPTION + "=true", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建AOT初始化器失败: " + className, e);
+        }
+        StartupStep step = resourceModel.startupRecorder.start("context.aot.initialize").tag("initializer", className);
+        try {
+            initializer.initialize(resourceModel);
+            step.tag("beanDefinitions", resourceModel.beanDefinitionMap.size());
+        } finally {
+            step.end();
+        }
+        return true;
+    }
+}
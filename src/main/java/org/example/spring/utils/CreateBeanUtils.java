@@ -1,14 +1,33 @@
 package org.example.spring.utils;
 
 import org.example.spring.BeanDefinition;
-import org.example.spring.BeanPostProcessor;
+import org.example.spring.BeanObjectProvider;
+import org.example.spring.BeanPostProcessorChain;
+import org.example.spring.DisposableBean;
 import org.example.spring.InitializingBean;
-import org.example.spring.annotation.Autowired;
+import org.example.spring.InjectionCandidates;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.annotation.PreDestroy;
+import org.example.spring.aop.AopProxy;
+import org.example.spring.event.ApplicationEventPublisherAware;
+import org.example.spring.exception.BeanCurrentlyInCreationException;
+import org.example.spring.exception.NoSuchBeanException;
+import org.example.spring.instantiator.BeanInstantiator;
+import org.example.spring.instantiator.EnhancedConfiguration;
+import org.example.spring.instantiator.FactoryMethodInvoker;
+import org.example.spring.instantiator.MethodHandleFactoryMethodInvoker;
 import org.example.spring.model.ResourceModel;
+import org.example.spring.startup.StartupRecorder;
+import org.example.spring.startup.StartupReport;
+import org.example.spring.startup.StartupStep;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * -03/29-0:24
@@ -16,121 +35,343 @@ import java.lang.reflect.InvocationTargetException;
  */
 public class CreateBeanUtils {
 
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    /**
+     * 类 -> @PreDestroy方法，每个类只查找一次
+     */
+    private static final ClassValue<Method[]> PRE_DESTROY_METHODS = new ClassValue<Method[]>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            return findPreDestroyMethods(type);
+        }
+    };
+
     /**
      * 创建bean对象
      * @param beanDefinition bean的定义
      * @return Object 创建好的bean对象
      */
     public static <T> Object createBean(BeanDefinition beanDefinition, ResourceModel resourceModel) {
-        Object bean = null;
-        Class<?> beanType = beanDefinition.getType();
-
-        // 获取所有构造方法
-        Constructor<?>[] constructors = beanType.getConstructors();
+        return createBean(null, beanDefinition, resourceModel);
+    }
 
+    /**
+     * 创建bean对象
+     * 单例在实例化之后、属性注入之前提前暴露引用，字段注入的循环依赖可以正常解决
+     * @param beanName 注册的bean名称，为null时不检测循环依赖也不提前暴露
+     * @param beanDefinition bean的定义
+     * @return Object 创建好的bean对象
+     */
+    public static <T> Object createBean(String beanName, BeanDefinition beanDefinition, ResourceModel resourceModel) {
+        StartupStep step = resourceModel.startupRecorder.start(StartupReport.BEAN_CREATE)
+                .tag(StartupReport.BEAN_NAME_TAG, beanName)
+                .tag(StartupReport.BEAN_TYPE_TAG, beanDefinition.getType().getName());
         try {
-            /*
-             * 推断构造方法
-             * 1、没有提供构造方法：调用默认的无参构造
-             * 2、提供了构造方法：
-             *   - 构造方法个数为1
-             *     - 构造方法参数个数为0：无参构造
-             *     - 构造方法参数个数不为0：传入多个为空的参数
-             *   - 构造方法个数 > 1：
-             *     - 提供了无参构造方法：调用无参构造方法实例化
-             *     - 没有提供无参构造方法：推断失败，抛出异常
-             */
-            // 注意：这个分支永远不会执行，可以删除，但是为了方便理解代码，在此保留
-
-            if (isEmpty(constructors)) {
-                // 无参构造方法
-                Constructor<?> constructor = beanType.getConstructor();
-
-                bean = constructor.newInstance();
-            } else if (constructors.length == 1) {
-                Constructor<?> constructor = constructors[0];
-                // 得到构造方法参数个数
-                int parameterCount = constructor.getParameterCount();
-
-                if (parameterCount == 0) {
-                    // 无参构造方法
-                    bean = constructor.newInstance();
-                } else {
-                    // 多个参数的构造方法
-                    Object[] array = new Object[parameterCount];
-
-                    bean = constructor.newInstance(array);
-                }
-            } else { // 多个构造方法
-                boolean success = false;
-                for (Constructor<?> constructor : constructors) {
-                    // 无参构造方法
-                    if (constructor.getParameterCount() == 0) {
-                        bean = constructor.newInstance();
-                        success = true;
-                        break;
-                    }
-                }
+            if (beanName == null) {
+                return doCreateBean(null, beanDefinition, resourceModel);
+            }
+            resourceModel.beforeCreation(beanName);
+            try {
+                return doCreateBean(beanName, beanDefinition, resourceModel);
+            } finally {
+                resourceModel.afterCreation(beanName);
+            }
+        } finally {
+            step.end();
+        }
+    }
+
+    private static <T> Object doCreateBean(String beanName, BeanDefinition beanDefinition, ResourceModel resourceModel) {
+        if (beanDefinition.isFactoryMethod()) {
+            // @Bean方法创建的对象由方法自己完成装配，不做字段注入；方法返回前拿不到对象，也无法提前暴露引用
+            StartupStep instantiate = resourceModel.startupRecorder.start("bean.instantiate");
+            Object bean = instantiateUsingFactoryMethod(beanName, beanDefinition, resourceModel);
+            instantiate.end();
+            return initializeBean(bean, beanName, beanDefinition, resourceModel);
+        }
+
+        // 构造方法和注入点按类缓存，这里不再做反射查找
+        InjectionMetadata metadata = getInjectionMetadata(beanDefinition);
+        BeanInstantiator instantiator = metadata.getInstantiator();
 
-                if (!success) {
-                    throw new IllegalStateException("No default constructor found.");
+        // 构造方法参数从容器中获取
+        StartupStep instantiate = resourceModel.startupRecorder.start("bean.instantiate");
+        Object bean = instantiator.newInstance(resolveArguments(beanName, beanDefinition, metadata.getConstructorParameters(), resourceModel));
+        instantiate.end();
+        Object rawBean = bean;
+        // 增强后的配置类需要知道所在的容器
+        if (bean instanceof EnhancedConfiguration) {
+            ((EnhancedConfiguration) bean).setResourceModel(resourceModel);
+        }
+
+        // 单例提前暴露引用（三级缓存）
+        boolean earlyExposure = beanName != null && isSingleton(beanDefinition.getScope());
+        if (earlyExposure) {
+            resourceModel.addSingletonFactory(beanName, () ->
+                    resourceModel.getBeanPostProcessorChain(beanDefinition).applyEarlyBeanReference(rawBean, beanName));
+        }
+
+        /*
+         * 处理字段注入
+         * 先AutowiredByName后AutowiredByType
+         */
+        InjectionMetadata.InjectionPoint[] injectionPoints = metadata.getInjectionPoints();
+        if (injectionPoints.length > 0) {
+            StartupStep inject = resourceModel.startupRecorder.start("bean.inject");
+            Object[] values = new Object[injectionPoints.length];
+            for (int i = 0; i < injectionPoints.length; i++) {
+                InjectionMetadata.InjectionPoint injectionPoint = injectionPoints[i];
+                if (injectionPoint.isProvider()) {
+                    // 注入延迟获取bean的句柄
+                    values[i] = new BeanObjectProvider<>(injectionPoint, resourceModel);
+                    continue;
                 }
-            }
-            /*
-             * 处理字段注入
-             * 先AutowiredByName后AutowiredByType
-             */
-            // 获取bean的所有自定义属性
-            Field[] fields = beanType.getDeclaredFields();
-
-            for (Field field : fields) {
-                if (field.isAnnotationPresent(Autowired.class)) {
-                    // 获取bean
-                    // 通过bean名称获取bean
-                    Object autowiredBean = GetBeanUtils.getBean(field.getName(), resourceModel);
-                    Autowired autowired = field.getAnnotation(Autowired.class);
-                    boolean required = autowired.required();
-                    if (autowiredBean == null && required) {
-                        // 获取字段类型
-                        Class<?> type = field.getType();
-
-                        autowiredBean = GetBeanUtils.getBean((Class<T>) type, resourceModel);
+                // 集合、数组、Map注入元素类型的所有bean，没有候选bean时按单个bean注入
+                if (injectionPoint.isMultiple()) {
+                    Object beans = resolveMultipleBeans(beanName, beanDefinition, injectionPoint, resourceModel);
+                    if (beans != null) {
+                        values[i] = beans;
+                        continue;
                     }
-                    // 设置到@Autowired注入的属性中
-                    field.setAccessible(true);  // 打开字段的访问权限
-                    field.set(bean, autowiredBean); // 将bean对象中的field字段设置为autowiredBean
                 }
-            }
-            /*
-             * 初始化前
-             */
-            String beanName = GetBeanUtils.getBeanName(beanDefinition.getType());
-            if (!resourceModel.list.isEmpty()) {
-                for (BeanPostProcessor beanPostProcessor : resourceModel.list) {
-                    bean = beanPostProcessor.postProcessBeforeInitialization(bean, beanName);
+                // 获取bean
+                // 通过bean名称获取bean
+                Object autowiredBean = GetBeanUtils.getBean(injectionPoint.getName(), resourceModel);
+                if (autowiredBean == null && injectionPoint.isRequired()) {
+                    autowiredBean = GetBeanUtils.getBean(injectionPoint.getType(), resourceModel);
                 }
+                values[i] = autowiredBean;
             }
+            // 设置到@Autowired注入的属性中
+            instantiator.inject(bean, values);
+            inject.end();
+        }
+        bean = initializeBean(bean, beanName, beanDefinition, resourceModel);
 
-            // 调用 InitializingBean的afterPropertiesSet() 方法
-            if (bean instanceof InitializingBean) {
-                ((InitializingBean) bean).afterPropertiesSet();
+        // 提前暴露的引用已经注入到其他bean中：初始化后没有被替换时使用提前暴露的引用（可能是提前生成的代理），被替换成其他对象时报错
+        Object earlyReference = earlyExposure ? resourceModel.earlySingletonObjects.get(beanName) : null;
+        if (earlyReference != null) {
+            if (bean == rawBean) {
+                bean = earlyReference;
+            } else if (bean != earlyReference) {
+                throw new BeanCurrentlyInCreationException("bean '" + beanName
+                        + "' 已经以提前暴露的引用注入到循环依赖的其他bean中，但初始化后被BeanPostProcessor替换为: " + bean.getClass().getName());
             }
-            /*
-             * 初始化后
-             */
-            if (!resourceModel.list.isEmpty()) {
-                for (BeanPostProcessor beanPostProcessor : resourceModel.list) {
-                    bean = beanPostProcessor.postProcessAfterInitialization(bean, beanName);
-                }
+        }
+        return bean;
+    }
+
+    /**
+     * 调用ApplicationEventPublisherAware、BeanPostProcessor和InitializingBean
+     * 只调用预先按bean定义的类型筛选出的处理器
+     * @param bean 完成注入的bean
+     * @param beanName 注册的bean名称，传给BeanPostProcessor（不通过容器创建时为null）
+     * @return 初始化后的bean（可能被BeanPostProcessor替换）
+     */
+    private static Object initializeBean(Object bean, String beanName, BeanDefinition beanDefinition,
+                                         ResourceModel resourceModel) {
+        BeanPostProcessorChain chain = resourceModel.getBeanPostProcessorChain(beanDefinition);
+        StartupRecorder recorder = resourceModel.startupRecorder;
+        boolean timed = resourceModel.isPostProcessorTimingEnabled();
+        if (bean instanceof ApplicationEventPublisherAware) {
+            ((ApplicationEventPublisherAware) bean).setApplicationEventPublisher(resourceModel.eventMulticaster);
+        }
+        /*
+         * 初始化前
+         */
+        StartupStep step = recorder.start("bean.postprocess.before");
+        bean = chain.applyBeforeInitialization(bean, beanName, timed);
+        step.end();
+
+        // 调用 InitializingBean的afterPropertiesSet() 方法
+        if (bean instanceof InitializingBean) {
+            step = recorder.start("bean.init");
+            ((InitializingBean) bean).afterPropertiesSet();
+            step.end();
+        }
+        /*
+         * 初始化后
+         */
+        step = recorder.start("bean.postprocess.after");
+        bean = chain.applyAfterInitialization(bean, beanName, timed);
+        step.end();
+        return bean;
+    }
+
+    /**
+     * 调用@Bean方法创建bean，方法参数从容器中获取
+     * @return @Bean方法返回的对象
+     */
+    private static Object instantiateUsingFactoryMethod(String beanName, BeanDefinition beanDefinition,
+                                                        ResourceModel resourceModel) {
+        String factoryBeanName = beanDefinition.getFactoryBeanName();
+        Object factoryBean = null;
+        if (factoryBeanName != null) {
+            factoryBean = GetBeanUtils.getBean(factoryBeanName, resourceModel);
+            if (factoryBean == null) {
+                throw new NoSuchBeanException("No such bean found: " + factoryBeanName);
             }
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            throw new RuntimeException("createBean-创建bean对象异常: ", e);
+        }
+        FactoryMethodInvoker invoker = beanDefinition.getFactoryMethodInvoker();
+        if (invoker == null) {
+            Method factoryMethod = beanDefinition.getFactoryMethod();
+            invoker = new MethodHandleFactoryMethodInvoker(factoryMethod,
+                    factoryBean == null ? factoryMethod.getDeclaringClass() : factoryBean.getClass());
+            beanDefinition.setFactoryMethodInvoker(invoker);
+        }
+        Object bean = invoker.invoke(factoryBean, resolveArguments(beanName, beanDefinition,
+                beanDefinition.getFactoryMethodParameters(), resourceModel));
+        if (bean == null) {
+            throw new IllegalStateException("@Bean方法返回了null: " + (beanName != null ? beanName : beanDefinition.getType().getName()));
         }
         return bean;
     }
 
-    private static boolean isEmpty(Object[] array) {
-        return array.length == 0;
+    /**
+     * 获取构造方法/@Bean方法参数，参数对应的bean名称只解析一次
+     * @param beanName 正在创建的bean（集合参数不注入自己）
+     * @param parameters 参数的注入点
+     * @return 参数
+     */
+    private static Object[] resolveArguments(String beanName, BeanDefinition beanDefinition,
+                                             InjectionMetadata.InjectionPoint[] parameters, ResourceModel resourceModel) {
+        int parameterCount = parameters.length;
+        if (parameterCount == 0) {
+            return EMPTY_ARGS;
+        }
+        BeanDefinition.ResolvedArguments resolved = beanDefinition.getResolvedArguments();
+        int version = resourceModel.getRegistryVersion();
+        if (resolved == null || resolved.getVersion() != version) {
+            String[] beanNames = new String[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                // ObjectProvider参数、有候选bean的集合参数不需要解析（为null）
+                if (parameters[i].isProvider() || parameters[i].isMultiple()
+                        && !getInjectionCandidates(beanName, beanDefinition, parameters[i], resourceModel).isEmpty()) {
+                    continue;
+                }
+                beanNames[i] = GetBeanUtils.resolveBeanName(parameters[i], resourceModel);
+            }
+            resolved = beanDefinition.setResolvedArguments(beanNames, version);
+        }
+        Object[] args = new Object[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            String argumentBeanName = resolved.getBeanName(i);
+            if (argumentBeanName != null) {
+                args[i] = GetBeanUtils.getBean(argumentBeanName, resourceModel);
+            } else if (parameters[i].isProvider()) {
+                args[i] = new BeanObjectProvider<>(parameters[i], resourceModel);
+            } else {
+                args[i] = resolveMultipleBeans(beanName, beanDefinition, parameters[i], resourceModel);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * 获取集合、数组、Map注入点的所有候选bean
+     * @return 没有候选bean时返回null
+     */
+    private static Object resolveMultipleBeans(String beanName, BeanDefinition beanDefinition,
+                                               InjectionMetadata.InjectionPoint injectionPoint, ResourceModel resourceModel) {
+        InjectionCandidates candidates = getInjectionCandidates(beanName, beanDefinition, injectionPoint, resourceModel);
+        return candidates.isEmpty() ? null : candidates.resolve(injectionPoint, resourceModel);
+    }
+
+    /**
+     * 获取集合、数组、Map注入点的候选bean，第一次获取后保存到BeanDefinition，容器中bean定义的版本变化后重新计算
+     */
+    private static InjectionCandidates getInjectionCandidates(String beanName, BeanDefinition beanDefinition,
+                                                              InjectionMetadata.InjectionPoint injectionPoint,
+                                                              ResourceModel resourceModel) {
+        int version = resourceModel.getRegistryVersion();
+        InjectionCandidates candidates = beanDefinition.getInjectionCandidates(injectionPoint);
+        if (candidates == null || candidates.getVersion() != version) {
+            candidates = InjectionCandidates.build(injectionPoint, beanName, resourceModel, version);
+            beanDefinition.setInjectionCandidates(injectionPoint, candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * 获取bean的注入元数据，第一次获取后保存到BeanDefinition（AOT生成的初始化器注册时已经设置）
+     * @param beanDefinition bean的定义
+     * @return 注入元数据
+     */
+    static InjectionMetadata getInjectionMetadata(BeanDefinition beanDefinition) {
+        InjectionMetadata metadata = beanDefinition.getInjectionMetadata();
+        if (metadata == null) {
+            metadata = InjectionMetadata.forClass(beanDefinition.getType());
+            beanDefinition.setInjectionMetadata(metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * 获取bean的销毁回调（容器关闭、作用域结束时调用）
+     * 依次调用@PreDestroy方法、DisposableBean.destroy()；都没有时如果实现了AutoCloseable则调用close
+     * 被代理的bean销毁目标对象
+     * @param beanName bean名称
+     * @param bean bean对象
+     * @return 没有需要调用的销毁方法时返回null
+     */
+    public static Runnable getDestructionCallback(String beanName, Object bean) {
+        Object target = bean instanceof AopProxy ? ((AopProxy) bean).getTargetObject() : bean;
+        Method[] preDestroyMethods = PRE_DESTROY_METHODS.get(target.getClass());
+        boolean disposable = target instanceof DisposableBean;
+        boolean closeable = !disposable && preDestroyMethods.length == 0 && target instanceof AutoCloseable;
+        if (preDestroyMethods.length == 0 && !disposable && !closeable) {
+            return null;
+        }
+        return () -> {
+            try {
+                for (Method method : preDestroyMethods) {
+                    method.invoke(target);
+                }
+                if (disposable) {
+                    ((DisposableBean) target).destroy();
+                } else if (closeable) {
+                    ((AutoCloseable) target).close();
+                }
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("销毁bean异常: " + beanName, cause);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("销毁bean异常: " + beanName, e);
+            }
+        };
+    }
+
+    /**
+     * 类上的@PreDestroy方法（父类的在前，被子类重写的只保留子类的）
+     */
+    private static Method[] findPreDestroyMethods(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> current : hierarchy) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(PreDestroy.class)) {
+                    continue;
+                }
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                    throw new IllegalStateException("@PreDestroy方法必须是无参的实例方法: " + method);
+                }
+                method.setAccessible(true);
+                methods.remove(method.getName());
+                methods.put(method.getName(), method);
+            }
+        }
+        return methods.values().toArray(new Method[0]);
     }
 
     /**
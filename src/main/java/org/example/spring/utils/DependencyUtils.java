@@ -0,0 +1,213 @@
+package org.example.spring.utils;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.InjectionCandidates;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.model.ResourceModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * -10/18-15:30
+ * -根据注入点分析bean之间的依赖关系（不创建bean）
+ */
+public class DependencyUtils {
+
+    /**
+     * 获取所有bean直接依赖的bean
+     * @return bean名称 -> 直接依赖的bean名称（按注册顺序）
+     */
+    public static Map<String, Set<String>> getDependencies(ResourceModel resourceModel) {
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        for (Map.Entry<String, BeanDefinition> entry : resourceModel.beanDefinitionMap.entrySet()) {
+            dependencies.put(entry.getKey(), getDependencies(entry.getValue(), resourceModel));
+        }
+        return dependencies;
+    }
+
+    /**
+     * 计算指定bean之间的依赖，经过其他bean（原型bean、懒加载单例）的间接依赖也算在内
+     * @param beanNames 参与计算的bean（非懒加载单例、已经创建的单例）
+     * @return bean名称 -> 依赖的其他指定bean
+     */
+    public static Map<String, Set<String>> getDependencies(Collection<String> beanNames, ResourceModel resourceModel) {
+        Map<String, Set<String>> dependencies = getDependencies(resourceModel);
+        Set<String> included = new HashSet<>(beanNames);
+        Map<String, Set<String>> edges = new HashMap<>();
+        for (String beanName : beanNames) {
+            Set<String> result = new LinkedHashSet<>();
+            Set<String> visited = new HashSet<>();
+            List<String> pending = new ArrayList<>(dependencies.getOrDefault(beanName, Collections.emptySet()));
+            while (!pending.isEmpty()) {
+                String dependency = pending.remove(pending.size() - 1);
+                if (!visited.add(dependency)) {
+                    continue;
+                }
+                if (included.contains(dependency)) {
+                    result.add(dependency);
+                } else {
+                    pending.addAll(dependencies.getOrDefault(dependency, Collections.emptySet()));
+                }
+            }
+            result.remove(beanName);
+            edges.put(beanName, result);
+        }
+        return edges;
+    }
+
+    /**
+     * 获取bean直接依赖的bean，解析规则与CreateBeanUtils一致：构造方法/@Bean方法参数按类型（参数名区分），字段先按名称再按类型，集合注入点依赖所有候选bean；@Bean方法还依赖所在的配置类；ObjectProvider句柄不算依赖
+     * @param beanDefinition bean的定义
+     * @return 依赖的bean名称，无法解析的依赖会被忽略（创建时再报错）
+     */
+    public static Set<String> getDependencies(BeanDefinition beanDefinition, ResourceModel resourceModel) {
+        if (beanDefinition.isFactoryMethod()) {
+            // @Bean方法：依赖配置类和方法参数
+            Set<String> dependencies = new LinkedHashSet<>();
+            if (beanDefinition.getFactoryBeanName() != null) {
+                dependencies.add(beanDefinition.getFactoryBeanName());
+            }
+            addParameterDependencies(beanDefinition.getFactoryMethodParameters(), dependencies, resourceModel);
+            return dependencies;
+        }
+        InjectionMetadata metadata;
+        try {
+            metadata = CreateBeanUtils.getInjectionMetadata(beanDefinition);
+        } catch (RuntimeException e) {
+            return Collections.emptySet();
+        }
+        Set<String> dependencies = new LinkedHashSet<>();
+        addParameterDependencies(metadata.getConstructorParameters(), dependencies, resourceModel);
+        for (InjectionMetadata.InjectionPoint injectionPoint : metadata.getInjectionPoints()) {
+            if (injectionPoint.isProvider()) {
+                // 句柄在使用时才获取bean，不是创建时的依赖
+                continue;
+            } else if (addMultipleDependencies(injectionPoint, dependencies, resourceModel)) {
+                continue;
+            } else if (resourceModel.getBeanDefinition(injectionPoint.getName()) != null) {
+                dependencies.add(injectionPoint.getName());
+            } else if (injectionPoint.isRequired()) {
+                try {
+                    dependencies.add(GetBeanUtils.getBeanNameForType(injectionPoint.getType(), resourceModel));
+                } catch (RuntimeException e) {
+                    // 没有或者有多个候选bean
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private static void addParameterDependencies(InjectionMetadata.InjectionPoint[] parameters, Set<String> dependencies,
+                                                 ResourceModel resourceModel) {
+        for (InjectionMetadata.InjectionPoint parameter : parameters) {
+            if (parameter.isProvider() || addMultipleDependencies(parameter, dependencies, resourceModel)) {
+                continue;
+            }
+            try {
+                dependencies.add(GetBeanUtils.resolveBeanName(parameter, resourceModel));
+            } catch (RuntimeException e) {
+                // 没有或者有多个候选bean
+            }
+        }
+    }
+
+    /**
+     * 集合、数组、Map注入点依赖元素类型的所有bean
+     * @return 注入点有候选bean时返回true
+     */
+    private static boolean addMultipleDependencies(InjectionMetadata.InjectionPoint injectionPoint, Set<String> dependencies,
+                                                   ResourceModel resourceModel) {
+        if (!injectionPoint.isMultiple()) {
+            return false;
+        }
+        String[] candidates = InjectionCandidates.findCandidateNames(injectionPoint.getElementType(), null, resourceModel);
+        Collections.addAll(dependencies, candidates);
+        return candidates.length > 0;
+    }
+
+    /**
+     * 计算强连通分量（Tarjan算法），存在循环依赖的bean在同一个分量中
+     * @param nodes 节点（按注册顺序）
+     * @param edges 节点 -> 依赖的节点
+     * @return 强连通分量，被依赖的分量排在前面，分量内按注册顺序排列
+     */
+    public static List<List<String>> stronglyConnectedComponents(Collection<String> nodes, Map<String, Set<String>> edges) {
+        return new Tarjan(nodes, edges).run();
+    }
+
+    private static class Tarjan {
+
+        private final Collection<String> nodes;
+
+        private final Map<String, Set<String>> edges;
+
+        private final Map<String, Integer> index = new HashMap<>();
+
+        private final Map<String, Integer> lowLink = new HashMap<>();
+
+        private final List<String> stack = new ArrayList<>();
+
+        private final Set<String> onStack = new LinkedHashSet<>();
+
+        private final Map<String, Integer> order = new HashMap<>();
+
+        private final List<List<String>> components = new ArrayList<>();
+
+        Tarjan(Collection<String> nodes, Map<String, Set<String>> edges) {
+            this.nodes = nodes;
+            this.edges = edges;
+            for (String node : nodes) {
+                order.put(node, order.size());
+            }
+        }
+
+        List<List<String>> run() {
+            for (String node : nodes) {
+                if (!index.containsKey(node)) {
+                    connect(node);
+                }
+            }
+            return components;
+        }
+
+        private void connect(String node) {
+            index.put(node, index.size());
+            lowLink.put(node, index.get(node));
+            stack.add(node);
+            onStack.add(node);
+
+            for (String dependency : edges.getOrDefault(node, Collections.emptySet())) {
+                if (!order.containsKey(dependency)) {
+                    continue;
+                }
+                if (!index.containsKey(dependency)) {
+                    connect(dependency);
+                    lowLink.put(node, Math.min(lowLink.get(node), lowLink.get(dependency)));
+                } else if (onStack.contains(dependency)) {
+                    lowLink.put(node, Math.min(lowLink.get(node), index.get(dependency)));
+                }
+            }
+
+            if (lowLink.get(node).equals(index.get(node))) {
+                List<String> component = new ArrayList<>();
+                String member;
+                do {
+                    member = stack.remove(stack.size() - 1);
+                    onStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(node));
+                component.sort((a, b) -> order.get(a) - order.get(b));
+                components.add(component);
+            }
+        }
+    }
+}
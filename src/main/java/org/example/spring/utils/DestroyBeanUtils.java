@@ -0,0 +1,164 @@
+package org.example.spring.utils;
+
+import org.example.spring.model.ResourceModel;
+import org.example.spring.pool.BeanPool;
+import org.example.spring.shutdown.ShutdownReport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * -10/18-22:45
+ * -容器关闭时销毁bean：先销毁对象池中的空闲实例，再按依赖关系的逆序销毁单例
+ * -依赖某个bean的单例全部销毁后才销毁它，互相没有依赖的单例并行销毁；存在循环依赖的单例在同一个任务中按注册顺序的逆序销毁
+ */
+public class DestroyBeanUtils {
+
+    /**
+     * 销毁容器中的bean
+     * @param timeoutMillis 每个bean销毁回调的超时时间（毫秒），超时后不再等待、继续销毁其他bean；小于等于0时不限制
+     * @return 关闭报告
+     */
+    public static ShutdownReport destroyBeans(ResourceModel resourceModel, long timeoutMillis) {
+        long start = System.nanoTime();
+        Queue<ShutdownReport.BeanDestruction> results = new ConcurrentLinkedQueue<>();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "my-spring-destroy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            destroyPooledBeans(resourceModel, executor, timeoutMillis, results);
+            destroySingletons(resourceModel, executor, timeoutMillis, results);
+        } finally {
+            // 超时的销毁回调已经被中断，不再等待
+            executor.shutdown();
+        }
+        return new ShutdownReport(new ArrayList<>(results), System.nanoTime() - start);
+    }
+
+    /**
+     * 对象池中的空闲实例之间没有依赖，全部并行销毁（借出的实例由使用者负责）
+     */
+    private static void destroyPooledBeans(ResourceModel resourceModel, ExecutorService executor, long timeoutMillis,
+                                           Queue<ShutdownReport.BeanDestruction> results) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (BeanPool pool : resourceModel.beanPools.values()) {
+            String beanName = pool.getBeanName();
+            for (Object bean : pool.clear()) {
+                Runnable callback = CreateBeanUtils.getDestructionCallback(beanName, bean);
+                if (callback != null) {
+                    futures.add(CompletableFuture.runAsync(
+                            () -> results.add(destroy(beanName, callback, executor, timeoutMillis)), executor));
+                }
+            }
+        }
+        FutureUtils.allOf(futures).join();
+        resourceModel.beanPools.clear();
+    }
+
+    private static void destroySingletons(ResourceModel resourceModel, ExecutorService executor, long timeoutMillis,
+                                          Queue<ShutdownReport.BeanDestruction> results) {
+        // 已经创建的单例（按注册顺序）
+        List<String> beanNames = new ArrayList<>();
+        for (String beanName : resourceModel.beanDefinitionMap.keySet()) {
+            if (resourceModel.singletonObjects.containsKey(beanName)) {
+                beanNames.add(beanName);
+            }
+        }
+        Map<String, Set<String>> edges = DependencyUtils.getDependencies(beanNames, resourceModel);
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : edges.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, key -> new LinkedHashSet<>()).add(entry.getKey());
+            }
+        }
+        List<List<String>> components = DependencyUtils.stronglyConnectedComponents(beanNames, edges);
+
+        // 分量按被依赖的在前排列，倒序遍历时依赖它的分量已经有对应的任务
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (int i = components.size() - 1; i >= 0; i--) {
+            List<String> component = components.get(i);
+            Set<CompletableFuture<Void>> waitFor = new LinkedHashSet<>();
+            for (String beanName : component) {
+                for (String dependent : dependents.getOrDefault(beanName, Collections.<String>emptySet())) {
+                    if (!component.contains(dependent)) {
+                        waitFor.add(futures.get(dependent));
+                    }
+                }
+            }
+            CompletableFuture<Void> future = FutureUtils.allOf(waitFor)
+                    .thenRunAsync(() -> {
+                        for (int j = component.size() - 1; j >= 0; j--) {
+                            destroySingleton(component.get(j), resourceModel, executor, timeoutMillis, results);
+                        }
+                    }, executor);
+            for (String beanName : component) {
+                futures.put(beanName, future);
+            }
+            all.add(future);
+        }
+        FutureUtils.allOf(all).join();
+        resourceModel.earlySingletonObjects.clear();
+        resourceModel.singletonFactories.clear();
+    }
+
+    private static void destroySingleton(String beanName, ResourceModel resourceModel, ExecutorService executor,
+                                         long timeoutMillis, Queue<ShutdownReport.BeanDestruction> results) {
+        Object bean = resourceModel.singletonObjects.remove(beanName);
+        if (bean == null) {
+            return;
+        }
+        Runnable callback = CreateBeanUtils.getDestructionCallback(beanName, bean);
+        if (callback != null) {
+            results.add(destroy(beanName, callback, executor, timeoutMillis));
+        }
+    }
+
+    /**
+     * 调用销毁回调，限制超时时间时在单独的线程中调用，超时后中断该线程
+     */
+    private static ShutdownReport.BeanDestruction destroy(String beanName, Runnable callback, ExecutorService executor,
+                                                          long timeoutMillis) {
+        long start = System.nanoTime();
+        if (timeoutMillis <= 0) {
+            try {
+                callback.run();
+                return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.DESTROYED, System.nanoTime() - start, null);
+            } catch (RuntimeException | Error e) {
+                return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.FAILED, System.nanoTime() - start, e);
+            }
+        }
+        Future<?> future = executor.submit(callback);
+        try {
+            future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.DESTROYED, System.nanoTime() - start, null);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.TIMED_OUT, System.nanoTime() - start, null);
+        } catch (ExecutionException e) {
+            return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.FAILED, System.nanoTime() - start, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new ShutdownReport.BeanDestruction(beanName, ShutdownReport.Status.FAILED, System.nanoTime() - start, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.spring.utils;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * -10/18-23:52
+ * -CompletableFuture的辅助方法
+ */
+public class FutureUtils {
+
+    /**
+     * 所有任务都完成时完成，CompletableFuture.allOf的集合版本
+     * @param futures 任务，可以为空
+     * @return 组合后的任务，有任务异常完成时以CompletionException异常完成
+     */
+    public static CompletableFuture<Void> allOf(Collection<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.spring.utils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * -10/18-22:00
+ * -解析实现类在实现泛型接口时指定的类型参数（BeanPostProcessor&lt;T&gt;、ApplicationListener&lt;E&gt;）
+ */
+public class GenericTypeUtils {
+
+    /**
+     * 沿类继承关系查找实现泛型接口时指定的第一个类型参数
+     * @param type 实现类
+     * @param genericInterface 泛型接口
+     * @return 类型参数，没有指定或者是类型变量、通配符时为Object
+     */
+    public static Class<?> resolveTypeArgument(Class<?> type, Class<?> genericInterface) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            Class<?> resolved = resolveFromInterfaces(current, genericInterface);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return Object.class;
+    }
+
+    private static Class<?> resolveFromInterfaces(Class<?> type, Class<?> genericInterface) {
+        for (Type candidate : type.getGenericInterfaces()) {
+            if (candidate instanceof ParameterizedType
+                    && ((ParameterizedType) candidate).getRawType() == genericInterface) {
+                Type argument = ((ParameterizedType) candidate).getActualTypeArguments()[0];
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                } else if (argument instanceof ParameterizedType) {
+                    return (Class<?>) ((ParameterizedType) argument).getRawType();
+                }
+                // 类型变量、通配符：不限制类型
+                return Object.class;
+            }
+        }
+        // 继承了泛型接口的子接口
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (anInterface != genericInterface && genericInterface.isAssignableFrom(anInterface)) {
+                Class<?> resolved = resolveFromInterfaces(anInterface, genericInterface);
+                if (resolved != null) {
+                    return resolved;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -1,13 +1,17 @@
 package org.example.spring.utils;
 
 import org.example.spring.BeanDefinition;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.Pooled;
 import org.example.spring.exception.NoSuchBeanException;
 import org.example.spring.exception.TooMuchBeanException;
+import org.example.spring.metrics.BeanFactoryMetrics;
 import org.example.spring.model.ResourceModel;
+import org.example.spring.pool.BeanPool;
+import org.example.spring.scope.BeanScope;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.reflect.Method;
 
 /**
  * -03/29-12:38
@@ -21,11 +25,12 @@ public class GetBeanUtils {
      * @return 返回bean实例
      */
     public static Object getBean(String beanName, ResourceModel resourceModel) {
-        if (!resourceModel.beanDefinitionMap.containsKey(beanName)) {
+        BeanDefinition beanDefinition = resourceModel.getBeanDefinition(beanName);
+        if (beanDefinition == null) {
             return null;
         }
 
-        return getBean(beanName, resourceModel.beanDefinitionMap.get(beanName), resourceModel);
+        return getBean(beanName, beanDefinition, resourceModel);
     }
 
     /**
@@ -38,29 +43,72 @@ public class GetBeanUtils {
             throw new IllegalStateException("bean类型不能为空！");
         }
 
-        // 保存指定类型的bean的个数
-        AtomicInteger count = new AtomicInteger();
-        // 保存同一类型的bean
-        Map<String, BeanDefinition> objectMap = new HashMap<>();
+        String beanName = getBeanNameForType(type, resourceModel);
+        return type.cast(getBean(beanName, resourceModel.getBeanDefinition(beanName), resourceModel));
+    }
 
-        for (Map.Entry<String, BeanDefinition> entry : resourceModel.beanDefinitionMap.entrySet()) {
-            BeanDefinition beanDefinition = entry.getValue();
-            Class<?> beanType = beanDefinition.getType();
-            String beanName = entry.getKey();
+    /**
+     * 按类型确定唯一的bean名称（不创建bean），本容器中没有该类型的bean时到父容器中查找
+     * @param type bean类型
+     * @return bean名称
+     * @throws NoSuchBeanException 没有该类型的bean
+     * @throws TooMuchBeanException 该类型的bean不唯一
+     */
+    public static String getBeanNameForType(Class<?> type, ResourceModel resourceModel) {
+        // 通过类型索引获取候选bean（包括子类和实现类）
+        String[] beanNames = resourceModel.getBeanNamesForType(type);
 
-            if (beanType.equals(type)) {
-                count.addAndGet(1);
-                objectMap.put(beanName, beanDefinition);
+        if (beanNames.length == 0) {
+            if (resourceModel.parent != null) {
+                return getBeanNameForType(type, resourceModel.parent);
             }
-        }
-
-        if (count.get() == 0) {
             throw new NoSuchBeanException();
-        } else if (count.get() > 1) {
+        } else if (beanNames.length == 1) {
+            return beanNames[0];
+        }
+        // 多个候选时，类型完全一致的bean优先
+        String exactMatch = null;
+        for (String beanName : beanNames) {
+            if (resourceModel.beanDefinitionMap.get(beanName).getType().equals(type)) {
+                if (exactMatch != null) {
+                    throw new TooMuchBeanException();
+                }
+                exactMatch = beanName;
+            }
+        }
+        if (exactMatch == null) {
             throw new TooMuchBeanException();
-        } else {
-            return (T) getBean((String) objectMap.keySet().toArray()[0], (BeanDefinition) objectMap.values().toArray()[0], resourceModel);
         }
+        return exactMatch;
+    }
+
+    /**
+     * 确定构造方法参数要注入的bean名称（不创建bean）
+     * 有@Qualifier时按名称；否则按类型，多个候选时用参数名区分
+     * @param injectionPoint 注入点
+     * @return bean名称
+     */
+    public static String resolveBeanName(InjectionMetadata.InjectionPoint injectionPoint, ResourceModel resourceModel) {
+        String name = injectionPoint.getName();
+        if (injectionPoint.isQualified()) {
+            BeanDefinition beanDefinition = resourceModel.getBeanDefinition(name);
+            if (beanDefinition == null || !injectionPoint.getType().isAssignableFrom(beanDefinition.getType())) {
+                throw new NoSuchBeanException("No such bean found: " + name);
+            }
+            return name;
+        }
+        String[] beanNames = resourceModel.getBeanNamesForType(injectionPoint.getType());
+        if (beanNames.length == 0 && resourceModel.parent != null) {
+            return resolveBeanName(injectionPoint, resourceModel.parent);
+        }
+        if (beanNames.length > 1 && name != null) {
+            for (String beanName : beanNames) {
+                if (beanName.equals(name)) {
+                    return beanName;
+                }
+            }
+        }
+        return getBeanNameForType(injectionPoint.getType(), resourceModel);
     }
 
     /**
@@ -73,10 +121,10 @@ public class GetBeanUtils {
         if (type == null) {
             throw new IllegalStateException("bean 类型不能为空！ ");
         }
-        if (resourceModel.beanDefinitionMap.containsKey(beanName)) {
-            BeanDefinition beanDefinition = resourceModel.beanDefinitionMap.get(beanName);
+        BeanDefinition beanDefinition = resourceModel.getBeanDefinition(beanName);
+        if (beanDefinition != null) {
             if (type.equals(beanDefinition.getType())) {
-                return (T) getBean(beanName, beanDefinition, resourceModel);
+                return type.cast(getBean(beanName, beanDefinition, resourceModel));
             }
         }
         throw new NoSuchBeanException();
@@ -89,24 +137,94 @@ public class GetBeanUtils {
      * @param beanDefinition BeanDefinition
      * @return Object 符合条件的bean对象
      */
-    private static Object getBean(String beanName, BeanDefinition beanDefinition,ResourceModel resourceModel) {
+    public static Object getBean(String beanName, BeanDefinition beanDefinition,ResourceModel resourceModel) {
+        // 父容器中的bean在父容器中创建和缓存（使用父容器的依赖）
+        if (resourceModel.parent != null && resourceModel.beanDefinitionMap.get(beanName) != beanDefinition) {
+            return getBean(beanName, beanDefinition, resourceModel.parent);
+        }
         String scope = beanDefinition.getScope();
+        BeanFactoryMetrics metrics = resourceModel.metrics;
 
         // bean的作用域是单例
         if (CreateBeanUtils.isSingleton(scope)) {
+            // 已创建的单例直接读取，不加锁
             Object object = resourceModel.singletonObjects.get(beanName);
+            if (object != null) {
+                if (metrics != null) {
+                    metrics.recordSingletonHit();
+                }
+                return object;
+            }
+            if (metrics != null) {
+                metrics.recordSingletonMiss();
+            }
 
-            // 懒加载的单例bean
-            if (object == null) {
-                Object bean = CreateBeanUtils.createBean(beanDefinition,resourceModel);
-
-                resourceModel.singletonObjects.put(beanName, bean);
+            // 当前线程正在创建该单例（循环依赖），返回提前暴露的引用
+            object = resourceModel.getEarlySingleton(beanName);
+            if (object != null) {
+                return object;
             }
 
-            return resourceModel.singletonObjects.get(beanName);
+            // 懒加载的单例bean，多个线程同时获取时只创建一次
+            return resourceModel.getSingleton(beanName, () -> CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel));
+        }
+        // 池化的bean从对象池中借出，使用后需要归还
+        if (BeanPool.SCOPE.equals(scope)) {
+            return getBeanPool(beanName, beanDefinition, resourceModel).borrow();
+        }
+        // 自定义作用域
+        BeanScope beanScope = resourceModel.scopes.get(scope);
+        if (beanScope != null) {
+            return beanScope.get(beanName, () -> {
+                Object bean = CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel);
+                Runnable callback = CreateBeanUtils.getDestructionCallback(beanName, bean);
+                if (callback != null) {
+                    beanScope.registerDestructionCallback(beanName, callback);
+                }
+                return bean;
+            });
         }
         // 创建bean对象
-        return CreateBeanUtils.createBean(beanDefinition, resourceModel);
+        if (metrics != null) {
+            metrics.recordPrototypeCreation(beanName);
+        }
+        return CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel);
+    }
+
+    /**
+     * 获取池化作用域bean的对象池，第一次获取时按@Pooled配置创建
+     * @param beanName bean名称
+     * @return 对象池
+     * @throws NoSuchBeanException bean不存在或者不是池化作用域
+     */
+    public static BeanPool getBeanPool(String beanName, ResourceModel resourceModel) {
+        ResourceModel owner = resourceModel.getOwner(beanName);
+        BeanDefinition beanDefinition = owner.beanDefinitionMap.get(beanName);
+        if (beanDefinition == null || !BeanPool.SCOPE.equals(beanDefinition.getScope())) {
+            throw new NoSuchBeanException("No pooled bean found: " + beanName);
+        }
+        return getBeanPool(beanName, beanDefinition, owner);
+    }
+
+    private static BeanPool getBeanPool(String beanName, BeanDefinition beanDefinition, ResourceModel resourceModel) {
+        BeanPool pool = resourceModel.beanPools.get(beanName);
+        if (pool != null) {
+            return pool;
+        }
+        // 只创建对象池，不在computeIfAbsent中创建bean（bean的依赖可能也是池化的）
+        return resourceModel.beanPools.computeIfAbsent(beanName, name -> new BeanPool(name,
+                beanDefinition.getType().getAnnotation(Pooled.class), () -> {
+                    BeanFactoryMetrics metrics = resourceModel.metrics;
+                    if (metrics != null) {
+                        metrics.recordPrototypeCreation(name);
+                    }
+                    return CreateBeanUtils.createBean(name, beanDefinition, resourceModel);
+                }, bean -> {
+                    Runnable callback = CreateBeanUtils.getDestructionCallback(name, bean);
+                    if (callback != null) {
+                        callback.run();
+                    }
+                }));
     }
 
     /**
@@ -115,7 +233,16 @@ public class GetBeanUtils {
      * @return beanName
      */
     public static String getBeanName(Class<?> clazz) {
-        String beanName = clazz.getSimpleName();
+        return getBeanName(clazz.getSimpleName());
+    }
+
+    /**
+     * 根据类名获取beanName（编译期没有类对象时使用）
+     * @param simpleName 类名（不含包名）
+     * @return beanName
+     */
+    public static String getBeanName(String simpleName) {
+        String beanName = simpleName;
 
         // 判断是否以双大写字母开头（查找连续的两个大写字母，并在其中间添加_）
         String className = beanName.replaceAll("([A-Z])([A-Z])", "$1_$2");
@@ -126,4 +253,17 @@ public class GetBeanUtils {
         } // 否则，bean名称为类名
         return beanName;
     }
+
+    /**
+     * 获取@Bean方法定义的beanName
+     * @param method @Bean方法
+     * @return @Bean注解上配置的名称，没有配置时为方法名
+     */
+    public static String getBeanName(Method method) {
+        String beanName = method.getAnnotation(Bean.class).value();
+        if ("".equals(beanName)) {
+            beanName = method.getName();
+        }
+        return beanName;
+    }
 }
@@ -0,0 +1,119 @@
+package org.example.spring.utils;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.startup.StartupStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * -10/18-15:40
+ * -创建非懒加载的单例bean
+ */
+public class PreInstantiateUtils {
+
+    /**
+     * 创建所有非懒加载的单例
+     * 没有指定线程池时按注册顺序逐个创建；指定线程池时按依赖关系并行创建，
+     * 存在循环依赖的bean在同一个任务中按注册顺序创建
+     * @param executor 并行创建使用的线程池，为null时串行创建
+     * @return bean名称 -> 创建耗时（按注册顺序，包括在此期间一起创建的依赖）
+     */
+    public static Map<String, Duration> preInstantiateSingletons(ResourceModel resourceModel, Executor executor) {
+        List<String> beanNames = new ArrayList<>();
+        for (Map.Entry<String, BeanDefinition> entry : resourceModel.beanDefinitionMap.entrySet()) {
+            BeanDefinition beanDefinition = entry.getValue();
+            // 如果是单例并且不是懒加载就创建Bean实例，并加入单例对象池中
+            if (CreateBeanUtils.isSingleton(beanDefinition.getScope()) && !beanDefinition.isLazy()) {
+                beanNames.add(entry.getKey());
+            }
+        }
+
+        Map<String, Duration> timings = new ConcurrentHashMap<>();
+        StartupStep step = resourceModel.startupRecorder.start("context.preinstantiate")
+                .tag("singletons", beanNames.size()).tag("parallel", executor != null);
+        if (executor == null) {
+            for (String beanName : beanNames) {
+                createSingleton(beanName, resourceModel, timings);
+            }
+        } else {
+            createInParallel(beanNames, resourceModel, executor, timings, step);
+        }
+        step.end();
+
+        Map<String, Duration> result = new LinkedHashMap<>();
+        for (String beanName : beanNames) {
+            Duration duration = timings.get(beanName);
+            if (duration != null) {
+                result.put(beanName, duration);
+            }
+        }
+        return result;
+    }
+
+    private static void createInParallel(List<String> beanNames, ResourceModel resourceModel, Executor executor,
+                                         Map<String, Duration> timings, StartupStep parent) {
+        Map<String, Set<String>> edges = DependencyUtils.getDependencies(beanNames, resourceModel);
+        List<List<String>> components = DependencyUtils.stronglyConnectedComponents(beanNames, edges);
+
+        // 被依赖的分量排在前面，依赖全部完成后才开始创建
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (List<String> component : components) {
+            Set<CompletableFuture<Void>> dependencies = new LinkedHashSet<>();
+            for (String beanName : component) {
+                for (String dependency : edges.get(beanName)) {
+                    if (!component.contains(dependency)) {
+                        dependencies.add(futures.get(dependency));
+                    }
+                }
+            }
+            CompletableFuture<Void> future = FutureUtils.allOf(dependencies)
+                    .thenRunAsync(() -> {
+                        StartupStep task = resourceModel.startupRecorder.start("context.preinstantiate.task", parent);
+                        try {
+                            for (String beanName : component) {
+                                createSingleton(beanName, resourceModel, timings);
+                            }
+                        } finally {
+                            task.end();
+                        }
+                    }, executor);
+            for (String beanName : component) {
+                futures.put(beanName, future);
+            }
+            all.add(future);
+        }
+
+        try {
+            FutureUtils.allOf(all).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("并行创建单例失败", cause);
+        }
+    }
+
+    private static void createSingleton(String beanName, ResourceModel resourceModel, Map<String, Duration> timings) {
+        BeanDefinition beanDefinition = resourceModel.beanDefinitionMap.get(beanName);
+        long start = System.nanoTime();
+        // 已经作为其他bean的依赖创建过的单例不会重复创建
+        resourceModel.getSingleton(beanName, () -> CreateBeanUtils.createBean(beanName, beanDefinition, resourceModel));
+        timings.put(beanName, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
@@ -3,12 +3,36 @@ package org.example.spring.utils;
 import org.example.spring.BeanDefinition;
 import org.example.spring.BeanPostProcessor;
 import org.example.spring.annotation.*;
+import org.example.spring.classfile.ClassFileReader;
+import org.example.spring.classfile.ClassMetadata;
+import org.example.spring.index.ComponentIndex;
 import org.example.spring.model.ResourceModel;
+import org.example.spring.startup.StartupStep;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * -03/29-10:51
@@ -16,8 +40,15 @@ import java.util.Objects;
  */
 public class ScanBeanUtils {
 
+    /**
+     * jar中每个并行任务最多解析的class文件个数
+     */
+    private static final int JAR_ENTRIES_PER_TASK = 256;
+
     /**
      * 扫描组件
+     * 多个包、多个类路径根（目录或jar）在ForkJoinPool上并行解析，
+     * 解析结果按包的声明顺序、类名顺序合并后再串行注册，保证bean和BeanPostProcessor的顺序稳定
      * @param clazz 配置类的类对象
      * @throws ClassNotFoundException 类找不到
      */
@@ -25,114 +56,317 @@ public class ScanBeanUtils {
         // 如果类上使用了@ComponentScan注解
         if (clazz.isAnnotationPresent(ComponentScan.class)) {
             ComponentScan componentScan = clazz.getAnnotation(ComponentScan.class);
-            String value = componentScan.value();
+            ClassLoader classLoader = clazz.getClassLoader();
+            ComponentIndex index = ComponentIndex.load(classLoader);
 
-            if (!"".equals(value)) {
-                String path = value;
-                path = path.replace(".", "/");
-                // 通过URL和File获取文件资源
-                URL resource = clazz.getClassLoader().getResource(path);
-                assert resource != null;
-                File file = new File(resource.getFile());
+            StartupStep step = resourceModel.startupRecorder.start("context.scan.candidates");
+            // 类名 -> 候选组件，同一个类只注册一次
+            Map<String, ComponentIndex.Entry> candidates = new LinkedHashMap<>();
+            for (String basePackage : componentScan.value()) {
+                if ("".equals(basePackage)) {
+                    continue;
+                }
+                // 优先使用编译期生成的组件索引，没有索引时才遍历类路径
+                List<ComponentIndex.Entry> found = index == null ? null : index.getCandidates(basePackage);
+                if (found == null || found.isEmpty()) {
+                    found = scanPackage(basePackage, classLoader);
+                }
+                for (ComponentIndex.Entry entry : found) {
+                    candidates.putIfAbsent(entry.getClassName(), entry);
+                }
+            }
+
+            step.tag("candidates", candidates.size()).tag("index", index != null).end();
 
-                loopFor(file, clazz, resourceModel);
+            // 加载类并注册bean定义
+            step = resourceModel.startupRecorder.start("context.scan.register");
+            for (ComponentIndex.Entry entry : candidates.values()) {
+                register(entry, classLoader, resourceModel);
             }
+            step.tag("beanDefinitions", resourceModel.beanDefinitionMap.size()).end();
         }
     }
 
     /**
-     * 递归遍历指定文件/文件夹 (是按字母顺序遍历的)
-     * @param file 文件/文件夹
-     * @throws ClassNotFoundException 类找不到
+     * 并行扫描包下所有类路径根（目录和jar），只解析class文件字节，不加载类
+     * @param basePackage 包名
+     * @return 按类路径顺序、类名排序的候选组件
      */
-    private static <T> void loopFor(File file, Class<T> configClass, ResourceModel resourceModel) throws ClassNotFoundException {
-        if (file.isDirectory()) {
-            for (File listFile : Objects.requireNonNull(file.listFiles())) {
-                if (listFile.isDirectory()) {
-                    loopFor(listFile,configClass, resourceModel);
-                    continue;
+    private static List<ComponentIndex.Entry> scanPackage(String basePackage, ClassLoader classLoader) {
+        String path = basePackage.replace(".", "/");
+        List<ComponentIndex.Entry> result = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                List<ComponentIndex.Entry> found;
+                if ("jar".equals(resource.getProtocol())) {
+                    found = scanJar(resource, path);
+                } else {
+                    found = ForkJoinPool.commonPool().invoke(new DirectoryScanTask(new File(resource.toURI())));
                 }
-                toBeanDefinitionMap(listFile, configClass, resourceModel);
+                // 同一个根下按类名排序
+                Map<String, ComponentIndex.Entry> sorted = new TreeMap<>();
+                for (ComponentIndex.Entry entry : found) {
+                    sorted.put(entry.getClassName(), entry);
+                }
+                result.addAll(sorted.values());
             }
-        } else if (file.isFile()) {
-            toBeanDefinitionMap(file, configClass, resourceModel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("扫描包失败: " + basePackage, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("扫描包失败: " + basePackage, e);
         }
+        return result;
     }
+
     /**
-     * 解析bean，并保存到Map<String, BeanDefinition>
-     * @param file 解析的class文件
-     * @throws ClassNotFoundException 类找不到
+     * 通过zip中央目录列出jar中指定包下的class文件，再分段并行解析
+     * @param resource jar:file:/xxx.jar!/org/example 形式的URL
+     * @param path 包路径
      */
-    private static <T> void toBeanDefinitionMap(File file, Class<T> configClass, ResourceModel resourceModel) throws ClassNotFoundException {
-        // 获取类的绝对路径
-        String absolutePath = file.getAbsolutePath();
-        // 处理得到类的全限定名
-        absolutePath = absolutePath.substring(absolutePath.indexOf("org"), absolutePath.indexOf(".class"));
-        absolutePath = absolutePath.replace("\\", ".");
+    private static List<ComponentIndex.Entry> scanJar(URL resource, String path) throws IOException, URISyntaxException {
+        URL jarFileUrl = ((JarURLConnection) resource.openConnection()).getJarFileURL();
+        try (ZipFile zipFile = new ZipFile(new File(jarFileUrl.toURI()))) {
+            String prefix = path + "/";
+            List<ZipEntry> entries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                if (!entry.isDirectory() && entry.getName().startsWith(prefix) && entry.getName().endsWith(".class")) {
+                    entries.add(entry);
+                }
+            }
+            return ForkJoinPool.commonPool().invoke(new JarScanTask(zipFile, entries, 0, entries.size()));
+        }
+    }
 
-        // 通过类加载器加载
-        Class<?> loadClass = configClass.getClassLoader().loadClass(absolutePath);
-
-        String beanName = "";
-        // 是否是懒加载
-        boolean lazy = false;
-        // bean的作用域
-        String scope = "singleton";
-        if (loadClass.isAnnotationPresent(Component.class)) {
+    /**
+     * 解析class文件，判断是否是候选组件
+     * @param bytes class文件内容
+     * @return 候选组件，不是@Component/@Configuration类时返回null
+     */
+    private static ComponentIndex.Entry toCandidate(byte[] bytes) {
+        ClassMetadata metadata = ClassFileReader.read(bytes);
+        if (metadata.hasAnnotation(Component.class)) {
             // 获取@Component注解上配置的组件名
-            Component component = loadClass.getAnnotation(Component.class);
-            beanName = component.value();
+            String beanName = metadata.getStringAttribute(Component.class, "value", "");
+            // 是否是懒加载
+            boolean lazy = false;
+            // bean的作用域，类上没有使用@Scope注解，默认是单例的
+            String scope = metadata.getStringAttribute(Scope.class, "value", "singleton");
+            if (CreateBeanUtils.isSingleton(scope)) {
+                lazy = metadata.hasAnnotation(Lazy.class);
+            }
+            return new ComponentIndex.Entry(metadata.getClassName(), ComponentIndex.COMPONENT, beanName, scope, lazy);
+        } else if (metadata.hasAnnotation(Configuration.class)) {
+            return new ComponentIndex.Entry(metadata.getClassName(), ComponentIndex.CONFIGURATION, "", "singleton", false);
+        }
+        return null;
+    }
+
+    /**
+     * 加载候选组件并保存到Map<String, BeanDefinition>
+     * @param entry 候选组件（来自组件索引或class文件解析）
+     * @throws ClassNotFoundException 类找不到
+     */
+    private static void register(ComponentIndex.Entry entry, ClassLoader classLoader, ResourceModel resourceModel) throws ClassNotFoundException {
+        // 通过类加载器加载
+        Class<?> loadClass = classLoader.loadClass(entry.getClassName());
+        if (entry.isConfiguration()) {
+            registerBeanMethods(loadClass, resourceModel);
+        } else {
+            String beanName = entry.getBeanName();
             if ("".equals(beanName)) {
                 beanName = GetBeanUtils.getBeanName(loadClass);
             }
+            registerComponent(beanName, loadClass, entry.getScope(), entry.isLazy(), resourceModel);
+        }
+    }
+
+    /**
+     * 注册@Component组件
+     * @param beanName bean名称
+     * @param loadClass 组件类
+     * @param scope bean的作用域
+     * @param lazy 是否懒加载
+     */
+    public static void registerComponent(String beanName, Class<?> loadClass, String scope, boolean lazy, ResourceModel resourceModel) {
+        // 保存bean的定义
+        BeanDefinition beanDefinition = new BeanDefinition();
+        // bean类型
+        beanDefinition.setType(loadClass);
+        beanDefinition.setLazy(lazy);
+        beanDefinition.setScope(scope);
+        registerComponent(beanName, beanDefinition, resourceModel);
+    }
+
+    /**
+     * 注册@Component组件的bean定义，BeanPostProcessor在注册时创建
+     * @param beanName bean名称
+     * @param beanDefinition bean的定义
+     */
+    public static void registerComponent(String beanName, BeanDefinition beanDefinition, ResourceModel resourceModel) {
+        // BeanPostProcessor接口的实现类注册为处理器
+        if (BeanPostProcessor.class.isAssignableFrom(beanDefinition.getType())) {
+            resourceModel.addBeanPostProcessor((BeanPostProcessor<?>) CreateBeanUtils.createBean(beanDefinition, resourceModel));
+        }
+        resourceModel.registerBeanDefinition(beanName, beanDefinition);
+    }
+
+    /**
+     * 注册@Configuration配置类本身以及其中@Bean方法定义的bean
+     * 配置类实例化为增强子类，@Bean方法由容器调用创建bean
+     * @param loadClass 配置类
+     */
+    public static void registerBeanMethods(Class<?> loadClass, ResourceModel resourceModel) {
+        String configBeanName = GetBeanUtils.getBeanName(loadClass);
+        BeanDefinition configDefinition = new BeanDefinition();
+        configDefinition.setType(loadClass);
+        configDefinition.setLazy(false);
+        configDefinition.setScope("singleton");
+        resourceModel.registerBeanDefinition(configBeanName, configDefinition);
+
+        // getDeclaredMethods()的顺序没有规定，按方法名、参数个数排序，与AOT生成的初始化器注册顺序一致
+        Method[] methods = loadClass.getDeclaredMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName).thenComparingInt(Method::getParameterCount));
+        for (Method method : methods) {
+            if (method.isAnnotationPresent(Bean.class) && !method.isBridge()) {
+                String beanName = GetBeanUtils.getBeanName(method);
+                // 是否懒加载
+                boolean lazy = method.isAnnotationPresent(Lazy.class);
+                // 保存bean的定义
+                BeanDefinition beanDefinition = new BeanDefinition();
+                // bean类型
+                beanDefinition.setType(method.getReturnType());
+                beanDefinition.setLazy(lazy);
+                beanDefinition.setScope("singleton");
+                // 静态@Bean方法不需要先创建配置类
+                beanDefinition.setFactoryMethod(Modifier.isStatic(method.getModifiers()) ? null : configBeanName, method);
+                resourceModel.registerBeanDefinition(beanName, beanDefinition);
+            }
+        }
+    }
+
+    /**
+     * 递归遍历目录，每个子目录一个子任务
+     */
+    private static class DirectoryScanTask extends RecursiveTask<List<ComponentIndex.Entry>> {
+
+        private static final long serialVersionUID = 1L;
 
-            // 类上使用了@Scope注解
-            if (loadClass.isAnnotationPresent(Scope.class)) {
-                // 获取@Scope注解
-                Scope annotation = loadClass.getAnnotation(Scope.class);
+        private final File file;
 
-                // 单例
-                if (CreateBeanUtils.isSingleton(annotation.value())) {
-                    lazy = loadClass.isAnnotationPresent(Lazy.class);
+        DirectoryScanTask(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected List<ComponentIndex.Entry> compute() {
+            List<ComponentIndex.Entry> result = new ArrayList<>();
+            if (file.isFile()) {
+                addCandidate(file, result);
+                return result;
+            }
+            List<DirectoryScanTask> subTasks = new ArrayList<>();
+            for (File listFile : Objects.requireNonNull(file.listFiles())) {
+                if (listFile.isDirectory()) {
+                    DirectoryScanTask subTask = new DirectoryScanTask(listFile);
+                    subTask.fork();
+                    subTasks.add(subTask);
                 } else {
-                    // 非单例
-                    scope = annotation.value();
+                    addCandidate(listFile, result);
+                }
+            }
+            for (DirectoryScanTask subTask : subTasks) {
+                result.addAll(subTask.join());
+            }
+            return result;
+        }
+
+        private static void addCandidate(File file, List<ComponentIndex.Entry> result) {
+            if (!file.getName().endsWith(".class")) {
+                return;
+            }
+            try {
+                ComponentIndex.Entry entry = toCandidate(Files.readAllBytes(file.toPath()));
+                if (entry != null) {
+                    result.add(entry);
                 }
-            } else {
-                // 类上没有使用@Scope注解，默认是单例的
-                lazy = loadClass.isAnnotationPresent(Lazy.class);
-            }
-            // 保存bean的定义
-            BeanDefinition beanDefinition = new BeanDefinition();
-            // bean类型
-            beanDefinition.setType(loadClass);
-            beanDefinition.setLazy(lazy);
-            beanDefinition.setScope(scope);
-            // BeanPostProcessor接口的实现类保存到list中
-            if (BeanPostProcessor.class.isAssignableFrom(loadClass)) {
-                resourceModel.list.add((BeanPostProcessor) CreateBeanUtils.createBean(beanDefinition, resourceModel));
-            }
-            resourceModel.beanDefinitionMap.put(beanName, beanDefinition);
-        } else if (loadClass.isAnnotationPresent(Configuration.class)) {
-            Method[] methods = loadClass.getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.isAnnotationPresent(Bean.class)) {
-                    Bean annotation = method.getAnnotation(Bean.class);
-                    beanName = annotation.value();
-                    // 是否懒加载
-                    lazy = method.isAnnotationPresent(Lazy.class);
-                    if ("".equals(beanName)) {
-                        beanName = method.getName();
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取class文件失败: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * 分段解析jar中的class文件
+     */
+    private static class JarScanTask extends RecursiveTask<List<ComponentIndex.Entry>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ZipFile zipFile;
+
+        private final List<ZipEntry> entries;
+
+        private final int from;
+
+        private final int to;
+
+        JarScanTask(ZipFile zipFile, List<ZipEntry> entries, int from, int to) {
+            this.zipFile = zipFile;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ComponentIndex.Entry> compute() {
+            if (to - from > JAR_ENTRIES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                JarScanTask left = new JarScanTask(zipFile, entries, from, middle);
+                left.fork();
+                List<ComponentIndex.Entry> result = new JarScanTask(zipFile, entries, middle, to).compute();
+                result.addAll(0, left.join());
+                return result;
+            }
+            List<ComponentIndex.Entry> result = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                ZipEntry entry = entries.get(i);
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    ComponentIndex.Entry candidate = toCandidate(readAllBytes(in, (int) entry.getSize()));
+                    if (candidate != null) {
+                        result.add(candidate);
                     }
-                    // 保存bean的定义
-                    BeanDefinition beanDefinition = new BeanDefinition();
-                    // bean类型
-                    beanDefinition.setType(method.getReturnType());
-                    beanDefinition.setLazy(lazy);
-                    beanDefinition.setScope(scope);
-                    resourceModel.beanDefinitionMap.put(beanName, beanDefinition);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("读取class文件失败: " + entry.getName(), e);
+                }
+            }
+            return result;
+        }
+
+        private static byte[] readAllBytes(InputStream in, int size) throws IOException {
+            if (size < 0) {
+                // 大小未知时才需要复制
+                ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+            byte[] bytes = new byte[size];
+            int offset = 0;
+            while (offset < size) {
+                int read = in.read(bytes, offset, size - offset);
+                if (read == -1) {
+                    throw new IOException("class文件不完整");
                 }
+                offset += read;
             }
+            return bytes;
         }
     }
 
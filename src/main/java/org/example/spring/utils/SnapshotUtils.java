@@ -0,0 +1,292 @@
+package org.example.spring.utils;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.BeanPostProcessorChain;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.annotation.ComponentScan;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.snapshot.BeanDefinitionSnapshot;
+import org.example.spring.snapshot.ClasspathFingerprint;
+import org.example.spring.startup.StartupStep;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * -10/18-19:20
+ * -bean定义快照：扫描结果保存到文件，下次启动时类路径指纹一致就直接按快照注册，不再遍历类路径、解析class文件
+ * -通过 -Dmy-spring.snapshot=文件路径 开启
+ * -快照同时保存解析好的注入点和每个bean定义的BeanPostProcessor处理链：恢复时按保存的签名和字段名直接取构造方法、字段，
+ * -不再推断构造方法、读取注解和泛型参数，处理链按保存的下标恢复，不再逐个判断处理器是否处理该类型
+ * -注册的BeanPostProcessor与保存时不一致时只恢复bean定义和注入点，处理链在第一次创建bean时重新计算
+ */
+public class SnapshotUtils {
+
+    /**
+     * 快照文件路径的系统属性
+     */
+    public static final String SNAPSHOT_PROPERTY = "my-spring.snapshot";
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class}) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    /**
+     * 扫描组件，配置了快照文件时优先从快照注册，快照无效时扫描后重新保存
+     * 快照只对根容器生效（子容器的配置类不同，共用一个快照文件会互相覆盖）
+     * @param configClass 配置类
+     */
+    public static void scan(Class<?> configClass, ResourceModel resourceModel) throws ClassNotFoundException {
+        String snapshotFile = System.getProperty(SNAPSHOT_PROPERTY);
+        if (snapshotFile == null || "".equals(snapshotFile) || !configClass.isAnnotationPresent(ComponentScan.class)
+                || resourceModel.parent != null) {
+            ScanBeanUtils.scan(configClass, resourceModel);
+            return;
+        }
+        Path file = Paths.get(snapshotFile);
+        ClassLoader classLoader = configClass.getClassLoader();
+        byte[] fingerprint = ClasspathFingerprint.compute(configClass,
+                configClass.getAnnotation(ComponentScan.class).value(), classLoader);
+        if (loadSnapshot(file, fingerprint, classLoader, resourceModel)) {
+            return;
+        }
+        ScanBeanUtils.scan(configClass, resourceModel);
+        saveSnapshot(file, fingerprint, resourceModel);
+    }
+
+    /**
+     * 按快照注册bean定义
+     * @param file 快照文件
+     * @param fingerprint 当前的类路径指纹
+     * @return 快照不存在、无效或者其中的类、方法、字段找不到时返回false（此时没有注册任何bean定义）
+     */
+    public static boolean loadSnapshot(Path file, byte[] fingerprint, ClassLoader classLoader, ResourceModel resourceModel) {
+        StartupStep step = resourceModel.startupRecorder.start("context.snapshot.load").tag("file", file.toString());
+        try {
+            BeanDefinitionSnapshot snapshot;
+            try {
+                snapshot = BeanDefinitionSnapshot.read(file, fingerprint);
+            } catch (IOException e) {
+                // 文件损坏时当作没有快照，重新扫描后覆盖
+                snapshot = null;
+            }
+            if (snapshot == null) {
+                step.tag("hit", false);
+                return false;
+            }
+            // 先加载所有类、方法和字段，全部成功后再注册，避免注册一半
+            List<BeanDefinitionSnapshot.Entry> entries = snapshot.getEntries();
+            List<BeanDefinition> definitions = new ArrayList<>(entries.size());
+            try {
+                for (BeanDefinitionSnapshot.Entry entry : entries) {
+                    definitions.add(toBeanDefinition(entry, classLoader));
+                }
+            } catch (ClassNotFoundException | NoSuchMethodException | NoSuchFieldException | LinkageError e) {
+                step.tag("hit", false);
+                return false;
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                BeanDefinitionSnapshot.Entry entry = entries.get(i);
+                if (entry.isFactoryMethod()) {
+                    resourceModel.registerBeanDefinition(entry.getBeanName(), definitions.get(i));
+                } else {
+                    // 与扫描时一样，BeanPostProcessor在注册时创建
+                    ScanBeanUtils.registerComponent(entry.getBeanName(), definitions.get(i), resourceModel);
+                }
+            }
+            // 所有BeanPostProcessor注册完之后再恢复处理链，处理器与保存时不一致时不恢复
+            boolean restoreChains = getProcessorTypes(resourceModel).equals(snapshot.getProcessorTypes());
+            if (restoreChains) {
+                for (int i = 0; i < entries.size(); i++) {
+                    int[][] chain = entries.get(i).getPostProcessorChain();
+                    if (chain != null) {
+                        resourceModel.restoreBeanPostProcessorChain(definitions.get(i), chain);
+                    }
+                }
+            }
+            step.tag("hit", true).tag("beanDefinitions", entries.size()).tag("postProcessorChains", restoreChains);
+            return true;
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * 保存容器中当前的bean定义（按注册顺序）
+     * @param file 快照文件
+     * @param fingerprint 类路径指纹
+     */
+    public static void saveSnapshot(Path file, byte[] fingerprint, ResourceModel resourceModel) {
+        StartupStep step = resourceModel.startupRecorder.start("context.snapshot.save").tag("file", file.toString());
+        try {
+            List<BeanPostProcessorChain.Processor> processors = resourceModel.getBeanPostProcessors();
+            List<BeanDefinitionSnapshot.Entry> entries = new ArrayList<>(resourceModel.beanDefinitionMap.size());
+            for (Map.Entry<String, BeanDefinition> definition : resourceModel.beanDefinitionMap.entrySet()) {
+                BeanDefinition beanDefinition = definition.getValue();
+                BeanDefinitionSnapshot.Entry entry = new BeanDefinitionSnapshot.Entry(definition.getKey(),
+                        beanDefinition.getType().getName(), beanDefinition.getScope(), beanDefinition.isLazy());
+                Method method = beanDefinition.getFactoryMethod();
+                if (method != null) {
+                    entry.setFactoryMethod(beanDefinition.getFactoryBeanName(), method.getDeclaringClass().getName(),
+                            method.getName(), getNames(method.getParameterTypes()));
+                    entry.setFactoryMethodParameters(toSnapshot(beanDefinition.getFactoryMethodParameters()));
+                } else {
+                    saveInjection(entry, beanDefinition);
+                }
+                entry.setPostProcessorChain(resourceModel.getBeanPostProcessorChain(beanDefinition).indexesIn(processors));
+                entries.add(entry);
+            }
+            new BeanDefinitionSnapshot(fingerprint, getProcessorTypes(resourceModel), entries).write(file);
+            step.tag("beanDefinitions", entries.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存bean定义快照失败: " + file, e);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * 保存构造方法和@Autowired字段的注入点（与第一次创建bean时一样解析，结果缓存到bean定义上）
+     * 推断构造方法失败时不保存，错误留到创建bean时再抛出
+     */
+    private static void saveInjection(BeanDefinitionSnapshot.Entry entry, BeanDefinition beanDefinition) {
+        InjectionMetadata metadata;
+        try {
+            metadata = CreateBeanUtils.getInjectionMetadata(beanDefinition);
+        } catch (RuntimeException e) {
+            return;
+        }
+        Constructor<?> constructor = metadata.getConstructor();
+        Field[] fields = metadata.getFields();
+        if (constructor == null || fields == null) {
+            // AOT生成的注入元数据
+            return;
+        }
+        String[] fieldNames = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fieldNames[i] = fields[i].getName();
+        }
+        Class<?> type = beanDefinition.getType();
+        entry.setInjection(type.isAnnotationPresent(Configuration.class), getNames(constructor.getParameterTypes()),
+                toSnapshot(metadata.getConstructorParameters()), fieldNames, toSnapshot(metadata.getInjectionPoints()));
+    }
+
+    /**
+     * 按快照创建bean定义（不注册）
+     */
+    private static BeanDefinition toBeanDefinition(BeanDefinitionSnapshot.Entry entry, ClassLoader classLoader)
+            throws ClassNotFoundException, NoSuchMethodException, NoSuchFieldException {
+        BeanDefinition beanDefinition = new BeanDefinition();
+        beanDefinition.setLazy(entry.isLazy());
+        beanDefinition.setScope(entry.getScope());
+        if (entry.isFactoryMethod()) {
+            Method method = resolveMethod(entry, classLoader);
+            beanDefinition.setType(method.getReturnType());
+            if (entry.hasInjection()) {
+                beanDefinition.setFactoryMethod(entry.getFactoryBeanName(), method,
+                        toInjectionPoints(entry.getFactoryMethodParameters(), classLoader));
+            } else {
+                beanDefinition.setFactoryMethod(entry.getFactoryBeanName(), method);
+            }
+            return beanDefinition;
+        }
+        Class<?> type = loadClass(entry.getTypeName(), classLoader);
+        beanDefinition.setType(type);
+        if (entry.hasInjection()) {
+            Constructor<?> constructor = type.getDeclaredConstructor(loadClasses(entry.getConstructorParameterTypes(), classLoader));
+            String[] fieldNames = entry.getFieldNames();
+            Field[] fields = new Field[fieldNames.length];
+            for (int i = 0; i < fieldNames.length; i++) {
+                fields[i] = type.getDeclaredField(fieldNames[i]);
+            }
+            beanDefinition.setInjectionMetadata(InjectionMetadata.of(constructor, entry.isConfiguration(),
+                    toInjectionPoints(entry.getConstructorParameters(), classLoader),
+                    toInjectionPoints(entry.getFields(), classLoader), fields));
+        }
+        return beanDefinition;
+    }
+
+    private static List<String> getProcessorTypes(ResourceModel resourceModel) {
+        List<String> processorTypes = new ArrayList<>();
+        for (BeanPostProcessorChain.Processor processor : resourceModel.getBeanPostProcessors()) {
+            processorTypes.add(processor.getProcessor().getClass().getName());
+        }
+        return processorTypes;
+    }
+
+    private static BeanDefinitionSnapshot.InjectionPoint[] toSnapshot(InjectionMetadata.InjectionPoint[] points) {
+        BeanDefinitionSnapshot.InjectionPoint[] saved = new BeanDefinitionSnapshot.InjectionPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            InjectionMetadata.InjectionPoint point = points[i];
+            saved[i] = new BeanDefinitionSnapshot.InjectionPoint(point.getName(), point.isQualified(),
+                    point.getType().getName(), point.isRequired(), getName(point.getProvidedType()),
+                    getName(point.getElementType()));
+        }
+        return saved;
+    }
+
+    private static InjectionMetadata.InjectionPoint[] toInjectionPoints(BeanDefinitionSnapshot.InjectionPoint[] saved,
+                                                                       ClassLoader classLoader) throws ClassNotFoundException {
+        InjectionMetadata.InjectionPoint[] points = new InjectionMetadata.InjectionPoint[saved.length];
+        for (int i = 0; i < saved.length; i++) {
+            BeanDefinitionSnapshot.InjectionPoint point = saved[i];
+            points[i] = new InjectionMetadata.InjectionPoint(point.getName(), point.isQualified(),
+                    loadClass(point.getTypeName(), classLoader), point.isRequired(),
+                    point.getProvidedTypeName() != null ? loadClass(point.getProvidedTypeName(), classLoader) : null,
+                    point.getElementTypeName() != null ? loadClass(point.getElementTypeName(), classLoader) : null);
+        }
+        return points;
+    }
+
+    private static String getName(Class<?> type) {
+        return type != null ? type.getName() : null;
+    }
+
+    private static String[] getNames(Class<?>[] types) {
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].getName();
+        }
+        return names;
+    }
+
+    private static Class<?>[] loadClasses(String[] names, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            types[i] = loadClass(names[i], classLoader);
+        }
+        return types;
+    }
+
+    private static Method resolveMethod(BeanDefinitionSnapshot.Entry entry, ClassLoader classLoader)
+            throws ClassNotFoundException, NoSuchMethodException {
+        return loadClass(entry.getDeclaringClass(), classLoader).getDeclaredMethod(entry.getMethodName(),
+                loadClasses(entry.getParameterTypes(), classLoader));
+    }
+
+    /**
+     * 加载类，支持基本类型和数组（Class.getName()的格式）
+     */
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        return Class.forName(name, false, classLoader);
+    }
+}
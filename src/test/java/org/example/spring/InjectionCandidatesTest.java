@@ -0,0 +1,138 @@
+package org.example.spring;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Order;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * -10/19-00:07
+ * -集合、数组、Map注入：元素类型的所有bean按@Order排列，没有@Order的按注册顺序排在最后，不注入自己
+ */
+class InjectionCandidatesTest {
+
+    private static final List<String> ORDERED = Arrays.asList("high", "low", "first", "second");
+
+    private ResourceModel resourceModel;
+
+    @BeforeEach
+    void setUp() {
+        resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("first", Unordered.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("low", Low.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("second", Unordered.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("high", High.class, "singleton", false, resourceModel);
+    }
+
+    @Test
+    void fieldsAreInjectedInOrder() {
+        ScanBeanUtils.registerComponent("consumer", Consumer.class, "prototype", false, resourceModel);
+        Consumer consumer = (Consumer) GetBeanUtils.getBean("consumer", resourceModel);
+
+        assertEquals(ORDERED, names(consumer.list));
+        assertEquals(ORDERED, names(consumer.set));
+        assertEquals(ORDERED, names(Arrays.asList(consumer.array)));
+        assertEquals(ORDERED, new ArrayList<>(consumer.map.keySet()));
+        assertEquals(ORDERED, names(consumer.map.values()));
+    }
+
+    @Test
+    void constructorParametersAreInjectedInOrder() {
+        ScanBeanUtils.registerComponent("constructorConsumer", ConstructorConsumer.class, "prototype", false, resourceModel);
+        ConstructorConsumer consumer = (ConstructorConsumer) GetBeanUtils.getBean("constructorConsumer", resourceModel);
+        assertEquals(ORDERED, names(consumer.handlers));
+    }
+
+    @Test
+    void beanIsNotInjectedIntoItself() {
+        ScanBeanUtils.registerComponent("composite", Composite.class, "singleton", false, resourceModel);
+        Composite composite = (Composite) GetBeanUtils.getBean("composite", resourceModel);
+        assertEquals(ORDERED, names(composite.delegates));
+    }
+
+    @Test
+    void candidatesAreRecomputedAfterRegistration() {
+        ScanBeanUtils.registerComponent("consumer", Consumer.class, "prototype", false, resourceModel);
+        assertEquals(ORDERED, names(((Consumer) GetBeanUtils.getBean("consumer", resourceModel)).list));
+
+        ScanBeanUtils.registerComponent("highest", Highest.class, "singleton", false, resourceModel);
+        assertEquals(Arrays.asList("highest", "high", "low", "first", "second"),
+                names(((Consumer) GetBeanUtils.getBean("consumer", resourceModel)).list));
+    }
+
+    private List<String> names(Iterable<? extends Handler> handlers) {
+        List<String> names = new ArrayList<>();
+        for (Handler handler : handlers) {
+            names.add(nameOf(handler));
+        }
+        return names;
+    }
+
+    private String nameOf(Handler handler) {
+        for (String beanName : resourceModel.beanDefinitionMap.keySet()) {
+            if (resourceModel.singletonObjects.get(beanName) == handler) {
+                return beanName;
+            }
+        }
+        throw new AssertionError("not a registered singleton: " + handler);
+    }
+
+    public interface Handler {
+    }
+
+    public static class Unordered implements Handler {
+    }
+
+    @Order(10)
+    public static class Low implements Handler {
+    }
+
+    @Order(-5)
+    public static class High implements Handler {
+    }
+
+    @Order(Integer.MIN_VALUE)
+    public static class Highest implements Handler {
+    }
+
+    public static class Consumer {
+
+        @Autowired
+        List<Handler> list;
+
+        @Autowired
+        Set<Handler> set;
+
+        @Autowired
+        Handler[] array;
+
+        @Autowired
+        Map<String, Handler> map;
+    }
+
+    public static class ConstructorConsumer {
+
+        final List<Handler> handlers;
+
+        public ConstructorConsumer(List<Handler> handlers) {
+            this.handlers = handlers;
+        }
+    }
+
+    public static class Composite implements Handler {
+
+        @Autowired
+        List<Handler> delegates;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.spring;
+
+import org.example.spring.annotation.Component;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * -10/19-00:09
+ * -测试用：把源码编译到临时目录（可以指定注解处理器和参数），以及把编译结果打成jar
+ */
+public final class TestCompiler {
+
+    private TestCompiler() {
+    }
+
+    /**
+     * 编译源码，类路径只有容器本身
+     * @param root 工作目录：源码写到src，class文件输出到classes，注解处理器生成的源码输出到generated
+     * @param sources 类的全限定名 -> 源码
+     * @param processors 注解处理器，为空时不运行注解处理器
+     * @param options 其他编译参数（如 -Amyspring.aot=true）
+     * @return 编译警告
+     */
+    public static List<String> compile(Path root, Map<String, String> sources, List<Processor> processors,
+                                       String... options) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("运行环境没有javac");
+        }
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = root.resolve("src").resolve(source.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            Files.write(file, source.getValue().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        Files.createDirectories(root.resolve("classes"));
+        Files.createDirectories(root.resolve("generated"));
+        List<String> arguments = new ArrayList<>(Arrays.asList("-encoding", "UTF-8",
+                "-classpath", containerClasses().toString(),
+                "-d", root.resolve("classes").toString(),
+                "-s", root.resolve("generated").toString()));
+        if (processors.isEmpty()) {
+            arguments.add("-proc:none");
+        }
+        arguments.addAll(Arrays.asList(options));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                    fileManager.getJavaFileObjectsFromFiles(files.stream().map(Path::toFile).collect(Collectors.toList())));
+            if (!processors.isEmpty()) {
+                task.setProcessors(processors);
+            }
+            boolean success = task.call();
+            List<String> warnings = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR && !success) {
+                    throw new AssertionError("编译失败: " + diagnostic);
+                }
+                if (diagnostic.getKind() == Diagnostic.Kind.WARNING || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+                    warnings.add(diagnostic.getMessage(null));
+                }
+            }
+            if (!success) {
+                throw new AssertionError("编译失败: " + diagnostics.getDiagnostics());
+            }
+            return warnings;
+        }
+    }
+
+    /**
+     * 把目录打成jar，和jar命令一样为每个目录写入目录条目（ClassLoader.getResources按包查找时需要）
+     * @param directory class文件所在目录
+     * @param jarFile jar文件
+     */
+    public static void jar(Path directory, Path jarFile) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            paths = stream.filter(path -> !path.equals(directory)).sorted().collect(Collectors.toList());
+        }
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarFile))) {
+            for (Path path : paths) {
+                String name = directory.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path)) {
+                    out.putNextEntry(new JarEntry(name + "/"));
+                } else {
+                    out.putNextEntry(new JarEntry(name));
+                    Files.copy(path, (OutputStream) out);
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * 容器本身的class文件所在位置
+     */
+    private static Path containerClasses() {
+        try {
+            return Paths.get(Component.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.spring.aop;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.PreInstantiateUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/18-23:57
+ * -字段注入的循环依赖中被代理的单例：注入到其他bean中的是提前生成的代理，与容器中的单例是同一个对象
+ */
+class AopCircularReferenceTest {
+
+    @Test
+    void advisedSingletonInFieldCycleIsProxiedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        AopProxyPostProcessor processor = new AopProxyPostProcessor();
+        processor.addAdvisor(Pointcut.forType(AdvisedA.class), invocation -> {
+            calls.incrementAndGet();
+            return invocation.proceed();
+        });
+        ResourceModel resourceModel = new ResourceModel();
+        resourceModel.addBeanPostProcessor(processor);
+        ScanBeanUtils.registerComponent("advisedA", AdvisedA.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("plainB", PlainB.class, "singleton", false, resourceModel);
+
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        AdvisedA a = (AdvisedA) GetBeanUtils.getBean("advisedA", resourceModel);
+        PlainB b = (PlainB) GetBeanUtils.getBean("plainB", resourceModel);
+        assertTrue(a instanceof AopProxy);
+        assertSame(a, b.getA());
+        assertSame(b, a.getB());
+        assertEquals("a", b.getA().name());
+        assertTrue(calls.get() > 0);
+    }
+
+    @Test
+    void advisedSingletonCreatedSecondInFieldCycle() {
+        AopProxyPostProcessor processor = new AopProxyPostProcessor();
+        processor.addAdvisor(Pointcut.forType(AdvisedA.class), MethodInvocation::proceed);
+        ResourceModel resourceModel = new ResourceModel();
+        resourceModel.addBeanPostProcessor(processor);
+        ScanBeanUtils.registerComponent("plainB", PlainB.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("advisedA", AdvisedA.class, "singleton", false, resourceModel);
+
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        AdvisedA a = (AdvisedA) GetBeanUtils.getBean("advisedA", resourceModel);
+        PlainB b = (PlainB) GetBeanUtils.getBean("plainB", resourceModel);
+        assertTrue(a instanceof AopProxy);
+        assertSame(a, b.getA());
+        assertSame(b, a.getB());
+    }
+
+    public static class AdvisedA {
+
+        @Autowired
+        private PlainB plainB;
+
+        public PlainB getB() {
+            return plainB;
+        }
+
+        public String name() {
+            return "a";
+        }
+    }
+
+    public static class PlainB {
+
+        @Autowired
+        private AdvisedA advisedA;
+
+        public AdvisedA getA() {
+            return advisedA;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.spring.aop;
+
+import org.example.spring.aop.support.ExternalBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/18-23:55
+ * -子类代理没有执行目标类的构造方法，非公共方法也必须转发给目标对象
+ */
+class ProxyGeneratorTest {
+
+    @Test
+    void nonPublicMethodsAreDelegatedToTarget() {
+        List<String> intercepted = new ArrayList<>();
+        Advisor advisor = new Advisor((method, targetClass) -> method.getName().startsWith("intercepted"), invocation -> {
+            intercepted.add(invocation.getMethod().getName());
+            return invocation.proceed();
+        });
+        ProxyGenerator.ProxyClass proxyClass = ProxyGenerator.generate(Service.class, Collections.singletonList(advisor));
+        assertNotNull(proxyClass);
+        Service proxy = (Service) proxyClass.newProxy(new Service("target"));
+
+        assertTrue(proxy instanceof AopProxy);
+        assertEquals("target", proxy.publicName());
+        assertEquals("target", proxy.packageName());
+        assertEquals("target", proxy.externalProtectedName());
+        assertEquals("target", proxy.localProtectedName());
+        assertEquals("target", proxy.interceptedPackageName());
+        assertEquals("target", proxy.interceptedProtectedName());
+        assertEquals(2, intercepted.size());
+    }
+
+    @Test
+    void finalMethodsFallBackToInterfaceProxy() {
+        Advisor advisor = new Advisor(Pointcut.forType(Object.class), MethodInvocation::proceed);
+        ProxyGenerator.ProxyClass proxyClass = ProxyGenerator.generate(FinalMethodService.class, Collections.singletonList(advisor));
+        assertNotNull(proxyClass);
+        assertFalse(FinalMethodService.class.isAssignableFrom(proxyClass.getProxyType()));
+        Runnable proxy = (Runnable) proxyClass.newProxy(new FinalMethodService());
+        proxy.run();
+
+        assertNull(ProxyGenerator.generate(FinalMethodWithoutInterface.class, Collections.singletonList(advisor)));
+    }
+
+    @Test
+    void supportsNonPublicMethods() {
+        AopProxyPostProcessor processor = new AopProxyPostProcessor();
+        processor.addAdvisor((method, targetClass) -> method.getName().equals("interceptedPackageName"), MethodInvocation::proceed);
+        assertTrue(processor.supports(Service.class));
+        assertFalse(processor.supports(FinalMethodService.class));
+    }
+
+    public static class Service extends ExternalBase {
+
+        public Service(String name) {
+            super(name);
+        }
+
+        public String publicName() {
+            return name;
+        }
+
+        String externalProtectedName() {
+            return protectedName();
+        }
+
+        String packageName() {
+            return name;
+        }
+
+        protected String localProtectedName() {
+            return name;
+        }
+
+        String interceptedPackageName() {
+            return name;
+        }
+
+        protected String interceptedProtectedName() {
+            return name;
+        }
+    }
+
+    public static class FinalMethodService implements Runnable {
+
+        private final String name = "target";
+
+        @Override
+        public void run() {
+            assertEquals("target", name());
+        }
+
+        public final String name() {
+            return name;
+        }
+    }
+
+    public static class FinalMethodWithoutInterface {
+
+        public final String name() {
+            return "target";
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.spring.aop.support;
+
+/**
+ * -10/18-23:54
+ * -与代理类不在同一个包中的父类，protected方法只能通过反射转发
+ */
+public class ExternalBase {
+
+    protected final String name;
+
+    public ExternalBase(String name) {
+        this.name = name;
+    }
+
+    protected String protectedName() {
+        return name;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.spring.aot;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.TestCompiler;
+import org.example.spring.instantiator.EnhancedConfiguration;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.AotUtils;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:10
+ * -AOT生成的初始化器：组件直接通过构造方法和字段赋值创建，配置类生成源码形式的增强子类，
+ * -无法直接访问的组件给出警告并退回反射注册，注册顺序与扫描一致
+ */
+class ContextInitializerProcessorTest {
+
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put("aotsample.AppConfig", String.join("\n",
+                "package aotsample;",
+                "@org.example.spring.annotation.ComponentScan(\"aotsample.app\")",
+                "public class AppConfig {}"));
+        SOURCES.put("aotsample.app.Repository", String.join("\n",
+                "package aotsample.app;",
+                "@org.example.spring.annotation.Component",
+                "public class Repository {}"));
+        SOURCES.put("aotsample.app.Service", String.join("\n",
+                "package aotsample.app;",
+                "import org.example.spring.annotation.Autowired;",
+                "@org.example.spring.annotation.Component",
+                "public class Service {",
+                "    public final Repository repository;",
+                "    @Autowired public Repository field;",
+                "    public Service(Repository repository) { this.repository = repository; }",
+                "}"));
+        SOURCES.put("aotsample.app.Hidden", String.join("\n",
+                "package aotsample.app;",
+                "@org.example.spring.annotation.Component",
+                "public class Hidden {",
+                "    private Hidden() {}",
+                "}"));
+        SOURCES.put("aotsample.app.Beans", String.join("\n",
+                "package aotsample.app;",
+                "import org.example.spring.annotation.Bean;",
+                "@org.example.spring.annotation.Configuration",
+                "public class Beans {",
+                "    @Bean public Client client(Service service) { return new Client(service, repository()); }",
+                "    @Bean public Repository repository() { return new Repository(); }",
+                "}"));
+        SOURCES.put("aotsample.app.Client", String.join("\n",
+                "package aotsample.app;",
+                "public class Client {",
+                "    public final Service service;",
+                "    public final Repository repository;",
+                "    public Client(Service service, Repository repository) { this.service = service; this.repository = repository; }",
+                "}"));
+    }
+
+    @TempDir
+    static Path root;
+
+    static List<String> warnings;
+
+    static ClassLoader classLoader;
+
+    @BeforeAll
+    static void compile() throws Exception {
+        warnings = TestCompiler.compile(root, SOURCES,
+                Collections.singletonList(new ContextInitializerProcessor()),
+                "-A" + ContextInitializerProcessor.AOT_OPTION + "=true");
+        classLoader = new URLClassLoader(new URL[]{root.resolve("classes").toUri().toURL()},
+                ContextInitializerProcessorTest.class.getClassLoader());
+    }
+
+    @Test
+    void generatesDirectInstantiation() throws Exception {
+        Path generated = root.resolve("generated/aotsample");
+        assertTrue(Files.isRegularFile(generated.resolve("AppConfig" + AotContextInitializer.CLASS_SUFFIX + ".java")));
+        String service = read(generated.resolve("app/Service__BeanRegistration.java"));
+        assertTrue(service.contains("new aotsample.app.Service((aotsample.app.Repository) args[0])"), service);
+        assertTrue(service.contains("target.field = (aotsample.app.Repository) values[0];"), service);
+        assertFalse(service.contains("Class.forName"), service);
+        assertTrue(Files.isRegularFile(generated.resolve("app/Beans__Enhanced.java")));
+
+        // 私有构造方法不能直接调用：给出警告，退回反射注册
+        assertEquals(1, warnings.size(), String.valueOf(warnings));
+        assertTrue(warnings.get(0).contains("aotsample.app.Hidden"), warnings.get(0));
+        assertTrue(read(generated.resolve("app/Hidden__BeanRegistration.java")).contains("registerComponent(\"hidden\""));
+    }
+
+    @Test
+    void initializerRegistersBeansInScanOrder() throws Exception {
+        Class<?> configClass = classLoader.loadClass("aotsample.AppConfig");
+        ResourceModel aot = initialize(configClass);
+        ResourceModel scanned = new ResourceModel();
+        ScanBeanUtils.scan(configClass, scanned);
+
+        assertEquals(new ArrayList<>(scanned.beanDefinitionMap.keySet()), new ArrayList<>(aot.beanDefinitionMap.keySet()));
+    }
+
+    @Test
+    void generatedCodeCreatesBeans() throws Exception {
+        ResourceModel resourceModel = initialize(classLoader.loadClass("aotsample.AppConfig"));
+
+        // 注入元数据在注册时已经设置，不再按类反射解析
+        BeanDefinition serviceDefinition = resourceModel.getBeanDefinition("service");
+        InjectionMetadata metadata = serviceDefinition.getInjectionMetadata();
+        assertNotNull(metadata);
+        assertNull(metadata.getConstructor());
+        assertTrue(metadata.getInstantiator().getClass().getName().startsWith("aotsample.app.Service__BeanRegistration"));
+        assertNull(resourceModel.getBeanDefinition("hidden").getInjectionMetadata());
+        assertNull(resourceModel.getBeanDefinition("client").getFactoryMethod());
+
+        Object repository = GetBeanUtils.getBean("repository", resourceModel);
+        Object service = GetBeanUtils.getBean("service", resourceModel);
+        assertSame(repository, field(service, "repository"));
+        assertSame(repository, field(service, "field"));
+        Object client = GetBeanUtils.getBean("client", resourceModel);
+        assertSame(service, field(client, "service"));
+        // @Bean方法之间的调用返回容器中的单例
+        assertSame(repository, field(client, "repository"));
+        Object beans = GetBeanUtils.getBean("beans", resourceModel);
+        assertTrue(beans instanceof EnhancedConfiguration);
+        assertEquals("aotsample.app.Beans__Enhanced", beans.getClass().getName());
+        assertNotNull(GetBeanUtils.getBean("hidden", resourceModel));
+    }
+
+    private static ResourceModel initialize(Class<?> configClass) throws ClassNotFoundException {
+        ResourceModel resourceModel = new ResourceModel();
+        System.setProperty(AotContextInitializer.ENABLED_PROPERTY, "true");
+        try {
+            assertTrue(AotUtils.initialize(configClass, resourceModel));
+        } finally {
+            System.clearProperty(AotContextInitializer.ENABLED_PROPERTY);
+        }
+        return resourceModel;
+    }
+
+    private static Object field(Object bean, String name) throws ReflectiveOperationException {
+        return bean.getClass().getField(name).get(bean);
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.spring.index;
+
+import org.example.spring.TestCompiler;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:11
+ * -组件索引：编译期生成，扫描时优先读取索引（索引中没有的包才遍历类路径），-Dmy-spring.index.ignore=true 时忽略索引
+ */
+class ComponentIndexTest {
+
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put("indexsample.AppConfig", String.join("\n",
+                "package indexsample;",
+                "@org.example.spring.annotation.ComponentScan({\"indexsample.a\", \"indexsample.b\"})",
+                "public class AppConfig {}"));
+        SOURCES.put("indexsample.a.First", String.join("\n",
+                "package indexsample.a;",
+                "@org.example.spring.annotation.Component",
+                "public class First {}"));
+        SOURCES.put("indexsample.a.Second", String.join("\n",
+                "package indexsample.a;",
+                "@org.example.spring.annotation.Component(\"custom\")",
+                "@org.example.spring.annotation.Lazy",
+                "public class Second {}"));
+        SOURCES.put("indexsample.a.Plain", String.join("\n",
+                "package indexsample.a;",
+                "public class Plain {}"));
+        SOURCES.put("indexsample.b.Third", String.join("\n",
+                "package indexsample.b;",
+                "@org.example.spring.annotation.Component",
+                "@org.example.spring.annotation.Scope(\"prototype\")",
+                "public class Third {}"));
+    }
+
+    @TempDir
+    Path root;
+
+    private Path indexFile;
+
+    private ClassLoader classLoader;
+
+    @BeforeEach
+    void compile() throws Exception {
+        TestCompiler.compile(root, SOURCES, Collections.singletonList(new ComponentIndexProcessor()));
+        indexFile = root.resolve("classes").resolve(ComponentIndex.COMPONENTS_RESOURCE_LOCATION);
+        classLoader = new URLClassLoader(new URL[]{root.resolve("classes").toUri().toURL()},
+                ComponentIndexTest.class.getClassLoader());
+    }
+
+    @Test
+    void processorWritesIndex() throws Exception {
+        assertEquals(Arrays.asList(
+                "indexsample.a.First=component,,singleton,false",
+                "indexsample.a.Second=component,custom,singleton,true",
+                "indexsample.b.Third=component,,prototype,false"), Files.readAllLines(indexFile, StandardCharsets.UTF_8));
+
+        ComponentIndex index = ComponentIndex.load(classLoader);
+        List<ComponentIndex.Entry> candidates = index.getCandidates("indexsample.a");
+        assertEquals(2, candidates.size());
+        ComponentIndex.Entry second = candidates.get(1);
+        assertEquals("custom", second.getBeanName());
+        assertTrue(second.isLazy());
+        assertEquals("prototype", index.getCandidates("indexsample.b").get(0).getScope());
+    }
+
+    @Test
+    void scanReadsIndexAndFallsBackForUnindexedPackages() throws Exception {
+        // 索引中去掉Second和Third：indexsample.a按索引注册（不包括Second），indexsample.b没有条目时遍历类路径
+        Files.write(indexFile, Collections.singletonList("indexsample.a.First=component,,singleton,false"),
+                StandardCharsets.UTF_8);
+
+        assertEquals(Arrays.asList("first", "third"), scan());
+    }
+
+    @Test
+    void ignoreIndexProperty() throws Exception {
+        Files.write(indexFile, Collections.singletonList("indexsample.a.First=component,,singleton,false"),
+                StandardCharsets.UTF_8);
+        System.setProperty(ComponentIndex.IGNORE_INDEX_PROPERTY, "true");
+        try {
+            assertNull(ComponentIndex.load(classLoader));
+            assertEquals(Arrays.asList("first", "custom", "third"), scan());
+        } finally {
+            System.clearProperty(ComponentIndex.IGNORE_INDEX_PROPERTY);
+        }
+    }
+
+    @Test
+    void malformedIndexIsRejected() throws Exception {
+        Files.write(indexFile, Collections.singletonList("indexsample.a.First=component,singleton"), StandardCharsets.UTF_8);
+        assertThrows(IllegalStateException.class, () -> ComponentIndex.load(classLoader));
+    }
+
+    private List<String> scan() throws ClassNotFoundException {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.scan(classLoader.loadClass("indexsample.AppConfig"), resourceModel);
+        return new ArrayList<>(resourceModel.beanDefinitionMap.keySet());
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.spring.instantiator;
+
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.annotation.Qualifier;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.PreInstantiateUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:00
+ * -@Bean方法：由容器调用创建bean，参数从容器中注入，配置类中@Bean方法之间的调用返回容器中的单例
+ */
+class ConfigurationClassTest {
+
+    private ResourceModel resourceModel;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.REPOSITORIES.set(0);
+        resourceModel = new ResourceModel();
+        ScanBeanUtils.registerBeanMethods(AppConfig.class, resourceModel);
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+    }
+
+    @Test
+    void configurationClassIsEnhanced() {
+        Object config = GetBeanUtils.getBean("appConfig", resourceModel);
+        assertTrue(config instanceof EnhancedConfiguration);
+        assertNotEquals(AppConfig.class, config.getClass());
+    }
+
+    @Test
+    void interBeanMethodCallsReturnSharedSingleton() {
+        Repository repository = (Repository) GetBeanUtils.getBean("repository", resourceModel);
+        Service service = (Service) GetBeanUtils.getBean("service", resourceModel);
+        assertSame(repository, service.repository);
+        // 配置类上直接调用@Bean方法也返回容器中的单例
+        AppConfig config = (AppConfig) GetBeanUtils.getBean("appConfig", resourceModel);
+        assertSame(repository, config.repository());
+        assertEquals(1, AppConfig.REPOSITORIES.get());
+    }
+
+    @Test
+    void parametersAreInjectedFromContainer() {
+        Repository repository = (Repository) GetBeanUtils.getBean("repository", resourceModel);
+        Client client = (Client) GetBeanUtils.getBean("client", resourceModel);
+        assertSame(repository, client.repository);
+        assertEquals("static", client.name);
+    }
+
+    @Test
+    void staticBeanMethodDoesNotNeedConfigurationInstance() {
+        assertEquals("static", GetBeanUtils.getBean("clientName", resourceModel));
+        assertEquals("renamed", GetBeanUtils.getBean("renamed", resourceModel));
+    }
+
+    public static class Repository {
+    }
+
+    public static class Service {
+
+        final Repository repository;
+
+        Service(Repository repository) {
+            this.repository = repository;
+        }
+    }
+
+    public static class Client {
+
+        final Repository repository;
+
+        final String name;
+
+        Client(Repository repository, String name) {
+            this.repository = repository;
+            this.name = name;
+        }
+    }
+
+    @Configuration
+    public static class AppConfig {
+
+        static final AtomicInteger REPOSITORIES = new AtomicInteger();
+
+        @Bean
+        public Repository repository() {
+            REPOSITORIES.incrementAndGet();
+            return new Repository();
+        }
+
+        @Bean
+        public Service service() {
+            return new Service(repository());
+        }
+
+        @Bean
+        public Client client(Repository repository, @Qualifier("clientName") String name) {
+            return new Client(repository, name);
+        }
+
+        @Bean
+        public static String clientName() {
+            return "static";
+        }
+
+        @Bean("renamed")
+        public static String renamedName() {
+            return "renamed";
+        }
+    }
+}
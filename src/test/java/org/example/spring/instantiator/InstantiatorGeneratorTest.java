@@ -0,0 +1,121 @@
+package org.example.spring.instantiator;
+
+import org.example.spring.InjectionMetadata;
+import org.example.spring.annotation.Autowired;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * -10/19-00:03
+ * -生成的实例化器：可以访问私有构造方法和私有字段，-Dmy-spring.instantiator=generated 时容器实际使用生成类
+ */
+class InstantiatorGeneratorTest {
+
+    @BeforeEach
+    void requireHiddenClasses() {
+        // 隐藏类需要Java 15+
+        boolean supported = true;
+        try {
+            MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                    Class.forName("[Ljava.lang.invoke.MethodHandles$Lookup$ClassOption;"));
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            supported = false;
+        }
+        assumeTrue(supported);
+    }
+
+    @Test
+    void generatedInstantiatorUsesPrivateMembers() throws ReflectiveOperationException {
+        Constructor<PrivateBean> constructor = PrivateBean.class.getDeclaredConstructor(String.class, int.class);
+        Field field = PrivateBean.class.getDeclaredField("dependency");
+        BeanInstantiator instantiator = InstantiatorGenerator.generate(constructor, new Field[]{field});
+
+        assertNotNull(instantiator);
+        assertFalse(instantiator instanceof MethodHandleInstantiator);
+        assertTrue(instantiator.getClass().getName().startsWith(PrivateBean.class.getName() + "$$Instantiator"));
+
+        PrivateBean bean = (PrivateBean) instantiator.newInstance(new Object[]{"name", 3});
+        Dependency dependency = new Dependency();
+        instantiator.inject(bean, new Object[]{dependency});
+        assertEquals("name", bean.name);
+        assertEquals(3, bean.count);
+        assertSame(dependency, bean.dependency);
+    }
+
+    @Test
+    void unsupportedFieldsFallBackToMethodHandles() throws ReflectiveOperationException {
+        Constructor<FinalFieldBean> constructor = FinalFieldBean.class.getDeclaredConstructor();
+        Field field = FinalFieldBean.class.getDeclaredField("dependency");
+        assertNull(InstantiatorGenerator.generate(constructor, new Field[]{field}));
+
+        System.setProperty(InstantiatorFactory.MODE_PROPERTY, InstantiatorFactory.GENERATED);
+        try {
+            assertTrue(InstantiatorFactory.create(constructor, new Field[]{field}) instanceof MethodHandleInstantiator);
+        } finally {
+            System.clearProperty(InstantiatorFactory.MODE_PROPERTY);
+        }
+    }
+
+    @Test
+    void containerUsesGeneratedInstantiatorWhenEnabled() {
+        System.setProperty(InstantiatorFactory.MODE_PROPERTY, InstantiatorFactory.GENERATED);
+        try {
+            ResourceModel resourceModel = new ResourceModel();
+            ScanBeanUtils.registerComponent("dependency", Dependency.class, "singleton", false, resourceModel);
+            ScanBeanUtils.registerComponent("generatedBean", GeneratedBean.class, "prototype", false, resourceModel);
+
+            GeneratedBean bean = (GeneratedBean) GetBeanUtils.getBean("generatedBean", resourceModel);
+            assertSame(GetBeanUtils.getBean("dependency", resourceModel), bean.dependency);
+
+            BeanInstantiator instantiator = InjectionMetadata.forClass(GeneratedBean.class).getInstantiator();
+            assertFalse(instantiator instanceof MethodHandleInstantiator);
+            assertTrue(instantiator.getClass().getName().startsWith(GeneratedBean.class.getName() + "$$Instantiator"));
+        } finally {
+            System.clearProperty(InstantiatorFactory.MODE_PROPERTY);
+        }
+    }
+
+    public static class Dependency {
+    }
+
+    public static class PrivateBean {
+
+        private final String name;
+
+        private final int count;
+
+        private Dependency dependency;
+
+        private PrivateBean(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    public static class FinalFieldBean {
+
+        @Autowired
+        private final Dependency dependency = null;
+    }
+
+    public static class GeneratedBean {
+
+        @Autowired
+        private Dependency dependency;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.spring.model;
+
+import org.example.spring.BeanPostProcessor;
+import org.example.spring.annotation.Autowired;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.PreInstantiateUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:08
+ * -父子容器：子容器中没有的bean按名称、类型到冻结的父容器中查找，父容器的单例只创建一次并保存在父容器中
+ */
+class ResourceModelTest {
+
+    private ResourceModel parent;
+
+    @BeforeEach
+    void setUp() {
+        parent = new ResourceModel();
+        ScanBeanUtils.registerComponent("repository", Repository.class, "singleton", false, parent);
+        ScanBeanUtils.registerComponent("lazyRepository", LazyRepository.class, "singleton", true, parent);
+        ScanBeanUtils.registerComponent("parentHandler", Handler.class, "singleton", false, parent);
+        PreInstantiateUtils.preInstantiateSingletons(parent, null);
+        parent.freeze();
+    }
+
+    @Test
+    void childFallsBackToParentByNameAndType() {
+        ResourceModel child = child();
+        Object repository = parent.singletonObjects.get("repository");
+
+        assertSame(repository, GetBeanUtils.getBean("repository", child));
+        assertSame(repository, GetBeanUtils.getBean(Repository.class, child));
+        Service service = (Service) GetBeanUtils.getBean("service", child);
+        assertSame(repository, service.repository);
+        assertSame(repository, service.byType);
+        // 父容器的bean不会复制到子容器
+        assertFalse(child.singletonObjects.containsKey("repository"));
+        assertFalse(child.beanDefinitionMap.containsKey("repository"));
+    }
+
+    @Test
+    void parentSingletonsAreSharedByChildren() {
+        ResourceModel first = child();
+        ResourceModel second = child();
+
+        Object lazy = GetBeanUtils.getBean("lazyRepository", first);
+        assertSame(lazy, GetBeanUtils.getBean("lazyRepository", second));
+        // 懒加载的父容器单例创建后保存在父容器中
+        assertSame(lazy, parent.singletonObjects.get("lazyRepository"));
+        assertNotSame(GetBeanUtils.getBean("service", first), GetBeanUtils.getBean("service", second));
+    }
+
+    @Test
+    void childDefinitionsShadowParent() {
+        ResourceModel child = child();
+        ScanBeanUtils.registerComponent("repository", Repository.class, "singleton", false, child);
+
+        Object local = GetBeanUtils.getBean("repository", child);
+        assertNotSame(parent.singletonObjects.get("repository"), local);
+        assertSame(local, ((Service) GetBeanUtils.getBean("service", child)).repository);
+    }
+
+    @Test
+    void collectionsIncludeParentBeansAfterChildBeans() {
+        ResourceModel child = child();
+        ScanBeanUtils.registerComponent("childHandler", Handler.class, "singleton", false, child);
+
+        Dispatcher dispatcher = (Dispatcher) GetBeanUtils.getBean("dispatcher", child);
+        assertEquals(2, dispatcher.handlers.size());
+        assertSame(GetBeanUtils.getBean("childHandler", child), dispatcher.handlers.get(0));
+        assertSame(parent.singletonObjects.get("parentHandler"), dispatcher.handlers.get(1));
+    }
+
+    @Test
+    void frozenParentRejectsRegistration() {
+        assertTrue(parent.isFrozen());
+        assertThrows(IllegalStateException.class, () ->
+                ScanBeanUtils.registerComponent("late", Repository.class, "singleton", false, parent));
+        assertThrows(IllegalStateException.class, () -> parent.addBeanPostProcessor(new BeanPostProcessor<Object>() {
+        }));
+        // 子容器不受影响
+        ResourceModel child = child();
+        ScanBeanUtils.registerComponent("late", Repository.class, "singleton", false, child);
+        assertFalse(parent.beanDefinitionMap.containsKey("late"));
+    }
+
+    private ResourceModel child() {
+        ResourceModel child = new ResourceModel(parent);
+        ScanBeanUtils.registerComponent("service", Service.class, "singleton", true, child);
+        ScanBeanUtils.registerComponent("dispatcher", Dispatcher.class, "prototype", false, child);
+        return child;
+    }
+
+    public static class Repository {
+    }
+
+    public static class LazyRepository {
+    }
+
+    public static class Handler {
+    }
+
+    public static class Service {
+
+        @Autowired
+        Repository repository;
+
+        @Autowired
+        Repository byType;
+    }
+
+    public static class Dispatcher {
+
+        @Autowired
+        List<Handler> handlers;
+    }
+}
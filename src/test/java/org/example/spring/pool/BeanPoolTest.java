@@ -0,0 +1,106 @@
+package org.example.spring.pool;
+
+import org.example.spring.PooledBean;
+import org.example.spring.exception.BeanPoolExhaustedException;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.utils.GetBeanUtils;
+import org.example.spring.utils.ScanBeanUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:02
+ * -对象池：被丢弃的实例调用销毁回调，只接受借出后还没有归还的实例
+ */
+class BeanPoolTest {
+
+    private final List<Object> destroyed = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void evictedInstancesAreDestroyed() throws InterruptedException {
+        BeanPool pool = new BeanPool("worker", 0, 2, 1, 0, Worker::new, destroyed::add);
+        Object worker = pool.borrow();
+        pool.release(worker);
+        Thread.sleep(10);
+
+        pool.evictIdle();
+        assertEquals(0, pool.getNumIdle());
+        assertEquals(1, pool.getEvictedCount());
+        assertEquals(Collections.singletonList(worker), destroyed);
+    }
+
+    @Test
+    void instancesFailingResetAreDestroyed() {
+        BeanPool pool = new BeanPool("worker", 0, 2, 0, 0, FailingReset::new, destroyed::add);
+        Object worker = pool.borrow();
+        pool.release(worker);
+
+        assertEquals(0, pool.getNumIdle());
+        assertEquals(0, pool.getNumActive());
+        assertEquals(Collections.singletonList(worker), destroyed);
+    }
+
+    @Test
+    void unknownAndRepeatedReleasesAreRejected() {
+        BeanPool pool = new BeanPool("worker", 0, 1, 0, 0, Worker::new, destroyed::add);
+        Object worker = pool.borrow();
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new Worker()));
+        pool.release(worker);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(worker));
+
+        // 重复归还没有增加可借出的个数，maxTotal仍然有效
+        assertEquals(0, pool.getNumActive());
+        assertSame(worker, pool.borrow());
+        assertThrows(BeanPoolExhaustedException.class, pool::borrow);
+        assertTrue(destroyed.isEmpty());
+    }
+
+    @Test
+    void containerPoolsUseDestructionCallbacks() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("closeable", CloseableWorker.class, BeanPool.SCOPE, false, resourceModel);
+        CloseableWorker worker = (CloseableWorker) GetBeanUtils.getBean("closeable", resourceModel);
+        worker.failReset = true;
+
+        GetBeanUtils.getBeanPool("closeable", resourceModel).release(worker);
+        assertTrue(worker.closed);
+    }
+
+    public static class Worker {
+    }
+
+    public static class FailingReset implements PooledBean {
+
+        @Override
+        public void reset() {
+            throw new IllegalStateException("reset");
+        }
+    }
+
+    public static class CloseableWorker implements PooledBean, AutoCloseable {
+
+        boolean failReset;
+
+        boolean closed;
+
+        @Override
+        public void reset() {
+            if (failReset) {
+                throw new IllegalStateException("reset");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
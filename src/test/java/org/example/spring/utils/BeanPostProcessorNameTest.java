@@ -0,0 +1,67 @@
+package org.example.spring.utils;
+
+import org.example.spring.BeanPostProcessor;
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.model.ResourceModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * -10/18-23:56
+ * -BeanPostProcessor收到的是注册的bean名称，而不是根据类名生成的名称
+ */
+class BeanPostProcessorNameTest {
+
+    @Test
+    void processorsReceiveRegisteredBeanName() {
+        ResourceModel resourceModel = new ResourceModel();
+        NameRecorder recorder = new NameRecorder();
+        resourceModel.addBeanPostProcessor(recorder);
+        ScanBeanUtils.registerComponent("customName", Plain.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerBeanMethods(NamingConfig.class, resourceModel);
+
+        GetBeanUtils.getBean("customName", resourceModel);
+        GetBeanUtils.getBean("renamedBean", resourceModel);
+        GetBeanUtils.getBean("methodBean", resourceModel);
+
+        assertEquals(4, recorder.names.size(), String.valueOf(recorder.names));
+        assertEquals("customName", recorder.names.get(0));
+        // 创建@Bean之前先创建配置类
+        assertEquals("namingConfig", recorder.names.get(1));
+        assertEquals("renamedBean", recorder.names.get(2));
+        assertEquals("methodBean", recorder.names.get(3));
+    }
+
+    static class NameRecorder implements BeanPostProcessor<Object> {
+
+        final List<String> names = new ArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            names.add(beanName);
+            return bean;
+        }
+    }
+
+    public static class Plain {
+    }
+
+    @Configuration
+    public static class NamingConfig {
+
+        @Bean("renamedBean")
+        public Plain plain() {
+            return new Plain();
+        }
+
+        @Bean
+        public Plain methodBean() {
+            return new Plain();
+        }
+    }
+}
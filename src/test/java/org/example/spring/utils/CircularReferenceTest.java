@@ -0,0 +1,94 @@
+package org.example.spring.utils;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.exception.BeanCurrentlyInCreationException;
+import org.example.spring.model.ResourceModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/18-23:59
+ * -循环依赖：单例的字段注入通过提前暴露的引用解决，构造方法注入和原型bean的循环依赖立即报错并输出依赖路径
+ */
+class CircularReferenceTest {
+
+    @Test
+    void singletonFieldCycleIsResolved() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("fieldA", FieldA.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("fieldB", FieldB.class, "singleton", false, resourceModel);
+
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        FieldA a = (FieldA) GetBeanUtils.getBean("fieldA", resourceModel);
+        FieldB b = (FieldB) GetBeanUtils.getBean("fieldB", resourceModel);
+        assertSame(b, a.fieldB);
+        assertSame(a, b.fieldA);
+        assertTrue(resourceModel.earlySingletonObjects.isEmpty());
+        assertTrue(resourceModel.singletonFactories.isEmpty());
+    }
+
+    @Test
+    void constructorCycleFailsWithPath() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("c", ConstructorC.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("d", ConstructorD.class, "singleton", false, resourceModel);
+
+        BeanCurrentlyInCreationException e = assertThrows(BeanCurrentlyInCreationException.class,
+                () -> PreInstantiateUtils.preInstantiateSingletons(resourceModel, null));
+        assertTrue(e.getMessage().endsWith("c -> d -> c"), e.getMessage());
+    }
+
+    @Test
+    void prototypeCycleFailsWithPath() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("c", PrototypeC.class, "prototype", false, resourceModel);
+        ScanBeanUtils.registerComponent("d", PrototypeD.class, "prototype", false, resourceModel);
+
+        BeanCurrentlyInCreationException e = assertThrows(BeanCurrentlyInCreationException.class,
+                () -> GetBeanUtils.getBean("c", resourceModel));
+        assertTrue(e.getMessage().endsWith("c -> d -> c"), e.getMessage());
+        // 失败后当前线程的创建路径被清理，不影响之后的创建
+        e = assertThrows(BeanCurrentlyInCreationException.class, () -> GetBeanUtils.getBean("d", resourceModel));
+        assertTrue(e.getMessage().endsWith("d -> c -> d"), e.getMessage());
+    }
+
+    public static class FieldA {
+
+        @Autowired
+        FieldB fieldB;
+    }
+
+    public static class FieldB {
+
+        @Autowired
+        FieldA fieldA;
+    }
+
+    public static class ConstructorC {
+
+        public ConstructorC(ConstructorD d) {
+        }
+    }
+
+    public static class ConstructorD {
+
+        public ConstructorD(ConstructorC c) {
+        }
+    }
+
+    public static class PrototypeC {
+
+        @Autowired
+        PrototypeD d;
+    }
+
+    public static class PrototypeD {
+
+        @Autowired
+        PrototypeC c;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.spring.utils;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Qualifier;
+import org.example.spring.model.ResourceModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * -10/18-23:58
+ * -构造方法注入：构造方法的推断、参数按类型/@Qualifier注入，以及参数解析结果在注册新的bean定义后重新计算
+ */
+class ConstructorInjectionTest {
+
+    @Test
+    void singleConstructorParametersAreInjectedByType() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("dependency", Dependency.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("other", Other.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("single", SingleConstructor.class, "prototype", false, resourceModel);
+
+        SingleConstructor bean = (SingleConstructor) GetBeanUtils.getBean("single", resourceModel);
+        assertSame(GetBeanUtils.getBean("dependency", resourceModel), bean.dependency);
+        assertSame(GetBeanUtils.getBean("other", resourceModel), bean.other);
+    }
+
+    @Test
+    void autowiredConstructorIsPreferredOverNoArgConstructor() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("dependency", Dependency.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("autowired", AutowiredConstructor.class, "prototype", false, resourceModel);
+        ScanBeanUtils.registerComponent("noArg", NoArgPreferred.class, "prototype", false, resourceModel);
+
+        AutowiredConstructor autowired = (AutowiredConstructor) GetBeanUtils.getBean("autowired", resourceModel);
+        assertSame(GetBeanUtils.getBean("dependency", resourceModel), autowired.dependency);
+        // 没有@Autowired时多个构造方法中使用无参构造方法
+        NoArgPreferred noArg = (NoArgPreferred) GetBeanUtils.getBean("noArg", resourceModel);
+        assertNull(noArg.dependency);
+    }
+
+    @Test
+    void qualifiedParameterIsInjectedByName() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("first", Dependency.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("second", Dependency.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("qualified", QualifiedConstructor.class, "prototype", false, resourceModel);
+
+        QualifiedConstructor bean = (QualifiedConstructor) GetBeanUtils.getBean("qualified", resourceModel);
+        assertSame(GetBeanUtils.getBean("second", resourceModel), bean.dependency);
+    }
+
+    @Test
+    void resolvedArgumentsAreRecomputedAfterRegistration() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("sub", SubDependency.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("dependent", DependencyOnly.class, "prototype", false, resourceModel);
+
+        DependencyOnly first = (DependencyOnly) GetBeanUtils.getBean("dependent", resourceModel);
+        DependencyOnly second = (DependencyOnly) GetBeanUtils.getBean("dependent", resourceModel);
+        assertNotSame(first, second);
+        assertSame(first.dependency, second.dependency);
+        assertEquals(SubDependency.class, first.dependency.getClass());
+
+        // 多个候选时类型完全一致的bean优先，缓存的参数解析结果需要失效
+        ScanBeanUtils.registerComponent("exact", Dependency.class, "singleton", true, resourceModel);
+        DependencyOnly third = (DependencyOnly) GetBeanUtils.getBean("dependent", resourceModel);
+        assertSame(GetBeanUtils.getBean("exact", resourceModel), third.dependency);
+    }
+
+    public static class Dependency {
+    }
+
+    public static class SubDependency extends Dependency {
+    }
+
+    public static class Other {
+    }
+
+    public static class SingleConstructor {
+
+        final Dependency dependency;
+
+        final Other other;
+
+        public SingleConstructor(Dependency dependency, Other other) {
+            this.dependency = dependency;
+            this.other = other;
+        }
+    }
+
+    public static class AutowiredConstructor {
+
+        final Dependency dependency;
+
+        public AutowiredConstructor() {
+            this(null);
+        }
+
+        @Autowired
+        public AutowiredConstructor(Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+
+    public static class NoArgPreferred {
+
+        final Dependency dependency;
+
+        public NoArgPreferred() {
+            this(null);
+        }
+
+        public NoArgPreferred(Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+
+    public static class QualifiedConstructor {
+
+        final Dependency dependency;
+
+        public QualifiedConstructor(@Qualifier("second") Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+
+    public static class DependencyOnly {
+
+        final Dependency dependency;
+
+        public DependencyOnly(Dependency dependency) {
+            this.dependency = dependency;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.spring.utils;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.PreDestroy;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.shutdown.ShutdownReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:06
+ * -容器关闭时按依赖关系的逆序销毁单例，互相没有依赖的单例并行销毁，超时的销毁回调不阻塞其他bean
+ */
+class DestroyBeanUtilsTest {
+
+    static final List<String> DESTROYED = Collections.synchronizedList(new ArrayList<>());
+
+    static volatile CyclicBarrier barrier;
+
+    private ResourceModel resourceModel;
+
+    @BeforeEach
+    void setUp() {
+        DESTROYED.clear();
+        resourceModel = new ResourceModel();
+    }
+
+    @Test
+    void dependentsAreDestroyedFirst() {
+        // 注册顺序与依赖顺序相反，验证按依赖关系而不是注册顺序销毁
+        ScanBeanUtils.registerComponent("controller", Controller.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("service", Service.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("repository", Repository.class, "singleton", false, resourceModel);
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        ShutdownReport report = DestroyBeanUtils.destroyBeans(resourceModel, 0);
+
+        assertEquals(Arrays.asList("controller", "service", "repository"), DESTROYED);
+        assertEquals(3, report.getBeans().size());
+        assertTrue(report.getFailures().isEmpty());
+        assertTrue(resourceModel.singletonObjects.isEmpty());
+    }
+
+    @Test
+    void independentBeansAreDestroyedInParallel() {
+        // 两个bean的销毁回调互相等待，串行销毁时会超时失败
+        barrier = new CyclicBarrier(2);
+        ScanBeanUtils.registerComponent("first", Rendezvous.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("second", Rendezvous.class, "singleton", false, resourceModel);
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        ShutdownReport report = DestroyBeanUtils.destroyBeans(resourceModel, 0);
+
+        assertEquals(2, report.getBeans().size());
+        assertTrue(report.getFailures().isEmpty(), String.valueOf(report.getFailures()));
+    }
+
+    @Test
+    void timedOutCallbackDoesNotBlockOtherBeans() {
+        ScanBeanUtils.registerComponent("slow", Slow.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("repository", Repository.class, "singleton", false, resourceModel);
+        PreInstantiateUtils.preInstantiateSingletons(resourceModel, null);
+
+        long start = System.nanoTime();
+        ShutdownReport report = DestroyBeanUtils.destroyBeans(resourceModel, 100);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, ShutdownReport.Status> statuses = new HashMap<>();
+        for (ShutdownReport.BeanDestruction destruction : report.getBeans()) {
+            statuses.put(destruction.getBeanName(), destruction.getStatus());
+        }
+        assertEquals(ShutdownReport.Status.TIMED_OUT, statuses.get("slow"));
+        assertEquals(ShutdownReport.Status.DESTROYED, statuses.get("repository"));
+        assertTrue(elapsed < 5000, "elapsed " + elapsed + "ms");
+    }
+
+    public static class Repository {
+
+        @PreDestroy
+        public void destroy() {
+            DESTROYED.add("repository");
+        }
+    }
+
+    public static class Service {
+
+        @Autowired
+        Repository repository;
+
+        @PreDestroy
+        public void destroy() {
+            DESTROYED.add("service");
+        }
+    }
+
+    public static class Controller {
+
+        @Autowired
+        Service service;
+
+        @PreDestroy
+        public void destroy() {
+            DESTROYED.add("controller");
+        }
+    }
+
+    public static class Rendezvous {
+
+        @PreDestroy
+        public void destroy() throws Exception {
+            barrier.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class Slow {
+
+        @PreDestroy
+        public void destroy() throws InterruptedException {
+            Thread.sleep(10_000);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.spring.utils;
+
+import org.example.spring.TestCompiler;
+import org.example.spring.model.ResourceModel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:12
+ * -从jar中扫描组件：通过zip中央目录列出class文件并分段并行解析，结果与扫描目录相同，不加载非组件类
+ */
+class ScanBeanUtilsTest {
+
+    /**
+     * 超过每个并行任务解析的class文件个数，jar会被分成多段解析
+     */
+    private static final int COMPONENTS = 300;
+
+    @TempDir
+    static Path root;
+
+    private static Path jarFile;
+
+    @BeforeAll
+    static void compile() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("jarsample.AppConfig", String.join("\n",
+                "package jarsample;",
+                "@org.example.spring.annotation.ComponentScan(\"jarsample.app\")",
+                "public class AppConfig {}"));
+        for (int i = 0; i < COMPONENTS; i++) {
+            String name = String.format("Component%03d", i);
+            sources.put("jarsample.app." + name, String.join("\n",
+                    "package jarsample.app;",
+                    "@org.example.spring.annotation.Component",
+                    "public class " + name + " {}"));
+        }
+        sources.put("jarsample.app.NotAComponent", String.join("\n",
+                "package jarsample.app;",
+                "public class NotAComponent {}"));
+        sources.put("jarsample.app.nested.NestedService", String.join("\n",
+                "package jarsample.app.nested;",
+                "@org.example.spring.annotation.Component(\"nested\")",
+                "public class NestedService {}"));
+        sources.put("jarsample.app.nested.Beans", String.join("\n",
+                "package jarsample.app.nested;",
+                "@org.example.spring.annotation.Configuration",
+                "public class Beans {",
+                "    @org.example.spring.annotation.Bean public String greeting() { return \"hello\"; }",
+                "}"));
+        sources.put("jarsample.other.Outside", String.join("\n",
+                "package jarsample.other;",
+                "@org.example.spring.annotation.Component",
+                "public class Outside {}"));
+        TestCompiler.compile(root, sources, Collections.emptyList());
+        jarFile = root.resolve("sample.jar");
+        TestCompiler.jar(root.resolve("classes"), jarFile);
+    }
+
+    @Test
+    void scansComponentsFromJar() throws Exception {
+        RecordingClassLoader classLoader = new RecordingClassLoader(jarFile.toUri().toURL());
+        ResourceModel resourceModel = scan(classLoader);
+
+        List<String> beanNames = new ArrayList<>(resourceModel.beanDefinitionMap.keySet());
+        // 300个组件 + 子包中的组件、配置类和@Bean
+        assertEquals(COMPONENTS + 3, beanNames.size(), String.valueOf(beanNames));
+        assertEquals("component000", beanNames.get(0));
+        assertEquals("component299", beanNames.get(COMPONENTS - 1));
+        assertTrue(beanNames.contains("nested"));
+        assertTrue(beanNames.contains("greeting"));
+        assertFalse(beanNames.contains("outside"));
+        assertEquals("hello", GetBeanUtils.getBean("greeting", resourceModel));
+        // 候选组件通过解析class文件判断，非组件类不会被加载
+        assertFalse(classLoader.loaded.contains("jarsample.app.NotAComponent"));
+        assertFalse(classLoader.loaded.contains("jarsample.other.Outside"));
+    }
+
+    @Test
+    void jarAndDirectoryScanAgree() throws Exception {
+        ResourceModel fromJar = scan(new RecordingClassLoader(jarFile.toUri().toURL()));
+        ResourceModel fromDirectory = scan(new RecordingClassLoader(root.resolve("classes").toUri().toURL()));
+        assertEquals(new ArrayList<>(fromDirectory.beanDefinitionMap.keySet()),
+                new ArrayList<>(fromJar.beanDefinitionMap.keySet()));
+    }
+
+    private static ResourceModel scan(ClassLoader classLoader) throws ClassNotFoundException {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.scan(classLoader.loadClass("jarsample.AppConfig"), resourceModel);
+        return resourceModel;
+    }
+
+    /**
+     * 记录加载过的类
+     */
+    static class RecordingClassLoader extends URLClassLoader {
+
+        final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+        RecordingClassLoader(URL url) {
+            super(new URL[]{url}, ScanBeanUtilsTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loaded.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.spring.utils;
+
+import org.example.spring.annotation.Autowired;
+import org.example.spring.model.ResourceModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/18-23:50
+ * -多线程同时获取懒加载单例：每个单例只创建一次、互不相关的单例并行创建、跨线程的循环依赖报告为死锁
+ */
+class SingletonConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int BEANS = 64;
+
+    @Test
+    void lazySingletonsAreCreatedExactlyOnce() throws Exception {
+        ResourceModel resourceModel = new ResourceModel();
+        List<String> beanNames = new ArrayList<>();
+        for (int i = 0; i < BEANS; i++) {
+            String beanName = "counted" + i;
+            beanNames.add(beanName);
+            ScanBeanUtils.registerComponent(beanName, Counted.class, "singleton", true, resourceModel);
+        }
+        Counted.INSTANCES.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> order = new ArrayList<>(beanNames);
+                    Collections.shuffle(order, ThreadLocalRandom.current());
+                    start.await();
+                    Map<String, Object> beans = new HashMap<>();
+                    for (String beanName : order) {
+                        beans.put(beanName, GetBeanUtils.getBean(beanName, resourceModel));
+                    }
+                    return beans;
+                }));
+            }
+            start.countDown();
+
+            Map<String, Object> first = futures.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<Map<String, Object>> future : futures) {
+                Map<String, Object> beans = future.get(30, TimeUnit.SECONDS);
+                for (String beanName : beanNames) {
+                    assertSame(first.get(beanName), beans.get(beanName), beanName);
+                }
+            }
+            Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            distinct.addAll(first.values());
+            assertEquals(BEANS, distinct.size());
+            assertEquals(BEANS, Counted.INSTANCES.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unrelatedLazySingletonsAreCreatedConcurrently() throws Exception {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("slowA", Rendezvous.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("slowB", Rendezvous.class, "singleton", true, resourceModel);
+        // 两个单例的构造方法互相等待对方开始创建，串行创建时会超时
+        Rendezvous.barrier = new CyclicBarrier(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> a = executor.submit(() -> GetBeanUtils.getBean("slowA", resourceModel));
+            Future<Object> b = executor.submit(() -> GetBeanUtils.getBean("slowB", resourceModel));
+            assertNotNull(a.get(30, TimeUnit.SECONDS));
+            assertNotNull(b.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void crossThreadCycleIsReportedAsDeadlock() throws Exception {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("cycleA", CycleA.class, "singleton", true, resourceModel);
+        ScanBeanUtils.registerComponent("cycleB", CycleB.class, "singleton", true, resourceModel);
+        // 两个线程都实例化完成（持有各自单例的锁）之后才注入对方
+        CycleA.instantiated = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> a = executor.submit(() -> GetBeanUtils.getBean("cycleA", resourceModel));
+            Future<Object> b = executor.submit(() -> GetBeanUtils.getBean("cycleB", resourceModel));
+            Throwable failureA = failure(a);
+            Throwable failureB = failure(b);
+
+            // 恰好一个线程发现死锁，另一个线程完成两个单例的创建
+            assertTrue(failureA == null ^ failureB == null, "a: " + failureA + ", b: " + failureB);
+            Throwable deadlock = failureA != null ? failureA : failureB;
+            assertTrue(isDeadlock(deadlock), String.valueOf(deadlock));
+
+            CycleA cycleA = (CycleA) GetBeanUtils.getBean("cycleA", resourceModel);
+            CycleB cycleB = (CycleB) GetBeanUtils.getBean("cycleB", resourceModel);
+            assertSame(cycleB, cycleA.getCycleB());
+            assertSame(cycleA, cycleB.getCycleA());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Throwable failure(Future<Object> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static boolean isDeadlock(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalStateException && cause.getMessage().contains("循环依赖")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class Counted {
+
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public Counted() throws InterruptedException {
+            INSTANCES.incrementAndGet();
+            // 放大并发创建的时间窗口
+            Thread.sleep(1);
+        }
+    }
+
+    public static class Rendezvous {
+
+        static volatile CyclicBarrier barrier;
+
+        public Rendezvous() throws InterruptedException, BrokenBarrierException, TimeoutException {
+            barrier.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class CycleA {
+
+        static volatile CountDownLatch instantiated;
+
+        @Autowired
+        private CycleB cycleB;
+
+        public CycleA() throws InterruptedException {
+            instantiated.countDown();
+            instantiated.await(10, TimeUnit.SECONDS);
+        }
+
+        public CycleB getCycleB() {
+            return cycleB;
+        }
+    }
+
+    public static class CycleB {
+
+        @Autowired
+        private CycleA cycleA;
+
+        public CycleB() throws InterruptedException {
+            CycleA.instantiated.countDown();
+            CycleA.instantiated.await(10, TimeUnit.SECONDS);
+        }
+
+        public CycleA getCycleA() {
+            return cycleA;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.spring.utils;
+
+import org.example.spring.BeanDefinition;
+import org.example.spring.BeanPostProcessor;
+import org.example.spring.InjectionMetadata;
+import org.example.spring.annotation.Autowired;
+import org.example.spring.annotation.Bean;
+import org.example.spring.annotation.Configuration;
+import org.example.spring.annotation.Qualifier;
+import org.example.spring.model.ResourceModel;
+import org.example.spring.snapshot.BeanDefinitionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * -10/19-00:05
+ * -bean定义快照：恢复bean定义的同时恢复注入点和BeanPostProcessor处理链，指纹不一致时整个快照无效
+ */
+class SnapshotUtilsTest {
+
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresInjectionPointsAndPostProcessorChains() throws IOException {
+        Path file = directory.resolve("beans.snapshot");
+        SnapshotUtils.saveSnapshot(file, FINGERPRINT, scannedModel());
+
+        ResourceModel resourceModel = new ResourceModel();
+        assertTrue(SnapshotUtils.loadSnapshot(file, FINGERPRINT, getClass().getClassLoader(), resourceModel));
+
+        // 创建bean之前注入点和处理链已经从快照恢复，而不是按类重新解析
+        BeanDefinition serviceDefinition = resourceModel.getBeanDefinition("service");
+        InjectionMetadata metadata = serviceDefinition.getInjectionMetadata();
+        assertNotNull(metadata);
+        assertNotSame(InjectionMetadata.forClass(Service.class), metadata);
+        assertEquals(Repository.class, metadata.getConstructorParameters()[0].getType());
+        InjectionMetadata.InjectionPoint[] points = metadata.getInjectionPoints();
+        assertEquals(2, points.length);
+        assertEquals("primaryRepository", points[0].getName());
+        assertTrue(points[0].isQualified());
+        assertEquals(Handler.class, points[1].getElementType());
+        assertNotNull(serviceDefinition.getPostProcessorChain());
+        assertNotNull(resourceModel.getBeanDefinition("client").getFactoryMethodParameters());
+
+        Service service = (Service) GetBeanUtils.getBean("service", resourceModel);
+        assertSame(GetBeanUtils.getBean("repository", resourceModel), service.repository);
+        assertSame(GetBeanUtils.getBean("primaryRepository", resourceModel), service.primary);
+        assertEquals(2, service.handlers.size());
+        assertTrue(service.processed);
+        Client client = (Client) GetBeanUtils.getBean("client", resourceModel);
+        assertSame(service, client.service);
+        // 处理链只包含处理Service的处理器
+        assertFalse(((Repository) GetBeanUtils.getBean("repository", resourceModel)).processed);
+    }
+
+    @Test
+    void changedProcessorsOnlySkipChains() throws IOException {
+        Path file = directory.resolve("beans.snapshot");
+        SnapshotUtils.saveSnapshot(file, FINGERPRINT, scannedModel());
+        BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.read(file, FINGERPRINT);
+        List<String> processorTypes = Collections.singletonList(Marker.class.getName() + "Removed");
+        new BeanDefinitionSnapshot(FINGERPRINT, processorTypes, snapshot.getEntries()).write(file);
+
+        ResourceModel resourceModel = new ResourceModel();
+        assertTrue(SnapshotUtils.loadSnapshot(file, FINGERPRINT, getClass().getClassLoader(), resourceModel));
+        BeanDefinition serviceDefinition = resourceModel.getBeanDefinition("service");
+        assertNotNull(serviceDefinition.getInjectionMetadata());
+        assertNull(serviceDefinition.getPostProcessorChain());
+        // 处理链在第一次创建bean时重新计算
+        assertTrue(((Service) GetBeanUtils.getBean("service", resourceModel)).processed);
+    }
+
+    @Test
+    void fingerprintMismatchRegistersNothing() {
+        Path file = directory.resolve("beans.snapshot");
+        SnapshotUtils.saveSnapshot(file, FINGERPRINT, scannedModel());
+
+        ResourceModel resourceModel = new ResourceModel();
+        assertFalse(SnapshotUtils.loadSnapshot(file, new byte[]{1, 2, 4}, getClass().getClassLoader(), resourceModel));
+        assertTrue(resourceModel.beanDefinitionMap.isEmpty());
+        assertTrue(resourceModel.getBeanPostProcessors().isEmpty());
+    }
+
+    private static ResourceModel scannedModel() {
+        ResourceModel resourceModel = new ResourceModel();
+        ScanBeanUtils.registerComponent("marker", Marker.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("repository", Repository.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("primaryRepository", Repository.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("firstHandler", FirstHandler.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("secondHandler", SecondHandler.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerComponent("service", Service.class, "singleton", false, resourceModel);
+        ScanBeanUtils.registerBeanMethods(ClientConfig.class, resourceModel);
+        return resourceModel;
+    }
+
+    public static class Repository {
+
+        boolean processed;
+    }
+
+    public interface Handler {
+    }
+
+    public static class FirstHandler implements Handler {
+    }
+
+    public static class SecondHandler implements Handler {
+    }
+
+    public static class Service {
+
+        final Repository repository;
+
+        @Autowired
+        @Qualifier("primaryRepository")
+        Repository primary;
+
+        @Autowired
+        List<Handler> handlers;
+
+        boolean processed;
+
+        public Service(@Qualifier("repository") Repository repository) {
+            this.repository = repository;
+        }
+    }
+
+    public static class Client {
+
+        final Service service;
+
+        Client(Service service) {
+            this.service = service;
+        }
+    }
+
+    @Configuration
+    public static class ClientConfig {
+
+        @Bean
+        public Client client(Service service) {
+            return new Client(service);
+        }
+    }
+
+    public static class Marker implements BeanPostProcessor<Service> {
+
+        @Override
+        public Object postProcessAfterInitialization(Service bean, String beanName) {
+            bean.processed = true;
+            return bean;
+        }
+    }
+}